@@ -1,47 +1,78 @@
 package edu.vandy.simpleblockingboundedqueue.model;
 
-import java.util.LinkedList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 
 /*
- * Defines an implementation of the SimpleBlockingQueue interface that works
- * properly when accessed via multiple threads since it's synchronized
- * properly.
+ * Defines an implementation of the SimpleBlockingQueue interface that
+ * uses a pair of Semaphores to coordinate producers and consumers
+ * around a fixed-size ring buffer.  The Semaphores count the available
+ * items and spaces, so producers and consumers only need mutual
+ * exclusion among themselves.  Inserts are therefore protected by a
+ * "put" lock and extracts by a separate "take" lock, which allows a
+ * producer and a consumer to access the ring concurrently.
  */
 public class SemaphoresBlockingBoundedQueue<E>
-      implements BoundedQueue<E> {
+      implements SimpleBlockingQueue<E> {
     /**
      * The queue consists of an array of E's
      */
     private final E[] mItems;
 
     /**
-     *
+     * Counts the number of items that consumers can take.
      */
     private final Semaphore mAvailableItems;
 
     /**
-     *
+     * Counts the number of empty slots that producers can fill.
      */
     private final Semaphore mAvailableSpaces;
 
     /**
-     *
+     * Serializes producers while they update mPutPosition.
+     */
+    private final ReentrantLock mPutLock;
+
+    /**
+     * Serializes consumers while they update mTakePosition.
+     */
+    private final ReentrantLock mTakeLock;
+
+    /**
+     * Index of the next slot to insert into.  Only accessed while
+     * holding mPutLock.
      */
     private int mPutPosition;
 
     /**
-     *
+     * Index of the next slot to extract from.  Only accessed while
+     * holding mTakeLock.
      */
     private int mTakePosition;
 
     /**
-     * Create a queue with the given capacity.
+     * Create a queue with the given capacity that doesn't guarantee
+     * fairness.
      */
     public SemaphoresBlockingBoundedQueue(int capacity) {
-        if (capacity <= 0) 
+        this(capacity, false);
+    }
+
+    /**
+     * Create a queue with the given capacity.  If @a fair is true
+     * then blocked producers and consumers are granted access in FIFO
+     * order, which avoids starvation at the cost of throughput.
+     */
+    @SuppressWarnings("unchecked")
+    public SemaphoresBlockingBoundedQueue(int capacity,
+                                          boolean fair) {
+        if (capacity <= 0)
             throw new IllegalArgumentException();
-        mAvailableItems = new Semaphore(0);
-        mAvailableSpaces = new Semaphore(capacity);
+        mAvailableItems = new Semaphore(0, fair);
+        mAvailableSpaces = new Semaphore(capacity, fair);
+        mPutLock = new ReentrantLock(fair);
+        mTakeLock = new ReentrantLock(fair);
         mItems = (E[]) new Object[capacity];
     }
 
@@ -55,10 +86,12 @@ public class SemaphoresBlockingBoundedQueue<E>
     @Override
     public void put(E e)
         throws InterruptedException {
+        if (e == null)
+            throw new NullPointerException();
         mAvailableSpaces.acquire();
         doInsert(e);
         mAvailableItems.release();
-    } 
+    }
 
     /**
      * Retrieves and removes the head of this queue, waiting if necessary
@@ -73,7 +106,42 @@ public class SemaphoresBlockingBoundedQueue<E>
         final E item = doExtract();
         mAvailableSpaces.release();
         return item;
-    } 
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, or returns {@code
+     * null} if this queue is empty.
+     *
+     * @return the head of this queue, or {@code null} if this queue is empty
+     */
+    @Override
+    public E poll() {
+        if (!mAvailableItems.tryAcquire())
+            return null;
+        final E item = doExtract();
+        mAvailableSpaces.release();
+        return item;
+    }
+
+    /**
+     * Inserts the specified element into this queue if it is possible to do
+     * so immediately without violating capacity restrictions, returning
+     * {@code true} upon success and {@code false} if no space is currently
+     * available.
+     *
+     * @return {@code true} if the element was added to this queue, else
+     *         {@code false}
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null)
+            throw new NullPointerException();
+        if (!mAvailableSpaces.tryAcquire())
+            return false;
+        doInsert(e);
+        mAvailableItems.release();
+        return true;
+    }
 
     /**
      * Returns true if the queue is empty, else false.
@@ -92,31 +160,42 @@ public class SemaphoresBlockingBoundedQueue<E>
     }
 
     /**
-     *
+     * Returns the number of elements in this queue.
      */
-    private synchronized void doInsert(E x) {
-        int i = mPutPosition;
-        items[i] = x;
-        mPutPosition = ++i == mItems.length ? 0 : i;
+    @Override
+    public int size() {
+        return mAvailableItems.availablePermits();
     }
 
     /**
-     *
+     * Insert @a x at the put position and advance it.  The caller
+     * must have acquired a permit from mAvailableSpaces.
      */
-    private synchronized E doExtract() {
-        int i = mTakePosition;
-        final E x = mItems[i];
-        mItems[i] = null;
-        mTakePosition = ++i == mItems.length ? 0 : i;
-        return x;
+    private void doInsert(E x) {
+        mPutLock.lock();
+        try {
+            int i = mPutPosition;
+            mItems[i] = x;
+            mPutPosition = ++i == mItems.length ? 0 : i;
+        } finally {
+            mPutLock.unlock();
+        }
     }
 
     /**
-     * Returns the number of elements in this queue.
+     * Extract the item at the take position and advance it.  The
+     * caller must have acquired a permit from mAvailableItems.
      */
-    @Override
-    public int size() {
-        // @@
-        return 0;
+    private E doExtract() {
+        mTakeLock.lock();
+        try {
+            int i = mTakePosition;
+            final E x = mItems[i];
+            mItems[i] = null;
+            mTakePosition = ++i == mItems.length ? 0 : i;
+            return x;
+        } finally {
+            mTakeLock.unlock();
+        }
     }
 }
@@ -4,7 +4,7 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import edu.vandy.simpleblockingboundedqueue.R;
-import edu.vandy.simpleblockingboundedqueue.model.SimpleBlockingBoundedQueue;
+import edu.vandy.simpleblockingboundedqueue.model.SemaphoresBlockingBoundedQueue;
 import edu.vandy.simpleblockingboundedqueue.view.MainActivity;
 
 /**
@@ -16,7 +16,7 @@ public class ConsumerTask
     /**
      * Constructor initializes the superclass.
      */
-    public ConsumerTask(SimpleBlockingBoundedQueue<Integer> blockingQueue,
+    public ConsumerTask(SemaphoresBlockingBoundedQueue<Integer> blockingQueue,
                         int maxIterations,
                         MainActivity activity) {
         super("consumer percentage = ",
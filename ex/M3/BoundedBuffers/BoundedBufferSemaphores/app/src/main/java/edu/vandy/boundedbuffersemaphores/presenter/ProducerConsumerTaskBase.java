@@ -5,7 +5,7 @@ import android.util.Log;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
-import edu.vandy.simpleblockingboundedqueue.model.SimpleBlockingBoundedQueue;
+import edu.vandy.simpleblockingboundedqueue.model.SemaphoresBlockingBoundedQueue;
 import edu.vandy.simpleblockingboundedqueue.view.MainActivity;
 
 /**
@@ -28,7 +28,7 @@ public abstract class ProducerConsumerTaskBase
     /**
      * This queue is shared with the producer.
      */
-    final SimpleBlockingBoundedQueue<Integer> mQueue;
+    final SemaphoresBlockingBoundedQueue<Integer> mQueue;
         
     /**
      * The MainActivity for this app.
@@ -62,7 +62,7 @@ public abstract class ProducerConsumerTaskBase
      */
     ProducerConsumerTaskBase(String message, 
                              int maxIterations,
-                             SimpleBlockingBoundedQueue<Integer> queue,
+                             SemaphoresBlockingBoundedQueue<Integer> queue,
                              MainActivity activity,
                              ProgressBar progressBar,
                              TextView progressCount) {
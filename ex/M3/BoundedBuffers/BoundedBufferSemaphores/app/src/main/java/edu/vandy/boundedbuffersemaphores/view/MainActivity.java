@@ -12,14 +12,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import edu.vandy.simpleblockingboundedqueue.R;
-import edu.vandy.simpleblockingboundedqueue.model.SimpleBlockingBoundedQueue;
+import edu.vandy.simpleblockingboundedqueue.model.SemaphoresBlockingBoundedQueue;
 import edu.vandy.simpleblockingboundedqueue.presenter.ConsumerTask;
 import edu.vandy.simpleblockingboundedqueue.presenter.ProducerConsumerTaskBase;
 import edu.vandy.simpleblockingboundedqueue.presenter.ProducerTask;
 import edu.vandy.simpleblockingboundedqueue.utils.UiUtils;
 
 /**
- * Main activity that shows how the SimpleBlockingBoundedQueue can be
+ * Main activity that shows how the SemaphoresBlockingBoundedQueue can be
  * used to produce and consumer integers via AsyncTasks.  The user can
  * cancel the AsyncTasks performing these computations at any point
  * and the AsyncTasks will also be cancelled when the activity is
@@ -118,8 +118,8 @@ public class MainActivity
         else {
             // Create a new blocking bounded queue that will be shared
             // between the ProducerTask and ConsumerTask.
-            SimpleBlockingBoundedQueue<Integer> simpleQueue =
-                new SimpleBlockingBoundedQueue<>(sQUEUE_SIZE);
+            SemaphoresBlockingBoundedQueue<Integer> simpleQueue =
+                new SemaphoresBlockingBoundedQueue<>(sQUEUE_SIZE);
 
             // Create the ProducerTask and ConsumerTask.
             mTasks.add(new ProducerTask(simpleQueue,
@@ -0,0 +1,54 @@
+package edu.vandy.simpleblockingboundedqueue;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.vandy.queuetesting.QueueBenchmark;
+import edu.vandy.simpleblockingboundedqueue.model.SemaphoresBlockingBoundedQueue;
+import edu.vandy.simpleblockingboundedqueue.model.SimpleBoundedBlockingQueue;
+
+/**
+ * Runs the QueueBenchmark headlessly for the SimpleBlockingQueue
+ * implementations in this app.  New implementations only need to be
+ * added to makeBenchmark().
+ */
+public class QueueBenchmarkTest {
+    /**
+     * Create a QueueBenchmark with default settings that can be
+     * overridden via system properties.
+     */
+    private static QueueBenchmark makeBenchmark() {
+        return new QueueBenchmark(10,   // capacity
+                                  2,    // producers
+                                  2,    // consumers
+                                  0,    // payload size
+                                  500,  // warmup msecs
+                                  1000) // measure msecs
+            .add("SimpleBoundedBlockingQueue",
+                 TestQueueAdapter.of(SimpleBoundedBlockingQueue::new))
+            .add("SemaphoresBlockingBoundedQueue",
+                 TestQueueAdapter.of(SemaphoresBlockingBoundedQueue::new))
+            .add("SemaphoresBlockingBoundedQueue (fair)",
+                 TestQueueAdapter.of(capacity ->
+                                     new SemaphoresBlockingBoundedQueue<>(capacity,
+                                                                          true)));
+    }
+
+    /**
+     * Main entry point that benchmarks the queues.
+     */
+    @Test
+    public void testQueueBenchmark() throws InterruptedException {
+        QueueBenchmark benchmark = makeBenchmark();
+
+        System.out.println(benchmark.getConfiguration());
+
+        for (QueueBenchmark.Result result : benchmark.runAll()) {
+            System.out.println(result);
+
+            // Every blocking queue should make progress.
+            assertTrue(result.getOpsPerSecond() > 0);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.vandy.simpleblockingboundedqueue;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.vandy.queuetesting.QueueStressHarness;
+import edu.vandy.simpleblockingboundedqueue.model.SemaphoresBlockingBoundedQueue;
+import edu.vandy.simpleblockingboundedqueue.model.SimpleBoundedBlockingQueue;
+
+/**
+ * Runs the QueueStressHarness against the SimpleBlockingQueue
+ * implementations in this app to check for lost, duplicated, or
+ * reordered elements, non-linearizable histories, and deadlocks.
+ */
+public class QueueStressTest {
+    /**
+     * Create a QueueStressHarness with CI-sized defaults that can be
+     * overridden via system properties.
+     */
+    private static QueueStressHarness makeHarness() {
+        return new QueueStressHarness(4,      // capacity
+                                      4,      // producers and consumers
+                                      20000,  // elements per producer
+                                      500,    // linearizability rounds
+                                      10000); // timeout msecs
+    }
+
+    /**
+     * Stress test the SimpleBoundedBlockingQueue.
+     */
+    @Test
+    public void testSimpleBoundedBlockingQueue() throws InterruptedException {
+        QueueStressHarness.Report report =
+            makeHarness().run("SimpleBoundedBlockingQueue",
+                              TestQueueAdapter.of(SimpleBoundedBlockingQueue::new),
+                              true);
+        System.out.println(report);
+        assertTrue(report.toString(), report.isOk());
+    }
+
+    /**
+     * Stress test the SemaphoresBlockingBoundedQueue in non-fair and
+     * fair modes.
+     */
+    @Test
+    public void testSemaphoresBlockingBoundedQueue() throws InterruptedException {
+        QueueStressHarness.Report report =
+            makeHarness().run("SemaphoresBlockingBoundedQueue",
+                              TestQueueAdapter.of(SemaphoresBlockingBoundedQueue::new),
+                              true);
+        System.out.println(report);
+        assertTrue(report.toString(), report.isOk());
+
+        QueueStressHarness.Report fairReport =
+            makeHarness().run("SemaphoresBlockingBoundedQueue (fair)",
+                              TestQueueAdapter.of(capacity ->
+                                                  new SemaphoresBlockingBoundedQueue<>(capacity,
+                                                                                       true)),
+                              true);
+        System.out.println(fairReport);
+        assertTrue(fairReport.toString(), fairReport.isOk());
+    }
+}
@@ -0,0 +1,108 @@
+package edu.vandy.simpleblockingboundedqueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.vandy.queuetesting.ProducerConsumerSweep;
+import edu.vandy.simpleblockingboundedqueue.model.SemaphoresBlockingBoundedQueue;
+import edu.vandy.simpleblockingboundedqueue.model.SimpleBoundedBlockingQueue;
+
+/**
+ * Test program for the SemaphoresBlockingBoundedQueue that also
+ * compares its performance (in both fair and non-fair modes) with the
+ * monitor-based SimpleBoundedBlockingQueue.
+ */
+public class SemaphoresBlockingBoundedQueueTest {
+    /**
+     * Number of integers each producer passes through the queue.
+     */
+    private final static int sITEMS_PER_PRODUCER = 100000;
+
+    /**
+     * Maximum size of the queue.
+     */
+    private final static int sQUEUE_SIZE = 10;
+
+    /**
+     * Maximum number of producers and consumers in the sweep.
+     */
+    private final static int sMAX_THREADS = 4;
+
+    /**
+     * Make sure the non-blocking methods respect the capacity and
+     * that elements come out in FIFO order.
+     */
+    @Test
+    public void testOfferPollSize() {
+        SemaphoresBlockingBoundedQueue<Integer> queue =
+            new SemaphoresBlockingBoundedQueue<>(sQUEUE_SIZE);
+
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        for (int i = 0; i < sQUEUE_SIZE; i++)
+            assertTrue(queue.offer(i));
+
+        assertTrue(queue.isFull());
+        assertFalse(queue.offer(sQUEUE_SIZE));
+        assertEquals(sQUEUE_SIZE, queue.size());
+
+        for (int i = 0; i < sQUEUE_SIZE; i++)
+            assertEquals(i, queue.poll().intValue());
+
+        assertEquals(0, queue.size());
+    }
+
+    /**
+     * Make sure elements come out in the order they went in when
+     * there's a single producer and a single consumer.
+     */
+    @Test
+    public void testSemaphoresBlockingBoundedQueueOrdering()
+        throws InterruptedException {
+        final SemaphoresBlockingBoundedQueue<Integer> queue =
+            new SemaphoresBlockingBoundedQueue<>(sQUEUE_SIZE);
+
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < sITEMS_PER_PRODUCER; i++)
+                    queue.put(i);
+            } catch (InterruptedException e) {
+                System.out.println("InterruptedException caught");
+            }
+        });
+        producer.start();
+
+        for (int i = 0; i < sITEMS_PER_PRODUCER; i++)
+            assertEquals(i, queue.take().intValue());
+
+        producer.join();
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Sweep 1..N producers and consumers over the monitor-based queue
+     * and the semaphore-based queue (non-fair and fair) and print the
+     * run time for each combination.
+     */
+    @Test
+    public void testProducerConsumerSweep()
+        throws InterruptedException {
+        new ProducerConsumerSweep(sITEMS_PER_PRODUCER,
+                                  sQUEUE_SIZE,
+                                  sMAX_THREADS)
+            .add("SimpleBoundedBlockingQueue",
+                 TestQueueAdapter.of(SimpleBoundedBlockingQueue::new))
+            .add("SemaphoresBlockingBoundedQueue",
+                 TestQueueAdapter.of(SemaphoresBlockingBoundedQueue::new))
+            .add("SemaphoresBlockingBoundedQueue (fair)",
+                 TestQueueAdapter.of(capacity ->
+                                     new SemaphoresBlockingBoundedQueue<>(capacity,
+                                                                          true)))
+            .run();
+    }
+}
@@ -0,0 +1,171 @@
+package edu.vandy.simpleblockingboundedqueue.model;
+
+import java.util.LinkedList;
+
+/*
+ * Defines an implementation of the SimpleBlockingQueue interface that works
+ * properly when accessed via multiple threads since it's synchronized
+ * properly.  This copy of the SimpleBoundedBlockingQueue app's queue is
+ * only used as a baseline by this app's tests, so it isn't part of the
+ * app itself.
+ */
+public class SimpleBoundedBlockingQueue<E>
+      implements SimpleBlockingQueue<E> {
+    /**
+     * The queue consists of a LinkedList of E's.
+     */
+    final private LinkedList<E> mList;
+
+    /**
+     * The maximum capacity of the queue or Integer.MAX_VALUE if none.
+     */
+    private final int mCapacity;
+
+    /**
+     * Create a SimpleBlocking queue with a capacity of
+     * Integer.MAX_VALUE.
+     */
+    public SimpleBoundedBlockingQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a SimpleBlocking queue with the given capacity.
+     */
+    public SimpleBoundedBlockingQueue(int capacity) {
+        if (capacity <= 0) 
+            throw new IllegalArgumentException();
+        mCapacity = capacity;
+        mList = new LinkedList<>();
+    }
+
+    /**
+     * Inserts the specified element into this queue, waiting if
+     * necessary for space to become available.
+     *
+     * @param e the element to add
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public void put(E e)
+        throws InterruptedException {
+        synchronized(this) {
+            if (e == null)
+                throw new NullPointerException();
+
+            // Wait until the queue is not full.
+            while (isFull()) 
+                wait();
+
+            // Add e to the end of the LinkedList.
+            mList.add(e);
+            
+            // Notify that the queue may have changed state, e.g., "no
+            // longer empty".
+            notifyAll();
+        }
+    } 
+
+    /**
+     * Retrieves and removes the head of this queue, waiting if necessary
+     * until an element becomes available.
+     *
+     * @return the head of this queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public E take() throws InterruptedException {
+        synchronized(this) {
+            // Wait until the queue is not empty.
+            while (isEmpty())
+                wait();
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer full".
+            notifyAll();
+
+            // Remove/return the first item on the queue.
+            return mList.poll();
+        }
+    } 
+
+    /**
+     * Retrieves and removes the head of this queue, or returns {@code
+     * null} if this queue is empty.
+     *
+     * @return the head of this queue, or {@code null} if this queue is empty
+     */
+    @Override
+    public E poll() {
+        synchronized(this) {
+            if (isEmpty())
+                return null;
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer full".
+            notifyAll();
+
+            // Remove/return the first item on the queue.
+            return mList.poll();
+        }
+    }
+
+    /**
+     * Inserts the specified element into this queue if it is possible to do
+     * so immediately without violating capacity restrictions, returning
+     * {@code true} upon success and {@code false} if no space is currently
+     * available.
+     *
+     * @return {@code true} if the element was added to this queue, else
+     *         {@code false}
+     */
+    @Override
+    public boolean offer(E e) {
+        synchronized(this) {
+            if (e == null)
+                throw new NullPointerException();
+
+            if (isFull())
+                return false;
+
+            // Add e to the end of the LinkedList.
+            mList.add(e);
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer empty".
+            notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Returns true if the queue is empty, else false.
+     */
+    @Override
+    public boolean isEmpty() {
+        synchronized(this) {
+            return mList.size() == 0;
+        }
+    }
+
+    /**
+     * Returns true if the queue is full, else false.  Since this
+     * isn't a public method it assumes the monitor lock is held.
+     */
+    @Override
+    public boolean isFull() {
+        synchronized(this) {
+            return mList.size() == mCapacity;
+        }
+    }
+
+    /**
+     * Returns the number of elements in this queue.
+     */
+    @Override
+    public int size() {
+        synchronized(this) {
+            return mList.size();
+        }
+    }
+}
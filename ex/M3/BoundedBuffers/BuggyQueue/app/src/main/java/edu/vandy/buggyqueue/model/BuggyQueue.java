@@ -13,7 +13,7 @@ import java.util.concurrent.TimeUnit;
  * threads since it's not synchronized properly.
  */
 public class BuggyQueue<E> 
-      implements BoundedQueue<E> {
+      implements SimpleBlockingQueue<E> {
     /**
      * The queue consists of a LinkedList of E's.
      */
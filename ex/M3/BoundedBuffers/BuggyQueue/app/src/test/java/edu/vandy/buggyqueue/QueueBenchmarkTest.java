@@ -0,0 +1,46 @@
+package edu.vandy.buggyqueue;
+
+import org.junit.Test;
+
+import edu.vandy.buggyqueue.model.BuggyQueue;
+import edu.vandy.queuetesting.QueueBenchmark;
+
+/**
+ * Runs the QueueBenchmark headlessly for the BuggyQueue, which is
+ * accessed via "busy waiting" calls to offer() and poll().  Since the
+ * BuggyQueue isn't synchronized its results are only a baseline for
+ * the cost of the other implementations' synchronization, and its
+ * threads may fail with exceptions due to race conditions.  New
+ * implementations only need to be added to makeBenchmark().
+ */
+public class QueueBenchmarkTest {
+    /**
+     * Create a QueueBenchmark with default settings that can be
+     * overridden via system properties.
+     */
+    private static QueueBenchmark makeBenchmark() {
+        return new QueueBenchmark(10,   // capacity
+                                  1,    // producers
+                                  1,    // consumers
+                                  0,    // payload size
+                                  500,  // warmup msecs
+                                  1000) // measure msecs
+            .addNonBlocking("BuggyQueue",
+                            TestQueueAdapter.of(BuggyQueue::new));
+    }
+
+    /**
+     * Main entry point that benchmarks the queues.
+     */
+    @Test
+    public void testQueueBenchmark() throws InterruptedException {
+        QueueBenchmark benchmark = makeBenchmark();
+
+        System.out.println(benchmark.getConfiguration());
+
+        // Just print the results since the BuggyQueue may lose or
+        // corrupt elements.
+        for (QueueBenchmark.Result result : benchmark.runAll())
+            System.out.println(result);
+    }
+}
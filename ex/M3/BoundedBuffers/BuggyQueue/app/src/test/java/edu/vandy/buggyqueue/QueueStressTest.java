@@ -0,0 +1,32 @@
+package edu.vandy.buggyqueue;
+
+import org.junit.Test;
+
+import edu.vandy.buggyqueue.model.BuggyQueue;
+import edu.vandy.queuetesting.QueueStressHarness;
+
+/**
+ * Runs the QueueStressHarness against the BuggyQueue, which is
+ * intentionally unsynchronized.  The violations it finds depend on
+ * how the threads happen to interleave, so they're printed rather
+ * than asserted.
+ */
+public class QueueStressTest {
+    /**
+     * Stress test the BuggyQueue via "busy waiting" calls to offer()
+     * and poll().
+     */
+    @Test
+    public void testBuggyQueue() throws InterruptedException {
+        QueueStressHarness.Report report =
+            new QueueStressHarness(4,      // capacity
+                                   4,      // producers and consumers
+                                   20000,  // elements per producer
+                                   500,    // linearizability rounds
+                                   10000)  // timeout msecs
+            .run("BuggyQueue",
+                 TestQueueAdapter.of(BuggyQueue::new),
+                 false);
+        System.out.println(report);
+    }
+}
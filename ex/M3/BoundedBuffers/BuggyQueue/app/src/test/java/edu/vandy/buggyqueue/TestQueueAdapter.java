@@ -0,0 +1,67 @@
+package edu.vandy.buggyqueue;
+
+import java.util.function.IntFunction;
+
+import edu.vandy.queuetesting.TestQueue;
+import edu.vandy.buggyqueue.model.SimpleBlockingQueue;
+
+/**
+ * Adapts this app's SimpleBlockingQueue to the TestQueue interface
+ * used by the harnesses in the shared test source set.
+ */
+class TestQueueAdapter<E>
+      implements TestQueue<E> {
+    /**
+     * The queue being adapted.
+     */
+    private final SimpleBlockingQueue<E> mQueue;
+
+    /**
+     * Constructor initializes the field.
+     */
+    TestQueueAdapter(SimpleBlockingQueue<E> queue) {
+        mQueue = queue;
+    }
+
+    /**
+     * Returns a factory that adapts the queues created by @a factory.
+     */
+    static <E> IntFunction<TestQueue<E>> of(IntFunction<SimpleBlockingQueue<E>> factory) {
+        return capacity -> new TestQueueAdapter<>(factory.apply(capacity));
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        mQueue.put(e);
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return mQueue.take();
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return mQueue.offer(e);
+    }
+
+    @Override
+    public E poll() {
+        return mQueue.poll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mQueue.isEmpty();
+    }
+
+    @Override
+    public boolean isFull() {
+        return mQueue.isFull();
+    }
+
+    @Override
+    public int size() {
+        return mQueue.size();
+    }
+}
@@ -16,7 +16,7 @@ public class BusySynchronizedQueue<E>
     /**
      * The queue consists of a LinkedList of E's.
      */
-    private List<E> mList = new LinkedList<>();
+    private LinkedList<E> mList = new LinkedList<>();
 
     /**
      * The maximum capacity of the queue or Integer.MAX_VALUE if none.
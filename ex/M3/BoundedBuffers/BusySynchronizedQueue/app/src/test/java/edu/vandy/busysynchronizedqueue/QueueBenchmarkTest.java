@@ -0,0 +1,47 @@
+package edu.vandy.busysynchronizedqueue;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.vandy.busysynchronizedqueue.model.BusySynchronizedQueue;
+import edu.vandy.queuetesting.QueueBenchmark;
+
+/**
+ * Runs the QueueBenchmark headlessly for the BusySynchronizedQueue,
+ * which is accessed via "busy waiting" calls to offer() and poll().
+ * New implementations only need to be added to makeBenchmark().
+ */
+public class QueueBenchmarkTest {
+    /**
+     * Create a QueueBenchmark with default settings that can be
+     * overridden via system properties.
+     */
+    private static QueueBenchmark makeBenchmark() {
+        return new QueueBenchmark(10,   // capacity
+                                  2,    // producers
+                                  2,    // consumers
+                                  0,    // payload size
+                                  500,  // warmup msecs
+                                  1000) // measure msecs
+            .addNonBlocking("BusySynchronizedQueue",
+                            TestQueueAdapter.of(BusySynchronizedQueue::new));
+    }
+
+    /**
+     * Main entry point that benchmarks the queues.
+     */
+    @Test
+    public void testQueueBenchmark() throws InterruptedException {
+        QueueBenchmark benchmark = makeBenchmark();
+
+        System.out.println(benchmark.getConfiguration());
+
+        for (QueueBenchmark.Result result : benchmark.runAll()) {
+            System.out.println(result);
+
+            // A properly synchronized queue should make progress.
+            assertTrue(result.getOpsPerSecond() > 0);
+        }
+    }
+}
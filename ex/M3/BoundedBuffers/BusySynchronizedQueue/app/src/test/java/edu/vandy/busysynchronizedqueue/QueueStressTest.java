@@ -0,0 +1,34 @@
+package edu.vandy.busysynchronizedqueue;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.vandy.busysynchronizedqueue.model.BusySynchronizedQueue;
+import edu.vandy.queuetesting.QueueStressHarness;
+
+/**
+ * Runs the QueueStressHarness against the BusySynchronizedQueue to
+ * check for lost, duplicated, or reordered elements, non-linearizable
+ * histories, and deadlocks.
+ */
+public class QueueStressTest {
+    /**
+     * Stress test the BusySynchronizedQueue via "busy waiting" calls
+     * to offer() and poll().
+     */
+    @Test
+    public void testBusySynchronizedQueue() throws InterruptedException {
+        QueueStressHarness.Report report =
+            new QueueStressHarness(4,      // capacity
+                                   4,      // producers and consumers
+                                   20000,  // elements per producer
+                                   500,    // linearizability rounds
+                                   10000)  // timeout msecs
+            .run("BusySynchronizedQueue",
+                 TestQueueAdapter.of(BusySynchronizedQueue::new),
+                 false);
+        System.out.println(report);
+        assertTrue(report.toString(), report.isOk());
+    }
+}
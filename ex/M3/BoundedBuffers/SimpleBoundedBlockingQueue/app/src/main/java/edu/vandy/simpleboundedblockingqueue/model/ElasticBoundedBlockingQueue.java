@@ -0,0 +1,468 @@
+package edu.vandy.simpleblockingboundedqueue.model;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Defines an implementation of the SimpleBlockingQueue interface
+ * whose capacity adapts to the workload.  The elements are kept in a
+ * ring buffer that starts at a minimum capacity, grows (up to a
+ * maximum capacity) when producers stay blocked on a full queue for
+ * too long, and shrinks (down to the minimum capacity) when the
+ * occupancy stays low for a whole sampling window.  The window is
+ * checked whenever an element is removed, a poll() finds the queue
+ * empty, an offer() finds it full, or a take() has waited on an empty
+ * queue until the window's end, so an idle queue shrinks even when no
+ * elements pass through it.  The memory used
+ * by the queue is therefore proportional to the real backlog rather
+ * than to a worst-case capacity chosen at construction time.  Like
+ * SimpleBoundedBlockingQueue it's synchronized via its monitor lock.
+ */
+public class ElasticBoundedBlockingQueue<E>
+      implements SimpleBlockingQueue<E> {
+    /**
+     * Default minimum capacity when only a maximum is given.
+     */
+    private static final int sDEFAULT_MIN_CAPACITY = 16;
+
+    /**
+     * Default time (in nanoseconds) a producer can be blocked on a
+     * full queue before the ring grows.
+     */
+    private static final long sDEFAULT_GROW_AFTER_NANOS =
+        TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Default length (in nanoseconds) of the window over which the
+     * occupancy is sampled before deciding whether to shrink.
+     */
+    private static final long sDEFAULT_SHRINK_WINDOW_NANOS =
+        TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The ring shrinks when the peak occupancy during a window is at
+     * most 1/sSHRINK_FACTOR of the current capacity.
+     */
+    private static final int sSHRINK_FACTOR = 4;
+
+    /**
+     * The ring buffer of E's, whose length is the current capacity.
+     */
+    private E[] mItems;
+
+    /**
+     * Index of the head of the queue.
+     */
+    private int mHead;
+
+    /**
+     * Number of elements in the queue.
+     */
+    private int mCount;
+
+    /**
+     * The capacity the ring never shrinks below.
+     */
+    private final int mMinCapacity;
+
+    /**
+     * The capacity the ring never grows beyond.
+     */
+    private final int mMaxCapacity;
+
+    /**
+     * Time (in nanoseconds) a producer can be blocked before the ring
+     * grows.
+     */
+    private final long mGrowAfterNanos;
+
+    /**
+     * Length (in nanoseconds) of the occupancy sampling window.
+     */
+    private final long mShrinkWindowNanos;
+
+    /**
+     * Time (in nanoseconds) the current sampling window started.
+     */
+    private long mWindowStart;
+
+    /**
+     * Highest occupancy seen during the current sampling window.
+     */
+    private int mWindowPeak;
+
+    /**
+     * Number of offer() calls rejected since the last resize or the
+     * start of the current sampling window, which is the non-blocking
+     * analog of producer block time.
+     */
+    private int mRejectedOffers;
+
+    /**
+     * Total time (in nanoseconds) producers have spent blocked.
+     */
+    private long mBlockedNanos;
+
+    /**
+     * Number of times the ring has grown.
+     */
+    private int mGrowCount;
+
+    /**
+     * Number of times the ring has shrunk.
+     */
+    private int mShrinkCount;
+
+    /**
+     * Create an elastic queue that can grow to @a maxCapacity.
+     */
+    public ElasticBoundedBlockingQueue(int maxCapacity) {
+        this(Math.min(sDEFAULT_MIN_CAPACITY, maxCapacity),
+             maxCapacity);
+    }
+
+    /**
+     * Create an elastic queue whose capacity ranges between @a
+     * minCapacity and @a maxCapacity.
+     */
+    public ElasticBoundedBlockingQueue(int minCapacity,
+                                       int maxCapacity) {
+        this(minCapacity,
+             maxCapacity,
+             sDEFAULT_GROW_AFTER_NANOS,
+             sDEFAULT_SHRINK_WINDOW_NANOS,
+             TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create an elastic queue whose capacity ranges between @a
+     * minCapacity and @a maxCapacity.  The ring grows when a producer
+     * is blocked for longer than @a growAfter and shrinks when the
+     * occupancy stays low for @a shrinkWindow, both in the given @a
+     * unit.
+     */
+    @SuppressWarnings("unchecked")
+    public ElasticBoundedBlockingQueue(int minCapacity,
+                                       int maxCapacity,
+                                       long growAfter,
+                                       long shrinkWindow,
+                                       TimeUnit unit) {
+        if (minCapacity <= 0
+            || maxCapacity < minCapacity
+            || growAfter < 0
+            || shrinkWindow <= 0)
+            throw new IllegalArgumentException();
+        mMinCapacity = minCapacity;
+        mMaxCapacity = maxCapacity;
+        mGrowAfterNanos = unit.toNanos(growAfter);
+        mShrinkWindowNanos = unit.toNanos(shrinkWindow);
+        mItems = (E[]) new Object[minCapacity];
+        mWindowStart = System.nanoTime();
+    }
+
+    /**
+     * Inserts the specified element into this queue, waiting if
+     * necessary for space to become available.  If the queue stays
+     * full for longer than the grow threshold the ring grows instead.
+     *
+     * @param e the element to add
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public void put(E e)
+        throws InterruptedException {
+        synchronized(this) {
+            if (e == null)
+                throw new NullPointerException();
+
+            if (mCount == mItems.length) {
+                long startTime = System.nanoTime();
+                try {
+                    // Wait until the queue is not full, growing the
+                    // ring if we've been blocked too long.
+                    while (mCount == mItems.length) {
+                        if (mItems.length == mMaxCapacity)
+                            wait();
+                        else {
+                            long blocked = System.nanoTime() - startTime;
+                            if (blocked >= mGrowAfterNanos)
+                                grow();
+                            else
+                                TimeUnit.NANOSECONDS
+                                    .timedWait(this,
+                                               mGrowAfterNanos - blocked);
+                        }
+                    }
+                } finally {
+                    mBlockedNanos += System.nanoTime() - startTime;
+                }
+            }
+
+            enqueue(e);
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer empty".
+            notifyAll();
+        }
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, waiting if necessary
+     * until an element becomes available.
+     *
+     * @return the head of this queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public E take() throws InterruptedException {
+        synchronized(this) {
+            // Wait until the queue is not empty.
+            while (mCount == 0)
+                awaitElement();
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer full".
+            notifyAll();
+
+            return dequeue();
+        }
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, or returns {@code
+     * null} if this queue is empty.
+     *
+     * @return the head of this queue, or {@code null} if this queue is empty
+     */
+    @Override
+    public E poll() {
+        synchronized(this) {
+            if (mCount == 0) {
+                // An empty queue may have ended a quiet window.
+                sampleWindow(System.nanoTime());
+                return null;
+            }
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer full".
+            notifyAll();
+
+            return dequeue();
+        }
+    }
+
+    /**
+     * Inserts the specified element into this queue if it is possible to do
+     * so immediately without violating capacity restrictions, returning
+     * {@code true} upon success and {@code false} if no space is currently
+     * available.  Once a full ring's worth of offers has been rejected
+     * within a sampling window the ring grows (if it's below its
+     * maximum capacity).
+     *
+     * @return {@code true} if the element was added to this queue, else
+     *         {@code false}
+     */
+    @Override
+    public boolean offer(E e) {
+        synchronized(this) {
+            if (e == null)
+                throw new NullPointerException();
+
+            if (mCount == mItems.length) {
+                // Start counting the rejections afresh if the window
+                // has ended.
+                sampleWindow(System.nanoTime());
+                if (mItems.length == mMaxCapacity
+                    || ++mRejectedOffers < mItems.length)
+                    return false;
+                grow();
+            }
+
+            enqueue(e);
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer empty".
+            notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Returns true if the queue is empty, else false.
+     */
+    @Override
+    public boolean isEmpty() {
+        synchronized(this) {
+            return mCount == 0;
+        }
+    }
+
+    /**
+     * Returns true if the queue is full at its current capacity, else
+     * false.
+     */
+    @Override
+    public boolean isFull() {
+        synchronized(this) {
+            return mCount == mItems.length;
+        }
+    }
+
+    /**
+     * Returns the number of elements in this queue.
+     */
+    @Override
+    public int size() {
+        synchronized(this) {
+            return mCount;
+        }
+    }
+
+    /**
+     * Returns the current capacity of the ring.
+     */
+    public int getCapacity() {
+        synchronized(this) {
+            return mItems.length;
+        }
+    }
+
+    /**
+     * Returns the minimum capacity.
+     */
+    public int getMinCapacity() {
+        return mMinCapacity;
+    }
+
+    /**
+     * Returns the maximum capacity.
+     */
+    public int getMaxCapacity() {
+        return mMaxCapacity;
+    }
+
+    /**
+     * Returns the total time (in nanoseconds) producers have spent
+     * blocked in put().
+     */
+    public long getBlockedNanos() {
+        synchronized(this) {
+            return mBlockedNanos;
+        }
+    }
+
+    /**
+     * Returns the number of times the ring has grown.
+     */
+    public int getGrowCount() {
+        synchronized(this) {
+            return mGrowCount;
+        }
+    }
+
+    /**
+     * Returns the number of times the ring has shrunk.
+     */
+    public int getShrinkCount() {
+        synchronized(this) {
+            return mShrinkCount;
+        }
+    }
+
+    /**
+     * Add @a e at the tail of the ring and update the occupancy
+     * peak.  Assumes the monitor lock is held and there's room.
+     */
+    private void enqueue(E e) {
+        mItems[(mHead + mCount) % mItems.length] = e;
+        if (++mCount > mWindowPeak)
+            mWindowPeak = mCount;
+    }
+
+    /**
+     * Remove and return the element at the head of the ring, shrinking
+     * the ring if the sampling window has ended with low occupancy.
+     * Assumes the monitor lock is held and the ring isn't empty.
+     */
+    private E dequeue() {
+        E e = mItems[mHead];
+        mItems[mHead] = null;
+        mHead = (mHead + 1) % mItems.length;
+        mCount--;
+
+        sampleWindow(System.nanoTime());
+        return e;
+    }
+
+    /**
+     * Wait for an element to be added to the empty ring.  While the
+     * ring is above its minimum capacity the wait ends with the
+     * current sampling window, so a queue whose consumers are all
+     * waiting still shrinks.  Assumes the monitor lock is held.
+     */
+    private void awaitElement() throws InterruptedException {
+        if (mItems.length == mMinCapacity)
+            wait();
+        else {
+            long remaining =
+                mWindowStart + mShrinkWindowNanos - System.nanoTime();
+            if (remaining > 0)
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            else
+                sampleWindow(System.nanoTime());
+        }
+    }
+
+    /**
+     * If the sampling window has ended by @a now then shrink the ring
+     * if its occupancy stayed low and start a new window.  Assumes the
+     * monitor lock is held.
+     */
+    private void sampleWindow(long now) {
+        if (now - mWindowStart < mShrinkWindowNanos)
+            return;
+
+        // Only shrink if the whole window stayed well below the
+        // current capacity, which gives hysteresis against growth.
+        if (mItems.length > mMinCapacity
+            && mWindowPeak <= mItems.length / sSHRINK_FACTOR)
+            shrink();
+
+        mWindowStart = now;
+        mWindowPeak = mCount;
+        mRejectedOffers = 0;
+    }
+
+    /**
+     * Double the capacity of the ring, up to the maximum capacity.
+     */
+    private void grow() {
+        resize((int) Math.min((long) mItems.length * 2,
+                              mMaxCapacity));
+        mGrowCount++;
+    }
+
+    /**
+     * Halve the capacity of the ring, down to the minimum capacity but
+     * never below twice the peak occupancy of the last window.
+     */
+    private void shrink() {
+        resize(Math.max(mMinCapacity,
+                        Math.max(mItems.length / 2,
+                                 mWindowPeak * 2)));
+        mShrinkCount++;
+    }
+
+    /**
+     * Copy the elements in FIFO order into a new ring of the given @a
+     * capacity.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        E[] items = (E[]) new Object[capacity];
+        for (int i = 0; i < mCount; i++)
+            items[i] = mItems[(mHead + i) % mItems.length];
+        mItems = items;
+        mHead = 0;
+        mRejectedOffers = 0;
+    }
+}
@@ -12,7 +12,7 @@ public class SimpleBoundedBlockingQueue<E>
     /**
      * The queue consists of a LinkedList of E's.
      */
-    final private List<E> mList;
+    final private LinkedList<E> mList;
 
     /**
      * The maximum capacity of the queue or Integer.MAX_VALUE if none.
@@ -87,6 +87,55 @@ public class SimpleBoundedBlockingQueue<E>
         }
     } 
 
+    /**
+     * Retrieves and removes the head of this queue, or returns {@code
+     * null} if this queue is empty.
+     *
+     * @return the head of this queue, or {@code null} if this queue is empty
+     */
+    @Override
+    public E poll() {
+        synchronized(this) {
+            if (isEmpty())
+                return null;
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer full".
+            notifyAll();
+
+            // Remove/return the first item on the queue.
+            return mList.poll();
+        }
+    }
+
+    /**
+     * Inserts the specified element into this queue if it is possible to do
+     * so immediately without violating capacity restrictions, returning
+     * {@code true} upon success and {@code false} if no space is currently
+     * available.
+     *
+     * @return {@code true} if the element was added to this queue, else
+     *         {@code false}
+     */
+    @Override
+    public boolean offer(E e) {
+        synchronized(this) {
+            if (e == null)
+                throw new NullPointerException();
+
+            if (isFull())
+                return false;
+
+            // Add e to the end of the LinkedList.
+            mList.add(e);
+
+            // Notify that the queue may have changed state, e.g., "no
+            // longer empty".
+            notifyAll();
+            return true;
+        }
+    }
+
     /**
      * Returns true if the queue is empty, else false.
      */
@@ -0,0 +1,311 @@
+package edu.vandy.simpleblockingboundedqueue.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Defines an implementation of the SimpleBlockingQueue interface that
+ * splits the monitor lock used by SimpleBoundedBlockingQueue into a
+ * "put" lock and a "take" lock (as in the Michael-Scott "two-lock"
+ * queue).  Producers and consumers therefore only contend with each
+ * other when the queue is empty or full, and each side uses its own
+ * Condition so signal() wakes up exactly one waiting thread rather
+ * than waking up all of them via notifyAll().
+ */
+public class TwoLockBoundedBlockingQueue<E>
+      implements SimpleBlockingQueue<E> {
+    /**
+     * Each element in the queue is stored in a singly-linked Node.
+     */
+    private static class Node<E> {
+        /**
+         * The element stored in this node (null for the dummy head).
+         */
+        E mItem;
+
+        /**
+         * The next node in the queue or null if this is the tail.
+         */
+        Node<E> mNext;
+
+        /**
+         * Constructor initializes the field.
+         */
+        Node(E item) {
+            mItem = item;
+        }
+    }
+
+    /**
+     * The maximum capacity of the queue or Integer.MAX_VALUE if none.
+     */
+    private final int mCapacity;
+
+    /**
+     * The current number of elements, which is shared by producers
+     * and consumers since they don't hold a common lock.
+     */
+    private final AtomicInteger mCount = new AtomicInteger(0);
+
+    /**
+     * Head of the linked list, which is always a dummy node whose
+     * mItem is null.  Only accessed while holding mTakeLock.
+     */
+    private Node<E> mHead;
+
+    /**
+     * Tail of the linked list.  Only accessed while holding mPutLock.
+     */
+    private Node<E> mTail;
+
+    /**
+     * Lock held by take() and poll().
+     */
+    private final ReentrantLock mTakeLock = new ReentrantLock();
+
+    /**
+     * Condition that consumers wait on until the queue is not empty.
+     */
+    private final Condition mNotEmpty = mTakeLock.newCondition();
+
+    /**
+     * Lock held by put() and offer().
+     */
+    private final ReentrantLock mPutLock = new ReentrantLock();
+
+    /**
+     * Condition that producers wait on until the queue is not full.
+     */
+    private final Condition mNotFull = mPutLock.newCondition();
+
+    /**
+     * Create a TwoLockBoundedBlockingQueue with a capacity of
+     * Integer.MAX_VALUE.
+     */
+    public TwoLockBoundedBlockingQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a TwoLockBoundedBlockingQueue with the given capacity.
+     */
+    public TwoLockBoundedBlockingQueue(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException();
+        mCapacity = capacity;
+        mHead = mTail = new Node<>(null);
+    }
+
+    /**
+     * Inserts the specified element into this queue, waiting if
+     * necessary for space to become available.
+     *
+     * @param e the element to add
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public void put(E e)
+        throws InterruptedException {
+        if (e == null)
+            throw new NullPointerException();
+
+        int c;
+        mPutLock.lockInterruptibly();
+        try {
+            // Wait until the queue is not full.
+            while (mCount.get() == mCapacity)
+                mNotFull.await();
+
+            enqueue(new Node<>(e));
+            c = mCount.getAndIncrement();
+
+            // Cascade the notification to another waiting producer
+            // if there's still room, so producers don't all depend
+            // on consumers to wake them up.
+            if (c + 1 < mCapacity)
+                mNotFull.signal();
+        } finally {
+            mPutLock.unlock();
+        }
+
+        // Only wake up a consumer if the queue was empty, since
+        // otherwise no consumer can be waiting.
+        if (c == 0)
+            signalNotEmpty();
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, waiting if necessary
+     * until an element becomes available.
+     *
+     * @return the head of this queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public E take() throws InterruptedException {
+        E x;
+        int c;
+        mTakeLock.lockInterruptibly();
+        try {
+            // Wait until the queue is not empty.
+            while (mCount.get() == 0)
+                mNotEmpty.await();
+
+            x = dequeue();
+            c = mCount.getAndDecrement();
+
+            // Cascade the notification to another waiting consumer
+            // if there are still elements left.
+            if (c > 1)
+                mNotEmpty.signal();
+        } finally {
+            mTakeLock.unlock();
+        }
+
+        // Only wake up a producer if the queue was full, since
+        // otherwise no producer can be waiting.
+        if (c == mCapacity)
+            signalNotFull();
+        return x;
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, or returns {@code
+     * null} if this queue is empty.
+     *
+     * @return the head of this queue, or {@code null} if this queue is empty
+     */
+    @Override
+    public E poll() {
+        // Avoid acquiring the lock if there's nothing to take.
+        if (mCount.get() == 0)
+            return null;
+
+        E x = null;
+        int c = -1;
+        mTakeLock.lock();
+        try {
+            if (mCount.get() > 0) {
+                x = dequeue();
+                c = mCount.getAndDecrement();
+                if (c > 1)
+                    mNotEmpty.signal();
+            }
+        } finally {
+            mTakeLock.unlock();
+        }
+
+        if (c == mCapacity)
+            signalNotFull();
+        return x;
+    }
+
+    /**
+     * Inserts the specified element into this queue if it is possible to do
+     * so immediately without violating capacity restrictions, returning
+     * {@code true} upon success and {@code false} if no space is currently
+     * available.
+     *
+     * @return {@code true} if the element was added to this queue, else
+     *         {@code false}
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null)
+            throw new NullPointerException();
+
+        // Avoid acquiring the lock if there's no room.
+        if (mCount.get() == mCapacity)
+            return false;
+
+        int c = -1;
+        mPutLock.lock();
+        try {
+            if (mCount.get() < mCapacity) {
+                enqueue(new Node<>(e));
+                c = mCount.getAndIncrement();
+                if (c + 1 < mCapacity)
+                    mNotFull.signal();
+            }
+        } finally {
+            mPutLock.unlock();
+        }
+
+        if (c == 0)
+            signalNotEmpty();
+        return c >= 0;
+    }
+
+    /**
+     * Returns true if the queue is empty, else false.
+     */
+    @Override
+    public boolean isEmpty() {
+        return mCount.get() == 0;
+    }
+
+    /**
+     * Returns true if the queue is full, else false.
+     */
+    @Override
+    public boolean isFull() {
+        return mCount.get() == mCapacity;
+    }
+
+    /**
+     * Returns the number of elements in this queue.
+     */
+    @Override
+    public int size() {
+        return mCount.get();
+    }
+
+    /**
+     * Links @a node at the end of the queue.  Assumes mPutLock is
+     * held.
+     */
+    private void enqueue(Node<E> node) {
+        mTail = mTail.mNext = node;
+    }
+
+    /**
+     * Removes a node from the head of the queue.  Assumes mTakeLock
+     * is held.
+     */
+    private E dequeue() {
+        // The first real node becomes the new dummy head.
+        Node<E> first = mHead.mNext;
+        mHead.mNext = null;
+        mHead = first;
+        E x = first.mItem;
+        first.mItem = null;
+        return x;
+    }
+
+    /**
+     * Wake up one waiting consumer.  Called from put()/offer(), which
+     * otherwise never acquire mTakeLock.
+     */
+    private void signalNotEmpty() {
+        mTakeLock.lock();
+        try {
+            mNotEmpty.signal();
+        } finally {
+            mTakeLock.unlock();
+        }
+    }
+
+    /**
+     * Wake up one waiting producer.  Called from take()/poll(), which
+     * otherwise never acquire mPutLock.
+     */
+    private void signalNotFull() {
+        mPutLock.lock();
+        try {
+            mNotFull.signal();
+        } finally {
+            mPutLock.unlock();
+        }
+    }
+}
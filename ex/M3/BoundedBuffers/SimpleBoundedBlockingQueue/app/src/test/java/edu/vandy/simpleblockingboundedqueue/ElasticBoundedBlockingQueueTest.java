@@ -0,0 +1,218 @@
+package edu.vandy.simpleblockingboundedqueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.vandy.simpleblockingboundedqueue.model.ElasticBoundedBlockingQueue;
+
+/**
+ * Test program for the ElasticBoundedBlockingQueue that checks the
+ * ring grows when producers are blocked, shrinks when the occupancy
+ * drops, and preserves FIFO order across resizes.
+ */
+public class ElasticBoundedBlockingQueueTest {
+    /**
+     * Minimum capacity of the queues.
+     */
+    private final static int sMIN_CAPACITY = 2;
+
+    /**
+     * Maximum capacity of the queues.
+     */
+    private final static int sMAX_CAPACITY = 64;
+
+    /**
+     * Length (in milliseconds) of the sampling windows in the tests
+     * that shrink the ring.
+     */
+    private final static long sWINDOW_MILLIS = 5;
+
+    /**
+     * A producer that's blocked longer than the grow threshold should
+     * make the ring grow, and the elements should come out in the
+     * order they went in.
+     */
+    @Test
+    public void testGrowPreservesOrder() throws InterruptedException {
+        ElasticBoundedBlockingQueue<Integer> queue =
+            new ElasticBoundedBlockingQueue<>(sMIN_CAPACITY,
+                                              sMAX_CAPACITY,
+                                              1,
+                                              100,
+                                              TimeUnit.MILLISECONDS);
+        assertEquals(sMIN_CAPACITY, queue.getCapacity());
+
+        // There's no consumer, so each time the ring is full the
+        // producer blocks for the grow threshold and then grows it.
+        queue.put(-1);
+        queue.take();
+        for (int i = 0; i < sMAX_CAPACITY; i++)
+            queue.put(i);
+
+        assertEquals(sMAX_CAPACITY, queue.getCapacity());
+        assertTrue(queue.isFull());
+        assertTrue(queue.getGrowCount() > 0);
+        assertTrue(queue.getBlockedNanos() > 0);
+
+        for (int i = 0; i < sMAX_CAPACITY; i++)
+            assertEquals(i, queue.take().intValue());
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Once the occupancy stays low for whole sampling windows the ring
+     * should shrink back to its minimum capacity.
+     */
+    @Test
+    public void testShrinkWhenIdle() throws InterruptedException {
+        ElasticBoundedBlockingQueue<Integer> queue =
+            new ElasticBoundedBlockingQueue<>(sMIN_CAPACITY,
+                                              sMAX_CAPACITY,
+                                              0,
+                                              sWINDOW_MILLIS,
+                                              TimeUnit.MILLISECONDS);
+        for (int i = 0; i < sMAX_CAPACITY; i++)
+            queue.put(i);
+        assertEquals(sMAX_CAPACITY, queue.getCapacity());
+
+        for (int i = 0; i < sMAX_CAPACITY; i++)
+            assertEquals(i, queue.take().intValue());
+
+        // Trickle one element at a time through the queue so each
+        // window ends with a low peak occupancy.
+        for (int i = 0;
+             i < 100 && queue.getCapacity() > sMIN_CAPACITY;
+             i++) {
+            Thread.sleep(2 * sWINDOW_MILLIS);
+            queue.put(i);
+            assertEquals(i, queue.take().intValue());
+        }
+
+        assertEquals(sMIN_CAPACITY, queue.getCapacity());
+        assertTrue(queue.getShrinkCount() > 0);
+    }
+
+    /**
+     * offer() should be rejected while the ring is full until a full
+     * ring's worth of offers has been rejected, after which the ring
+     * grows, but never beyond its maximum capacity.
+     */
+    @Test
+    public void testOfferGrowth() {
+        ElasticBoundedBlockingQueue<Integer> queue =
+            new ElasticBoundedBlockingQueue<>(sMIN_CAPACITY,
+                                              sMIN_CAPACITY * 2);
+
+        for (int i = 0; i < sMIN_CAPACITY; i++)
+            assertTrue(queue.offer(i));
+        assertTrue(queue.isFull());
+
+        assertFalse(queue.offer(sMIN_CAPACITY));
+        assertTrue(queue.offer(sMIN_CAPACITY));
+        assertEquals(sMIN_CAPACITY * 2, queue.getCapacity());
+
+        while (queue.offer(0))
+            continue;
+        for (int i = 0; i < sMIN_CAPACITY * 2; i++)
+            assertFalse(queue.offer(0));
+        assertEquals(sMIN_CAPACITY * 2, queue.getCapacity());
+        assertEquals(sMIN_CAPACITY * 2, queue.size());
+    }
+
+    /**
+     * Fill and drain a queue created with @a growAfter of zero so its
+     * ring grows to the maximum capacity.
+     */
+    private static ElasticBoundedBlockingQueue<Integer> makeGrownQueue()
+        throws InterruptedException {
+        ElasticBoundedBlockingQueue<Integer> queue =
+            new ElasticBoundedBlockingQueue<>(sMIN_CAPACITY,
+                                              sMAX_CAPACITY,
+                                              0,
+                                              sWINDOW_MILLIS,
+                                              TimeUnit.MILLISECONDS);
+        for (int i = 0; i < sMAX_CAPACITY; i++)
+            queue.put(i);
+        for (int i = 0; i < sMAX_CAPACITY; i++)
+            queue.take();
+        assertEquals(sMAX_CAPACITY, queue.getCapacity());
+        return queue;
+    }
+
+    /**
+     * The ring should shrink while consumers only poll() an empty
+     * queue, without any elements passing through it.
+     */
+    @Test
+    public void testShrinkWhilePolling() throws InterruptedException {
+        ElasticBoundedBlockingQueue<Integer> queue = makeGrownQueue();
+
+        for (int i = 0;
+             i < 100 && queue.getCapacity() > sMIN_CAPACITY;
+             i++) {
+            Thread.sleep(2 * sWINDOW_MILLIS);
+            assertEquals(null, queue.poll());
+        }
+
+        assertEquals(sMIN_CAPACITY, queue.getCapacity());
+    }
+
+    /**
+     * The ring should shrink while a consumer is blocked in take() on
+     * an empty queue.
+     */
+    @Test
+    public void testShrinkWhileTaking() throws InterruptedException {
+        ElasticBoundedBlockingQueue<Integer> queue = makeGrownQueue();
+
+        Thread consumer = new Thread(() -> {
+            try {
+                assertEquals(-1, queue.take().intValue());
+            } catch (InterruptedException e) {
+                System.out.println("InterruptedException caught");
+            }
+        });
+        consumer.start();
+
+        for (int i = 0;
+             i < 100 && queue.getCapacity() > sMIN_CAPACITY;
+             i++)
+            Thread.sleep(2 * sWINDOW_MILLIS);
+        assertEquals(sMIN_CAPACITY, queue.getCapacity());
+
+        queue.put(-1);
+        consumer.join();
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Rejected offers should only count towards growth within the
+     * sampling window they occurred in.
+     */
+    @Test
+    public void testRejectedOffersResetWithWindow()
+        throws InterruptedException {
+        ElasticBoundedBlockingQueue<Integer> queue =
+            new ElasticBoundedBlockingQueue<>(sMIN_CAPACITY,
+                                              sMIN_CAPACITY * 2,
+                                              0,
+                                              sWINDOW_MILLIS,
+                                              TimeUnit.MILLISECONDS);
+        for (int i = 0; i < sMIN_CAPACITY; i++)
+            assertTrue(queue.offer(i));
+
+        // Spread the rejected offers over separate windows so they
+        // never add up to a ring's worth.
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(2 * sWINDOW_MILLIS);
+            assertFalse(queue.offer(sMIN_CAPACITY));
+        }
+        assertEquals(sMIN_CAPACITY, queue.getCapacity());
+        assertEquals(0, queue.getGrowCount());
+    }
+}
@@ -0,0 +1,53 @@
+package edu.vandy.simpleblockingboundedqueue;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.vandy.queuetesting.QueueBenchmark;
+import edu.vandy.simpleblockingboundedqueue.model.ElasticBoundedBlockingQueue;
+import edu.vandy.simpleblockingboundedqueue.model.SimpleBoundedBlockingQueue;
+import edu.vandy.simpleblockingboundedqueue.model.TwoLockBoundedBlockingQueue;
+
+/**
+ * Runs the QueueBenchmark headlessly for the SimpleBlockingQueue
+ * implementations in this app.  New implementations only need to be
+ * added to makeBenchmark().
+ */
+public class QueueBenchmarkTest {
+    /**
+     * Create a QueueBenchmark with default settings that can be
+     * overridden via system properties.
+     */
+    private static QueueBenchmark makeBenchmark() {
+        return new QueueBenchmark(10,   // capacity
+                                  2,    // producers
+                                  2,    // consumers
+                                  0,    // payload size
+                                  500,  // warmup msecs
+                                  1000) // measure msecs
+            .add("SimpleBoundedBlockingQueue",
+                 TestQueueAdapter.of(SimpleBoundedBlockingQueue::new))
+            .add("TwoLockBoundedBlockingQueue",
+                 TestQueueAdapter.of(TwoLockBoundedBlockingQueue::new))
+            .add("ElasticBoundedBlockingQueue",
+                 TestQueueAdapter.of(capacity -> new ElasticBoundedBlockingQueue<>(1, capacity)));
+    }
+
+    /**
+     * Main entry point that benchmarks the queues.
+     */
+    @Test
+    public void testQueueBenchmark() throws InterruptedException {
+        QueueBenchmark benchmark = makeBenchmark();
+
+        System.out.println(benchmark.getConfiguration());
+
+        for (QueueBenchmark.Result result : benchmark.runAll()) {
+            System.out.println(result);
+
+            // Every blocking queue should make progress.
+            assertTrue(result.getOpsPerSecond() > 0);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package edu.vandy.simpleblockingboundedqueue;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.vandy.queuetesting.QueueStressHarness;
+import edu.vandy.simpleblockingboundedqueue.model.ElasticBoundedBlockingQueue;
+import edu.vandy.simpleblockingboundedqueue.model.SimpleBoundedBlockingQueue;
+import edu.vandy.simpleblockingboundedqueue.model.TwoLockBoundedBlockingQueue;
+
+/**
+ * Runs the QueueStressHarness against the SimpleBlockingQueue
+ * implementations in this app to check for lost, duplicated, or
+ * reordered elements, non-linearizable histories, and deadlocks.
+ */
+public class QueueStressTest {
+    /**
+     * Create a QueueStressHarness with CI-sized defaults that can be
+     * overridden via system properties.
+     */
+    private static QueueStressHarness makeHarness() {
+        return new QueueStressHarness(4,      // capacity
+                                      4,      // producers and consumers
+                                      20000,  // elements per producer
+                                      500,    // linearizability rounds
+                                      10000); // timeout msecs
+    }
+
+    /**
+     * Stress test the SimpleBoundedBlockingQueue.
+     */
+    @Test
+    public void testSimpleBoundedBlockingQueue() throws InterruptedException {
+        QueueStressHarness.Report report =
+            makeHarness().run("SimpleBoundedBlockingQueue",
+                              TestQueueAdapter.of(SimpleBoundedBlockingQueue::new),
+                              true);
+        System.out.println(report);
+        assertTrue(report.toString(), report.isOk());
+    }
+
+    /**
+     * Stress test the TwoLockBoundedBlockingQueue.
+     */
+    @Test
+    public void testTwoLockBoundedBlockingQueue() throws InterruptedException {
+        QueueStressHarness.Report report =
+            makeHarness().run("TwoLockBoundedBlockingQueue",
+                              TestQueueAdapter.of(TwoLockBoundedBlockingQueue::new),
+                              true);
+        System.out.println(report);
+        assertTrue(report.toString(), report.isOk());
+    }
+
+    /**
+     * Stress test the ElasticBoundedBlockingQueue.  The
+     * linearizability check models a fixed capacity, so it's run with
+     * the minimum and maximum capacities equal.  The transfer check is
+     * then repeated with a ring that starts at one element and grows
+     * and shrinks while the producers and consumers run.
+     */
+    @Test
+    public void testElasticBoundedBlockingQueue() throws InterruptedException {
+        QueueStressHarness.Report report =
+            makeHarness().run("ElasticBoundedBlockingQueue",
+                              TestQueueAdapter.of(capacity ->
+                                                  new ElasticBoundedBlockingQueue<>(capacity,
+                                                                                    capacity)),
+                              true);
+        System.out.println(report);
+        assertTrue(report.toString(), report.isOk());
+
+        QueueStressHarness.Report resizingReport =
+            new QueueStressHarness(64,     // capacity
+                                   4,      // producers and consumers
+                                   20000,  // elements per producer
+                                   0,      // linearizability rounds
+                                   10000)  // timeout msecs
+            .run("ElasticBoundedBlockingQueue (resizing)",
+                 TestQueueAdapter.of(capacity ->
+                                     new ElasticBoundedBlockingQueue<>(1,
+                                                                       capacity,
+                                                                       10,
+                                                                       1,
+                                                                       TimeUnit.MICROSECONDS)),
+                 true);
+        System.out.println(resizingReport);
+        assertTrue(resizingReport.toString(), resizingReport.isOk());
+    }
+}
@@ -0,0 +1,76 @@
+package edu.vandy.simpleblockingboundedqueue;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import edu.vandy.queuetesting.ProducerConsumerSweep;
+import edu.vandy.simpleblockingboundedqueue.model.SimpleBoundedBlockingQueue;
+import edu.vandy.simpleblockingboundedqueue.model.TwoLockBoundedBlockingQueue;
+
+/**
+ * Test program for the TwoLockBoundedBlockingQueue that also compares
+ * its performance with the SimpleBoundedBlockingQueue by sweeping
+ * 1..N producers and 1..N consumers.
+ */
+public class TwoLockBoundedBlockingQueueTest {
+    /**
+     * Number of integers each producer passes through the queue.
+     */
+    private final static int sITEMS_PER_PRODUCER = 100000;
+
+    /**
+     * Maximum size of the queue.
+     */
+    private final static int sQUEUE_SIZE = 10;
+
+    /**
+     * Maximum number of producers and consumers in the sweep.
+     */
+    private final static int sMAX_THREADS = 4;
+
+    /**
+     * Make sure elements come out in the order they went in when
+     * there's a single producer and a single consumer.
+     */
+    @Test
+    public void testTwoLockBoundedBlockingQueueOrdering()
+        throws InterruptedException {
+        final TwoLockBoundedBlockingQueue<Integer> queue =
+            new TwoLockBoundedBlockingQueue<>(sQUEUE_SIZE);
+
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < sITEMS_PER_PRODUCER; i++)
+                    queue.put(i);
+            } catch (InterruptedException e) {
+                System.out.println("InterruptedException caught");
+            }
+        });
+        producer.start();
+
+        for (int i = 0; i < sITEMS_PER_PRODUCER; i++)
+            assertEquals(i, queue.take().intValue());
+
+        producer.join();
+        assertEquals(0, queue.size());
+        assertEquals(null, queue.poll());
+    }
+
+    /**
+     * Sweep 1..N producers and consumers over both queue
+     * implementations and print the run time for each combination.
+     */
+    @Test
+    public void testProducerConsumerSweep()
+        throws InterruptedException {
+        new ProducerConsumerSweep(sITEMS_PER_PRODUCER,
+                                  sQUEUE_SIZE,
+                                  sMAX_THREADS)
+            .add("SimpleBoundedBlockingQueue",
+                 TestQueueAdapter.of(SimpleBoundedBlockingQueue::new))
+            .add("TwoLockBoundedBlockingQueue",
+                 TestQueueAdapter.of(TwoLockBoundedBlockingQueue::new))
+            .run();
+    }
+}
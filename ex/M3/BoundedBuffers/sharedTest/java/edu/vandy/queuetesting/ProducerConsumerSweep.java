@@ -0,0 +1,160 @@
+package edu.vandy.queuetesting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Sweeps 1..N producers and 1..N consumers over a set of queue
+ * implementations, checksumming the transferred elements and printing
+ * the run time of each implementation for each combination.
+ */
+public class ProducerConsumerSweep {
+    /**
+     * Number of integers each producer passes through the queue.
+     */
+    private final int mItemsPerProducer;
+
+    /**
+     * Capacity of the queues.
+     */
+    private final int mCapacity;
+
+    /**
+     * Maximum number of producers and consumers in the sweep.
+     */
+    private final int mMaxThreads;
+
+    /**
+     * The queue factories to sweep, in the order they were added.
+     */
+    private final Map<String, IntFunction<TestQueue<Integer>>> mFactories =
+        new LinkedHashMap<>();
+
+    /**
+     * Constructor initializes the fields.
+     */
+    public ProducerConsumerSweep(int itemsPerProducer,
+                                 int capacity,
+                                 int maxThreads) {
+        mItemsPerProducer = itemsPerProducer;
+        mCapacity = capacity;
+        mMaxThreads = maxThreads;
+    }
+
+    /**
+     * Add the queue implementation called @a name, whose queues are
+     * created by calling @a factory with the capacity.
+     */
+    public ProducerConsumerSweep add(String name,
+                                     IntFunction<TestQueue<Integer>> factory) {
+        mFactories.put(name, factory);
+        return this;
+    }
+
+    /**
+     * Run @a producers and @a consumers threads against @a queue and
+     * return the elapsed time in milliseconds.  Also checks that every
+     * element that was put() was take()n exactly once by comparing
+     * checksums.
+     */
+    public long runProducersConsumers(TestQueue<Integer> queue,
+                                      int producers,
+                                      int consumers)
+        throws InterruptedException {
+        final int total = producers * mItemsPerProducer;
+
+        final AtomicLong putSum = new AtomicLong(0);
+        final AtomicLong takeSum = new AtomicLong(0);
+
+        List<Thread> threads = new ArrayList<>();
+
+        // Create the producer threads.
+        for (int p = 0; p < producers; p++)
+            threads.add(new Thread(() -> {
+                long sum = 0;
+                try {
+                    for (int i = 0; i < mItemsPerProducer; i++) {
+                        queue.put(i);
+                        sum += i;
+                    }
+                } catch (InterruptedException e) {
+                    System.out.println("InterruptedException caught");
+                }
+                putSum.addAndGet(sum);
+            }));
+
+        // Create the consumer threads, giving any remainder to the
+        // first consumer.
+        for (int c = 0; c < consumers; c++) {
+            final int count = total / consumers
+                + (c == 0 ? total % consumers : 0);
+            threads.add(new Thread(() -> {
+                long sum = 0;
+                try {
+                    for (int i = 0; i < count; i++)
+                        sum += queue.take();
+                } catch (InterruptedException e) {
+                    System.out.println("InterruptedException caught");
+                }
+                takeSum.addAndGet(sum);
+            }));
+        }
+
+        // Record the start time.
+        long startTime = System.nanoTime();
+
+        // Start all the threads.
+        for (Thread thread : threads)
+            thread.start();
+
+        // Wait for all the threads to stop.
+        for (Thread thread : threads)
+            thread.join();
+
+        long elapsed = (System.nanoTime() - startTime) / 1_000_000;
+
+        // Make sure nothing was lost or duplicated.
+        assertEquals(putSum.get(), takeSum.get());
+        assertTrue(queue.isEmpty());
+        return elapsed;
+    }
+
+    /**
+     * Run every combination of producers and consumers against a new
+     * queue of each implementation and print the run times.
+     */
+    public void run() throws InterruptedException {
+        for (int producers = 1; producers <= mMaxThreads; producers++)
+            for (int consumers = 1; consumers <= mMaxThreads; consumers++) {
+                StringBuilder line =
+                    new StringBuilder(producers
+                                      + " producer(s), "
+                                      + consumers
+                                      + " consumer(s):");
+                String separator = " ";
+
+                for (Map.Entry<String, IntFunction<TestQueue<Integer>>> entry
+                         : mFactories.entrySet()) {
+                    long elapsed =
+                        runProducersConsumers(entry.getValue().apply(mCapacity),
+                                              producers,
+                                              consumers);
+                    line.append(separator)
+                        .append(entry.getKey())
+                        .append(" ran in ")
+                        .append(elapsed)
+                        .append(" msecs");
+                    separator = ", ";
+                }
+
+                System.out.println(line);
+            }
+    }
+}
@@ -0,0 +1,501 @@
+package edu.vandy.queuetesting;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * A headless throughput/latency benchmark harness for any queue
+ * implementation.  Each run starts a configurable number of producer
+ * and consumer threads that pass payloads through the queue for a
+ * fixed amount of time and then reports the handoff rate, the
+ * p50/p99/p999 handoff latency, and the CPU utilization.
+ * Implementations are registered by name along with a factory that
+ * creates a queue of a given capacity, so any queue that can be
+ * adapted to TestQueue can join the benchmark.  Only the handoffs
+ * and CPU time before the end of the measured run are counted, so
+ * the time it takes to stop the threads doesn't skew the results.
+ */
+public class QueueBenchmark {
+    /**
+     * Capacity of each queue.
+     */
+    private final int mCapacity;
+
+    /**
+     * Number of producer threads.
+     */
+    private final int mProducers;
+
+    /**
+     * Number of consumer threads.
+     */
+    private final int mConsumers;
+
+    /**
+     * Number of bytes carried by each payload.
+     */
+    private final int mPayloadSize;
+
+    /**
+     * Length of the warmup run (in milliseconds) whose results are
+     * discarded.
+     */
+    private final long mWarmupMillis;
+
+    /**
+     * Length of the measured run (in milliseconds).
+     */
+    private final long mMeasureMillis;
+
+    /**
+     * The registered implementations to benchmark.
+     */
+    private final List<Entry> mEntries = new ArrayList<>();
+
+    /**
+     * Constructor initializes the configuration from system
+     * properties (e.g., "-Dqueue.capacity=100"), falling back on the
+     * given defaults so the benchmark can be tuned from the command
+     * line without recompiling.
+     */
+    public QueueBenchmark(int capacity,
+                          int producers,
+                          int consumers,
+                          int payloadSize,
+                          long warmupMillis,
+                          long measureMillis) {
+        mCapacity = Integer.getInteger("queue.capacity", capacity);
+        mProducers = Integer.getInteger("queue.producers", producers);
+        mConsumers = Integer.getInteger("queue.consumers", consumers);
+        mPayloadSize = Integer.getInteger("queue.payloadSize", payloadSize);
+        mWarmupMillis = Long.getLong("queue.warmupMillis", warmupMillis);
+        mMeasureMillis = Long.getLong("queue.measureMillis", measureMillis);
+    }
+
+    /**
+     * Register a queue implementation that's accessed via its
+     * blocking put() and take() methods.
+     */
+    public QueueBenchmark add(String name,
+                              IntFunction<TestQueue<Payload>> factory) {
+        mEntries.add(new Entry(name, factory, true));
+        return this;
+    }
+
+    /**
+     * Register a queue implementation that only supports the
+     * non-blocking offer() and poll() methods, which are called in a
+     * "busy waiting" loop.
+     */
+    public QueueBenchmark addNonBlocking(String name,
+                                         IntFunction<TestQueue<Payload>> factory) {
+        mEntries.add(new Entry(name, factory, false));
+        return this;
+    }
+
+    /**
+     * Run the benchmark for all the registered implementations and
+     * return the results.
+     */
+    public List<Result> runAll() throws InterruptedException {
+        List<Result> results = new ArrayList<>();
+
+        for (Entry entry : mEntries) {
+            // Warm up the JIT and discard the results.
+            runOnce(entry, mWarmupMillis);
+
+            results.add(runOnce(entry, mMeasureMillis));
+        }
+        return results;
+    }
+
+    /**
+     * Returns a one-line description of the configuration.
+     */
+    public String getConfiguration() {
+        return "capacity = " + mCapacity
+            + ", producers = " + mProducers
+            + ", consumers = " + mConsumers
+            + ", payload = " + mPayloadSize + " bytes"
+            + ", measured for " + mMeasureMillis + " msecs";
+    }
+
+    /**
+     * Run the producers and consumers for @a millis milliseconds
+     * against a new queue created by @a entry.
+     */
+    private Result runOnce(Entry entry,
+                           long millis) throws InterruptedException {
+        final TestQueue<Payload> queue =
+            entry.mFactory.apply(mCapacity);
+        final Worker[] producers = new Worker[mProducers];
+        final Worker[] consumers = new Worker[mConsumers];
+
+        // The run ends at a fixed deadline, which the threads compare
+        // with the timestamps they take anyway, so the handoffs made
+        // while the threads are being stopped aren't counted.
+        long startTime = System.nanoTime();
+        long endTime = startTime + TimeUnit.MILLISECONDS.toNanos(millis);
+
+        for (int i = 0; i < mProducers; i++)
+            producers[i] = new Worker(() -> produce(queue, entry.mBlocking),
+                                      endTime);
+        for (int i = 0; i < mConsumers; i++)
+            consumers[i] = new Worker(() -> consume(queue, entry.mBlocking),
+                                      endTime);
+
+        for (Worker worker : producers)
+            worker.start();
+        for (Worker worker : consumers)
+            worker.start();
+
+        // Sleep until the deadline has passed.
+        for (long remaining = endTime - System.nanoTime();
+             remaining > 0;
+             remaining = endTime - System.nanoTime())
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        long elapsed = endTime - startTime;
+
+        // Tell all the threads to stop and then collect them.
+        for (Worker worker : producers)
+            worker.mRunning = false;
+        for (Worker worker : consumers)
+            worker.mRunning = false;
+        for (Worker worker : producers)
+            worker.shutdown();
+        for (Worker worker : consumers)
+            worker.shutdown();
+
+        // Merge the per-consumer results.
+        LatencyHistogram histogram = new LatencyHistogram();
+        long handoffs = 0;
+        long cpuTime = 0;
+        for (Worker worker : consumers) {
+            histogram.add(worker.mHistogram);
+            handoffs += worker.mCount;
+            cpuTime += worker.mCpuTime;
+        }
+        for (Worker worker : producers)
+            cpuTime += worker.mCpuTime;
+
+        return new Result(entry.mName,
+                          handoffs,
+                          elapsed,
+                          histogram,
+                          cpuTime);
+    }
+
+    /**
+     * Body of a producer thread.
+     */
+    private void produce(TestQueue<Payload> queue,
+                         boolean blocking) {
+        Worker self = (Worker) Thread.currentThread();
+        try {
+            while (self.mRunning) {
+                Payload payload = new Payload(mPayloadSize);
+                self.checkDeadline(payload.mTimestamp);
+                if (blocking)
+                    queue.put(payload);
+                else
+                    // Busy wait until there's room or we're stopped.
+                    while (!queue.offer(payload) && self.mRunning)
+                        continue;
+            }
+        } catch (InterruptedException e) {
+            // Interrupted while blocked after being stopped.
+        }
+    }
+
+    /**
+     * Body of a consumer thread.
+     */
+    private void consume(TestQueue<Payload> queue,
+                         boolean blocking) {
+        Worker self = (Worker) Thread.currentThread();
+        try {
+            while (self.mRunning) {
+                Payload payload = blocking
+                    ? queue.take()
+                    : queue.poll();
+                if (payload != null) {
+                    long now = System.nanoTime();
+                    if (!self.checkDeadline(now)) {
+                        self.mHistogram.record(now - payload.mTimestamp);
+                        self.mCount++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // Interrupted while blocked after being stopped.
+        }
+    }
+
+    /**
+     * The element type passed through the queues, which records when
+     * it was created so the consumer can compute the handoff latency.
+     */
+    public static class Payload {
+        /**
+         * Time (in nanoseconds) the payload was created.
+         */
+        final long mTimestamp;
+
+        /**
+         * Optional data that's carried along with the payload.
+         */
+        final byte[] mData;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        Payload(int size) {
+            mData = size > 0 ? new byte[size] : null;
+            mTimestamp = System.nanoTime();
+        }
+    }
+
+    /**
+     * Associates a name with a queue factory.
+     */
+    private static class Entry {
+        final String mName;
+        final IntFunction<TestQueue<Payload>> mFactory;
+        final boolean mBlocking;
+
+        Entry(String name,
+              IntFunction<TestQueue<Payload>> factory,
+              boolean blocking) {
+            mName = name;
+            mFactory = factory;
+            mBlocking = blocking;
+        }
+    }
+
+    /**
+     * A producer or consumer thread that keeps its own statistics so
+     * the threads don't contend on shared counters.
+     */
+    private static class Worker
+            extends Thread {
+        /**
+         * Cleared to ask the thread to stop.
+         */
+        volatile boolean mRunning = true;
+
+        /**
+         * Number of payloads received before the deadline (consumers
+         * only).
+         */
+        long mCount;
+
+        /**
+         * Handoff latencies before the deadline (consumers only).
+         */
+        final LatencyHistogram mHistogram = new LatencyHistogram();
+
+        /**
+         * CPU time (in nanoseconds) used by this thread until it saw
+         * the deadline pass.
+         */
+        long mCpuTime;
+
+        /**
+         * The work to perform.
+         */
+        private final Runnable mBody;
+
+        /**
+         * System.nanoTime() at which the measured run ends.
+         */
+        private final long mEndTime;
+
+        /**
+         * True once the thread has seen the deadline pass.
+         */
+        private boolean mPastDeadline;
+
+        Worker(Runnable body,
+               long endTime) {
+            mBody = body;
+            mEndTime = endTime;
+        }
+
+        @Override
+        public void run() {
+            mBody.run();
+
+            // A thread that was blocked when it was stopped never saw
+            // the deadline pass.
+            recordCpuTime();
+        }
+
+        /**
+         * Returns true if @a now is past the deadline, recording the
+         * CPU time used so far the first time it is.
+         */
+        boolean checkDeadline(long now) {
+            if (now - mEndTime < 0)
+                return false;
+            recordCpuTime();
+            return true;
+        }
+
+        /**
+         * Record the CPU time used by this thread unless it's already
+         * been recorded.
+         */
+        private void recordCpuTime() {
+            if (mPastDeadline)
+                return;
+            mPastDeadline = true;
+
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean.isCurrentThreadCpuTimeSupported())
+                mCpuTime = bean.getCurrentThreadCpuTime();
+        }
+
+        /**
+         * Wait for the thread to exit, interrupting it if it's
+         * blocked in the queue.
+         */
+        void shutdown() throws InterruptedException {
+            join(100);
+            while (isAlive()) {
+                interrupt();
+                join(100);
+            }
+        }
+    }
+
+    /**
+     * A fixed-size log-linear histogram of latencies that uses 16
+     * sub-buckets per power of two (i.e., ~6% precision), so
+     * recording is allocation-free and merging is cheap.
+     */
+    static class LatencyHistogram {
+        private static final int sSUB_BUCKET_BITS = 4;
+
+        private static final int sSUB_BUCKETS = 1 << sSUB_BUCKET_BITS;
+
+        private final long[] mCounts = new long[64 * sSUB_BUCKETS];
+
+        private long mTotal;
+
+        /**
+         * Record a latency of @a nanos nanoseconds.
+         */
+        void record(long nanos) {
+            mCounts[indexOf(Math.max(nanos, 0))]++;
+            mTotal++;
+        }
+
+        /**
+         * Merge @a other into this histogram.
+         */
+        void add(LatencyHistogram other) {
+            for (int i = 0; i < mCounts.length; i++)
+                mCounts[i] += other.mCounts[i];
+            mTotal += other.mTotal;
+        }
+
+        /**
+         * Returns the latency (in nanoseconds) at the given @a
+         * percentile (e.g., 99.9), or 0 if nothing was recorded.
+         */
+        long percentile(double percentile) {
+            if (mTotal == 0)
+                return 0;
+            long rank = (long) Math.ceil(percentile / 100.0 * mTotal);
+            long seen = 0;
+            for (int i = 0; i < mCounts.length; i++) {
+                seen += mCounts[i];
+                if (seen >= rank)
+                    return valueOf(i);
+            }
+            return valueOf(mCounts.length - 1);
+        }
+
+        private static int indexOf(long value) {
+            if (value < sSUB_BUCKETS)
+                return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - sSUB_BUCKET_BITS))
+                & (sSUB_BUCKETS - 1);
+            return (exponent - sSUB_BUCKET_BITS + 1) * sSUB_BUCKETS + sub;
+        }
+
+        private static long valueOf(int index) {
+            if (index < sSUB_BUCKETS)
+                return index;
+            int exponent = index / sSUB_BUCKETS + sSUB_BUCKET_BITS - 1;
+            long sub = index % sSUB_BUCKETS;
+            return (sSUB_BUCKETS + sub) << (exponent - sSUB_BUCKET_BITS);
+        }
+    }
+
+    /**
+     * The results of benchmarking one implementation.
+     */
+    public static class Result {
+        final String mName;
+        final long mHandoffs;
+        final long mElapsedNanos;
+        final LatencyHistogram mHistogram;
+        final long mCpuNanos;
+
+        Result(String name,
+               long handoffs,
+               long elapsedNanos,
+               LatencyHistogram histogram,
+               long cpuNanos) {
+            mName = name;
+            mHandoffs = handoffs;
+            mElapsedNanos = elapsedNanos;
+            mHistogram = histogram;
+            mCpuNanos = cpuNanos;
+        }
+
+        /**
+         * Returns the number of handoffs per second.
+         */
+        public double getOpsPerSecond() {
+            return mHandoffs * (double) TimeUnit.SECONDS.toNanos(1) / mElapsedNanos;
+        }
+
+        /**
+         * Returns the latency (in nanoseconds) at the given @a
+         * percentile.
+         */
+        public long getLatency(double percentile) {
+            return mHistogram.percentile(percentile);
+        }
+
+        /**
+         * Returns the CPU time used by all the threads as a
+         * percentage of the CPU time available on all the cores.
+         */
+        public double getCpuUtilization() {
+            return 100.0 * mCpuNanos
+                / ((double) mElapsedNanos
+                   * Runtime.getRuntime().availableProcessors());
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                                 "%-40s %12.0f ops/sec  p50 %8d ns  p99 %8d ns  p999 %8d ns  cpu %5.1f%%",
+                                 mName,
+                                 getOpsPerSecond(),
+                                 getLatency(50),
+                                 getLatency(99),
+                                 getLatency(99.9),
+                                 getCpuUtilization());
+        }
+    }
+}
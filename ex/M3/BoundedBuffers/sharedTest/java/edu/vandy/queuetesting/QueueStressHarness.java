@@ -0,0 +1,571 @@
+package edu.vandy.queuetesting;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * A stress harness that hammers a queue implementation
+ * from many threads and checks the results for race conditions.  It
+ * performs two kinds of checks:
+ *
+ * 1. A transfer check where producers pass uniquely numbered elements
+ *    to consumers, which detects lost, duplicated, and reordered
+ *    elements, as well as threads that deadlock or never finish.
+ *
+ * 2. A linearizability check where a few threads run short random
+ *    histories of offer(), poll(), size(), isEmpty(), and isFull()
+ *    calls against a small queue.  Each history is then checked
+ *    (using the Wing & Gong search) to see if there's a sequential
+ *    ordering of the calls that respects their real-time order and
+ *    matches the behavior of a bounded FIFO queue.
+ *
+ * All the defaults can be overridden via "-Dstress.*" system
+ * properties so the harness can run with CI-sized time budgets.
+ */
+public class QueueStressHarness {
+    /**
+     * Maximum number of violations of each kind to report.
+     */
+    private static final int sMAX_REPORTED = 5;
+
+    /**
+     * Capacity of the queue used for the transfer check.
+     */
+    private final int mCapacity;
+
+    /**
+     * Number of producers (and consumers) in the transfer check.
+     */
+    private final int mThreads;
+
+    /**
+     * Number of elements each producer passes to the consumers.
+     */
+    private final int mItemsPerProducer;
+
+    /**
+     * Number of histories to generate for the linearizability check.
+     */
+    private final int mRounds;
+
+    /**
+     * Maximum time (in milliseconds) to wait for the threads in each
+     * check before declaring a deadlock.
+     */
+    private final long mTimeoutMillis;
+
+    /**
+     * Capacity of the queue used for the linearizability check,
+     * which is small so the "full" case occurs frequently.
+     */
+    private static final int sHISTORY_CAPACITY = 2;
+
+    /**
+     * Number of threads in each linearizability history.
+     */
+    private static final int sHISTORY_THREADS = 3;
+
+    /**
+     * Number of operations each thread performs per history.
+     */
+    private static final int sHISTORY_OPS = 4;
+
+    /**
+     * Constructor initializes the configuration from system
+     * properties, falling back on the given defaults.
+     */
+    public QueueStressHarness(int capacity,
+                              int threads,
+                              int itemsPerProducer,
+                              int rounds,
+                              long timeoutMillis) {
+        mCapacity = Integer.getInteger("stress.capacity", capacity);
+        mThreads = Integer.getInteger("stress.threads", threads);
+        mItemsPerProducer = Integer.getInteger("stress.items", itemsPerProducer);
+        mRounds = Integer.getInteger("stress.rounds", rounds);
+        mTimeoutMillis = Long.getLong("stress.timeoutMillis", timeoutMillis);
+    }
+
+    /**
+     * Run both checks against queues created by @a factory.  If @a
+     * blocking is false the transfer check uses "busy waiting" calls
+     * to offer() and poll() instead of put() and take().
+     */
+    public Report run(String name,
+                      IntFunction<TestQueue<Long>> factory,
+                      boolean blocking) throws InterruptedException {
+        Report report = new Report(name);
+        checkTransfers(report, factory.apply(mCapacity), blocking);
+        checkLinearizability(report, factory);
+        return report;
+    }
+
+    /**
+     * Pass uniquely numbered elements from mThreads producers to
+     * mThreads consumers and make sure each element is received
+     * exactly once and in the order that its producer sent it.
+     */
+    private void checkTransfers(Report report,
+                                TestQueue<Long> queue,
+                                boolean blocking) throws InterruptedException {
+        final int total = mThreads * mItemsPerProducer;
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+        final AtomicInteger claims = new AtomicInteger(0);
+        // The consumers claim elements as they go, so each one
+        // records what it receives in a buffer that grows as needed.
+        final LongBuffer[] received = new LongBuffer[mThreads];
+        for (int c = 0; c < mThreads; c++)
+            received[c] = new LongBuffer(mItemsPerProducer);
+
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < mThreads; p++) {
+            final long producerId = p;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int seq = 0; seq < mItemsPerProducer; seq++) {
+                        Long element = (producerId << 32) | seq;
+                        if (blocking)
+                            queue.put(element);
+                        else
+                            // Busy wait, yielding so the other
+                            // threads can run on a loaded machine.
+                            while (!queue.offer(element)) {
+                                if (stopped.get())
+                                    return;
+                                Thread.yield();
+                            }
+                    }
+                } catch (InterruptedException e) {
+                    // Interrupted after a timeout.
+                } catch (RuntimeException e) {
+                    report.violation("exceptions",
+                                     "producer threw " + e);
+                }
+            }, "producer-" + p));
+        }
+
+        for (int c = 0; c < mThreads; c++) {
+            final int consumerId = c;
+            threads.add(new Thread(() -> {
+                try {
+                    // Each consumer claims one element at a time so
+                    // exactly "total" elements are taken.
+                    while (claims.getAndIncrement() < total) {
+                        Long element;
+                        if (blocking)
+                            element = queue.take();
+                        else
+                            while ((element = queue.poll()) == null) {
+                                if (stopped.get())
+                                    return;
+                                Thread.yield();
+                            }
+                        received[consumerId].add(element);
+                    }
+                } catch (InterruptedException e) {
+                    // Interrupted after a timeout.
+                } catch (RuntimeException e) {
+                    report.violation("exceptions",
+                                     "consumer threw " + e);
+                }
+            }, "consumer-" + c));
+        }
+
+        for (Thread thread : threads)
+            thread.start();
+
+        if (!joinAll(threads, report, stopped))
+            return;
+
+        // Make sure each element was received exactly once and that
+        // each consumer received each producer's elements in order.
+        boolean[][] seen = new boolean[mThreads][mItemsPerProducer];
+        for (int c = 0; c < mThreads; c++) {
+            int[] lastSeq = new int[mThreads];
+            Arrays.fill(lastSeq, -1);
+
+            for (int i = 0; i < received[c].size(); i++) {
+                long element = received[c].get(i);
+                int producer = (int) (element >>> 32);
+                int seq = (int) element;
+
+                if (producer < 0 || producer >= mThreads
+                    || seq < 0 || seq >= mItemsPerProducer) {
+                    report.violation("corrupted",
+                                     "consumer-" + c
+                                     + " received unknown element "
+                                     + Long.toHexString(element));
+                    continue;
+                }
+                if (seen[producer][seq])
+                    report.violation("duplicated",
+                                     "producer-" + producer
+                                     + " element " + seq
+                                     + " was received more than once");
+                seen[producer][seq] = true;
+
+                if (seq <= lastSeq[producer])
+                    report.violation("reordered",
+                                     "consumer-" + c
+                                     + " received producer-" + producer
+                                     + " element " + seq
+                                     + " after element " + lastSeq[producer]);
+                lastSeq[producer] = seq;
+            }
+        }
+
+        for (int p = 0; p < mThreads; p++)
+            for (int seq = 0; seq < mItemsPerProducer; seq++)
+                if (!seen[p][seq])
+                    report.violation("lost",
+                                     "producer-" + p
+                                     + " element " + seq
+                                     + " was never received");
+
+        if (!queue.isEmpty() || queue.size() != 0)
+            report.violation("state",
+                             "queue reports size " + queue.size()
+                             + " after all elements were received");
+    }
+
+    /**
+     * Generate mRounds short concurrent histories and check that
+     * each one is linearizable with respect to a bounded FIFO queue.
+     */
+    private void checkLinearizability(Report report,
+                                      IntFunction<TestQueue<Long>> factory)
+        throws InterruptedException {
+        Random random = new Random();
+
+        for (int round = 0; round < mRounds; round++) {
+            final TestQueue<Long> queue =
+                factory.apply(sHISTORY_CAPACITY);
+            final List<Op> history = new ArrayList<>();
+            final CountDownLatch startGate = new CountDownLatch(1);
+            final AtomicBoolean stopped = new AtomicBoolean(false);
+            List<Thread> threads = new ArrayList<>();
+
+            for (int t = 0; t < sHISTORY_THREADS; t++) {
+                // Pick the operations up front so the threads do as
+                // little as possible between calls.
+                final Op[] ops = new Op[sHISTORY_OPS];
+                for (int i = 0; i < sHISTORY_OPS; i++)
+                    ops[i] = new Op(t,
+                                    OpType.values()[random.nextInt(OpType.values().length)],
+                                    (long) (t * sHISTORY_OPS + i));
+                synchronized (history) {
+                    Collections.addAll(history, ops);
+                }
+
+                threads.add(new Thread(() -> {
+                    try {
+                        startGate.await();
+                        for (Op op : ops)
+                            op.invoke(queue);
+                    } catch (InterruptedException e) {
+                        // Interrupted after a timeout.
+                    } catch (RuntimeException e) {
+                        report.violation("exceptions",
+                                         "history thread threw " + e);
+                    }
+                }));
+            }
+
+            for (Thread thread : threads)
+                thread.start();
+            startGate.countDown();
+
+            if (!joinAll(threads, report, stopped))
+                return;
+
+            if (!isLinearizable(history, sHISTORY_CAPACITY))
+                report.violation("non-linearizable",
+                                 "round " + round + ": " + history);
+        }
+    }
+
+    /**
+     * Wait up to mTimeoutMillis for all @a threads to finish.  If
+     * they don't then report a possible deadlock, stop and interrupt
+     * the threads, and return false.
+     */
+    private boolean joinAll(List<Thread> threads,
+                            Report report,
+                            AtomicBoolean stopped) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + mTimeoutMillis;
+        for (Thread thread : threads)
+            thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+
+        List<String> stuck = new ArrayList<>();
+        for (Thread thread : threads)
+            if (thread.isAlive())
+                stuck.add(thread.getName() + " (" + thread.getState() + ")");
+
+        if (stuck.isEmpty())
+            return true;
+
+        StringBuilder message =
+            new StringBuilder("threads didn't finish within "
+                              + mTimeoutMillis + " msecs: " + stuck);
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long[] deadlocked = bean.findDeadlockedThreads();
+        if (deadlocked != null)
+            for (ThreadInfo info : bean.getThreadInfo(deadlocked))
+                message.append("\n  deadlocked: ")
+                    .append(info.getThreadName())
+                    .append(" waiting for ")
+                    .append(info.getLockName())
+                    .append(" held by ")
+                    .append(info.getLockOwnerName());
+
+        report.violation("deadlock", message.toString());
+
+        // Release the threads so they don't outlive the check.
+        stopped.set(true);
+        for (Thread thread : threads)
+            thread.interrupt();
+        for (Thread thread : threads)
+            thread.join(mTimeoutMillis);
+        return false;
+    }
+
+    /**
+     * Returns true if there's a sequential ordering of @a history
+     * that respects the real-time order of its operations and is
+     * valid for a FIFO queue with the given @a capacity.
+     */
+    static boolean isLinearizable(List<Op> history,
+                                  int capacity) {
+        List<Op> ops = new ArrayList<>(history);
+        ops.sort(Comparator.comparingLong(op -> op.mInvoked));
+        return search(ops,
+                      0L,
+                      new ArrayDeque<>(),
+                      capacity,
+                      new HashSet<>());
+    }
+
+    /**
+     * Recursively try to linearize the operations that aren't in the
+     * @a done bitmask, given the current sequential @a state.  The
+     * @a visited set memoizes (done, state) pairs that failed.
+     */
+    private static boolean search(List<Op> ops,
+                                  long done,
+                                  ArrayDeque<Long> state,
+                                  int capacity,
+                                  Set<String> visited) {
+        if (Long.bitCount(done) == ops.size())
+            return true;
+
+        if (!visited.add(done + ":" + state))
+            return false;
+
+        // An operation can go next only if it was invoked before
+        // every pending operation completed.
+        long minResponse = Long.MAX_VALUE;
+        for (int i = 0; i < ops.size(); i++)
+            if ((done & (1L << i)) == 0)
+                minResponse = Math.min(minResponse, ops.get(i).mResponded);
+
+        for (int i = 0; i < ops.size(); i++) {
+            Op op = ops.get(i);
+            if ((done & (1L << i)) != 0
+                || op.mInvoked > minResponse)
+                continue;
+
+            ArrayDeque<Long> next = new ArrayDeque<>(state);
+            if (op.applySequentially(next, capacity)
+                && search(ops, done | (1L << i), next, capacity, visited))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * The operations used in the linearizability histories.
+     */
+    enum OpType {
+        OFFER,
+        POLL,
+        SIZE,
+        IS_EMPTY,
+        IS_FULL
+    }
+
+    /**
+     * A single operation in a history along with its result and the
+     * times it was invoked and responded.
+     */
+    static class Op {
+        final int mThread;
+        final OpType mType;
+        final Long mArgument;
+        Object mResult;
+        long mInvoked;
+        long mResponded;
+
+        Op(int thread,
+           OpType type,
+           Long argument) {
+            mThread = thread;
+            mType = type;
+            mArgument = argument;
+        }
+
+        /**
+         * Call the operation on the concurrent @a queue and record
+         * its result and timing.
+         */
+        void invoke(TestQueue<Long> queue) {
+            mInvoked = System.nanoTime();
+            switch (mType) {
+            case OFFER:
+                mResult = queue.offer(mArgument);
+                break;
+            case POLL:
+                mResult = queue.poll();
+                break;
+            case SIZE:
+                mResult = queue.size();
+                break;
+            case IS_EMPTY:
+                mResult = queue.isEmpty();
+                break;
+            case IS_FULL:
+                mResult = queue.isFull();
+                break;
+            }
+            mResponded = System.nanoTime();
+        }
+
+        /**
+         * Apply the operation to the sequential specification @a
+         * state and return true if it would have produced mResult.
+         */
+        boolean applySequentially(ArrayDeque<Long> state,
+                                  int capacity) {
+            switch (mType) {
+            case OFFER:
+                boolean accepted = state.size() < capacity;
+                if (accepted)
+                    state.addLast(mArgument);
+                return Objects.equals(mResult, accepted);
+            case POLL:
+                Long head = state.pollFirst();
+                return Objects.equals(mResult, head);
+            case SIZE:
+                return Objects.equals(mResult, state.size());
+            case IS_EMPTY:
+                return Objects.equals(mResult, state.isEmpty());
+            case IS_FULL:
+                return Objects.equals(mResult, state.size() == capacity);
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "T" + mThread + ":"
+                + mType
+                + (mType == OpType.OFFER ? "(" + mArgument + ")" : "")
+                + "=" + mResult;
+        }
+    }
+
+    /**
+     * A list of longs that grows as needed, which lets each consumer
+     * record the elements it receives without boxing them.
+     */
+    private static class LongBuffer {
+        private long[] mElements;
+
+        private int mSize;
+
+        LongBuffer(int initialCapacity) {
+            mElements = new long[Math.max(1, initialCapacity)];
+        }
+
+        /**
+         * Append @a element, doubling the capacity if it's full.
+         */
+        void add(long element) {
+            if (mSize == mElements.length)
+                mElements = Arrays.copyOf(mElements, 2 * mSize);
+            mElements[mSize++] = element;
+        }
+
+        long get(int index) {
+            return mElements[index];
+        }
+
+        int size() {
+            return mSize;
+        }
+    }
+
+    /**
+     * The results of stress testing one implementation.
+     */
+    public static class Report {
+        private final String mName;
+
+        private final List<String> mViolations = new ArrayList<>();
+
+        private final Map<String, Integer> mCounts = new TreeMap<>();
+
+        Report(String name) {
+            mName = name;
+        }
+
+        /**
+         * Record a violation of the given @a kind, keeping only the
+         * first few messages of each kind.
+         */
+        synchronized void violation(String kind,
+                                    String message) {
+            int count = mCounts.merge(kind, 1, Integer::sum);
+            if (count <= sMAX_REPORTED)
+                mViolations.add(kind + ": " + message);
+        }
+
+        /**
+         * Returns true if no violations were found.
+         */
+        public synchronized boolean isOk() {
+            return mCounts.isEmpty();
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder sb = new StringBuilder(mName);
+            if (isOk())
+                return sb.append(": no violations found").toString();
+
+            sb.append(": violations ").append(mCounts);
+            for (String violation : mViolations)
+                sb.append("\n  ").append(violation);
+            return sb.toString();
+        }
+    }
+}
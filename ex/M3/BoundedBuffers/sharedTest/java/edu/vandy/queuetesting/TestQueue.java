@@ -0,0 +1,47 @@
+package edu.vandy.queuetesting;
+
+/**
+ * The operations of a bounded blocking queue that the shared test
+ * harnesses exercise.  Each BoundedBuffers app defines its own
+ * SimpleBlockingQueue interface in its own package, so the apps adapt
+ * their queues to this interface (see their TestQueueAdapter classes)
+ * rather than the harnesses being copied into each app.
+ */
+public interface TestQueue<E> {
+    /**
+     * Add @a e to the tail of the queue, blocking while it's full.
+     */
+    void put(E e) throws InterruptedException;
+
+    /**
+     * Remove and return the head of the queue, blocking while it's
+     * empty.
+     */
+    E take() throws InterruptedException;
+
+    /**
+     * Add @a e to the tail of the queue if it's not full and return
+     * true, else return false.
+     */
+    boolean offer(E e);
+
+    /**
+     * Remove and return the head of the queue, or null if it's empty.
+     */
+    E poll();
+
+    /**
+     * Returns true if the queue is empty.
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns true if the queue is full.
+     */
+    boolean isFull();
+
+    /**
+     * Returns the number of elements in the queue.
+     */
+    int size();
+}
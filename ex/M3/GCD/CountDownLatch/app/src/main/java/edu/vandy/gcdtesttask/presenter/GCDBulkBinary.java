@@ -0,0 +1,267 @@
+package edu.vandy.gcdtesttask.presenter;
+
+/**
+ * This GCDInterface implementation overrides computeAll() and
+ * computeAllPairs() with a bulk binary (Stein) GCD kernel that
+ * processes a whole block of input pairs per call.  The kernel strips
+ * factors of two with Integer.numberOfTrailingZeros() rather than one
+ * bit at a time and replaces the "which is larger?" branch with
+ * arithmetic masks, so its inner loop has a single, highly
+ * predictable loop branch.  The kernel is a simple counted loop over
+ * arrays whose bounds are checked up front, which lets the JIT
+ * eliminate the per-element range checks and unroll it.
+ *
+ * The kernels accept the pairs either as two parallel arrays or
+ * interleaved in a single array, and they all assume non-negative
+ * inputs, which is what the workers generate.
+ */
+public class GCDBulkBinary
+       implements GCDInterface {
+    /**
+     * True if the two-lane interleaved kernel should be used.
+     */
+    private final boolean mInterleaved;
+
+    /**
+     * Constructor initializes the field.  If @a interleaved is true
+     * computeAll() runs two pairs in lockstep, which trades a few
+     * extra instructions for more instruction-level parallelism in
+     * the same way a two-lane SIMD kernel would.
+     */
+    public GCDBulkBinary(boolean interleaved) {
+        mInterleaved = interleaved;
+    }
+
+    /**
+     * Compute and return the GCD for non-negative parameters @a a and
+     * @a b.
+     */
+    @Override
+    public int compute(int a,
+                       int b) {
+        return gcd(a, b);
+    }
+
+    /**
+     * Compute the GCD of each pair @a a[i] and @a b[i] for @a from
+     * <= i < @a to and store it in @a out[i - from].
+     */
+    @Override
+    public void computeAll(int[] a,
+                           int[] b,
+                           int[] out,
+                           int from,
+                           int to) {
+        if (mInterleaved)
+            computeAllInterleaved(a, b, out, from, to);
+        else
+            computeAllScalar(a, b, out, from, to);
+    }
+
+    /**
+     * Run the scalar kernel over the given range.
+     */
+    public static void computeAllScalar(int[] a,
+                                        int[] b,
+                                        int[] out,
+                                        int from,
+                                        int to) {
+        checkRange(a, b, out, from, to);
+
+        for (int i = from; i < to; i++)
+            out[i - from] = gcd(a[i], b[i]);
+    }
+
+    /**
+     * Run the two-lane kernel over the given range.
+     */
+    public static void computeAllInterleaved(int[] a,
+                                             int[] b,
+                                             int[] out,
+                                             int from,
+                                             int to) {
+        checkRange(a, b, out, from, to);
+
+        int i = from;
+        for (; i + 1 < to; i += 2)
+            gcd2(a[i], b[i],
+                 a[i + 1], b[i + 1],
+                 out,
+                 i - from);
+
+        // Handle the odd element (if any).
+        if (i < to)
+            out[i - from] = gcd(a[i], b[i]);
+    }
+
+    /**
+     * Compute the GCD of each pair stored interleaved in @a pairs for
+     * @a from <= i < @a to and store it in @a out[i - from].
+     */
+    @Override
+    public void computeAllPairs(int[] pairs,
+                                int[] out,
+                                int from,
+                                int to) {
+        if (mInterleaved)
+            computeAllPairsInterleaved(pairs, out, from, to);
+        else
+            computeAllPairsScalar(pairs, out, from, to);
+    }
+
+    /**
+     * Run the scalar kernel over the given range of interleaved
+     * pairs.
+     */
+    public static void computeAllPairsScalar(int[] pairs,
+                                             int[] out,
+                                             int from,
+                                             int to) {
+        checkPairsRange(pairs, out, from, to);
+
+        for (int i = from; i < to; i++)
+            out[i - from] = gcd(pairs[2 * i], pairs[2 * i + 1]);
+    }
+
+    /**
+     * Run the two-lane kernel over the given range of interleaved
+     * pairs.
+     */
+    public static void computeAllPairsInterleaved(int[] pairs,
+                                                  int[] out,
+                                                  int from,
+                                                  int to) {
+        checkPairsRange(pairs, out, from, to);
+
+        int i = from;
+        for (; i + 1 < to; i += 2)
+            gcd2(pairs[2 * i], pairs[2 * i + 1],
+                 pairs[2 * i + 2], pairs[2 * i + 3],
+                 out,
+                 i - from);
+
+        // Handle the odd pair (if any).
+        if (i < to)
+            out[i - from] = gcd(pairs[2 * i], pairs[2 * i + 1]);
+    }
+
+    /**
+     * Compute gcd(@a u0, @a v0) and gcd(@a u1, @a v1) in lockstep and
+     * store them in @a out[@a index] and @a out[@a index + 1].  Each
+     * iteration advances both lanes by one subtract-and-shift step,
+     * and a lane that's finished keeps its result by masking out the
+     * update, so the loop runs until the slower of the two pairs is
+     * done.
+     */
+    private static void gcd2(int u0, int v0,
+                             int u1, int v1,
+                             int[] out,
+                             int index) {
+        // Handle zeros up front, i.e., gcd(0, v) == v, so both lanes
+        // start with non-zero values.
+        int zero0 = u0 == 0 || v0 == 0 ? u0 | v0 : -1;
+        int zero1 = u1 == 0 || v1 == 0 ? u1 | v1 : -1;
+        if (zero0 >= 0)
+            u0 = v0 = 1;
+        if (zero1 >= 0)
+            u1 = v1 = 1;
+
+        // Factor out the common powers of two.
+        int shift0 = Integer.numberOfTrailingZeros(u0 | v0);
+        int shift1 = Integer.numberOfTrailingZeros(u1 | v1);
+        u0 >>= Integer.numberOfTrailingZeros(u0);
+        u1 >>= Integer.numberOfTrailingZeros(u1);
+
+        // Loop until both lanes are done.  Shifting zero by
+        // numberOfTrailingZeros(0) == 32 leaves it zero since Java
+        // masks the shift distance, so a finished lane is stable as
+        // long as its u is masked.
+        while ((v0 | v1) != 0) {
+            v0 >>= Integer.numberOfTrailingZeros(v0);
+            v1 >>= Integer.numberOfTrailingZeros(v1);
+
+            int diff0 = v0 - u0;
+            int diff1 = v1 - u1;
+            int less0 = diff0 >> 31;
+            int less1 = diff1 >> 31;
+
+            // live is -1 while the lane's v is non-zero, else 0.
+            int live0 = (v0 | -v0) >> 31;
+            int live1 = (v1 | -v1) >> 31;
+
+            u0 += diff0 & less0 & live0;
+            u1 += diff1 & less1 & live1;
+            v0 = (diff0 ^ less0) - less0;
+            v1 = (diff1 ^ less1) - less1;
+            v0 &= live0;
+            v1 &= live1;
+        }
+
+        out[index] = zero0 >= 0 ? zero0 : u0 << shift0;
+        out[index + 1] = zero1 >= 0 ? zero1 : u1 << shift1;
+    }
+
+    /**
+     * Branch-reduced binary GCD of non-negative @a u and @a v.
+     */
+    private static int gcd(int u,
+                           int v) {
+        if (u == 0)
+            return v;
+        if (v == 0)
+            return u;
+
+        // Factor out the common powers of two and make u odd.
+        int shift = Integer.numberOfTrailingZeros(u | v);
+        u >>= Integer.numberOfTrailingZeros(u);
+
+        do {
+            // Make v odd, then replace (u, v) with (min(u, v), |v -
+            // u|) using a sign mask rather than a branch.
+            v >>= Integer.numberOfTrailingZeros(v);
+            int diff = v - u;
+            int less = diff >> 31;
+            u += diff & less;
+            v = (diff ^ less) - less;
+        } while (v != 0);
+
+        return u << shift;
+    }
+
+    /**
+     * Check the range once so the kernels' loops don't need to.
+     */
+    private static void checkRange(int[] a,
+                                   int[] b,
+                                   int[] out,
+                                   int from,
+                                   int to) {
+        if (from < 0
+            || from > to
+            || to > a.length
+            || to > b.length
+            || to - from > out.length)
+            throw new ArrayIndexOutOfBoundsException("from = "
+                                                     + from
+                                                     + ", to = "
+                                                     + to);
+    }
+
+    /**
+     * Check the range of interleaved pairs once so the kernels' loops
+     * don't need to.
+     */
+    private static void checkPairsRange(int[] pairs,
+                                        int[] out,
+                                        int from,
+                                        int to) {
+        if (from < 0
+            || from > to
+            || to > pairs.length / 2
+            || to - from > out.length)
+            throw new ArrayIndexOutOfBoundsException("from = "
+                                                     + from
+                                                     + ", to = "
+                                                     + to);
+    }
+}
@@ -7,21 +7,28 @@ import edu.vandy.visfwk.model.TaskTuple;
 import edu.vandy.visfwk.model.abstracts.AbstractTestTask;
 import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
 import edu.vandy.visfwk.presenter.interfaces.PresenterInterface;
+import edu.vandy.visfwk.utils.ArrivalRecorder;
+import edu.vandy.visfwk.utils.CancellationToken;
+import edu.vandy.visfwk.utils.HeadlessRunner;
+import edu.vandy.visfwk.utils.InstrumentedCountDownLatch;
+import edu.vandy.visfwk.utils.InstrumentedThreadPool;
 import edu.vandy.visfwk.utils.ProgressReporter;
+import edu.vandy.visfwk.utils.ProgressSampler;
+import edu.vandy.visfwk.utils.ResultChecksum;
 import edu.vandy.visfwk.view.interfaces.ViewInterface;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
-
-import static java.util.stream.Collectors.toList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class tests various GCDInterface implementations using CountDownLatchs
- * on Android.
+ * on Android.  By default all the testers start together, so each
+ * one's time depends on how many cores the others take, but the
+ * concurrency can be limited so the testers run in groups one after
+ * the other, e.g., one at a time, like the modes of HeadlessRunner.
  */
 public class GCDCountDownLatchTestTask
 	extends AbstractTestTask<GCDInterface>
@@ -33,9 +40,10 @@ public class GCDCountDownLatchTestTask
         GCDCountDownLatchTestTask.class.getCanonicalName();
 
     /**
-     * The executor to run this AsyncTask and Runnable(s) on.
+     * The bounded pool of pre-started threads to run the GCDInterface
+     * testers on, which measures how long they take to start.
      */
-    private ExecutorService mExecutor;
+    private InstrumentedThreadPool mExecutor;
 
     /**
      * This list of AndroidGCDCountDownLatchTesters keeps track of the
@@ -49,55 +57,88 @@ public class GCDCountDownLatchTestTask
     private int mIterations;
 
     /**
-     * This entry barrier ensures the threads don't start until the
-     * coordinator thread lets them begin.
+     * Maximum number of testers that run at the same time, or
+     * HeadlessRunner.sALL_CONCURRENT if they all do.
+     */
+    private final int mConcurrency;
+
+    /**
+     * Number of testers in each group, except possibly the last one,
+     * which gets the rest.
+     */
+    private int mGroupSize;
+
+    /**
+     * The entry barriers of the groups of testers, which run one
+     * after the other.  Each ensures the threads of its group don't
+     * start until the coordinator thread lets them begin.  It records
+     * when each tester arrives and is reset for each cycle.
+     */
+    private List<InstrumentedCountDownLatch> mEntryBarriers;
+
+    /**
+     * The exit barriers of the groups of testers.  Each ensures the
+     * coordinator thread doesn't continue until all the test threads
+     * of its group complete.  It records when each tester finishes
+     * and is reset for each cycle.
      */
-    private CountDownLatch mEntryBarrier;
+    private List<InstrumentedCountDownLatch> mExitBarriers;
 
     /**
-     * This exit barrier ensures the coordinator thread doesn't
-     * complete until all the test threads complete.
+     * Samples the progress counted by the testers and posts it to the
+     * View layer at a fixed rate.
      */
-    private CountDownLatch mExitBarrier;
+    private ProgressSampler mProgressSampler;
 
     /**
-     * Constructor initializes the fields.
+     * If non-null each GCDInterface test splits its input range into
+     * chunks that run in parallel in this pool.
+     */
+    private final ForkJoinPool mForkJoinPool;
+
+    /**
+     * Tells the testers to stop when the task is cancelled, which
+     * they check often enough to stop within its maximum latency.
+     */
+    private final CancellationToken mCancellation =
+        new CancellationToken();
+
+    /**
+     * Constructor initializes the fields.  If @a parallelChunks is
+     * true each GCDInterface test splits its input range across the
+     * cores via the common ForkJoinPool instead of running in a single
+     * thread.  At most @a concurrency testers run at the same time,
+     * or all of them if it's HeadlessRunner.sALL_CONCURRENT.
      */
     GCDCountDownLatchTestTask(ViewInterface<GCDInterface> viewInterface,
                               ModelStateInterface<GCDInterface> modelStateInterface,
                               PresenterInterface presenterInterface,
-                              int iterations) {
+                              int iterations,
+                              boolean parallelChunks,
+                              int concurrency) {
         super(viewInterface,
               modelStateInterface,
               presenterInterface);
 
+        if (concurrency < 0)
+            throw new IllegalArgumentException("negative concurrency "
+                                               + concurrency);
+
         // Set the number of times to run the tests.
         mIterations = iterations;
 
-        // Create a new ThreadFactory object that sets the
-        // "UncaughtExceptionHandler" each time its newThread()
-        // factory method is called.
-        final ThreadFactory threadFactory =
-            runnable -> {
-            Thread thread = new Thread(runnable);
-
-            // Set a handler for any uncaught exception.
-            thread.setUncaughtExceptionHandler((thr, ex) -> {
-                    Log.d(TAG, "GCDCountDownLatchTestTask encountered an exception:"
-                          + ex
-                          + " for thread "
-                          + thread);
-                });
-            return thread;
-        };
+        // Set how many tests run at the same time.
+        mConcurrency = concurrency;
 
-        // Create a new cached thread pool executor.
-        mExecutor = Executors.newCachedThreadPool(threadFactory);
+        // Use the common ForkJoinPool if the tests run in parallel.
+        mForkJoinPool = parallelChunks
+            ? ForkJoinPool.commonPool()
+            : null;
     }
 
     /**
      * Hook method called in the UI thread prior to execution of the
-     * asynctask.
+     * task.
      */
     protected void onPreExecute() {
         // This list of GCDTuples keeps track of the data needed to
@@ -108,32 +149,91 @@ public class GCDCountDownLatchTestTask
         Log.d(TAG,
               "onPreExecute()");
 
-        // Create an entry barrier that ensures the threads don't
-        // start until this thread lets them begin.
-        mEntryBarrier = new CountDownLatch(1);
-
-        // Create an exit barrier that ensures this thread doesn't
-        // complete until all the test threads complete.
-        mExitBarrier = new CountDownLatch(gcdTaskTuples.size());
-
-        // Create a list of GCDInterface testers.
-        mGcdTesters = gcdTaskTuples
-            // Covert the GCDInterface tuples into a stream.
-            .stream()
-
-            // Map each GCDInterface tuple into a GCDInterface tester.
-            .map(gcdTaskTuple ->
-                 new GCDCountDownLatchTesterAndroidAdapter
-                 // All test tasks share the entry and exit barriers.
-                 (mViewInterface,
-                  gcdTaskTuple.getTaskUniqueId(),
-                  mEntryBarrier,
-                  mExitBarrier,
-                  gcdTaskTuple,
-                  this))
-
-            // Collect into a list.
-            .collect(toList());
+        // Sample the progress the testers count and post it to the
+        // View layer, which coalesces it into one refresh per frame.
+        mProgressSampler =
+            new ProgressSampler(gcdTaskTuples.size(),
+                                ProgressSampler.sDEFAULT_PERIOD_MILLIS,
+                                mViewInterface::postProgress);
+        mProgressSampler.start();
+
+        // Create a pool with a pre-started thread per tester, so no
+        // thread is created while the cycles are timed.  Each cycle
+        // submits every tester once, so a tester only waits in the
+        // queue until the previous cycle's thread is returned.
+        int threads = Math.max(1, gcdTaskTuples.size());
+        mExecutor =
+            new InstrumentedThreadPool("GCDTester",
+                                       threads,
+                                       threads,
+                                       // Log any uncaught exception.
+                                       (thread, ex) ->
+                                       Log.d(TAG, "GCDCountDownLatchTestTask encountered an exception:"
+                                             + ex
+                                             + " for thread "
+                                             + thread));
+
+        // Split the testers into the groups that run at the same
+        // time, which is a single group unless the concurrency is
+        // limited.
+        mGroupSize = mConcurrency == HeadlessRunner.sALL_CONCURRENT
+            ? Math.max(1, gcdTaskTuples.size())
+            : mConcurrency;
+        int groups = (gcdTaskTuples.size() + mGroupSize - 1) / mGroupSize;
+
+        mEntryBarriers = new ArrayList<>();
+        mExitBarriers = new ArrayList<>();
+        mGcdTesters = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            List<TaskTuple<GCDInterface>> groupTaskTuples =
+                gcdTaskTuples.subList(group * mGroupSize,
+                                      Math.min((group + 1) * mGroupSize,
+                                               gcdTaskTuples.size()));
+            String suffix = groups > 1
+                ? "[" + group + "]"
+                : "";
+
+            // Create an entry barrier that ensures the threads of the
+            // group don't start until this thread lets them begin.
+            InstrumentedCountDownLatch entryBarrier =
+                new InstrumentedCountDownLatch("entry" + suffix, 1);
+
+            // Create an exit barrier that ensures this thread doesn't
+            // continue until all the test threads of the group
+            // complete.
+            InstrumentedCountDownLatch exitBarrier =
+                new InstrumentedCountDownLatch("exit" + suffix,
+                                               groupTaskTuples.size());
+
+            mEntryBarriers.add(entryBarrier);
+            mExitBarriers.add(exitBarrier);
+
+            // Create the GCDInterface testers of the group.
+            groupTaskTuples
+                // Covert the GCDInterface tuples into a stream.
+                .stream()
+
+                // Map each GCDInterface tuple into a GCDInterface tester.
+                .map(gcdTaskTuple ->
+                     new GCDCountDownLatchTesterAndroidAdapter
+                     // The test tasks of a group share its entry and
+                     // exit barriers.
+                     (mViewInterface,
+                      gcdTaskTuple.getTaskUniqueId(),
+                      entryBarrier,
+                      exitBarrier,
+                      gcdTaskTuple,
+                      // The testers count their progress, which is
+                      // sampled rather than published.
+                      ProgressReporter.sampled(mProgressSampler),
+                      mForkJoinPool))
+
+                // Stop each tester when the task is cancelled.
+                .peek(tester -> tester.setCancellation(mCancellation))
+
+                // Add them to the list.
+                .forEach(mGcdTesters::add);
+        }
     }
 
     /**
@@ -145,13 +245,27 @@ public class GCDCountDownLatchTestTask
         Log.d(TAG,
               "doInBackground()" + cycles[0]);
 
+        // Name this thread's arrivals at the latches.
+        ArrivalRecorder.setParty("coordinator");
+
         // Iterate for each cycle.
         for (int cycle = 1;
              cycle <= cycles[0];
              cycle++) {
             try {
-                // Initialize the input arrays.
-                GCDCountDownLatchWorker.initializeInputs(mIterations);
+                // Close the latches again, since a CountDownLatch
+                // stays open once it's counted down to zero.
+                for (int group = 0; group < mEntryBarriers.size(); group++) {
+                    mEntryBarriers.get(group).reset(1);
+                    mExitBarriers.get(group).reset(Math.min(mGroupSize,
+                                                            mGcdTesters.size()
+                                                            - group * mGroupSize));
+                }
+
+                // Initialize the inputs and start generating the
+                // inputs for the next cycle (if any).
+                GCDCountDownLatchWorker.initializeInputs(mIterations,
+                                                         cycle < cycles[0]);
 
                 // Execute each GCDInterface tester in the ExecutorService.
                 mGcdTesters.forEach(mExecutor::execute);
@@ -173,23 +287,51 @@ public class GCDCountDownLatchTestTask
                     System.out.println("Starting GCDInterface tests for cycle "
                                        + cycle);
 
-                    // Wait until all the worker threads are ready to run.
-                    mEntryBarrier.countDown();
-                    System.out.println("Waiting for results from cycle "
-                                       + cycle);
-
-                    // Wait until all the worker threads are finished
-                    // running.
-                    mExitBarrier.await();
+                    // Run the groups of testers one after the other.
+                    for (int group = 0; group < mEntryBarriers.size(); group++) {
+                        // Let the worker threads of the group run.
+                        mEntryBarriers.get(group).countDown();
+                        System.out.println("Waiting for results from cycle "
+                                           + cycle);
+
+                        // Wait until all the worker threads of the
+                        // group are finished running.
+                        mExitBarriers.get(group).await();
+                    }
                     System.out.println("All threads are done for cycle "
                                        + cycle);
+
+                    // Make sure all the GCDInterface implementations computed
+                    // the same results.
+                    checkResults(cycle);
+
+                    // Log when each tester arrived at the latches,
+                    // which shows how long the faster ones sat idle
+                    // waiting for the straggler.
+                    for (int group = 0; group < mEntryBarriers.size(); group++) {
+                        Log.d(TAG,
+                              "cycle " + cycle + " " + mEntryBarriers.get(group).drainArrivals());
+                        Log.d(TAG,
+                              "cycle " + cycle + " " + mExitBarriers.get(group).drainArrivals());
+                    }
+
+                    // Log how long the testers took to start, which delays
+                    // the entry barrier, and start measuring the next cycle.
+                    Log.d(TAG,
+                          "cycle " + cycle + " pool: " + mExecutor.describe());
+                    mExecutor.resetLatencies();
                 } catch (Exception ex) {
                     System.out.println("cancelling doInBackground() due to exception"
                                        + ex);
 
+                    // Stop the testers before returning, so none is
+                    // left running or parked at a barrier.
+                    stopTesters();
+
                     // Cancel ourselves so the onCancelled() hook
                     // method gets called.
                     cancel(true);
+                    ArrivalRecorder.clearParty();
                     return null;
                 }
             } catch (Exception ex) {
@@ -197,6 +339,7 @@ public class GCDCountDownLatchTestTask
                       "Exception: " + ex.getMessage());
             }
         }
+        ArrivalRecorder.clearParty();
         return null;
     }
 
@@ -220,6 +363,12 @@ public class GCDCountDownLatchTestTask
         mViewInterface.getFragmentActivity()
             .runOnUiThread(command);
 
+        // Shutdown the threads in the pool, which are idle now.
+        mExecutor.shutdown();
+
+        // Stop sampling, which posts the final progress.
+        mProgressSampler.stop();
+
         // Call to the super class.
         super.onPostExecute(v);
     }
@@ -231,13 +380,68 @@ public class GCDCountDownLatchTestTask
     public void onCancelled(Void v) {
         System.out.println("in onCancelled()");
 
-        // Shutdown all the threads in the polls.
+        // Shutdown all the threads in the pool, interrupting any
+        // tester that didn't stop when it was cancelled.
         mExecutor.shutdownNow();
 
+        // Stop sampling, which posts the final progress.
+        mProgressSampler.stop();
+
         // Call to the super class.
         super.onCancelled(v);
     }
 
+    /**
+     * Tell the testers to stop and wait (at most twice the maximum
+     * cancellation latency) for them to return to the pool, logging
+     * how long they took.
+     */
+    private void stopTesters() {
+        // Clear the interrupt that cancelled this thread, so it can
+        // wait for the testers.
+        Thread.interrupted();
+        mCancellation.cancel();
+
+        try {
+            // Release the testers waiting for the entry latch, which
+            // then see the cancellation, and wait for those still
+            // computing to return to the pool.  The testers never wait
+            // for the exit latch.
+            mEntryBarriers.forEach(InstrumentedCountDownLatch::countDown);
+            mExecutor.shutdown();
+            boolean stopped =
+                mExecutor.awaitTermination(2 * mCancellation.getMaxLatencyNanos(),
+                                           TimeUnit.NANOSECONDS);
+
+            if (stopped)
+                Log.d(TAG,
+                      "testers stopped within "
+                      + mCancellation.getMaxObservedLatencyNanos() / 1000000.0
+                      + " ms of cancellation");
+            else
+                Log.w(TAG,
+                      "testers didn't stop within "
+                      + 2 * mCancellation.getMaxLatencyNanos() / 1000000.0
+                      + " ms of cancellation");
+        } catch (InterruptedException e) {
+            // Cancelled again, so give up waiting.  onCancelled()
+            // interrupts any testers that are left.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Log the GCDInterface implementations whose results of @a cycle
+     * differ from the others' results.
+     */
+    private void checkResults(int cycle) {
+        String mismatches =
+            ResultChecksum.describeMismatches(mModelStateInterface.getTestTasks());
+        if (mismatches != null)
+            Log.e(TAG,
+                  "cycle " + cycle + ": " + mismatches);
+    }
+
     /**
      * Report progress to the UI thread.
      */
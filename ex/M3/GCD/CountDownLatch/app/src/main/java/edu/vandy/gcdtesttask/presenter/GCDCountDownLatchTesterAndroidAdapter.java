@@ -5,6 +5,7 @@ import edu.vandy.visfwk.utils.ProgressReporter;
 import edu.vandy.visfwk.view.interfaces.ViewInterface;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The class is an Adapter that uses Android's UI to visualize the
@@ -24,18 +25,22 @@ public class GCDCountDownLatchTesterAndroidAdapter
 
     /**
      * Constructor initializes the fields and displays the initial
-     * mProgressStatus bar for this GCDInterface implementation.
+     * mProgressStatus bar for this GCDInterface implementation.  If
+     * @a forkJoinPool is non-null the input range is split into chunks
+     * that run in parallel in that pool.
      */
     public GCDCountDownLatchTesterAndroidAdapter(ViewInterface<GCDInterface> viewInterface,
                                                  int uniqueID,
                                                  CountDownLatch entryBarrier,
                                                  CountDownLatch exitBarrier,
                                                  TaskTuple<GCDInterface> gcdTuple,
-                                                 ProgressReporter progressReporter) {
+                                                 ProgressReporter progressReporter,
+                                                 ForkJoinPool forkJoinPool) {
         super(entryBarrier,
               exitBarrier,
               gcdTuple,
-              progressReporter);
+              progressReporter,
+              forkJoinPool);
         mViewInterface = viewInterface;
         mUniqueID = uniqueID;
         mViewInterface.setProgress(mUniqueID,
@@ -43,8 +48,8 @@ public class GCDCountDownLatchTesterAndroidAdapter
     }
 
     /**
-     * This factory method returns a Runnable that will be displayed
-     * in the UI/main thread.
+     * This factory method returns a Runnable that posts the progress
+     * to the View layer, which is safe to run in the worker's thread.
      */
     protected Runnable makeReport(Integer percentageComplete) {
         return () -> {
@@ -52,9 +57,11 @@ public class GCDCountDownLatchTesterAndroidAdapter
                                + percentageComplete
                                + "% complete for "
                                + mTestName);
-            mViewInterface.setProgress(mUniqueID,
-                                       percentageComplete);
-
+            // Post the progress from the worker's thread, since the
+            // View layer coalesces the reports into one refresh per
+            // frame.
+            mViewInterface.postProgress(mUniqueID,
+                                        percentageComplete);
         };
     }
 }
@@ -1,10 +1,23 @@
 package edu.vandy.gcdtesttask.presenter;
 
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import edu.vandy.visfwk.model.TaskProfile;
 import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.UniformDistribution;
+import edu.vandy.visfwk.model.WorkloadSpec;
+import edu.vandy.visfwk.utils.ArrivalRecorder;
+import edu.vandy.visfwk.utils.CancellationToken;
+import edu.vandy.visfwk.utils.ProgressCounter;
 import edu.vandy.visfwk.utils.ProgressReporter;
+import edu.vandy.visfwk.utils.ResultChecksum;
+import edu.vandy.visfwk.utils.ThreadProfiler;
 
 /**
  * Each instance of this class runs in a thread and tests various GCDInterface
@@ -18,6 +31,32 @@ public class GCDCountDownLatchWorker
     private final static String TAG =
         GCDCountDownLatchTestTask.class.getCanonicalName();
 
+    /**
+     * Number of input pairs passed to the GCD function per call,
+     * which is small enough for the results buffer to stay in the L1
+     * cache and large enough to amortize the interface dispatch.
+     */
+    private final static int sBLOCK_SIZE = 1024;
+
+    /**
+     * Number of input pairs processed by each fork-join task when the
+     * input range is split across a ForkJoinPool.
+     */
+    private final static int sCHUNK_SIZE = 64 * sBLOCK_SIZE;
+
+    /**
+     * Number of evenly spaced blocks whose results are checksummed,
+     * which is enough to catch a wrong implementation while keeping
+     * the checksum out of the timed loop.
+     */
+    private final static int sCHECKSUM_BLOCKS = 64;
+
+    /**
+     * The default workload, whose inputs are uniformly distributed.
+     */
+    private final static WorkloadSpec sDEFAULT_WORKLOAD =
+        new WorkloadSpec(new UniformDistribution(2));
+
     /**
      * This entry barrier ensures the threads don't start until the
      * coordinator thread lets them begin.
@@ -41,16 +80,38 @@ public class GCDCountDownLatchWorker
     final String mTestName;
 
     /**
-     * An array of randomly generated input to use as the first
-     * parameter to the GCDInterface function.
+     * The tuple of the GCDInterface function being tested, which
+     * receives the TaskProfile of each completed run.
      */
-    private static int[] mInputA;
+    private final TaskTuple<GCDInterface> mTaskTuple;
 
     /**
-     * An array of randomly generated input to use as the second
-     * parameter to the GCDInterface function.
+     * An array of randomly generated input to use as the parameters
+     * to the GCDInterface function, which are stored interleaved so
+     * the parameters of the i-th test are mInputs[2 * i] and
+     * mInputs[2 * i + 1].
      */
-    private static int[] mInputB;
+    private static int[] mInputs;
+
+    /**
+     * If non-null the inputs for the next cycle, which are generated
+     * in the background while the current cycle runs.
+     */
+    private static CompletableFuture<int[]> mNextInputs;
+
+    /**
+     * True if initializeInputs() may prefetch the inputs of the next
+     * cycle.  This is off by default since a prefetched array is a
+     * second copy of the inputs, which doubles their footprint, e.g.,
+     * 100 million iterations need 1.6 GB rather than 800 MB.
+     */
+    private static boolean mPrefetchEnabled;
+
+    /**
+     * Specifies the distribution of the inputs, which must be
+     * interleaved pairs.
+     */
+    private static WorkloadSpec mWorkload = sDEFAULT_WORKLOAD;
 
     /**
      * A reference to the ProgressReporter.
@@ -58,116 +119,577 @@ public class GCDCountDownLatchWorker
     private final ProgressReporter mProgressReporter;
 
     /**
-     * Constructor initializes the fields.
+     * The counter the current run adds its completed iterations to,
+     * or null if the progress is reported every 10% via
+     * mProgressReporter instead.
+     */
+    private volatile ProgressCounter mProgressCounter;
+
+    /**
+     * If non-null the input range is split into chunks that run in
+     * parallel in this pool, otherwise the test runs sequentially in
+     * the worker's own thread.
+     */
+    private final ForkJoinPool mForkJoinPool;
+
+    /**
+     * Number of input pairs processed so far by the chunks of a
+     * parallel run.
+     */
+    private final AtomicInteger mCompleted = new AtomicInteger();
+
+    /**
+     * Buffers that receive the results of the blocks that are
+     * checksummed, so they can be checksummed after the run stops
+     * timing.  The k-th buffer holds the results of the block at
+     * sampleBlock(k, ...), which depends only on the number of
+     * iterations, so every function run on the same inputs checksums
+     * the same blocks whether it runs sequentially or in parallel.
+     */
+    private int[][] mSampledResults = new int[0][];
+
+    /**
+     * Tells the worker to stop, which it checks on a strided schedule
+     * rather than once per block.
+     */
+    private volatile CancellationToken mCancellation =
+        new CancellationToken();
+
+    /**
+     * Wall-clock time (in nanoseconds) of the most recent run, or -1
+     * if it didn't complete.
+     */
+    private volatile long mElapsedNanos = -1;
+
+    /**
+     * Resources used by the fork-join threads during a parallel run,
+     * or null if none have been used yet.
+     */
+    private TaskProfile mChunkProfile;
+
+    /**
+     * Constructor initializes the fields for a test that runs
+     * sequentially in the worker's own thread.
      */
     public GCDCountDownLatchWorker(CountDownLatch entryBarrier,
                                    CountDownLatch exitBarrier,
                                    TaskTuple<GCDInterface> gcdTuple,
                                    ProgressReporter progressReporter) {
+        this(entryBarrier,
+             exitBarrier,
+             gcdTuple,
+             progressReporter,
+             null);
+    }
+
+    /**
+     * Constructor initializes the fields.  If @a forkJoinPool is
+     * non-null the input range is split into chunks that run in
+     * parallel in that pool.
+     */
+    public GCDCountDownLatchWorker(CountDownLatch entryBarrier,
+                                   CountDownLatch exitBarrier,
+                                   TaskTuple<GCDInterface> gcdTuple,
+                                   ProgressReporter progressReporter,
+                                   ForkJoinPool forkJoinPool) {
         mEntryBarrier = entryBarrier;
         mExitBarrier = exitBarrier;
         mGcdFunction = gcdTuple.getTestFunc();
         mTestName = gcdTuple.getTestName();
+        mTaskTuple = gcdTuple;
         mProgressReporter = progressReporter;
+        mForkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * Stop the test when @a cancellation is cancelled, which it checks
+     * often enough to stop within the token's maximum latency.
+     */
+    public void setCancellation(CancellationToken cancellation) {
+        mCancellation = cancellation;
+    }
+
+    /**
+     * Returns true if the worker's CancellationToken has been
+     * cancelled or the calling thread has been interrupted, e.g., by
+     * shutdownNow(), which stops the worker the same way.
+     */
+    protected boolean isCancelled() {
+        return mCancellation.isCancelled()
+            || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Generate the inputs of the following cycles as specified by @a
+     * workload, or uniformly if it's null.  Any inputs that were
+     * prefetched with the previous workload are discarded.
+     *
+     * @throws IllegalArgumentException If @a workload doesn't
+     * generate interleaved pairs.
+     */
+    public static synchronized void setWorkload(WorkloadSpec workload) {
+        if (workload == null)
+            workload = sDEFAULT_WORKLOAD;
+        else if (workload.getArity() != 2
+                 || workload.getLayout() != WorkloadSpec.Layout.INTERLEAVED)
+            throw new IllegalArgumentException("GCD inputs must be interleaved pairs: "
+                                               + workload);
+        mWorkload = workload;
+        mNextInputs = null;
+    }
+
+    /**
+     * Returns the specification of the inputs of the following
+     * cycles.
+     */
+    public static synchronized WorkloadSpec getWorkload() {
+        return mWorkload;
+    }
+
+    /**
+     * Allow initializeInputs() to prefetch the inputs of the next
+     * cycle if @a enabled is true, which overlaps generating them
+     * with the current cycle at the cost of keeping two copies of the
+     * inputs in memory.  Any inputs already prefetched are discarded
+     * if @a enabled is false.
+     */
+    public static synchronized void setPrefetchEnabled(boolean enabled) {
+        mPrefetchEnabled = enabled;
+        if (!enabled)
+            mNextInputs = null;
     }
 
     /**
-     * Initialize the input arrays so that all the GCDInterface functions
+     * Initialize the inputs so that all the GCDInterface functions
      * operate on the same randomly generated data.
      */
     public static void initializeInputs(int iterations) {
+        initializeInputs(iterations,
+                         false);
+    }
+
+    /**
+     * Initialize the inputs so that all the GCDInterface functions
+     * operate on the same randomly generated data.  If the previous
+     * call prefetched inputs of the right size they're used rather
+     * than generating new ones.  If @a nextCycle is true and
+     * prefetching is enabled via setPrefetchEnabled() the inputs for
+     * the next cycle are generated in the background, so that work
+     * overlaps with this cycle's tests rather than delaying the start
+     * of the next cycle.
+     */
+    public static synchronized void initializeInputs(int iterations,
+                                                     boolean nextCycle) {
         System.out.println(TAG 
                            + ", calling initializeInputs() for "
                            + iterations 
                            + " iterations");
 
-        // Create a new Random number generator.
-        Random random = new Random();
+        // Use the prefetched inputs (if any), waiting for them to be
+        // generated if necessary.
+        int[] inputs = null;
+        if (mNextInputs != null) {
+            inputs = mNextInputs.join();
+            mNextInputs = null;
+        }
+
+        final WorkloadSpec workload = mWorkload;
+        // The previous inputs, which no test reads any longer since
+        // this is called between cycles.
+        int[] previous = mInputs;
+        if (previous != null && previous.length != 2 * iterations)
+            previous = null;
 
-        // Generate "iterations" random ints between 0 and MAX_VALUE.
-        mInputA =
-            random.ints(iterations,
-                        0,
-                        Integer.MAX_VALUE)
-            .toArray();
+        if (inputs == null || inputs.length != 2 * iterations) {
+            // Regenerate the previous inputs in place if they're the
+            // right size.  Otherwise drop them first so they can be
+            // collected while the new ones are allocated, rather than
+            // both being live at once.
+            inputs = null;
+            mInputs = null;
+            inputs = workload.generate(iterations, previous);
+            previous = null;
+        }
+        mInputs = inputs;
 
-        // Generate "iterations" random ints between 0 and MAX_VALUE.
-        mInputB =
-            random.ints(iterations,
-                        0,
-                        Integer.MAX_VALUE)
-            .toArray();
+        // Start generating the inputs for the next cycle, reusing the
+        // previous inputs (if any) as the spare buffer.
+        if (nextCycle && mPrefetchEnabled) {
+            final int[] spare = previous;
+            mNextInputs =
+                CompletableFuture.supplyAsync(() -> workload.generate(iterations,
+                                                                      spare));
+        }
     }
 
     /**
-     * Run the GCDInterface test.
+     * Run the GCDInterface test once on the current inputs.
      */
-    private void runTest() {
+    protected void runTest() {
         System.out.println(TAG
                            + ", Starting test of "
                            + mTestName
                            + " in thread "
                            + Thread.currentThread());
 
-        // Size of the array(s) of random numbers indicates how many
+        // Size of the array of random number pairs indicates how many
         // iterations to perform.
-        int iterations = mInputA.length;
+        int iterations = mInputs.length / 2;
 
-        // Note the start time.
+        // Note the start time and the resources used so far by this
+        // thread.
+        mElapsedNanos = -1;
+        synchronized (this) {
+            mChunkProfile = null;
+        }
+        mTaskTuple.setChecksum(null);
+        int samples = Math.min(blockCount(iterations), sCHECKSUM_BLOCKS);
+        if (mSampledResults.length != samples)
+            mSampledResults = new int[samples][sBLOCK_SIZE];
+        ThreadProfiler profiler = ThreadProfiler.start();
         long startTime = System.nanoTime();
 
-        // Iterate for the given # of iterations.
-        for (int i = 0; i < iterations; ++i) {
-            if (Thread.interrupted()) {
-                System.out.println(TAG
-                                   + ", Interrupt request received in runTest() for "
-                                   + mTestName
-                                   + " in thread "
-                                   + Thread.currentThread());
-                return;
-            }
+        // Count the progress if the reporter samples it.
+        ProgressCounter progressCounter =
+            mProgressReporter.getProgressCounter(mTaskTuple.getTaskUniqueId());
+        if (progressCounter != null)
+            progressCounter.reset(iterations);
+        mProgressCounter = progressCounter;
 
-            // Get the next two random numbers.
-            int number1 = mInputA[i];
-            int number2 = mInputB[i];
-
-            // Compute the GCDInterface of these two numbers.
-            int result = mGcdFunction.compute(number1,
-                                      number2);
-
-            // Publish the mProgressStatus every 10%.
-            if (((i + 1) % (iterations / 10)) == 0) {
-                /*
-                  System.out.println("In runTest() on iteration "
-                  + i
-                  + " the GCDInterface of "
-                  + number1
-                  + " and "
-                  + number2
-                  + " is "
-                  + result);
-                */
-                // Convert to a percentage of 100.
-                double percentage =
-                    ((double) (i + 1) / (double) iterations) * 100.00;
+        // Run the test sequentially or in parallel.
+        boolean completed = mForkJoinPool == null
+            ? runSequential(iterations)
+            : runParallel(iterations);
 
-                // Publish mProgressStatus as a percentage of total
-                // completion.
-                mProgressReporter.updateProgress(makeReport((int) percentage));
-            }
+        if (!completed) {
+            System.out.println(TAG
+                               + ", Cancellation received in runTest() for "
+                               + mTestName
+                               + " in thread "
+                               + Thread.currentThread());
+            return;
         }
 
         // Stop timing the tests.
         long stopTime = System.nanoTime();
+        mElapsedNanos = stopTime - startTime;
+
+        // Attach the resources used by this thread (and by the
+        // fork-join threads, if any) to the tuple.
+        TaskProfile profile = profiler.stop(mElapsedNanos);
+        synchronized (this) {
+            if (mChunkProfile != null)
+                profile = profile.plus(mChunkProfile);
+        }
+        mTaskTuple.setProfile(profile);
+
+        // Attach the checksum of the sampled results, so they can be
+        // compared with those of the other GCDInterface functions.
+        mTaskTuple.setChecksum(checksumSamples(iterations));
 
         // Print the results.
         System.out.println(TAG
                            + ", "
-                           + (double) (stopTime - startTime) / 1000000.0
+                           + (double) mElapsedNanos / 1000000.0
                            + " millisecond run time for "
                            + mTestName
+                           + (mForkJoinPool == null
+                              ? ""
+                              : " split across "
+                              + mForkJoinPool.getParallelism()
+                              + " fork-join threads")
                            + " in thread "
-                           + Thread.currentThread());
+                           + Thread.currentThread()
+                           + " ("
+                           + profile
+                           + ")");
+
+        // Report how often a memoized function's table hit, which
+        // tells whether the inputs repeat enough for it to pay off,
+        // and start counting afresh for the next run.
+        if (mGcdFunction instanceof GCDMemoized) {
+            GCDMemoized gcdMemoized = (GCDMemoized) mGcdFunction;
+            System.out.println(TAG
+                               + ", "
+                               + mTestName
+                               + " hit rate "
+                               + gcdMemoized.getHitRate()
+                               + " ("
+                               + gcdMemoized.getHits()
+                               + " hits, "
+                               + gcdMemoized.getMisses()
+                               + " misses)");
+            gcdMemoized.resetStatistics();
+        }
+    }
+
+    /**
+     * Run the test for the given # of @a iterations in the worker's
+     * own thread.  Returns false if the test was cancelled or the
+     * thread was interrupted.
+     */
+    private boolean runSequential(int iterations) {
+        // Buffer that receives the results of each block.
+        int[] results = new int[sBLOCK_SIZE];
+        ProgressCounter progressCounter = mProgressCounter;
+
+        // Checks for cancellation every few blocks.
+        CancellationToken.Poller poller = mCancellation.poller();
+
+        // Number of iterations between progress reports, which is
+        // 10% of the total (but at least one).
+        int progressStep = Math.max(1, iterations / 10);
+        int nextReport = progressStep;
+        int blocks = blockCount(iterations);
+
+        // Iterate for the given # of iterations a block at a time, so
+        // the GCD function is dispatched once per block rather than
+        // once per pair.
+        for (int from = 0; from < iterations; from += sBLOCK_SIZE) {
+            if (poller.poll())
+                return false;
+
+            int to = Math.min(from + sBLOCK_SIZE, iterations);
+
+            // Compute the GCDs of the next block of random numbers.
+            mGcdFunction.computeAllPairs(mInputs,
+                                         resultsOf(from / sBLOCK_SIZE,
+                                                   blocks,
+                                                   results),
+                                         from,
+                                         to);
+
+            // Count the block if the progress is sampled, which
+            // neither divides nor allocates.
+            if (progressCounter != null) {
+                progressCounter.add(to - from);
+                continue;
+            }
+
+            // Otherwise publish the mProgressStatus every 10%.
+            for (; nextReport <= to; nextReport += progressStep) {
+                // Convert to a percentage of 100.
+                double percentage =
+                    ((double) nextReport / (double) iterations) * 100.00;
+
+                // Publish mProgressStatus as a percentage of total
+                // completion.
+                mProgressReporter.updateProgress(makeReport((int) percentage));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Run the test for the given # of @a iterations by splitting the
+     * input range into chunks that run in mForkJoinPool, while the
+     * worker's thread waits for them.  Returns false if the test was
+     * cancelled or the worker's thread was interrupted.
+     */
+    private boolean runParallel(int iterations) {
+        mCompleted.set(0);
+
+        // The chunks stop when the test is cancelled or the worker's
+        // thread is interrupted.
+        CancellationToken run = new CancellationToken(mCancellation);
+
+        ForkJoinTask<Void> task =
+            mForkJoinPool.submit(new ChunkTask(mInputs,
+                                               0,
+                                               iterations,
+                                               run));
+        try {
+            task.get();
+            return !run.isCancelled();
+        } catch (InterruptedException e) {
+            // Tell the chunks to stop and wait for them so they
+            // don't overlap with the next test.
+            run.cancel();
+            task.quietlyJoin();
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Record that @a count more input pairs have been processed by a
+     * parallel run and publish the mProgressStatus for each 10% of the
+     * @a iterations that's been crossed.
+     */
+    private void reportProgress(int count,
+                                int iterations) {
+        long progressStep = Math.max(1, iterations / 10);
+        long completed = mCompleted.addAndGet(count);
+
+        for (long nextReport = (completed - count) / progressStep + 1;
+             nextReport * progressStep <= completed;
+             nextReport++) {
+            // Convert to a percentage of 100.
+            double percentage =
+                ((double) (nextReport * progressStep) / (double) iterations) * 100.00;
+
+            // Publish mProgressStatus as a percentage of total
+            // completion.
+            mProgressReporter.updateProgress(makeReport((int) percentage));
+        }
+    }
+
+    /**
+     * Add the resources used by a chunk of a parallel run.
+     */
+    private synchronized void addChunkProfile(TaskProfile profile) {
+        mChunkProfile = mChunkProfile == null
+            ? profile
+            : mChunkProfile.plus(profile);
+    }
+
+    /**
+     * Returns the number of blocks of @a iterations input pairs.
+     */
+    private static int blockCount(int iterations) {
+        return (iterations + sBLOCK_SIZE - 1) / sBLOCK_SIZE;
+    }
+
+    /**
+     * Returns the block of the @a blocks blocks whose results are
+     * checksummed in the @a k-th of @a samples sampled buffers.
+     */
+    private static int sampleBlock(int k,
+                                   int blocks,
+                                   int samples) {
+        return (int) ((long) k * blocks / samples);
+    }
+
+    /**
+     * Returns the buffer that receives the results of block @a block
+     * of @a blocks, which is its sampled buffer if its results are
+     * checksummed and @a results otherwise.
+     */
+    private int[] resultsOf(int block,
+                            int blocks,
+                            int[] results) {
+        int[][] sampledResults = mSampledResults;
+        int samples = sampledResults.length;
+
+        // Only the first sample whose block is at least @a block can
+        // be @a block, since the sampled blocks are distinct.
+        int k = (int) (((long) block * samples + blocks - 1) / blocks);
+        return k < samples && sampleBlock(k, blocks, samples) == block
+            ? sampledResults[k]
+            : results;
+    }
+
+    /**
+     * Returns the checksum of the sampled results of a run of @a
+     * iterations, which is computed after the run stops timing.
+     */
+    private long checksumSamples(int iterations) {
+        int blocks = blockCount(iterations);
+        int samples = mSampledResults.length;
+
+        long checksum = 0;
+        for (int k = 0; k < samples; k++) {
+            int from = sampleBlock(k, blocks, samples) * sBLOCK_SIZE;
+            checksum += ResultChecksum.of(mSampledResults[k],
+                                          from,
+                                          Math.min(sBLOCK_SIZE,
+                                                   iterations - from));
+        }
+        return checksum;
+    }
+
+    /**
+     * Returns the wall-clock time (in nanoseconds) of the most recent
+     * run, or -1 if it didn't complete.
+     */
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    /**
+     * A fork-join task that recursively splits its range of the
+     * inputs in half until it's no larger than sCHUNK_SIZE and then
+     * computes the GCDs of that chunk a block at a time.  The halves
+     * are split on a block boundary, so the blocks are the same as
+     * those of a sequential run.
+     */
+    @SuppressWarnings("serial")
+    private class ChunkTask
+            extends RecursiveAction {
+        /**
+         * The inputs of the current run, which are captured since the
+         * static field is replaced on each cycle.
+         */
+        private final int[] mPairs;
+
+        /**
+         * The range of the inputs processed by this task.
+         */
+        private final int mFrom, mTo;
+
+        /**
+         * Tells the chunks of the current run to stop.
+         */
+        private final CancellationToken mRun;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        ChunkTask(int[] pairs,
+                  int from,
+                  int to,
+                  CancellationToken run) {
+            mPairs = pairs;
+            mFrom = from;
+            mTo = to;
+            mRun = run;
+        }
+
+        /**
+         * Split the range or compute the GCDs of this chunk.
+         */
+        @Override
+        protected void compute() {
+            if (mTo - mFrom > sCHUNK_SIZE) {
+                int mid = ((mFrom + mTo) >>> 1) / sBLOCK_SIZE * sBLOCK_SIZE;
+                invokeAll(new ChunkTask(mPairs, mFrom, mid, mRun),
+                          new ChunkTask(mPairs, mid, mTo, mRun));
+                return;
+            }
+
+            // Note the resources used so far by this fork-join thread.
+            ThreadProfiler profiler = ThreadProfiler.start();
+
+            // Buffer that receives the results of each block.
+            int[] results = new int[sBLOCK_SIZE];
+
+            // Checks for cancellation every few blocks.
+            CancellationToken.Poller poller = mRun.poller();
+
+            int blocks = blockCount(mPairs.length / 2);
+            for (int from = mFrom; from < mTo; from += sBLOCK_SIZE) {
+                if (poller.poll())
+                    return;
+
+                int to = Math.min(from + sBLOCK_SIZE, mTo);
+                mGcdFunction.computeAllPairs(mPairs,
+                                             resultsOf(from / sBLOCK_SIZE,
+                                                       blocks,
+                                                       results),
+                                             from,
+                                             to);
+            }
+
+            addChunkProfile(profiler.stop(0));
+
+            ProgressCounter progressCounter = mProgressCounter;
+            if (progressCounter != null)
+                progressCounter.add(mTo - mFrom);
+            else
+                reportProgress(mTo - mFrom, mPairs.length / 2);
+        }
     }
 
     /**
@@ -185,7 +707,16 @@ public class GCDCountDownLatchWorker
      * Main entry point into the GCDInterface test.
      */
     public void run() {
+        // Name this thread's arrivals at the barriers after the
+        // test, so instrumented barriers can tell who straggled.
+        ArrivalRecorder.setParty(mTestName);
+
         try {
+            // Don't start if the tests were cancelled while this
+            // worker was queued.
+            if (isCancelled())
+                return;
+
             // Wait for the coordinator thread to start the tests.
             mEntryBarrier.await();
 
@@ -196,11 +727,28 @@ public class GCDCountDownLatchWorker
             // finished.
             mExitBarrier.countDown();
         } catch (Exception ex) {
-            System.out.println(TAG
-                               + ", exception "
-                               + ex
-                               + " received in run() for thread "
-                               + Thread.currentThread());
+            // Keep the interrupt, which throwing InterruptedException
+            // cleared, so it's seen as cancellation.
+            if (ex instanceof InterruptedException)
+                Thread.currentThread().interrupt();
+
+            // The coordinator breaks the barriers (or interrupts the
+            // workers) to release them when the tests are cancelled,
+            // which isn't an error.
+            if (isCancelled())
+                System.out.println(TAG
+                                   + ", "
+                                   + mTestName
+                                   + " cancelled in thread "
+                                   + Thread.currentThread());
+            else
+                System.out.println(TAG
+                                   + ", exception "
+                                   + ex
+                                   + " received in run() for thread "
+                                   + Thread.currentThread());
+        } finally {
+            ArrivalRecorder.clearParty();
         }
     }
 }
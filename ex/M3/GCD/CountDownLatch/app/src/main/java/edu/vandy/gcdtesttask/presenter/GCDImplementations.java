@@ -1,6 +1,8 @@
 package edu.vandy.gcdtesttask.presenter;
 
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * This utility class defines various Greatest Common Divisor (GCDInterface) algorithm
@@ -80,8 +82,8 @@ public class GCDImplementations {
 
         for (k = 1; (a & 1) == 0 && (b & 1) == 0; k <<= 1) {
             a >>= 1;
+            b >>= 1;
         }
-        b >>= 1;
 
         t = (a & 1) != 0 ? -b : a;
 
@@ -101,4 +103,476 @@ public class GCDImplementations {
 
         return a * k;
     }
+
+    /**
+     * Compute the GCDInterface of parameters @a and @b using the Stein binary
+     * algorithm, stripping factors of two with a single trailing-zero
+     * count rather than one bit at a time and replacing the min/max
+     * swap with sign masks.  Zero and negative inputs are handled, so
+     * the result matches computeGCDBigInteger() for all inputs (which
+     * includes returning Integer.MIN_VALUE when the GCD is 2^31).
+     */
+    public static int computeGCDBinaryCtz(int a,
+                                          int b) {
+        if (a == 0) {
+            return Math.abs(b);
+        }
+        if (b == 0) {
+            return Math.abs(a);
+        }
+
+        // Factor out the common powers of two.
+        int shift = Integer.numberOfTrailingZeros(a | b);
+
+        // Make both values odd before taking their magnitudes so
+        // Integer.MIN_VALUE becomes -1 rather than overflowing.
+        a = Math.abs(a >> Integer.numberOfTrailingZeros(a));
+        b = Math.abs(b >> Integer.numberOfTrailingZeros(b));
+
+        do {
+            // Replace (a, b) with (min(a, b), |b - a|), which can't
+            // overflow since both are odd and positive.
+            int diff = b - a;
+            int less = diff >> 31;
+            a += diff & less;
+            b = (diff ^ less) - less;
+
+            // |b - a| is even, so make it odd again.  If b is 0 the
+            // shift distance of 32 is masked to 0, leaving it 0.
+            b >>= Integer.numberOfTrailingZeros(b);
+        } while (b != 0);
+
+        return a << shift;
+    }
+
+    /**
+     * Number of leading bits of the operands used to simulate
+     * Euclid's algorithm in Lehmer's algorithm, which leaves enough
+     * headroom for the cofactor arithmetic to stay within a long.
+     */
+    private static final int sLEHMER_BITS = 60;
+
+    /**
+     * Number of elements below which gcdOf() reduces an array
+     * sequentially, and the number of elements each leaf of a
+     * parallel reduction reduces sequentially, since forking a
+     * smaller range costs more than it saves.
+     */
+    private static final int sREDUCTION_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Compute the GCD of long parameters @a and @b using the iterative
+     * Euclid algorithm.
+     */
+    public static long computeGCDIterativeEuclidLong(long a,
+                                                     long b) {
+        while (b != 0) {
+            long c = a % b;
+            a = b;
+            b = c;
+        }
+        return Math.abs(a);
+    }
+
+    /**
+     * Compute the GCD of long parameters @a and @b using the BigInteger
+     * algorithm.
+     */
+    public static long computeGCDBigIntegerLong(long a,
+                                                long b) {
+        return BigInteger.valueOf(a)
+            .gcd(BigInteger.valueOf(b))
+            .longValue();
+    }
+
+    /**
+     * Compute the GCD of long parameters @a and @b using the same
+     * trailing-zero-count binary algorithm as computeGCDBinaryCtz().
+     */
+    public static long computeGCDBinaryCtzLong(long a,
+                                               long b) {
+        if (a == 0) {
+            return Math.abs(b);
+        }
+        if (b == 0) {
+            return Math.abs(a);
+        }
+
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a = Math.abs(a >> Long.numberOfTrailingZeros(a));
+        b = Math.abs(b >> Long.numberOfTrailingZeros(b));
+
+        do {
+            long diff = b - a;
+            long less = diff >> 63;
+            a += diff & less;
+            b = (diff ^ less) - less;
+            b >>= Long.numberOfTrailingZeros(b);
+        } while (b != 0);
+
+        return a << shift;
+    }
+
+    /**
+     * Compute the GCD of long parameters @a and @b using Lehmer's
+     * algorithm.  Rather than performing one full-width division per
+     * Euclid step, it simulates a run of steps on the leading bits of
+     * the operands and then applies all of them at once via a 2x2
+     * matrix of cofactors.  On a single machine word the simulated
+     * steps still need a division apiece, so this mainly serves as
+     * the final stage of computeGCDLehmer(); computeGCDBinaryCtzLong()
+     * is faster for long operands.
+     */
+    public static long computeGCDLehmerLong(long a,
+                                            long b) {
+        // Long.MIN_VALUE has no positive counterpart, so let the
+        // binary algorithm handle it.
+        if (a == Long.MIN_VALUE || b == Long.MIN_VALUE) {
+            return computeGCDBinaryCtzLong(a, b);
+        }
+
+        a = Math.abs(a);
+        b = Math.abs(b);
+        if (a < b) {
+            long t = a;
+            a = b;
+            b = t;
+        }
+
+        long[] cofactors = new long[4];
+
+        // Use Lehmer steps while b is too wide for an int.
+        while (b > Integer.MAX_VALUE) {
+            int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(a) - 31);
+            if (!lehmerCofactors(a >>> shift, b >>> shift, cofactors)) {
+                // The leading bits didn't determine a single quotient,
+                // so perform one full-width Euclid step instead.
+                long t = a % b;
+                a = b;
+                b = t;
+            } else {
+                // Both results are remainders in Euclid's sequence and
+                // hence fit in a long, so any overflow in the
+                // intermediate products cancels out.
+                long t = cofactors[0] * a + cofactors[1] * b;
+                b = cofactors[2] * a + cofactors[3] * b;
+                a = t;
+            }
+        }
+
+        // Finish with single-width Euclid steps.
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Compute the GCD of multi-precision parameters @a and @b using
+     * Lehmer's algorithm, which replaces most of the BigInteger
+     * divisions performed by Euclid's algorithm with long arithmetic
+     * on the leading bits plus two multiply-adds by small cofactors.
+     */
+    public static BigInteger computeGCDLehmer(BigInteger a,
+                                              BigInteger b) {
+        a = a.abs();
+        b = b.abs();
+        if (a.compareTo(b) < 0) {
+            BigInteger t = a;
+            a = b;
+            b = t;
+        }
+
+        long[] cofactors = new long[4];
+
+        // Use Lehmer steps while b is too wide for a long.
+        while (b.bitLength() > 62) {
+            int shift = a.bitLength() - sLEHMER_BITS;
+            if (!lehmerCofactors(a.shiftRight(shift).longValue(),
+                                 b.shiftRight(shift).longValue(),
+                                 cofactors)) {
+                BigInteger t = a.mod(b);
+                a = b;
+                b = t;
+            } else {
+                BigInteger t =
+                    a.multiply(BigInteger.valueOf(cofactors[0]))
+                    .add(b.multiply(BigInteger.valueOf(cofactors[1])));
+                b = a.multiply(BigInteger.valueOf(cofactors[2]))
+                    .add(b.multiply(BigInteger.valueOf(cofactors[3])));
+                a = t;
+            }
+        }
+
+        if (b.signum() == 0) {
+            return a;
+        }
+
+        // Both values fit in a long after one more Euclid step.
+        return BigInteger
+            .valueOf(computeGCDLehmerLong(b.longValue(),
+                                          a.mod(b).longValue()));
+    }
+
+    /**
+     * Simulate Euclid's algorithm on the leading bits @a x >= @a y of
+     * the operands (Knuth's Algorithm L) and store the cofactors A, B,
+     * C, and D of the steps whose quotients are certain in @a
+     * cofactors.  Returns false if not even one step was certain.
+     */
+    private static boolean lehmerCofactors(long x,
+                                           long y,
+                                           long[] cofactors) {
+        long A = 1, B = 0, C = 0, D = 1;
+
+        // The true quotient lies between the quotients computed
+        // from the smallest and largest possible values of the
+        // truncated operands, so stop as soon as they differ.  The
+        // second quotient is checked by multiplying rather than
+        // dividing since division is much slower.
+        while (y + C != 0 && y + D != 0) {
+            long q = (x + A) / (y + C);
+            long lower = q * (y + D);
+            if (x + B < lower || x + B - lower >= y + D) {
+                break;
+            }
+
+            long t = A - q * C;
+            A = C;
+            C = t;
+            t = B - q * D;
+            B = D;
+            D = t;
+            t = x - q * y;
+            x = y;
+            y = t;
+        }
+
+        cofactors[0] = A;
+        cofactors[1] = B;
+        cofactors[2] = C;
+        cofactors[3] = D;
+        return B != 0;
+    }
+
+    /**
+     * Compute the GCD of all the elements of @a values using
+     * computeGCDBinaryCtz(), which is 0 if @a values is empty.  Large
+     * arrays are reduced in parallel.
+     */
+    public static int gcdOf(int[] values) {
+        return gcdOf(values,
+                     GCDImplementations::computeGCDBinaryCtz);
+    }
+
+    /**
+     * Compute the GCD of all the elements of @a values using @a
+     * gcdFunction, reducing arrays of at least sREDUCTION_CHUNK_SIZE
+     * elements in parallel and smaller ones sequentially.
+     */
+    public static int gcdOf(int[] values,
+                            GCDInterface gcdFunction) {
+        return values.length < sREDUCTION_CHUNK_SIZE
+            ? gcdOfSequential(values, gcdFunction)
+            : gcdOfParallel(values, gcdFunction);
+    }
+
+    /**
+     * Compute the GCD of all the elements of @a values using @a
+     * gcdFunction in the calling thread.
+     */
+    public static int gcdOfSequential(int[] values,
+                                      GCDInterface gcdFunction) {
+        return gcdOfRange(values, 0, values.length, gcdFunction);
+    }
+
+    /**
+     * Compute the GCD of all the elements of @a values using @a
+     * gcdFunction via a tree reduction in the common ForkJoinPool.
+     * Since the GCD is associative and commutative the halves of
+     * each range can be reduced independently and then combined.
+     */
+    public static int gcdOfParallel(int[] values,
+                                    GCDInterface gcdFunction) {
+        return ForkJoinPool.commonPool()
+            .invoke(new IntReduction(values,
+                                     0,
+                                     values.length,
+                                     gcdFunction));
+    }
+
+    /**
+     * Compute the GCD of the elements of @a values for @a from <= i
+     * < @a to using @a gcdFunction.  It stops as soon as the GCD is
+     * 1, which no further element can change, so the random inputs
+     * that are almost always coprime finish after a few elements.
+     */
+    private static int gcdOfRange(int[] values,
+                                  int from,
+                                  int to,
+                                  GCDInterface gcdFunction) {
+        int result = 0;
+        for (int i = from; i < to && result != 1; i++)
+            result = gcdFunction.compute(result, values[i]);
+        return result;
+    }
+
+    /**
+     * Compute the GCD of all the elements of @a values using
+     * computeGCDBinaryCtzLong(), which is 0 if @a values is empty.
+     * Large arrays are reduced in parallel.
+     */
+    public static long gcdOf(long[] values) {
+        return gcdOf(values,
+                     GCDImplementations::computeGCDBinaryCtzLong);
+    }
+
+    /**
+     * Compute the GCD of all the elements of @a values using @a
+     * gcdFunction, reducing arrays of at least sREDUCTION_CHUNK_SIZE
+     * elements in parallel and smaller ones sequentially.
+     */
+    public static long gcdOf(long[] values,
+                             LongGCDInterface gcdFunction) {
+        return values.length < sREDUCTION_CHUNK_SIZE
+            ? gcdOfRange(values, 0, values.length, gcdFunction)
+            : ForkJoinPool.commonPool()
+                .invoke(new LongReduction(values,
+                                          0,
+                                          values.length,
+                                          gcdFunction));
+    }
+
+    /**
+     * Compute the GCD of the elements of @a values for @a from <= i
+     * < @a to using @a gcdFunction, stopping as soon as it's 1.
+     */
+    private static long gcdOfRange(long[] values,
+                                   int from,
+                                   int to,
+                                   LongGCDInterface gcdFunction) {
+        long result = 0;
+        for (int i = from; i < to && result != 1; i++)
+            result = gcdFunction.compute(result, values[i]);
+        return result;
+    }
+
+    /**
+     * A fork-join task that reduces a range of an int array to its
+     * GCD by splitting it in half until it's small enough to reduce
+     * sequentially.
+     */
+    @SuppressWarnings("serial")
+    private static class IntReduction
+            extends RecursiveTask<Integer> {
+        /**
+         * The array being reduced.
+         */
+        private final int[] mValues;
+
+        /**
+         * The range of the array reduced by this task.
+         */
+        private final int mFrom, mTo;
+
+        /**
+         * The implementation used to combine two values.
+         */
+        private final GCDInterface mGcdFunction;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        IntReduction(int[] values,
+                     int from,
+                     int to,
+                     GCDInterface gcdFunction) {
+            mValues = values;
+            mFrom = from;
+            mTo = to;
+            mGcdFunction = gcdFunction;
+        }
+
+        /**
+         * Split the range or reduce it sequentially.
+         */
+        @Override
+        protected Integer compute() {
+            if (mTo - mFrom <= sREDUCTION_CHUNK_SIZE)
+                return gcdOfRange(mValues, mFrom, mTo, mGcdFunction);
+
+            int mid = (mFrom + mTo) >>> 1;
+            IntReduction right =
+                new IntReduction(mValues, mid, mTo, mGcdFunction);
+            right.fork();
+            int left =
+                new IntReduction(mValues, mFrom, mid, mGcdFunction).compute();
+
+            // If the left half is already coprime the right half
+            // can't change the result, so skip it unless another
+            // thread has already started it.
+            if (left == 1 && right.tryUnfork())
+                return 1;
+            return mGcdFunction.compute(left, right.join());
+        }
+    }
+
+    /**
+     * A fork-join task that reduces a range of a long array to its
+     * GCD by splitting it in half until it's small enough to reduce
+     * sequentially.
+     */
+    @SuppressWarnings("serial")
+    private static class LongReduction
+            extends RecursiveTask<Long> {
+        /**
+         * The array being reduced.
+         */
+        private final long[] mValues;
+
+        /**
+         * The range of the array reduced by this task.
+         */
+        private final int mFrom, mTo;
+
+        /**
+         * The implementation used to combine two values.
+         */
+        private final LongGCDInterface mGcdFunction;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        LongReduction(long[] values,
+                      int from,
+                      int to,
+                      LongGCDInterface gcdFunction) {
+            mValues = values;
+            mFrom = from;
+            mTo = to;
+            mGcdFunction = gcdFunction;
+        }
+
+        /**
+         * Split the range or reduce it sequentially.
+         */
+        @Override
+        protected Long compute() {
+            if (mTo - mFrom <= sREDUCTION_CHUNK_SIZE)
+                return gcdOfRange(mValues, mFrom, mTo, mGcdFunction);
+
+            int mid = (mFrom + mTo) >>> 1;
+            LongReduction right =
+                new LongReduction(mValues, mid, mTo, mGcdFunction);
+            right.fork();
+            long left =
+                new LongReduction(mValues, mFrom, mid, mGcdFunction).compute();
+
+            if (left == 1 && right.tryUnfork())
+                return 1L;
+            return mGcdFunction.compute(left, right.join());
+        }
+    }
 }
@@ -0,0 +1,251 @@
+package edu.vandy.gcdtesttask.presenter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This GCDInterface decorator caches the results of another
+ * GCDInterface implementation, which pays off when the inputs are
+ * skewed so the same pairs are computed over and over.  The cache is
+ * a fixed-size, direct-mapped table indexed by a hash of the pair
+ * packed into a long, i.e., (a << 32 | b), so a lookup is a single
+ * probe and a miss simply overwrites the slot.  The table is a flat
+ * AtomicLongArray, so a lookup allocates nothing, and it's lock-free:
+ * each slot is guarded by a sequence number (a seqlock), which a
+ * writer makes odd while it updates the slot and even again when
+ * it's done, so a reader that sees the same even sequence number
+ * before and after reading the key knows it didn't see a torn slot.
+ * Concurrent writers of the same slot don't wait for each other; the
+ * loser simply doesn't cache its result.  Since gcd(a, b) == gcd(b,
+ * a) the pairs are ordered before they're packed, so both orders
+ * share a slot.
+ */
+public class GCDMemoized
+       implements GCDInterface {
+    /**
+     * Bit set in the result of lookup() when the pair was found in
+     * the table.
+     */
+    private static final long sHIT = 1L << 32;
+
+    /**
+     * Number of longs per slot of mSlots.  The first holds the
+     * sequence number in its high 32 bits and the GCD in its low 32
+     * bits, and the second holds the ordered pair packed into a long.
+     */
+    private static final int sSLOT_LONGS = 2;
+
+    /**
+     * The implementation whose results are cached.
+     */
+    private final GCDInterface mGcdFunction;
+
+    /**
+     * The direct-mapped table of cached results, with sSLOT_LONGS
+     * longs per slot.  A sequence number of 0 marks an empty slot,
+     * since the sequence numbers of a written slot start at 2.
+     */
+    private final AtomicLongArray mSlots;
+
+    /**
+     * Number of bits of the hash used to index mSlots.
+     */
+    private final int mIndexBits;
+
+    /**
+     * Number of lookups that found their pair in the table.
+     */
+    private final LongAdder mHits = new LongAdder();
+
+    /**
+     * Number of lookups that had to compute their pair.
+     */
+    private final LongAdder mMisses = new LongAdder();
+
+    /**
+     * Constructor initializes the fields.  The table has @a capacity
+     * slots, which is rounded up to a power of two (of at least two).
+     */
+    public GCDMemoized(GCDInterface gcdFunction,
+                       int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity = " + capacity);
+        mGcdFunction = gcdFunction;
+        mIndexBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(capacity - 1));
+        mSlots = new AtomicLongArray(sSLOT_LONGS << mIndexBits);
+    }
+
+    /**
+     * Compute and return the GCD for parameters @a a and @a b.
+     */
+    @Override
+    public int compute(int a,
+                       int b) {
+        long result = lookup(a, b);
+        if (isHit(result))
+            mHits.increment();
+        else
+            mMisses.increment();
+        return (int) result;
+    }
+
+    /**
+     * Compute the GCD of each pair @a a[i] and @a b[i] for @a from
+     * <= i < @a to and store it in @a out[i - from].  The hits are
+     * counted once per call rather than once per pair.
+     */
+    @Override
+    public void computeAll(int[] a,
+                           int[] b,
+                           int[] out,
+                           int from,
+                           int to) {
+        int hits = 0;
+        for (int i = from; i < to; i++) {
+            long result = lookup(a[i], b[i]);
+            out[i - from] = (int) result;
+            if (isHit(result))
+                hits++;
+        }
+        mHits.add(hits);
+        mMisses.add(to - from - hits);
+    }
+
+    /**
+     * Compute the GCD of each pair stored interleaved in @a pairs for
+     * @a from <= i < @a to and store it in @a out[i - from].  The hits
+     * are counted once per call rather than once per pair.
+     */
+    @Override
+    public void computeAllPairs(int[] pairs,
+                                int[] out,
+                                int from,
+                                int to) {
+        int hits = 0;
+        for (int i = from; i < to; i++) {
+            long result = lookup(pairs[2 * i], pairs[2 * i + 1]);
+            out[i - from] = (int) result;
+            if (isHit(result))
+                hits++;
+        }
+        mHits.add(hits);
+        mMisses.add(to - from - hits);
+    }
+
+    /**
+     * Returns the GCD of @a a and @a b from the table, computing and
+     * caching it on a miss.  The GCD is in the low 32 bits of the
+     * result and the sHIT bit is set if it was found in the table.
+     */
+    private long lookup(int a,
+                        int b) {
+        // Order the pair so gcd(a, b) and gcd(b, a) share an entry.
+        long key = a <= b
+            ? (long) a << 32 | (b & 0xFFFFFFFFL)
+            : (long) b << 32 | (a & 0xFFFFFFFFL);
+        int slot = sSLOT_LONGS * indexOf(key);
+
+        // The slot holds the pair if its sequence number is even,
+        // i.e., no writer is updating it, non-zero, i.e., it's been
+        // written, and unchanged after reading the key.
+        long header = mSlots.get(slot);
+        int sequence = (int) (header >>> 32);
+        if ((sequence & 1) == 0
+            && sequence != 0
+            && mSlots.get(slot + 1) == key
+            && mSlots.get(slot) == header)
+            return sHIT | (header & 0xFFFFFFFFL);
+
+        int value = mGcdFunction.compute(a, b);
+        store(slot, header, key, value);
+        return value & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Cache @a value as the GCD of the pair packed into @a key in the
+     * slot at index @a slot of mSlots, whose first long was @a
+     * header.  Nothing is cached if another writer is updating the
+     * slot or has updated it since @a header was read.
+     */
+    private void store(int slot,
+                       long header,
+                       long key,
+                       int value) {
+        int sequence = (int) (header >>> 32);
+        if ((sequence & 1) != 0
+            || !mSlots.compareAndSet(slot,
+                                     header,
+                                     (long) (sequence + 1) << 32))
+            return;
+
+        mSlots.set(slot + 1, key);
+        mSlots.set(slot,
+                   (long) (sequence + 2) << 32 | (value & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Returns true if the @a result of lookup() was found in the
+     * table.
+     */
+    private static boolean isHit(long result) {
+        return (result & sHIT) != 0;
+    }
+
+    /**
+     * Returns the slot of @a key, which uses the high bits of a
+     * multiplicative (Fibonacci) hash so all the bits of both halves
+     * of the pair affect the slot.
+     */
+    private int indexOf(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - mIndexBits));
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     */
+    public int getCapacity() {
+        return mSlots.length() / sSLOT_LONGS;
+    }
+
+    /**
+     * Returns the number of lookups that were found in the table.
+     */
+    public long getHits() {
+        return mHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to be computed.
+     */
+    public long getMisses() {
+        return mMisses.sum();
+    }
+
+    /**
+     * Returns the fraction of lookups that were found in the table,
+     * or 0 if there haven't been any.
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Reset the hit and miss counts, e.g., between test cycles.
+     */
+    public void resetStatistics() {
+        mHits.reset();
+        mMisses.reset();
+    }
+
+    /**
+     * Empty the table and reset the statistics, which mustn't be
+     * called while the table is in use.
+     */
+    public void clear() {
+        for (int i = 0; i < mSlots.length(); i++)
+            mSlots.set(i, 0);
+        resetStatistics();
+    }
+}
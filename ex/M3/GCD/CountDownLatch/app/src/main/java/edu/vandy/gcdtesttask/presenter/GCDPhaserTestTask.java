@@ -0,0 +1,436 @@
+package edu.vandy.gcdtesttask.presenter;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.abstracts.AbstractTestTask;
+import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
+import edu.vandy.visfwk.presenter.interfaces.PresenterInterface;
+import edu.vandy.visfwk.utils.CancellationToken;
+import edu.vandy.visfwk.utils.InstrumentedThreadPool;
+import edu.vandy.visfwk.utils.ProgressReporter;
+import edu.vandy.visfwk.utils.ProgressSampler;
+import edu.vandy.visfwk.utils.ResultChecksum;
+import edu.vandy.visfwk.view.interfaces.ViewInterface;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * This class tests various GCDInterface implementations using a
+ * Phaser on Android.  Unlike GCDCountDownLatchTestTask, which
+ * resubmits every tester to the executor each cycle and needs new
+ * latches for each cycle, the testers are submitted once and loop
+ * over all the cycles, so a cycle costs two Phaser advances rather
+ * than a thread handoff per tester.  Testers can also be added or
+ * removed while the cycles are running.
+ */
+public class GCDPhaserTestTask
+	extends AbstractTestTask<GCDInterface>
+	implements ProgressReporter {
+    /**
+     * String Tag for logging.
+     */
+    private final static String TAG =
+        GCDPhaserTestTask.class.getCanonicalName();
+
+    /**
+     * The pool of pre-started threads to run the GCDInterface testers
+     * on, with a thread per tester since each tester holds its thread
+     * for all the cycles.
+     */
+    private InstrumentedThreadPool mExecutor;
+
+    /**
+     * This list of GCDPhaserTesterAndroidAdapters keeps track of the
+     * objects to update after a runtime configuration change.  It's
+     * guarded by "this" since testers can be added or removed while
+     * the tests are running.
+     */
+    private List<GCDPhaserTesterAndroidAdapter> mGcdTesters;
+
+    /**
+     * True once the testers have been submitted to the executor, so
+     * testers added afterwards must be submitted when they're added.
+     */
+    private boolean mStarted;
+
+    /**
+     * Number of iterations to run the GCDInterface tests.
+     */
+    private int mIterations;
+
+    /**
+     * This Phaser coordinates the start and end of each cycle between
+     * this task and the testers.
+     */
+    private Phaser mPhaser;
+
+    /**
+     * Samples the progress counted by the testers and posts it to the
+     * View layer at a fixed rate.
+     */
+    private ProgressSampler mProgressSampler;
+
+    /**
+     * If non-null each GCDInterface test splits its input range into
+     * chunks that run in parallel in this pool.
+     */
+    private final ForkJoinPool mForkJoinPool;
+
+    /**
+     * Tells the testers to stop when the task is cancelled, which
+     * they check often enough to stop within its maximum latency.
+     */
+    private final CancellationToken mCancellation =
+        new CancellationToken();
+
+    /**
+     * Constructor initializes the fields.  If @a parallelChunks is
+     * true each GCDInterface test splits its input range across the
+     * cores via the common ForkJoinPool instead of running in a single
+     * thread.
+     */
+    GCDPhaserTestTask(ViewInterface<GCDInterface> viewInterface,
+                      ModelStateInterface<GCDInterface> modelStateInterface,
+                      PresenterInterface presenterInterface,
+                      int iterations,
+                      boolean parallelChunks) {
+        super(viewInterface,
+              modelStateInterface,
+              presenterInterface);
+
+        // Set the number of times to run the tests.
+        mIterations = iterations;
+
+        // Use the common ForkJoinPool if the tests run in parallel.
+        mForkJoinPool = parallelChunks
+            ? ForkJoinPool.commonPool()
+            : null;
+    }
+
+    /**
+     * Hook method called in the UI thread prior to execution of the
+     * task.
+     */
+    protected void onPreExecute() {
+        // This list of GCDTuples keeps track of the data needed to
+        // run each GCDInterface implementation.
+        List<TaskTuple<GCDInterface>> gcdTaskTuples =
+            mModelStateInterface.getTestTasks();
+
+        Log.d(TAG,
+              "onPreExecute()");
+
+        // Sample the progress the testers count and post it to the
+        // View layer, which coalesces it into one refresh per frame.
+        mProgressSampler =
+            new ProgressSampler(gcdTaskTuples.size(),
+                                ProgressSampler.sDEFAULT_PERIOD_MILLIS,
+                                mViewInterface::postProgress);
+        mProgressSampler.start();
+
+        // Create a pool with a pre-started thread per tester, so no
+        // thread is created while the cycles are timed.
+        int threads = Math.max(1, gcdTaskTuples.size());
+        mExecutor =
+            new InstrumentedThreadPool("GCDPhaserTester",
+                                       threads,
+                                       threads,
+                                       // Log any uncaught exception.
+                                       (thread, ex) ->
+                                       Log.d(TAG, "GCDPhaserTestTask encountered an exception:"
+                                             + ex
+                                             + " for thread "
+                                             + thread));
+
+        // Create a Phaser with this task registered as the
+        // coordinator.  Each tester registers itself when it's
+        // constructed.
+        mPhaser = new Phaser(1);
+
+        synchronized (this) {
+            // Create a list of GCDInterface testers.
+            mGcdTesters = gcdTaskTuples
+                // Covert the GCDInterface tuples into a stream.
+                .stream()
+
+                // Map each GCDInterface tuple into a GCDInterface
+                // tester.
+                .map(this::makeTester)
+
+                // Collect into a list.
+                .collect(toList());
+        }
+    }
+
+    /**
+     * Returns a new tester for @a gcdTaskTuple that's registered with
+     * the Phaser.
+     */
+    private GCDPhaserTesterAndroidAdapter makeTester(TaskTuple<GCDInterface> gcdTaskTuple) {
+        GCDPhaserTesterAndroidAdapter tester =
+            new GCDPhaserTesterAndroidAdapter(mViewInterface,
+                                              gcdTaskTuple.getTaskUniqueId(),
+                                              mPhaser,
+                                              gcdTaskTuple,
+                                              // The tester counts its
+                                              // progress, which is sampled
+                                              // rather than published.
+                                              ProgressReporter.sampled(mProgressSampler),
+                                              mForkJoinPool);
+        // All the testers share the task's cancellation.
+        tester.setCancellation(mCancellation);
+        return tester;
+    }
+
+    /**
+     * Add a tester for @a gcdTaskTuple while the tests are running.
+     * It joins at the start of the next cycle.  This method must be
+     * called in the UI thread.
+     */
+    public void addTest(TaskTuple<GCDInterface> gcdTaskTuple) {
+        GCDPhaserTesterAndroidAdapter tester = makeTester(gcdTaskTuple);
+
+        synchronized (this) {
+            mGcdTesters.add(tester);
+            if (mStarted) {
+                // Give the tester a thread of its own, since the
+                // others hold theirs until the cycles are done.
+                int threads = mExecutor.getMaximumPoolSize() + 1;
+                mExecutor.setMaximumPoolSize(threads);
+                mExecutor.setCorePoolSize(threads);
+                mExecutor.execute(tester);
+            }
+        }
+    }
+
+    /**
+     * Remove the tester of the GCDInterface implementation named @a
+     * testName while the tests are running.  It leaves at the end of
+     * the current cycle.  Returns false if there's no such tester.
+     */
+    public boolean removeTest(String testName) {
+        synchronized (this) {
+            for (GCDPhaserTesterAndroidAdapter tester : mGcdTesters)
+                if (tester.mTestName.equals(testName) && !tester.isStopped()) {
+                    tester.stop();
+                    mGcdTesters.remove(tester);
+                    return true;
+                }
+            return false;
+        }
+    }
+
+    /**
+     * Runs in a background thread to initiate all the GCDInterface tests and
+     * wait for them to complete.
+     */
+    @Override
+    protected Void doInBackground(Integer... cycles) {
+        Log.d(TAG,
+              "doInBackground()" + cycles[0]);
+
+        // Execute each GCDInterface tester in the ExecutorService
+        // once, since the testers loop over all the cycles.
+        synchronized (this) {
+            mGcdTesters.forEach(mExecutor::execute);
+            mStarted = true;
+        }
+
+        try {
+            // Iterate for each cycle.
+            for (int cycle = 1;
+                 cycle <= cycles[0] && !isCancelled();
+                 cycle++) {
+                // Initialize the inputs and start generating the
+                // inputs for the next cycle (if any).
+                GCDCountDownLatchWorker.initializeInputs(mIterations,
+                                                         cycle < cycles[0]);
+
+                // Create a runnable on the UI thread to initialize
+                // the chronometer.
+                updateProgress(() -> {
+                        // Initialize and start the Chronometer.
+                        mViewInterface.chronometerStop();
+                        mViewInterface.chronometerSetBase(SystemClock.elapsedRealtime());
+                        mViewInterface.chronometerSetVisibility(true);
+                        mViewInterface.chronometerStart();
+                    });
+
+                System.out.println("Starting GCDInterface tests for cycle "
+                                   + cycle);
+
+                // Clear the checksums of the previous cycle, so
+                // testers that were removed since don't count.
+                mModelStateInterface.getTestTasks()
+                    .forEach(gcdTaskTuple -> gcdTaskTuple.setChecksum(null));
+
+                // Let the testers start the tests, which ends the
+                // entry phase.  The phase is negative if the Phaser
+                // was terminated, i.e., the task was cancelled.
+                int phase =
+                    mPhaser.awaitAdvanceInterruptibly(mPhaser.arrive());
+                if (phase < 0 || isCancelled())
+                    break;
+                System.out.println("Waiting for results from cycle "
+                                   + cycle);
+
+                // Wait until all the testers are finished running,
+                // which ends the exit phase.
+                phase = mPhaser.awaitAdvanceInterruptibly(mPhaser.arrive());
+                if (phase < 0 || isCancelled())
+                    break;
+                System.out.println("All threads are done for cycle "
+                                   + cycle);
+
+                // Make sure all the GCDInterface implementations computed
+                // the same results.
+                checkResults(cycle);
+
+                // Log how long the testers took to start and start
+                // measuring the next cycle.
+                Log.d(TAG,
+                      "cycle " + cycle + " pool: " + mExecutor.describe());
+                mExecutor.resetLatencies();
+            }
+        } catch (Exception ex) {
+            System.out.println("cancelling doInBackground() due to exception"
+                               + ex);
+
+            // Stop the testers before returning, so none is left
+            // running.
+            stopTesters();
+
+            // Cancel ourselves so the onCancelled() hook method gets
+            // called.
+            cancel(true);
+        } finally {
+            // Release the testers, which are waiting for the next
+            // cycle.
+            mPhaser.forceTermination();
+        }
+        return null;
+    }
+
+    /**
+     * Runs in the UI thread after doInBackground() finishes running
+     * successfully.
+     */
+    @Override
+    public void onPostExecute(Void v) {
+        Runnable command = () -> {
+            // Stop the chronometer.
+            mViewInterface.getChronometer()
+            .stop();
+
+            Log.d(TAG,
+                  "onPostExecute()");
+        };
+
+        // Run the command on the UI thread.  This call is optimized
+        // for the case where println() is called from the UI thread.
+        mViewInterface.getFragmentActivity()
+            .runOnUiThread(command);
+
+        // Shutdown the threads in the pool, which the testers have
+        // returned since the Phaser was terminated.
+        mExecutor.shutdown();
+
+        // Stop sampling, which posts the final progress.
+        mProgressSampler.stop();
+
+        // Call to the super class.
+        super.onPostExecute(v);
+    }
+
+    /**
+     * Runs in the UI thread after doInBackground() is cancelled.
+     */
+    @Override
+    public void onCancelled(Void v) {
+        System.out.println("in onCancelled()");
+
+        // Tell the testers to stop, release any waiting on the
+        // Phaser, and shutdown all the threads in the pool,
+        // interrupting any tester that didn't stop when it was
+        // cancelled.
+        mCancellation.cancel();
+        mPhaser.forceTermination();
+        mExecutor.shutdownNow();
+
+        // Stop sampling, which posts the final progress.
+        mProgressSampler.stop();
+
+        // Call to the super class.
+        super.onCancelled(v);
+    }
+
+    /**
+     * Tell the testers to stop and wait (at most twice the maximum
+     * cancellation latency) for them to return to the pool, logging
+     * how long they took.
+     */
+    private void stopTesters() {
+        // Clear the interrupt that cancelled this thread, so it can
+        // wait for the testers.
+        Thread.interrupted();
+        mCancellation.cancel();
+
+        // Release the testers waiting on the Phaser, which then
+        // return to the pool.
+        mPhaser.forceTermination();
+        mExecutor.shutdown();
+
+        try {
+            if (mExecutor.awaitTermination(2 * mCancellation.getMaxLatencyNanos(),
+                                           TimeUnit.NANOSECONDS))
+                Log.d(TAG,
+                      "testers stopped within "
+                      + mCancellation.getMaxObservedLatencyNanos() / 1000000.0
+                      + " ms of cancellation");
+            else
+                Log.w(TAG,
+                      "testers didn't stop within "
+                      + 2 * mCancellation.getMaxLatencyNanos() / 1000000.0
+                      + " ms of cancellation");
+        } catch (InterruptedException e) {
+            // Cancelled again, so give up waiting.  onCancelled()
+            // interrupts any testers that are left.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Log the GCDInterface implementations whose results of @a cycle
+     * differ from the others' results.
+     */
+    private void checkResults(int cycle) {
+        String mismatches =
+            ResultChecksum.describeMismatches(mModelStateInterface.getTestTasks());
+        if (mismatches != null)
+            Log.e(TAG,
+                  "cycle " + cycle + ": " + mismatches);
+    }
+
+    /**
+     * Report progress to the UI thread.
+     */
+    public void updateProgress(Runnable runnable) {
+        // Publish the runnable on the UI thread.
+        publishProgress(runnable);
+    }
+
+    /**
+     * Return the ExecutorService.
+     */
+    public Executor getExecutor() {
+        return mExecutor;
+    }
+}
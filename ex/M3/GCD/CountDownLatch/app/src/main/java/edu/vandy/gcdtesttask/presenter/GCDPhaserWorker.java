@@ -0,0 +1,140 @@
+package edu.vandy.gcdtesttask.presenter;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.utils.ProgressReporter;
+
+/**
+ * Each instance of this class runs in a long-lived thread that tests
+ * a GCDInterface implementation once per cycle, using a Phaser rather
+ * than a pair of barriers that must be recreated or resubmitted each
+ * cycle.  Every cycle takes two phases of the Phaser: in the even
+ * "entry" phase the coordinator initializes the inputs while the
+ * workers wait, and in the odd "exit" phase the workers run their
+ * tests while the coordinator waits.  A worker registers with the
+ * Phaser when it's constructed and deregisters when it's stopped, so
+ * workers can be added or removed while the cycles are running.  The
+ * test itself and its inputs are inherited from
+ * GCDCountDownLatchWorker.
+ */
+public class GCDPhaserWorker
+        extends GCDCountDownLatchWorker {
+    /**
+     * The Phaser that coordinates the cycles.
+     */
+    private final Phaser mPhaser;
+
+    /**
+     * The phase this worker was registered in.
+     */
+    private final int mRegisteredPhase;
+
+    /**
+     * Set to ask the worker to deregister at the end of the current
+     * cycle.
+     */
+    private volatile boolean mStopped;
+
+    /**
+     * Number of cycles whose test this worker has completed.
+     */
+    private volatile int mCompletedCycles;
+
+    /**
+     * Constructor initializes the fields and registers the worker
+     * with @a phaser.  If @a forkJoinPool is non-null the input range
+     * is split into chunks that run in parallel in that pool.
+     */
+    public GCDPhaserWorker(Phaser phaser,
+                           TaskTuple<GCDInterface> gcdTuple,
+                           ProgressReporter progressReporter,
+                           ForkJoinPool forkJoinPool) {
+        super(null,
+              null,
+              gcdTuple,
+              progressReporter,
+              forkJoinPool);
+        mPhaser = phaser;
+        mRegisteredPhase = phaser.register();
+    }
+
+    /**
+     * Ask the worker to deregister from the Phaser, which it does
+     * after finishing the test of the current cycle (if any).
+     */
+    public void stop() {
+        mStopped = true;
+    }
+
+    /**
+     * Returns true if the worker has been asked to stop.
+     */
+    public boolean isStopped() {
+        return mStopped;
+    }
+
+    /**
+     * Returns the number of cycles whose test this worker has
+     * completed.
+     */
+    public int getCompletedCycles() {
+        return mCompletedCycles;
+    }
+
+    /**
+     * Main entry point into the GCDInterface tests, which loops over
+     * the cycles until the worker is stopped or cancelled or the
+     * Phaser is terminated.
+     */
+    @Override
+    public void run() {
+        int phase = mRegisteredPhase;
+        try {
+            // If the worker was registered while the other workers
+            // were running their tests, skip to the next cycle.
+            if ((phase & 1) == 1)
+                phase = mPhaser.arriveAndAwaitAdvance();
+
+            while (phase >= 0 && !mStopped) {
+                // Wait for the coordinator to initialize the inputs.
+                phase = mPhaser.arriveAndAwaitAdvance();
+                if (phase < 0 || mStopped)
+                    break;
+
+                // Run the test.
+                runTest();
+                if (getElapsedNanos() >= 0)
+                    mCompletedCycles++;
+
+                // Don't wait for the others if the tests were
+                // cancelled, but deregister so they needn't wait for
+                // this worker either.
+                if (isCancelled())
+                    break;
+
+                // Wait for all the other workers to finish their
+                // tests.
+                phase = mPhaser.arriveAndAwaitAdvance();
+            }
+        } catch (Exception ex) {
+            // The coordinator terminates the Phaser to release the
+            // workers when the tests are cancelled, which isn't an
+            // error.
+            if (isCancelled())
+                System.out.println(mTestName
+                                   + " cancelled in thread "
+                                   + Thread.currentThread());
+            else
+                System.out.println("exception "
+                                   + ex
+                                   + " received in run() for thread "
+                                   + Thread.currentThread());
+        } finally {
+            // Let the other parties proceed without this worker.
+            if (phase >= 0)
+                mPhaser.arriveAndDeregister();
+        }
+    }
+}
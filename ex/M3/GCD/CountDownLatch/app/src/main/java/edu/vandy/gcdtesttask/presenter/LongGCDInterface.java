@@ -0,0 +1,15 @@
+package edu.vandy.gcdtesttask.presenter;
+
+/**
+ * This functional interface matches the signature of the GCD
+ * implementation methods that operate on long values, which are wide
+ * enough for the division chain to dominate the run time.
+ */
+@FunctionalInterface
+public interface LongGCDInterface {
+    /**
+     * Compute and return the GCD for parameters @a a and @a b.
+     */
+    long compute(long a,
+                 long b);
+}
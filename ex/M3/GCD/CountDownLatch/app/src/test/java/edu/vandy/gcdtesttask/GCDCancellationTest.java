@@ -0,0 +1,265 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDCountDownLatchWorker;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.UniformDistribution;
+import edu.vandy.visfwk.model.WorkloadSpec;
+import edu.vandy.visfwk.utils.CancellationToken;
+import edu.vandy.visfwk.utils.ProgressReporter;
+
+/**
+ * This JUnit test checks that a GCDCountDownLatchWorker stops within
+ * the maximum latency of its CancellationToken, doesn't run the test
+ * when it's released after cancellation, and measures what
+ * the strided cancellation checks cost compared with a loop that
+ * can't be cancelled.
+ */
+public class GCDCancellationTest
+       implements ProgressReporter {
+    /**
+     * Number of GCDs computed per run, which takes far longer than
+     * the maximum latency.
+     */
+    private static final int sITERATIONS = 4000000;
+
+    /**
+     * Maximum time (in milliseconds) from cancellation until a worker
+     * stops.
+     */
+    private static final long sMAX_LATENCY_MILLIS = 20;
+
+    /**
+     * Number of GCDs computed by the warm-up run, which compiles the
+     * worker's loops before the latency is measured.
+     */
+    private static final int sWARMUP_ITERATIONS = 1000000;
+
+    /**
+     * Number of input pairs per block, as in the worker.
+     */
+    private static final int sBLOCK_SIZE = 1024;
+
+    /**
+     * Number of times each loop is timed, of which the fastest counts.
+     */
+    private static final int sTRIALS = 5;
+
+    /**
+     * Returns the tuple of the first GCD function registered in the
+     * GCDTestTaskFactory.
+     */
+    private static TaskTuple<GCDInterface> makeGCDTuple() {
+        return new GCDTestTaskFactory().getTasksToTest().get(0);
+    }
+
+    /**
+     * Run a worker with @a forkJoinPool (if non-null) to completion,
+     * so the JIT compiler doesn't compete with the measured run.
+     */
+    private void warmUp(ForkJoinPool forkJoinPool) throws Exception {
+        CountDownLatch entryBarrier = new CountDownLatch(1);
+        CountDownLatch exitBarrier = new CountDownLatch(1);
+        new Thread(new GCDCountDownLatchWorker(entryBarrier,
+                                               exitBarrier,
+                                               makeGCDTuple(),
+                                               this,
+                                               forkJoinPool)).start();
+        GCDCountDownLatchWorker.initializeInputs(sWARMUP_ITERATIONS);
+        entryBarrier.countDown();
+        exitBarrier.await();
+    }
+
+    /**
+     * Cancel a worker that runs with @a forkJoinPool (if non-null)
+     * while it's computing and make sure it stops in time.
+     */
+    private void cancelWhileComputing(ForkJoinPool forkJoinPool)
+        throws Exception {
+        warmUp(forkJoinPool);
+
+        CountDownLatch entryBarrier = new CountDownLatch(1);
+        CountDownLatch exitBarrier = new CountDownLatch(1);
+        CancellationToken cancellation =
+            new CancellationToken(sMAX_LATENCY_MILLIS,
+                                  TimeUnit.MILLISECONDS);
+
+        GCDCountDownLatchWorker worker =
+            new GCDCountDownLatchWorker(entryBarrier,
+                                        exitBarrier,
+                                        makeGCDTuple(),
+                                        this,
+                                        forkJoinPool);
+        worker.setCancellation(cancellation);
+        Thread thread = new Thread(worker);
+        thread.start();
+
+        GCDCountDownLatchWorker.initializeInputs(sITERATIONS);
+        entryBarrier.countDown();
+        Thread.sleep(sMAX_LATENCY_MILLIS);
+        cancellation.cancel();
+
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertEquals(0, exitBarrier.getCount());
+        assertEquals(-1, worker.getElapsedNanos());
+
+        long latency = cancellation.getMaxObservedLatencyNanos();
+        System.out.println("cancellation latency "
+                           + latency / 1000000.0
+                           + " ms"
+                           + (forkJoinPool == null ? "" : " (parallel)"));
+        assertTrue(latency > 0);
+        // Allow for the thread being descheduled on a busy machine.
+        assertTrue(latency
+                   <= 5 * TimeUnit.MILLISECONDS.toNanos(sMAX_LATENCY_MILLIS));
+    }
+
+    /**
+     * Make sure a sequential run stops in time.
+     */
+    @Test
+    public void testCancelSequential() throws Exception {
+        cancelWhileComputing(null);
+    }
+
+    /**
+     * Make sure the chunks of a parallel run stop in time.
+     */
+    @Test
+    public void testCancelParallel() throws Exception {
+        cancelWhileComputing(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Make sure a worker whose thread is interrupted while it's
+     * computing, e.g., by shutdownNow(), stops and releases the
+     * coordinator, just as if its token had been cancelled.
+     */
+    @Test
+    public void testInterruptWhileComputing() throws Exception {
+        warmUp(null);
+
+        CountDownLatch entryBarrier = new CountDownLatch(1);
+        CountDownLatch exitBarrier = new CountDownLatch(1);
+
+        GCDCountDownLatchWorker worker =
+            new GCDCountDownLatchWorker(entryBarrier,
+                                        exitBarrier,
+                                        makeGCDTuple(),
+                                        this);
+        Thread thread = new Thread(worker);
+        thread.start();
+
+        GCDCountDownLatchWorker.initializeInputs(sITERATIONS);
+        entryBarrier.countDown();
+        Thread.sleep(sMAX_LATENCY_MILLIS);
+        thread.interrupt();
+
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertEquals(0, exitBarrier.getCount());
+        assertEquals(-1, worker.getElapsedNanos());
+    }
+
+    /**
+     * Make sure a worker waiting for the entry latch doesn't run the
+     * test when it's released after cancellation.
+     */
+    @Test
+    public void testReleasedAfterCancel() throws Exception {
+        CountDownLatch entryBarrier = new CountDownLatch(1);
+        CountDownLatch exitBarrier = new CountDownLatch(1);
+        CancellationToken cancellation = new CancellationToken();
+
+        GCDCountDownLatchWorker worker =
+            new GCDCountDownLatchWorker(entryBarrier,
+                                        exitBarrier,
+                                        makeGCDTuple(),
+                                        this);
+        worker.setCancellation(cancellation);
+        Thread thread = new Thread(worker);
+        thread.start();
+
+        GCDCountDownLatchWorker.initializeInputs(sITERATIONS);
+        cancellation.cancel();
+        entryBarrier.countDown();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertEquals(-1, worker.getElapsedNanos());
+    }
+
+    /**
+     * Returns the time (in nanoseconds) to compute the GCDs of @a
+     * pairs a block at a time with @a gcd, checking for cancellation
+     * via @a poller after each block if it's non-null.
+     */
+    private static long timeLoop(GCDInterface gcd,
+                                 int[] pairs,
+                                 CancellationToken.Poller poller) {
+        int[] results = new int[sBLOCK_SIZE];
+        int iterations = pairs.length / 2;
+
+        long start = System.nanoTime();
+        for (int from = 0; from < iterations; from += sBLOCK_SIZE) {
+            if (poller != null && poller.poll())
+                throw new AssertionError("cancelled");
+            gcd.computeAllPairs(pairs,
+                                results,
+                                from,
+                                Math.min(from + sBLOCK_SIZE, iterations));
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Measure the cost of the strided cancellation checks against an
+     * uncancellable loop.
+     */
+    @Test
+    public void testOverhead() {
+        GCDInterface gcd = makeGCDTuple().getTestFunc();
+        int[] pairs =
+            new WorkloadSpec(new UniformDistribution(2),
+                             WorkloadSpec.Layout.INTERLEAVED,
+                             42L).generate(sITERATIONS);
+        CancellationToken cancellation = new CancellationToken();
+
+        // Alternate the loops so both see the same JIT and cache
+        // state, and keep the fastest time of each.
+        long uncancellable = Long.MAX_VALUE;
+        long cancellable = Long.MAX_VALUE;
+        CancellationToken.Poller poller = null;
+        for (int trial = 0; trial < sTRIALS; trial++) {
+            uncancellable = Math.min(uncancellable,
+                                     timeLoop(gcd, pairs, null));
+            poller = cancellation.poller();
+            cancellable = Math.min(cancellable,
+                                   timeLoop(gcd, pairs, poller));
+        }
+
+        double overhead = 100.0 * (cancellable - uncancellable) / uncancellable;
+        System.out.println(String.format("uncancellable %.3f ms, cancellable %.3f ms,"
+                                         + " overhead %.2f%%, stride %d blocks",
+                                         uncancellable / 1e6,
+                                         cancellable / 1e6,
+                                         overhead,
+                                         poller.getStride()));
+
+        // The checks should be lost in the noise, so only fail if
+        // they're grossly expensive.
+        assertTrue(poller.getStride() > 1);
+        assertTrue(cancellable < 1.5 * uncancellable);
+    }
+}
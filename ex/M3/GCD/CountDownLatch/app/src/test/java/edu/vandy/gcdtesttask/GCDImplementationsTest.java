@@ -0,0 +1,99 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDImplementations;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+
+/**
+ * This JUnit test checks the GCDImplementations against
+ * computeGCDBigInteger(), which serves as the reference.
+ */
+public class GCDImplementationsTest {
+    /**
+     * Number of random pairs to check.
+     */
+    private static final int sITERATIONS = 1000000;
+
+    /**
+     * Inputs that exercise zeros, powers of two, equal values, and
+     * the extremes of the int range.
+     */
+    private static final int[] sEDGE_CASES = {
+        0, 1, 2, 3, 4, 6, 7, 64, 96, 1 << 30, (1 << 30) + 1,
+        Integer.MAX_VALUE - 1, Integer.MAX_VALUE
+    };
+
+    /**
+     * Check @a gcdFunction against computeGCDBigInteger() for @a a and
+     * @a b.
+     */
+    private static void check(String name,
+                              GCDInterface gcdFunction,
+                              int a,
+                              int b) {
+        assertEquals(name + "(" + a + ", " + b + ")",
+                     GCDImplementations.computeGCDBigInteger(a, b),
+                     gcdFunction.compute(a, b));
+    }
+
+    /**
+     * Make sure every implementation matches the reference on
+     * non-negative inputs, which is what the workers generate.
+     */
+    @Test
+    public void testNonNegativeInputs() {
+        GCDInterface[] gcdFunctions = {
+            GCDImplementations::computeGCDIterativeEuclid,
+            GCDImplementations::computeGCDRecursiveEuclid,
+            GCDImplementations::computeGCDBinary,
+            GCDImplementations::computeGCDBinaryCtz
+        };
+        String[] names = {
+            "IterativeEuclid", "RecursiveEuclid", "Binary", "BinaryCtz"
+        };
+
+        Random random = new Random(42);
+        for (int f = 0; f < gcdFunctions.length; f++) {
+            for (int a : sEDGE_CASES)
+                for (int b : sEDGE_CASES)
+                    check(names[f], gcdFunctions[f], a, b);
+
+            for (int i = 0; i < sITERATIONS; i++)
+                check(names[f],
+                      gcdFunctions[f],
+                      random.nextInt(Integer.MAX_VALUE),
+                      random.nextInt(Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Make sure computeGCDBinaryCtz() also matches the reference on
+     * negative inputs, including Integer.MIN_VALUE.
+     */
+    @Test
+    public void testBinaryCtzNegativeInputs() {
+        GCDInterface gcdFunction = GCDImplementations::computeGCDBinaryCtz;
+
+        for (int a : sEDGE_CASES)
+            for (int b : sEDGE_CASES) {
+                check("BinaryCtz", gcdFunction, -a, b);
+                check("BinaryCtz", gcdFunction, a, -b);
+                check("BinaryCtz", gcdFunction, -a, -b);
+                check("BinaryCtz", gcdFunction, Integer.MIN_VALUE, b);
+                check("BinaryCtz", gcdFunction, -a, Integer.MIN_VALUE);
+            }
+        check("BinaryCtz", gcdFunction, Integer.MIN_VALUE, Integer.MIN_VALUE);
+
+        Random random = new Random(42);
+        for (int i = 0; i < sITERATIONS; i++)
+            check("BinaryCtz",
+                  gcdFunction,
+                  random.nextInt(),
+                  random.nextInt());
+    }
+}
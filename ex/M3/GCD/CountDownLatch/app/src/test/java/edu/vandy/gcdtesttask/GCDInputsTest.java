@@ -0,0 +1,98 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDCountDownLatchWorker;
+
+/**
+ * This JUnit test compares the time the GCDCountDownLatchWorker
+ * spends initializing its inputs before a cycle can start when the
+ * inputs are generated on demand, when they're prefetched during the
+ * previous cycle, and when they're generated sequentially with a
+ * single java.util.Random as they used to be.
+ */
+public class GCDInputsTest {
+    /**
+     * Number of GCD input pairs per cycle.
+     */
+    private static final int sITERATIONS = 2000000;
+
+    /**
+     * Number of timed runs, the first of which is discarded as a
+     * warmup.
+     */
+    private static final int sRUNS = 4;
+
+    /**
+     * Time (in milliseconds) to wait for a prefetch to finish, which
+     * stands in for the cycle that runs while it's generated.
+     */
+    private static final long sCYCLE_MILLIS = 500;
+
+    /**
+     * Main entry point that times the three ways of initializing the
+     * inputs.
+     */
+    @Test
+    public void testInitializeInputs() throws InterruptedException {
+        long sequential = Long.MAX_VALUE;
+        long onDemand = Long.MAX_VALUE;
+        long prefetched = Long.MAX_VALUE;
+        long checksum = 0;
+
+        // Prefetching is opt-in since it doubles the footprint of
+        // the inputs.
+        GCDCountDownLatchWorker.setPrefetchEnabled(true);
+        try {
+            for (int run = 0; run < sRUNS; run++) {
+                // Generate the inputs the way the workers used to.
+                long startTime = System.nanoTime();
+                Random random = new Random();
+                int[] a = random.ints(sITERATIONS, 0, Integer.MAX_VALUE).toArray();
+                int[] b = random.ints(sITERATIONS, 0, Integer.MAX_VALUE).toArray();
+                long elapsed1 = System.nanoTime() - startTime;
+                checksum += a[0] + b[0];
+
+                // Generate the inputs on demand in parallel.
+                startTime = System.nanoTime();
+                GCDCountDownLatchWorker.initializeInputs(sITERATIONS, true);
+                long elapsed2 = System.nanoTime() - startTime;
+
+                // Use the inputs prefetched by the previous call.
+                Thread.sleep(sCYCLE_MILLIS);
+                startTime = System.nanoTime();
+                GCDCountDownLatchWorker.initializeInputs(sITERATIONS, false);
+                long elapsed3 = System.nanoTime() - startTime;
+
+                if (run > 0) {
+                    sequential = Math.min(sequential, elapsed1);
+                    onDemand = Math.min(onDemand, elapsed2);
+                    prefetched = Math.min(prefetched, elapsed3);
+                }
+            }
+        } finally {
+            GCDCountDownLatchWorker.setPrefetchEnabled(false);
+        }
+
+        System.out.println(String.format("initializing %d pairs (checksum %d)",
+                                         sITERATIONS,
+                                         checksum));
+        System.out.println(String.format("%-24s %8.2f msecs",
+                                         "sequential Random",
+                                         sequential / 1e6));
+        System.out.println(String.format("%-24s %8.2f msecs",
+                                         "parallel SplittableRandom",
+                                         onDemand / 1e6));
+        System.out.println(String.format("%-24s %8.2f msecs",
+                                         "prefetched",
+                                         prefetched / 1e6));
+
+        // Using a prefetched buffer should never be slower than
+        // generating one.
+        assertTrue(prefetched <= onDemand);
+    }
+}
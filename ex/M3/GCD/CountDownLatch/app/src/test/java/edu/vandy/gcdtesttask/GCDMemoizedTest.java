@@ -0,0 +1,250 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDImplementations;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDMemoized;
+import edu.vandy.gcdtesttask.presenter.GCDZipfGenerator;
+import edu.vandy.visfwk.model.TaskProfile;
+import edu.vandy.visfwk.model.WorkloadSpec;
+import edu.vandy.visfwk.utils.ThreadProfiler;
+
+/**
+ * This JUnit test checks that GCDMemoized returns the same results as
+ * the implementation it caches, even when many threads share a tiny
+ * table, and compares its hit rate and speed on uniform and skewed
+ * (Zipfian) inputs.
+ */
+public class GCDMemoizedTest {
+    /**
+     * Number of input pairs per run.
+     */
+    private static final int sITERATIONS = 1000000;
+
+    /**
+     * Number of distinct pairs the skewed inputs are picked from.
+     */
+    private static final int sDISTINCT_PAIRS = 1024;
+
+    /**
+     * Number of slots in the table of the memoized implementations.
+     */
+    private static final int sCAPACITY = 1 << 16;
+
+    /**
+     * Returns @a pairs interleaved pairs picked uniformly from @a seed.
+     */
+    private static int[] uniformPairs(int pairs,
+                                      long seed) {
+        return new SplittableRandom(seed).ints(2L * pairs, 0, Integer.MAX_VALUE)
+            .toArray();
+    }
+
+    /**
+     * Returns @a pairs interleaved pairs picked from @a generator
+     * using @a seed, the way the "zipf" workload generates them.
+     */
+    private static int[] zipfPairs(GCDZipfGenerator generator,
+                                   int pairs,
+                                   long seed) {
+        return new WorkloadSpec(generator,
+                                WorkloadSpec.Layout.INTERLEAVED,
+                                seed).generate(pairs);
+    }
+
+    /**
+     * Check that every pair in @a inputs is computed correctly by
+     * @a gcdMemoized, both one at a time and in bulk, in both orders.
+     */
+    private static void checkPairs(GCDMemoized gcdMemoized,
+                                   int[] inputs) {
+        int pairs = inputs.length / 2;
+        int[] out = new int[pairs];
+        gcdMemoized.computeAllPairs(inputs, out, 0, pairs);
+
+        for (int i = 0; i < pairs; i++) {
+            int a = inputs[2 * i];
+            int b = inputs[2 * i + 1];
+            int expected = GCDImplementations.computeGCDBigInteger(a, b);
+            assertEquals(expected, out[i]);
+            assertEquals(expected, gcdMemoized.compute(a, b));
+            assertEquals(expected, gcdMemoized.compute(b, a));
+        }
+    }
+
+    /**
+     * Make sure the memoized results match BigInteger's on uniform
+     * and repeated pairs, including the edge cases.
+     */
+    @Test
+    public void testCorrectness() {
+        GCDMemoized gcdMemoized =
+            new GCDMemoized(GCDImplementations::computeGCDBinaryCtz, 256);
+
+        checkPairs(gcdMemoized, uniformPairs(10000, 1));
+        checkPairs(gcdMemoized,
+                   zipfPairs(new GCDZipfGenerator(100, 1.0, 2), 10000, 3));
+        checkPairs(gcdMemoized,
+                   new int[] {0, 0, 0, 7, 7, 0, 1, Integer.MAX_VALUE,
+                              Integer.MAX_VALUE, Integer.MAX_VALUE, 12, 18});
+
+        // The same pair in either order must hit the same slot.
+        gcdMemoized.clear();
+        gcdMemoized.compute(12, 18);
+        gcdMemoized.compute(18, 12);
+        assertEquals(1, gcdMemoized.getHits());
+        assertEquals(1, gcdMemoized.getMisses());
+
+        // A table of one slot still has to work.
+        GCDMemoized tiny =
+            new GCDMemoized(GCDImplementations::computeGCDBinaryCtz, 1);
+        assertEquals(2, tiny.getCapacity());
+        checkPairs(tiny, uniformPairs(1000, 4));
+    }
+
+    /**
+     * Make sure a lookup allocates nothing, even on uniform inputs
+     * that miss almost every time and so overwrite the slots.
+     */
+    @Test
+    public void testNoAllocation() {
+        GCDMemoized gcdMemoized =
+            new GCDMemoized(GCDImplementations::computeGCDBinaryCtz, sCAPACITY);
+        int[] inputs = uniformPairs(sITERATIONS, 9);
+        int[] out = new int[sITERATIONS];
+
+        // Compile the loop first.
+        gcdMemoized.computeAllPairs(inputs, out, 0, sITERATIONS);
+
+        ThreadProfiler profiler = ThreadProfiler.start();
+        gcdMemoized.computeAllPairs(inputs, out, 0, sITERATIONS);
+        TaskProfile profile = profiler.stop(0);
+
+        // Allow for the odd allocation by the JVM itself, which is
+        // far less than a byte per lookup.
+        if (profile.getAllocatedBytes() != TaskProfile.sUNAVAILABLE)
+            assertTrue(profile.getAllocatedBytes() < sITERATIONS / 10);
+    }
+
+    /**
+     * Make sure threads sharing a tiny table, which overwrite each
+     * other's entries all the time, never see a wrong result.
+     */
+    @Test
+    public void testConcurrentCorrectness() throws Exception {
+        GCDMemoized gcdMemoized =
+            new GCDMemoized(GCDImplementations::computeGCDBinaryCtz, 16);
+        GCDZipfGenerator generator = new GCDZipfGenerator(64, 0.5, 5);
+        int threads = 4;
+        int pairs = 200000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int[] inputs = zipfPairs(generator, pairs, t);
+                futures.add(executor.submit((Callable<Integer>) () -> {
+                            int[] out = new int[pairs];
+                            gcdMemoized.computeAllPairs(inputs, out, 0, pairs);
+                            int wrong = 0;
+                            for (int i = 0; i < pairs; i++)
+                                if (out[i] != GCDImplementations
+                                    .computeGCDBinaryCtz(inputs[2 * i],
+                                                         inputs[2 * i + 1]))
+                                    wrong++;
+                            return wrong;
+                        }));
+            }
+            for (Future<Integer> future : futures)
+                assertEquals(0, (int) future.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals((long) threads * pairs,
+                     gcdMemoized.getHits() + gcdMemoized.getMisses());
+    }
+
+    /**
+     * Returns the nanoseconds per GCD it takes @a gcdFunction to
+     * compute all the pairs in @a inputs, taking the best of a few
+     * runs.
+     */
+    private static double nanosPerGcd(GCDInterface gcdFunction,
+                                      int[] inputs) {
+        int pairs = inputs.length / 2;
+        int[] out = new int[pairs];
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 4; run++) {
+            long startTime = System.nanoTime();
+            gcdFunction.computeAllPairs(inputs, out, 0, pairs);
+            best = Math.min(best, System.nanoTime() - startTime);
+        }
+        return (double) best / pairs;
+    }
+
+    /**
+     * Compare the hit rate and speed of the memoized implementation
+     * with the plain one on uniform inputs and on Zipfian inputs of
+     * increasing skew.
+     */
+    @Test
+    public void testHitRates() {
+        GCDInterface plain = GCDImplementations::computeGCDBinaryCtz;
+        System.out.println(String.format("%-28s %8s %10s %10s",
+                                         "inputs",
+                                         "hit rate",
+                                         "plain ns",
+                                         "memo ns"));
+
+        // Uniform inputs almost never repeat, so the table can't help.
+        GCDMemoized gcdMemoized = new GCDMemoized(plain, sCAPACITY);
+        int[] inputs = uniformPairs(sITERATIONS, 6);
+        double memoNanos = nanosPerGcd(gcdMemoized, inputs);
+        double uniformHitRate = gcdMemoized.getHitRate();
+        System.out.println(String.format("%-28s %8.3f %10.1f %10.1f",
+                                         "uniform",
+                                         uniformHitRate,
+                                         nanosPerGcd(plain, inputs),
+                                         memoNanos));
+        // Only the repeated runs over the same inputs can hit.
+        assertTrue(uniformHitRate < 0.2);
+
+        double lastHitRate = 0;
+        for (double exponent : new double[] {0.5, 1.1, 2.0}) {
+            gcdMemoized = new GCDMemoized(plain, sCAPACITY);
+            GCDZipfGenerator generator =
+                new GCDZipfGenerator(sDISTINCT_PAIRS, exponent, 7);
+            inputs = zipfPairs(generator, sITERATIONS, 8);
+
+            // Measure the hit rate of a single pass from a cold table.
+            gcdMemoized.computeAllPairs(inputs, new int[sITERATIONS], 0, sITERATIONS);
+            double hitRate = gcdMemoized.getHitRate();
+            memoNanos = nanosPerGcd(gcdMemoized, inputs);
+            System.out.println(String.format("%-28s %8.3f %10.1f %10.1f",
+                                             generator,
+                                             hitRate,
+                                             nanosPerGcd(plain, inputs),
+                                             memoNanos));
+
+            // The pool fits in the table, so apart from the few pairs
+            // that collide in a slot only the first pick of
+            // each pair can miss.
+            assertTrue(hitRate > 0.95);
+            assertTrue(hitRate >= lastHitRate);
+            lastHitRate = hitRate;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDCountDownLatchWorker;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.utils.ProgressReporter;
+
+/**
+ * This JUnit test runs the GCDCountDownLatchWorker with each
+ * algorithm's input range split across a ForkJoinPool and compares
+ * the isolated throughput (one algorithm at a time) with the
+ * contended throughput (all algorithms at once), both sequentially
+ * and in parallel.
+ */
+public class GCDParallelChunksTest
+       implements ProgressReporter {
+    /**
+     * Number of GCDs each algorithm computes per run.
+     */
+    private static final int sITERATIONS = 2000000;
+
+    /**
+     * Number of progress reports each worker should publish per run.
+     */
+    private static final int sREPORTS_PER_RUN = 10;
+
+    /**
+     * Counts the progress reports published by the workers.
+     */
+    private final AtomicInteger mReports = new AtomicInteger();
+
+    /**
+     * Count the progress report rather than running it.
+     */
+    @Override
+    public void updateProgress(Runnable runnable) {
+        mReports.incrementAndGet();
+    }
+
+    /**
+     * Run one worker per tuple in @a gcdTuples at the same time, using
+     * @a forkJoinPool (if non-null), and return each worker's wall time
+     * in nanoseconds.
+     */
+    private long[] runWorkers(List<TaskTuple<GCDInterface>> gcdTuples,
+                              ForkJoinPool forkJoinPool)
+        throws InterruptedException {
+        GCDCountDownLatchWorker.initializeInputs(sITERATIONS);
+        CountDownLatch entryBarrier = new CountDownLatch(1);
+        CountDownLatch exitBarrier = new CountDownLatch(gcdTuples.size());
+
+        List<GCDCountDownLatchWorker> workers = new ArrayList<>();
+        for (TaskTuple<GCDInterface> gcdTuple : gcdTuples) {
+            GCDCountDownLatchWorker worker =
+                new GCDCountDownLatchWorker(entryBarrier,
+                                           exitBarrier,
+                                           gcdTuple,
+                                           this,
+                                           forkJoinPool);
+            workers.add(worker);
+            new Thread(worker).start();
+        }
+
+        mReports.set(0);
+        entryBarrier.countDown();
+        exitBarrier.await();
+
+        // Every worker should have published all its progress reports.
+        assertEquals(sREPORTS_PER_RUN * gcdTuples.size(), mReports.get());
+
+        long[] elapsed = new long[workers.size()];
+        for (int i = 0; i < elapsed.length; i++) {
+            elapsed[i] = workers.get(i).getElapsedNanos();
+            assertTrue(elapsed[i] >= 0);
+        }
+        return elapsed;
+    }
+
+    /**
+     * Main entry point that compares the isolated and contended
+     * throughput of each algorithm.
+     */
+    @Test
+    public void testParallelChunks()
+        throws InterruptedException {
+        List<TaskTuple<GCDInterface>> gcdTuples =
+            new GCDTestTaskFactory().getTasksToTest();
+        ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+        long[] sequential = runWorkers(gcdTuples, null);
+        long[] contended = runWorkers(gcdTuples, forkJoinPool);
+        long[] isolated = new long[gcdTuples.size()];
+        for (int i = 0; i < isolated.length; i++)
+            isolated[i] =
+                runWorkers(Collections.singletonList(gcdTuples.get(i)),
+                           forkJoinPool)[0];
+
+        System.out.println(String.format("%-24s %16s %16s %16s",
+                                         "GCDs/sec with "
+                                         + forkJoinPool.getParallelism()
+                                         + " FJ threads",
+                                         "isolated",
+                                         "contended",
+                                         "sequential"));
+        for (int i = 0; i < gcdTuples.size(); i++)
+            System.out.println(String.format("%-24s %16.0f %16.0f %16.0f",
+                                             gcdTuples.get(i).getTestName(),
+                                             sITERATIONS * 1e9 / isolated[i],
+                                             sITERATIONS * 1e9 / contended[i],
+                                             sITERATIONS * 1e9 / sequential[i]));
+    }
+}
@@ -0,0 +1,129 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDCountDownLatchWorker;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+import edu.vandy.visfwk.model.TaskProfile;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.utils.ProgressReporter;
+
+/**
+ * This JUnit test runs each GCDInterface implementation by itself and
+ * prints the TaskProfile the GCDCountDownLatchWorker attaches to its
+ * TaskTuple, which shows where each implementation spends its time.
+ */
+public class GCDProfileTest {
+    /**
+     * Number of GCDs each implementation computes.
+     */
+    private static final int sITERATIONS = 1000000;
+
+    /**
+     * A ProgressReporter that discards the reports.
+     */
+    private static final ProgressReporter sNO_PROGRESS =
+        new ProgressReporter() {
+            @Override
+            public void updateProgress(Runnable runnable) {
+            }
+        };
+
+    /**
+     * Returns the tuple of the implementation named @a name.
+     */
+    private static TaskTuple<GCDInterface> find(List<TaskTuple<GCDInterface>> gcdTuples,
+                                                String name) {
+        for (TaskTuple<GCDInterface> gcdTuple : gcdTuples)
+            if (gcdTuple.getTestName().equals(name))
+                return gcdTuple;
+        throw new IllegalArgumentException(name);
+    }
+
+    /**
+     * Run a worker for @a gcdTuple by itself, using @a forkJoinPool
+     * if it's non-null.
+     */
+    private static void runWorker(TaskTuple<GCDInterface> gcdTuple,
+                                  ForkJoinPool forkJoinPool)
+        throws InterruptedException {
+        CountDownLatch entryBarrier = new CountDownLatch(1);
+        CountDownLatch exitBarrier = new CountDownLatch(1);
+        new Thread(new GCDCountDownLatchWorker(entryBarrier,
+                                               exitBarrier,
+                                               gcdTuple,
+                                               sNO_PROGRESS,
+                                               forkJoinPool)).start();
+        entryBarrier.countDown();
+        exitBarrier.await();
+    }
+
+    /**
+     * Profile each implementation, print the profiles as CSV, and
+     * check that BigInteger's cost is dominated by allocation.
+     */
+    @Test
+    public void testProfiles()
+        throws InterruptedException {
+        List<TaskTuple<GCDInterface>> gcdTuples =
+            new GCDTestTaskFactory().getTasksToTest();
+
+        GCDCountDownLatchWorker.initializeInputs(sITERATIONS);
+
+        // Run each implementation twice so the second run's profile
+        // doesn't include the JIT warmup.
+        for (int run = 0; run < 2; run++)
+            for (TaskTuple<GCDInterface> gcdTuple : gcdTuples)
+                runWorker(gcdTuple, null);
+
+        System.out.print(TaskProfile.toCsv(gcdTuples));
+
+        for (TaskTuple<GCDInterface> gcdTuple : gcdTuples) {
+            assertNotNull(gcdTuple.getProfile());
+            assertTrue(gcdTuple.getProfile().getWallNanos() > 0);
+        }
+
+        // The profile counters are only checked where the JVM
+        // provides them.
+        TaskProfile euclid = find(gcdTuples, "IterativeEuclid").getProfile();
+        TaskProfile bigInteger = find(gcdTuples, "BigInteger").getProfile();
+        if (bigInteger.getAllocatedBytes() != TaskProfile.sUNAVAILABLE) {
+            // BigInteger allocates several objects per GCD, whereas
+            // Euclid's algorithm allocates nothing per GCD.
+            assertTrue(bigInteger.getAllocatedBytes() > 10L * sITERATIONS);
+            assertTrue(bigInteger.getAllocatedBytes()
+                       > 100 * Math.max(1, euclid.getAllocatedBytes()));
+        }
+    }
+
+    /**
+     * Make sure a parallel run's profile includes the CPU time of the
+     * fork-join threads, which do all the work.
+     */
+    @Test
+    public void testParallelProfile()
+        throws InterruptedException {
+        TaskTuple<GCDInterface> gcdTuple =
+            new TaskTuple<>(new GCDTestTaskFactory().getFuncsAndNames().get(0).getValue(),
+                            "parallel",
+                            0);
+        GCDCountDownLatchWorker.initializeInputs(sITERATIONS);
+        runWorker(gcdTuple, ForkJoinPool.commonPool());
+
+        TaskProfile profile = gcdTuple.getProfile();
+        System.out.println(profile);
+        assertNotNull(profile);
+        if (profile.getCpuNanos() != TaskProfile.sUNAVAILABLE)
+            // The worker's own thread only waits, so most of the CPU
+            // time must come from the chunks.
+            assertTrue(profile.getCpuNanos() > profile.getWallNanos() / 4);
+    }
+}
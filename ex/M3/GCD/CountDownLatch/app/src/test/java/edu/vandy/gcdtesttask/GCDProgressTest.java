@@ -0,0 +1,102 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDCountDownLatchWorker;
+import edu.vandy.gcdtesttask.presenter.GCDImplementations;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.utils.ProgressReporter;
+import edu.vandy.visfwk.utils.ProgressSampler;
+
+/**
+ * This JUnit test checks that a GCDCountDownLatchWorker counts all its
+ * iterations when its progress is sampled, both sequentially and in
+ * parallel, and that it reports its progress without dividing by zero
+ * when it has fewer than 10 iterations.
+ */
+public class GCDProgressTest {
+    /**
+     * A worker that exposes runTest().
+     */
+    private static class Worker
+            extends GCDCountDownLatchWorker {
+        Worker(TaskTuple<GCDInterface> gcdTuple,
+               ProgressReporter progressReporter,
+               ForkJoinPool forkJoinPool) {
+            super(null,
+                  null,
+                  gcdTuple,
+                  progressReporter,
+                  forkJoinPool);
+        }
+
+        void runOnce() {
+            runTest();
+        }
+    }
+
+    /**
+     * Run @a iterations iterations with a sampled reporter and return
+     * the reports the sampler made.
+     */
+    private static List<Integer> runSampled(int iterations,
+                                            ForkJoinPool forkJoinPool) {
+        GCDCountDownLatchWorker.initializeInputs(iterations);
+        TaskTuple<GCDInterface> gcdTuple =
+            new TaskTuple<>(GCDImplementations::computeGCDBinaryCtz,
+                            "BinaryCtz",
+                            0);
+
+        List<Integer> reports = new ArrayList<>();
+        ProgressSampler sampler =
+            new ProgressSampler(1,
+                                ProgressSampler.sDEFAULT_PERIOD_MILLIS,
+                                (id, percent) -> reports.add(percent));
+        new Worker(gcdTuple,
+                   ProgressReporter.sampled(sampler),
+                   forkJoinPool).runOnce();
+
+        assertEquals(iterations,
+                     sampler.getCounter(0).getCount());
+        sampler.sample();
+        return reports;
+    }
+
+    /**
+     * Make sure every iteration is counted.
+     */
+    @Test
+    public void testSampledProgress() {
+        assertEquals("[100]", runSampled(1000000, null).toString());
+        assertEquals("[100]", runSampled(1000000, ForkJoinPool.commonPool()).toString());
+        assertEquals("[100]", runSampled(3, null).toString());
+    }
+
+    /**
+     * Make sure the 10% reports still work, even with fewer than 10
+     * iterations.
+     */
+    @Test
+    public void testReportedProgress() {
+        GCDCountDownLatchWorker.initializeInputs(5);
+        List<Runnable> reports = new ArrayList<>();
+        new Worker(new TaskTuple<>(GCDImplementations::computeGCDBinaryCtz,
+                                   "BinaryCtz",
+                                   0),
+                   new ProgressReporter() {
+                       @Override
+                       public void updateProgress(Runnable runnable) {
+                           reports.add(runnable);
+                       }
+                   },
+                   null).runOnce();
+        assertEquals(5, reports.size());
+    }
+}
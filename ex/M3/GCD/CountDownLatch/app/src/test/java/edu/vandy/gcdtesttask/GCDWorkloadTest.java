@@ -0,0 +1,164 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDFibonacciDistribution;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.WorkloadSpec;
+import edu.vandy.visfwk.utils.HeadlessRunner;
+import edu.vandy.visfwk.utils.HeadlessRunner.Coordination;
+import edu.vandy.visfwk.utils.ResultChecksum;
+
+/**
+ * This JUnit test checks that the Fibonacci workload generates the
+ * worst-case inputs of Euclid's algorithm, and that all the GCD
+ * implementations compute the same results for each workload while a
+ * wrong one is caught by its checksum.
+ */
+public class GCDWorkloadTest {
+    /**
+     * Number of GCDs each implementation computes per cycle.
+     */
+    private static final int sITERATIONS = 50000;
+
+    /**
+     * Smallest index of the Fibonacci pairs tested.
+     */
+    private static final int sMIN_INDEX = 30;
+
+    /**
+     * Clear the workload properties set by a test.
+     */
+    @After
+    public void clearProperties() {
+        System.clearProperty("gcd.workload");
+        System.clearProperty("gcd.seed");
+    }
+
+    /**
+     * Returns the number of division steps Euclid's algorithm takes
+     * to compute the GCD of @a a and @a b.
+     */
+    private static int euclidSteps(int a,
+                                   int b) {
+        int steps = 0;
+        while (b != 0) {
+            int r = a % b;
+            a = b;
+            b = r;
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Returns the GCD of @a a and @a b.
+     */
+    private static int gcd(int a,
+                           int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Make sure each Fibonacci pair is a multiple of consecutive
+     * Fibonacci numbers, so its GCD is the multiplier and Euclid's
+     * algorithm takes one step fewer than the index or more.
+     */
+    @Test
+    public void testFibonacci() {
+        int[] pairs =
+            new WorkloadSpec(new GCDFibonacciDistribution(sMIN_INDEX),
+                             WorkloadSpec.Layout.INTERLEAVED,
+                             11).generate(sITERATIONS);
+
+        for (int i = 0; i < sITERATIONS; i++) {
+            int a = pairs[2 * i];
+            int b = pairs[2 * i + 1];
+            assertTrue(a > b && b > 0);
+
+            int gcd = gcd(a, b);
+            assertEquals(0, a % gcd);
+            assertTrue(euclidSteps(a, b) >= sMIN_INDEX - 1);
+
+            // The pair divided by its GCD is two consecutive
+            // Fibonacci numbers.
+            int k = sMIN_INDEX;
+            while (GCDFibonacciDistribution.fibonacci(k) < b / gcd)
+                k++;
+            assertEquals(GCDFibonacciDistribution.fibonacci(k), b / gcd);
+            assertEquals(GCDFibonacciDistribution.fibonacci(k + 1), a / gcd);
+        }
+    }
+
+    /**
+     * Make sure every GCD implementation computes the same checksum
+     * for each workload.
+     */
+    @Test
+    public void testImplementationsAgree() throws Exception {
+        for (String workload : new String[] {"uniform", "zipf", "fibonacci"}) {
+            System.setProperty("gcd.workload", workload);
+            System.setProperty("gcd.seed", "5");
+
+            HeadlessRunner<GCDInterface> runner =
+                new HeadlessRunner<>(new GCDTestTaskFactory(),
+                                     sITERATIONS,
+                                     1,
+                                     Coordination.BARRIER);
+            runner.run();
+
+            for (TaskTuple<GCDInterface> taskTuple : runner.getTaskTuples())
+                assertNotNull(taskTuple.getChecksum());
+            assertNull(workload,
+                       ResultChecksum.describeMismatches(runner.getTaskTuples()));
+        }
+    }
+
+    /**
+     * A factory that adds an implementation that's wrong for some
+     * inputs.
+     */
+    private static class BrokenFactory
+            extends GCDTestTaskFactory {
+        @Override
+        public List<SimpleImmutableEntry<String, GCDInterface>> getFuncsAndNames() {
+            List<SimpleImmutableEntry<String, GCDInterface>> funcs =
+                super.getFuncsAndNames();
+            GCDInterface right = funcs.get(0).getValue();
+            funcs.add(new SimpleImmutableEntry<>("Broken",
+                                                 (a, b) -> a % 1000 == 0
+                                                 ? 1
+                                                 : right.compute(a, b)));
+            return funcs;
+        }
+    }
+
+    /**
+     * Make sure a wrong implementation fails the run.
+     */
+    @Test
+    public void testWrongImplementationIsCaught() throws Exception {
+        try {
+            new HeadlessRunner<>(new BrokenFactory(),
+                                 sITERATIONS,
+                                 1,
+                                 Coordination.LATCH).run();
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(String.valueOf(e.getCause()),
+                       String.valueOf(e.getCause()).endsWith("checksum mismatch for Broken"));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package edu.vandy.visfwk.model;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A lock-free table of the latest progress of each task, indexed by
+ * the task's unique id.  Workers write their progress into it from
+ * any thread without allocating or posting a message, and the UI
+ * periodically diffs it against what it last displayed, so the cost
+ * of displaying progress is bounded by the frame rate rather than by
+ * the number of reports.
+ */
+public class ProgressTable {
+    /**
+     * Value of a row that hasn't been displayed yet, which differs
+     * from every valid progress so the first diff reports the row.
+     */
+    public static final int sNOT_SHOWN = -1;
+
+    /**
+     * The latest progress (as a percentage) of each task.
+     */
+    private final AtomicIntegerArray mProgress;
+
+    /**
+     * Constructor creates a table for @a size tasks, all of which
+     * start with 0 progress.
+     */
+    public ProgressTable(int size) {
+        mProgress = new AtomicIntegerArray(size);
+    }
+
+    /**
+     * Returns the number of tasks in the table.
+     */
+    public int size() {
+        return mProgress.length();
+    }
+
+    /**
+     * Record that the task with @a taskUniqueId has made @a progress.
+     * It can be called from any thread.  The write is volatile so a
+     * refresher that resets its "refresh pending" flag before calling
+     * diff() either sees this write or is asked for another refresh.
+     */
+    public void set(int taskUniqueId,
+                    int progress) {
+        mProgress.set(taskUniqueId, progress);
+    }
+
+    /**
+     * Returns the latest progress of the task with @a taskUniqueId.
+     */
+    public int get(int taskUniqueId) {
+        return mProgress.get(taskUniqueId);
+    }
+
+    /**
+     * Reset the progress of all the tasks to 0, e.g., before a new
+     * run.
+     */
+    public void clear() {
+        for (int i = 0; i < mProgress.length(); i++)
+            mProgress.set(i, 0);
+    }
+
+    /**
+     * Compare the table with the progress in @a shown, which holds
+     * what was last displayed for each task (or sNOT_SHOWN), update
+     * @a shown to the table's current values, and store the ids of
+     * the rows that changed in @a changed.  Returns the number of
+     * changed rows.  Both arrays must be at least size() long.
+     */
+    public int diff(int[] shown,
+                    int[] changed) {
+        int count = 0;
+        for (int i = 0; i < mProgress.length(); i++) {
+            int progress = mProgress.get(i);
+            if (progress != shown[i]) {
+                shown[i] = progress;
+                changed[count++] = i;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,168 @@
+package edu.vandy.visfwk.model;
+
+import java.util.Locale;
+
+/**
+ * An immutable numeric record of one run of a test, which unlike the
+ * "00:00:00" string displayed in a TaskTuple can be stored in a
+ * ResultsHistory and compared across builds.
+ */
+public class RunRecord {
+    /**
+     * Time (in milliseconds since the epoch) the run completed.
+     */
+    private final long mTimestampMillis;
+
+    /**
+     * Name of the test.
+     */
+    private final String mTestName;
+
+    /**
+     * Name of the thread that ran the test.
+     */
+    private final String mThreadName;
+
+    /**
+     * How the tests were run, e.g., "barrier/all" for all of them at
+     * the same time coordinated by CyclicBarriers, since a test's time
+     * depends on how many others ran alongside it.
+     */
+    private final String mMode;
+
+    /**
+     * Description of the inputs, e.g., their WorkloadSpec, or empty
+     * if it's unknown.
+     */
+    private final String mWorkload;
+
+    /**
+     * Cycle (numbered from 1) of the run.
+     */
+    private final int mCycle;
+
+    /**
+     * Number of iterations the test performed.
+     */
+    private final long mIterations;
+
+    /**
+     * Wall-clock time (in nanoseconds) of the run.
+     */
+    private final long mWallNanos;
+
+    /**
+     * CPU time (in nanoseconds) of the run, or
+     * TaskProfile.sUNAVAILABLE.
+     */
+    private final long mCpuNanos;
+
+    /**
+     * Constructor initializes the fields.
+     */
+    public RunRecord(long timestampMillis,
+                     String testName,
+                     String threadName,
+                     String mode,
+                     String workload,
+                     int cycle,
+                     long iterations,
+                     long wallNanos,
+                     long cpuNanos) {
+        mTimestampMillis = timestampMillis;
+        mTestName = testName;
+        mThreadName = threadName;
+        mMode = mode;
+        mWorkload = workload;
+        mCycle = cycle;
+        mIterations = iterations;
+        mWallNanos = wallNanos;
+        mCpuNanos = cpuNanos;
+    }
+
+    /**
+     * Returns the time (in milliseconds since the epoch) the run
+     * completed.
+     */
+    public long getTimestampMillis() {
+        return mTimestampMillis;
+    }
+
+    /**
+     * Returns the name of the test.
+     */
+    public String getTestName() {
+        return mTestName;
+    }
+
+    /**
+     * Returns the name of the thread that ran the test.
+     */
+    public String getThreadName() {
+        return mThreadName;
+    }
+
+    /**
+     * Returns how the tests were run, e.g., "barrier/all".
+     */
+    public String getMode() {
+        return mMode;
+    }
+
+    /**
+     * Returns the description of the inputs, or empty if it's
+     * unknown.
+     */
+    public String getWorkload() {
+        return mWorkload;
+    }
+
+    /**
+     * Returns the cycle (numbered from 1) of the run.
+     */
+    public int getCycle() {
+        return mCycle;
+    }
+
+    /**
+     * Returns the number of iterations the test performed.
+     */
+    public long getIterations() {
+        return mIterations;
+    }
+
+    /**
+     * Returns the wall-clock time (in nanoseconds) of the run.
+     */
+    public long getWallNanos() {
+        return mWallNanos;
+    }
+
+    /**
+     * Returns the CPU time (in nanoseconds) of the run, or
+     * TaskProfile.sUNAVAILABLE.
+     */
+    public long getCpuNanos() {
+        return mCpuNanos;
+    }
+
+    /**
+     * Returns the wall-clock time (in nanoseconds) per iteration.
+     */
+    public double getNanosPerIteration() {
+        return (double) mWallNanos / Math.max(1, mIterations);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                             "%s cycle %d in %s (%s, %s): %d iterations in %.3f ms",
+                             mTestName,
+                             mCycle,
+                             mThreadName,
+                             mMode,
+                             mWorkload,
+                             mIterations,
+                             mWallNanos / 1e6);
+    }
+}
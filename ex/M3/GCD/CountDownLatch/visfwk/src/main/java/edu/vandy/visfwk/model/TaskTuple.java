@@ -37,6 +37,20 @@ public class TaskTuple<TestFunc> {
      */
     private String mTimeCompletedString = "00:00:00";
 
+    /**
+     * Resources used by the most recent completed run of this task,
+     * or null if no run has completed.  It's set by the thread that
+     * ran the task and read by others, so it's volatile.
+     */
+    private volatile TaskProfile mProfile;
+
+    /**
+     * Checksum of the results of the most recent run of this task,
+     * which should match that of the other tasks run on the same
+     * inputs, or null if the run didn't compute one.
+     */
+    private volatile Long mChecksum;
+
     /**
      * Constructor initializes the fields.
      */
@@ -126,4 +140,44 @@ public class TaskTuple<TestFunc> {
     public void setTimeCompletedString(String timeCompletedString) {
         mTimeCompletedString = timeCompletedString;
     }
+
+    /**
+     * Get the resources used by the most recent completed run of this
+     * task.
+     *
+     * @return TaskProfile of the most recent run, null if no run has
+     * completed.
+     */
+    public TaskProfile getProfile() {
+        return mProfile;
+    }
+
+    /**
+     * Store the resources used by the most recent run of this task.
+     *
+     * @param profile TaskProfile of the run.
+     */
+    public void setProfile(TaskProfile profile) {
+        mProfile = profile;
+    }
+
+    /**
+     * Returns the checksum of the results of the most recent run of
+     * this task.
+     *
+     * @return The checksum, or null if the run didn't compute one.
+     */
+    public Long getChecksum() {
+        return mChecksum;
+    }
+
+    /**
+     * Store the checksum of the results of the most recent run of
+     * this task.
+     *
+     * @param checksum The checksum, or null to clear it.
+     */
+    public void setChecksum(Long checksum) {
+        mChecksum = checksum;
+    }
 }
@@ -1,50 +1,31 @@
 package edu.vandy.visfwk.model.abstracts;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import java.util.AbstractMap.SimpleImmutableEntry;
 import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestFactory;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestInterface;
 import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
 import edu.vandy.visfwk.presenter.PresenterLogic;
 import edu.vandy.visfwk.view.interfaces.ViewInterface;
 
-import static java.util.stream.Collectors.toList;
-
 /**
  * Super class for factory classes that create the list of tasks to
- * test and the actual AsyncTask to test them on Android.
+ * test and the actual AbstractTestTask to test them on Android.
+ * Factories that override makeHeadlessTest() can also be benchmarked
+ * on a plain JVM via HeadlessRunner.
  */
-public abstract class AbstractTestTaskFactory<TestFunc> {
+public abstract class AbstractTestTaskFactory<TestFunc>
+       implements HeadlessTestFactory<TestFunc> {
     /**
      * Return the list of TaskTuples to test.
      */
+    @Override
     public final List<TaskTuple<TestFunc>> getTasksToTest() {
-        // Get the functions and their names to test.
-        List<SimpleImmutableEntry<String, TestFunc>> funcsToRun =
-            getFuncsAndNames();
-
-        // Automatically generates a unique id.
-        AtomicInteger uniqueId = new AtomicInteger(0);
-
-        // Return a List of TaskTuples containing the test tasks to run.
-        return funcsToRun
-            // Convert the EntrySet into a stream.
-            .stream()
-
-            // Create a new TaskTuple for each element in the
-            // EntrySet.
-            .map(entry
-                 -> new TaskTuple<>(entry.getValue(),
-                                    entry.getKey(),
-                                    uniqueId.getAndIncrement()))
-
-            // Limit the number of TaskTuples to the number of
-            // functions.
-            .limit(funcsToRun.size())
-
-            // Convert the stream to a list.
-            .collect(toList());
+        // Create a TaskTuple for each of the functions and their
+        // names to test.
+        return HeadlessTestFactory.makeTaskTuples(getFuncsAndNames());
     }
 
     /**
@@ -69,6 +50,20 @@ public abstract class AbstractTestTaskFactory<TestFunc> {
                                                             PresenterLogic<TestFunc> presenterLogic,
                                                             int numberOfTests);
 
+    /**
+     * A factory method that returns a HeadlessTestInterface that runs
+     * the tests without Android, e.g., via HeadlessRunner in CI.  This
+     * default implementation doesn't support headless runs.
+     *
+     * @param iterations Number of test iterations to run.
+     * @return A HeadlessTestInterface to perform the tests.
+     */
+    @Override
+    public HeadlessTestInterface<TestFunc> makeHeadlessTest(int iterations) {
+        throw new UnsupportedOperationException(getClass().getName()
+                                                + " doesn't support headless runs");
+    }
+
     /**
      * Set the default number to fill the on-screen prompt with.
      *
@@ -0,0 +1,38 @@
+package edu.vandy.visfwk.model.interfaces;
+
+import edu.vandy.visfwk.model.TaskTuple;
+
+/**
+ * Runs the tests of a HeadlessTestFactory without Android, e.g., via
+ * HeadlessRunner on a plain JVM in CI.  The runner takes care of
+ * the threads, their coordination, and the timing, so an
+ * implementation only has to prepare each cycle and run one test.
+ */
+public interface HeadlessTestInterface<TestFunc> {
+    /**
+     * Prepare cycle @a cycle (numbered from 1) of @a cycles, e.g.,
+     * generate the inputs shared by all the tests.  It's called in a
+     * single thread while no test is running.
+     */
+    default void beforeCycle(int cycle,
+                             int cycles) {
+    }
+
+    /**
+     * Run the test of @a taskTuple once in the calling thread.  If it
+     * stores a new TaskProfile in @a taskTuple, e.g., one that
+     * includes helper threads, that profile is reported rather than
+     * the one the runner measured around the call.
+     */
+    void runTest(TaskTuple<TestFunc> taskTuple) throws Exception;
+
+    /**
+     * Returns a description of the inputs the tests run on, e.g., the
+     * WorkloadSpec they're generated from, which is recorded with the
+     * results so only runs on the same kind of inputs are compared.
+     * It's empty by default.
+     */
+    default String getWorkload() {
+        return "";
+    }
+}
@@ -0,0 +1,24 @@
+package edu.vandy.visfwk.model.interfaces;
+
+import java.util.SplittableRandom;
+
+/**
+ * A distribution of the input tuples of a workload, e.g., the pairs of
+ * ints passed to a GCD function.  A WorkloadSpec draws the tuples
+ * from it and lays them out in an array.  Implementations must be
+ * safe to call from several threads at once, each with its own
+ * SplittableRandom.
+ */
+public interface InputDistribution {
+    /**
+     * Returns the number of ints in each tuple.
+     */
+    int getArity();
+
+    /**
+     * Store the next tuple drawn using @a random in the first
+     * getArity() elements of @a tuple.
+     */
+    void next(SplittableRandom random,
+              int[] tuple);
+}
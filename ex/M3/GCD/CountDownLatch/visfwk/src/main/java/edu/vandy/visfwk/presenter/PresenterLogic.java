@@ -43,7 +43,7 @@ public abstract class PresenterLogic<TestFunc>
     private ModelStateInterface<TestFunc> mModelStateInterface;
 
     /**
-     * AsyncTask for testing of the tasks.
+     * AbstractTestTask for testing of the tasks.
      */
     private AbstractTestTask<TestFunc> mTestTask;
 
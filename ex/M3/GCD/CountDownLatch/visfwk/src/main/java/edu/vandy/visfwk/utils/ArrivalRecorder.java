@@ -0,0 +1,126 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records when each party arrives at a synchronizer, e.g., an
+ * InstrumentedCyclicBarrier or InstrumentedCountDownLatch, so the
+ * arrivals of a cycle can be turned into an ArrivalReport.  A party
+ * is named by calling setParty() in its thread, e.g., with the name of
+ * the test it runs, and is otherwise named after its thread.
+ */
+public class ArrivalRecorder {
+    /**
+     * The name of the party the current thread acts for, or null if
+     * it's named after the thread.
+     */
+    private static final ThreadLocal<String> sPARTY = new ThreadLocal<>();
+
+    /**
+     * One party's arrival.
+     */
+    public static class Arrival {
+        /**
+         * Name of the party.
+         */
+        private final String mParty;
+
+        /**
+         * System.nanoTime() of the arrival.
+         */
+        private final long mNanos;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        Arrival(String party,
+                long nanos) {
+            mParty = party;
+            mNanos = nanos;
+        }
+
+        /**
+         * Returns the name of the party.
+         */
+        public String getParty() {
+            return mParty;
+        }
+
+        /**
+         * Returns the System.nanoTime() of the arrival.
+         */
+        public long getNanos() {
+            return mNanos;
+        }
+    }
+
+    /**
+     * Name of the synchronizer, e.g., "entry" or "exit".
+     */
+    private final String mName;
+
+    /**
+     * The arrivals since the last call to drain(), guarded by itself.
+     */
+    private final List<Arrival> mArrivals = new ArrayList<>();
+
+    /**
+     * Constructor records the arrivals at the synchronizer named @a
+     * name.
+     */
+    public ArrivalRecorder(String name) {
+        mName = name;
+    }
+
+    /**
+     * Name the party the calling thread acts for @a party, until it's
+     * cleared.
+     */
+    public static void setParty(String party) {
+        sPARTY.set(party);
+    }
+
+    /**
+     * Name the party the calling thread acts for after the thread
+     * again, e.g., before the thread is returned to a pool.
+     */
+    public static void clearParty() {
+        sPARTY.remove();
+    }
+
+    /**
+     * Returns the name of the party the calling thread acts for.
+     */
+    static String currentParty() {
+        String party = sPARTY.get();
+        return party != null
+            ? party
+            : Thread.currentThread().getName();
+    }
+
+    /**
+     * Record that the calling thread's party arrived now.
+     */
+    public void arrive() {
+        Arrival arrival = new Arrival(currentParty(),
+                                      System.nanoTime());
+        synchronized (mArrivals) {
+            mArrivals.add(arrival);
+        }
+    }
+
+    /**
+     * Returns a report of the arrivals recorded since the last call
+     * and starts recording anew, e.g., for the next cycle.
+     */
+    public ArrivalReport drain() {
+        List<Arrival> arrivals;
+        synchronized (mArrivals) {
+            arrivals = new ArrayList<>(mArrivals);
+            mArrivals.clear();
+        }
+        return new ArrivalReport(mName,
+                                 arrivals);
+    }
+}
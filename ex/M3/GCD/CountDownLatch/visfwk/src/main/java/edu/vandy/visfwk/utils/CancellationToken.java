@@ -0,0 +1,243 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells long-running loops to stop, without interrupting their
+ * threads.  A loop checks the token via a Poller, which only reads it
+ * on a strided schedule that adapts to how long the loop's steps take,
+ * so the time between reads stays within half of the token's maximum
+ * cancellation latency while the common case costs a decrement and a
+ * branch per step.  The loops acknowledge the cancellation when they
+ * see it, which records how long they took to stop.
+ *
+ * The stride is sized from the steps already taken, so the maximum
+ * latency holds as long as a step's cost at most doubles from one
+ * read to the next.  A read that finds the maximum latency was
+ * overrun anyway, e.g., because the steps suddenly got much slower or
+ * the thread wasn't scheduled, drops the stride to a single step, so
+ * the overrun can't last beyond that read while the steps are
+ * re-measured.
+ */
+public class CancellationToken {
+    /**
+     * The default maximum time (in milliseconds) from cancel() until
+     * a loop polling the token stops.
+     */
+    public static final long sDEFAULT_MAX_LATENCY_MILLIS = 50;
+
+    /**
+     * The maximum number of steps between two reads of the token.
+     */
+    private static final int sMAX_STRIDE = 1 << 20;
+
+    /**
+     * If non-null this token is also cancelled when its parent is.
+     */
+    private final CancellationToken mParent;
+
+    /**
+     * The maximum time (in nanoseconds) from cancel() until a loop
+     * polling the token stops.
+     */
+    private final long mMaxLatencyNanos;
+
+    /**
+     * True once cancel() has been called.
+     */
+    private volatile boolean mCancelled;
+
+    /**
+     * System.nanoTime() of the first call to cancel().
+     */
+    private volatile long mCancelNanos;
+
+    /**
+     * The longest time (in nanoseconds) a loop took to acknowledge
+     * the cancellation.
+     */
+    private final AtomicLong mMaxObservedNanos = new AtomicLong();
+
+    /**
+     * Constructor creates a token with the default maximum latency.
+     */
+    public CancellationToken() {
+        this(null,
+             TimeUnit.MILLISECONDS.toNanos(sDEFAULT_MAX_LATENCY_MILLIS));
+    }
+
+    /**
+     * Constructor creates a token whose loops stop within @a
+     * maxLatency @a unit of cancel().
+     */
+    public CancellationToken(long maxLatency,
+                             TimeUnit unit) {
+        this(null,
+             unit.toNanos(maxLatency));
+    }
+
+    /**
+     * Constructor creates a token that's also cancelled when @a parent
+     * is, with the same maximum latency.
+     */
+    public CancellationToken(CancellationToken parent) {
+        this(parent,
+             parent.mMaxLatencyNanos);
+    }
+
+    /**
+     * Constructor initializes the fields.
+     */
+    private CancellationToken(CancellationToken parent,
+                              long maxLatencyNanos) {
+        if (maxLatencyNanos <= 0)
+            throw new IllegalArgumentException("maxLatency must be positive: "
+                                               + maxLatencyNanos);
+        mParent = parent;
+        mMaxLatencyNanos = maxLatencyNanos;
+    }
+
+    /**
+     * Tell the loops polling this token (and any child tokens) to
+     * stop.
+     */
+    public void cancel() {
+        if (!mCancelled) {
+            mCancelNanos = System.nanoTime();
+            mCancelled = true;
+        }
+    }
+
+    /**
+     * Returns true if this token or its parent has been cancelled.
+     */
+    public boolean isCancelled() {
+        return mCancelled
+            || (mParent != null && mParent.isCancelled());
+    }
+
+    /**
+     * Returns the maximum time (in nanoseconds) from cancel() until a
+     * loop polling the token stops.
+     */
+    public long getMaxLatencyNanos() {
+        return mMaxLatencyNanos;
+    }
+
+    /**
+     * Returns the longest time (in nanoseconds) a loop took to
+     * acknowledge the cancellation of this token, or 0 if none has.
+     */
+    public long getMaxObservedLatencyNanos() {
+        return mMaxObservedNanos.get();
+    }
+
+    /**
+     * Record that a loop has seen the cancellation and stopped, which
+     * is charged to whichever of this token and its parent was
+     * cancelled.
+     */
+    public void acknowledge() {
+        if (mCancelled) {
+            long latency = System.nanoTime() - mCancelNanos;
+            mMaxObservedNanos.accumulateAndGet(latency, Math::max);
+        } else if (mParent != null)
+            mParent.acknowledge();
+    }
+
+    /**
+     * Returns a new Poller for a loop in the calling thread.
+     */
+    public Poller poller() {
+        return new Poller();
+    }
+
+    /**
+     * Checks the token on behalf of one loop, which must call poll()
+     * once per step.  It isn't thread-safe, so each thread needs its
+     * own.
+     */
+    public class Poller {
+        /**
+         * Number of steps between two reads of the token.
+         */
+        private int mStride = 1;
+
+        /**
+         * Number of steps until the token is read next.
+         */
+        private int mCountdown = 1;
+
+        /**
+         * System.nanoTime() of the last read of the token.
+         */
+        private long mLastCheckNanos = System.nanoTime();
+
+        /**
+         * True once the cancellation has been seen.
+         */
+        private boolean mStopped;
+
+        /**
+         * Returns true if the loop should stop, i.e., the token has
+         * been cancelled or the thread interrupted.  The token is
+         * only read every few calls, which are spaced so at most half
+         * of the maximum latency passes between reads provided a
+         * step's cost doesn't more than double from one read to the
+         * next, and a read that finds the maximum latency overrun
+         * reads the token again after the next step.
+         */
+        public boolean poll() {
+            if (--mCountdown > 0)
+                return false;
+            return check();
+        }
+
+        /**
+         * Read the token and adapt the stride to the time that's
+         * passed since the last read.
+         */
+        private boolean check() {
+            if (mStopped)
+                return true;
+            if (isCancelled()
+                || Thread.currentThread().isInterrupted()) {
+                mStopped = true;
+                acknowledge();
+                return true;
+            }
+
+            long now = System.nanoTime();
+            long interval = Math.max(1, now - mLastCheckNanos);
+            mLastCheckNanos = now;
+
+            // Aim for reads at most half of the maximum latency
+            // apart, scaling the stride down at once if the steps got
+            // slower, or back to a single step if the reads overran
+            // the maximum latency itself, since then the steps' cost
+            // can't be trusted.  The stride is only doubled while the
+            // reads are less than a quarter of that apart, which
+            // leaves room for the thread being descheduled between
+            // reads.
+            long target = mMaxLatencyNanos / 2;
+            if (interval > mMaxLatencyNanos)
+                mStride = 1;
+            else if (interval > target)
+                mStride = (int) Math.max(1, mStride * target / interval);
+            else if (interval < target / 4 && mStride < sMAX_STRIDE)
+                mStride *= 2;
+
+            mCountdown = mStride;
+            return false;
+        }
+
+        /**
+         * Returns the current number of steps between two reads of
+         * the token.
+         */
+        public int getStride() {
+            return mStride;
+        }
+    }
+}
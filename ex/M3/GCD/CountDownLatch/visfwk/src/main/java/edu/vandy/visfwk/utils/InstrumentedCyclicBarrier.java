@@ -0,0 +1,66 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A CyclicBarrier that records when each party arrives, so the time
+ * the parties spend waiting for each other can be reported per cycle
+ * via drainArrivals().  It can be passed wherever a CyclicBarrier is
+ * expected.
+ */
+public class InstrumentedCyclicBarrier
+       extends CyclicBarrier {
+    /**
+     * Records the arrivals.
+     */
+    private final ArrivalRecorder mRecorder;
+
+    /**
+     * Constructor creates a barrier named @a name for @a parties
+     * parties.
+     */
+    public InstrumentedCyclicBarrier(String name,
+                                     int parties) {
+        this(name,
+             parties,
+             null);
+    }
+
+    /**
+     * Constructor creates a barrier named @a name for @a parties
+     * parties that runs @a barrierAction when they've all arrived.
+     */
+    public InstrumentedCyclicBarrier(String name,
+                                     int parties,
+                                     Runnable barrierAction) {
+        super(parties,
+              barrierAction);
+        mRecorder = new ArrivalRecorder(name);
+    }
+
+    @Override
+    public int await() throws InterruptedException, BrokenBarrierException {
+        mRecorder.arrive();
+        return super.await();
+    }
+
+    @Override
+    public int await(long timeout,
+                     TimeUnit unit)
+        throws InterruptedException, BrokenBarrierException, TimeoutException {
+        mRecorder.arrive();
+        return super.await(timeout,
+                           unit);
+    }
+
+    /**
+     * Returns a report of the arrivals since the last call, which
+     * should be made between cycles.
+     */
+    public ArrivalReport drainArrivals() {
+        return mRecorder.drain();
+    }
+}
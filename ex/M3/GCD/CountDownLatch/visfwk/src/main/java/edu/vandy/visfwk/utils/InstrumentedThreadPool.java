@@ -0,0 +1,178 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size thread pool whose threads are named and started up
+ * front, so no thread is created while a cycle is being timed, and
+ * whose queue is bounded, so a runaway submitter is rejected rather
+ * than queuing without limit.  It implements ThreadPoolMetrics by
+ * timing each task from its submission until it starts running and
+ * until it finishes, and by counting the rejected tasks.
+ */
+public class InstrumentedThreadPool
+       extends ThreadPoolExecutor
+       implements ThreadPoolMetrics {
+    /**
+     * Number of tasks that have started running.
+     */
+    private final LongAdder mStartedTasks = new LongAdder();
+
+    /**
+     * Number of tasks that were rejected.
+     */
+    private final LongAdder mRejectedTasks = new LongAdder();
+
+    /**
+     * Sum of the start latencies (in nanoseconds) since the last
+     * reset.
+     */
+    private final LongAdder mStartLatencySum = new LongAdder();
+
+    /**
+     * Number of start latencies since the last reset.
+     */
+    private final LongAdder mStartLatencyCount = new LongAdder();
+
+    /**
+     * Longest start latency (in nanoseconds) since the last reset.
+     */
+    private final AtomicLong mMaxStartLatency = new AtomicLong();
+
+    /**
+     * Sum of the run times (in nanoseconds) since the last reset.
+     */
+    private final LongAdder mRunSum = new LongAdder();
+
+    /**
+     * Number of run times since the last reset.
+     */
+    private final LongAdder mRunCount = new LongAdder();
+
+    /**
+     * Constructor starts @a threads threads named after @a name, which
+     * report their uncaught exceptions to @a handler, with a queue
+     * that holds up to @a queueCapacity waiting tasks.
+     */
+    public InstrumentedThreadPool(String name,
+                                  int threads,
+                                  int queueCapacity,
+                                  Thread.UncaughtExceptionHandler handler) {
+        super(threads,
+              threads,
+              0,
+              TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(queueCapacity),
+              makeThreadFactory(name, handler));
+
+        // Start the threads now rather than on the first tasks.
+        prestartAllCoreThreads();
+    }
+
+    /**
+     * Returns a ThreadFactory that names its threads "@a name-1",
+     * "@a name-2", etc. and sets their uncaught exception @a handler
+     * (if any).
+     */
+    private static ThreadFactory makeThreadFactory(String name,
+                                                   Thread.UncaughtExceptionHandler handler) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable,
+                                       name + "-" + count.incrementAndGet());
+            if (handler != null)
+                thread.setUncaughtExceptionHandler(handler);
+            return thread;
+        };
+    }
+
+    /**
+     * Run @a command in one of the threads, timing how long it waits
+     * for the thread and how long it runs.
+     *
+     * @throws RejectedExecutionException If the threads and the queue
+     * are full or the pool is shut down, which is counted.
+     */
+    @Override
+    public void execute(Runnable command) {
+        final long submitNanos = System.nanoTime();
+        try {
+            super.execute(() -> {
+                    long startNanos = System.nanoTime();
+                    recordStart(startNanos - submitNanos);
+                    try {
+                        command.run();
+                    } finally {
+                        mRunSum.add(System.nanoTime() - startNanos);
+                        mRunCount.increment();
+                    }
+                });
+        } catch (RejectedExecutionException e) {
+            mRejectedTasks.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Record that a task started @a latencyNanos after it was
+     * submitted.
+     */
+    private void recordStart(long latencyNanos) {
+        mStartedTasks.increment();
+        mStartLatencySum.add(latencyNanos);
+        mStartLatencyCount.increment();
+        mMaxStartLatency.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    @Override
+    public long getStartedTaskCount() {
+        return mStartedTasks.sum();
+    }
+
+    @Override
+    public long getRejectedTaskCount() {
+        return mRejectedTasks.sum();
+    }
+
+    @Override
+    public double getMeanStartLatencyNanos() {
+        long count = mStartLatencyCount.sum();
+        return count > 0
+            ? (double) mStartLatencySum.sum() / count
+            : 0;
+    }
+
+    @Override
+    public long getMaxStartLatencyNanos() {
+        return mMaxStartLatency.get();
+    }
+
+    @Override
+    public double getMeanRunNanos() {
+        long count = mRunCount.sum();
+        return count > 0
+            ? (double) mRunSum.sum() / count
+            : 0;
+    }
+
+    @Override
+    public void resetLatencies() {
+        mStartLatencySum.reset();
+        mStartLatencyCount.reset();
+        mMaxStartLatency.set(0);
+        mRunSum.reset();
+        mRunCount.reset();
+    }
+}
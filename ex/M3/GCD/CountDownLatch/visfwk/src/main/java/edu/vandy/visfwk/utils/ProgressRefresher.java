@@ -0,0 +1,219 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.vandy.visfwk.model.ProgressTable;
+
+/**
+ * Coalesces the progress reports written into a ProgressTable into at
+ * most one UI refresh per frame.  Each report only asks for a refresh,
+ * and the first request after a refresh schedules the next one no
+ * sooner than a frame after the previous one, so the UI thread
+ * receives O(frames) messages rather than O(reports).  Each refresh
+ * diffs the table against what was last displayed and rebinds only
+ * the rows that changed.
+ */
+public class ProgressRefresher {
+    /**
+     * Default minimum time (in milliseconds) between two refreshes,
+     * which matches a 60 Hz display.
+     */
+    public static final long sDEFAULT_FRAME_MILLIS = 16;
+
+    /**
+     * Runs a command on the UI thread after a delay, e.g., via
+     * View.postDelayed().
+     */
+    @FunctionalInterface
+    public interface Scheduler {
+        /**
+         * Run @a command on the UI thread after @a delayMillis.
+         */
+        void schedule(Runnable command,
+                      long delayMillis);
+    }
+
+    /**
+     * Displays the progress of a row that changed.
+     */
+    @FunctionalInterface
+    public interface RowBinder {
+        /**
+         * Display @a progress for the task with @a taskUniqueId.  It's
+         * called on the UI thread.
+         */
+        void bindRow(int taskUniqueId,
+                     int progress);
+    }
+
+    /**
+     * The table the workers write their progress into.
+     */
+    private final ProgressTable mTable;
+
+    /**
+     * Schedules the refreshes on the UI thread.
+     */
+    private final Scheduler mScheduler;
+
+    /**
+     * Displays the rows that changed.
+     */
+    private final RowBinder mRowBinder;
+
+    /**
+     * Minimum time (in milliseconds) between two refreshes.
+     */
+    private final long mFrameMillis;
+
+    /**
+     * The progress last displayed for each row, which is only
+     * accessed on the UI thread.
+     */
+    private final int[] mShown;
+
+    /**
+     * The ids of the rows that changed in the current refresh, which
+     * is reused to avoid allocating on each frame.
+     */
+    private final int[] mChanged;
+
+    /**
+     * True while a refresh is scheduled but hasn't started yet.
+     */
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+
+    /**
+     * Time (in milliseconds) the last refresh started, which is read
+     * by the reporting threads.
+     */
+    private volatile long mLastRefreshMillis;
+
+    /**
+     * Number of refreshes requested, i.e., progress reports.
+     */
+    private final LongAdder mRequests = new LongAdder();
+
+    /**
+     * Number of refreshes performed, which is only updated on the UI
+     * thread.
+     */
+    private volatile long mRefreshes;
+
+    /**
+     * Number of rows rebound, which is only updated on the UI thread.
+     */
+    private volatile long mRowsBound;
+
+    /**
+     * Constructor initializes the fields.  Refreshes of @a table are
+     * scheduled via @a scheduler at most once per @a frameMillis and
+     * the changed rows are displayed via @a rowBinder.
+     */
+    public ProgressRefresher(ProgressTable table,
+                             Scheduler scheduler,
+                             RowBinder rowBinder,
+                             long frameMillis) {
+        mTable = table;
+        mScheduler = scheduler;
+        mRowBinder = rowBinder;
+        mFrameMillis = frameMillis;
+        mShown = new int[table.size()];
+        mChanged = new int[table.size()];
+        Arrays.fill(mShown, ProgressTable.sNOT_SHOWN);
+        mLastRefreshMillis = nowMillis() - frameMillis;
+    }
+
+    /**
+     * Returns the table the workers write their progress into.
+     */
+    public ProgressTable getTable() {
+        return mTable;
+    }
+
+    /**
+     * Record @a progress for the task with @a taskUniqueId and make
+     * sure a refresh is scheduled.  It can be called from any thread.
+     */
+    public void report(int taskUniqueId,
+                       int progress) {
+        mTable.set(taskUniqueId, progress);
+        requestRefresh();
+    }
+
+    /**
+     * Make sure a refresh is scheduled, which is a no-op if one
+     * already is.  It can be called from any thread.
+     */
+    public void requestRefresh() {
+        mRequests.increment();
+
+        // Only the first request since the last refresh schedules
+        // one, so requests within a frame are coalesced.
+        if (mScheduled.compareAndSet(false, true)) {
+            long delayMillis =
+                Math.max(0, mLastRefreshMillis + mFrameMillis - nowMillis());
+            mScheduler.schedule(this::refresh,
+                                delayMillis);
+        }
+    }
+
+    /**
+     * Display the rows that changed since the last refresh.  It must
+     * be called on the UI thread, e.g., by the scheduled command or
+     * to redisplay everything after the rows were recreated.
+     */
+    public void refresh() {
+        // Clear the flag before reading the table, so a report that
+        // this refresh misses schedules another one.
+        mScheduled.set(false);
+        mLastRefreshMillis = nowMillis();
+
+        int count = mTable.diff(mShown, mChanged);
+        for (int i = 0; i < count; i++)
+            mRowBinder.bindRow(mChanged[i],
+                               mShown[mChanged[i]]);
+
+        mRefreshes++;
+        mRowsBound += count;
+    }
+
+    /**
+     * Forget what was displayed, so the next refresh rebinds every
+     * row, e.g., after the rows' views were recreated.
+     */
+    public void invalidate() {
+        Arrays.fill(mShown, ProgressTable.sNOT_SHOWN);
+    }
+
+    /**
+     * Returns the number of refreshes requested.
+     */
+    public long getRequestCount() {
+        return mRequests.sum();
+    }
+
+    /**
+     * Returns the number of refreshes performed.
+     */
+    public long getRefreshCount() {
+        return mRefreshes;
+    }
+
+    /**
+     * Returns the number of rows rebound by all the refreshes.
+     */
+    public long getRowsBoundCount() {
+        return mRowsBound;
+    }
+
+    /**
+     * Returns the current time in milliseconds from a monotonic clock.
+     */
+    private static long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -11,5 +11,40 @@ public interface ProgressReporter {
     default void updateProgress(Runnable runnable) {
         runnable.run();
     }
-}
 
+    /**
+     * Returns the ProgressCounter a worker adds its completed
+     * iterations to for the task with @a taskUniqueId, or null if
+     * this reporter only takes the Runnables passed to
+     * updateProgress(), in which case the worker reports each 10% of
+     * its progress that way instead.
+     */
+    default ProgressCounter getProgressCounter(int taskUniqueId) {
+        return null;
+    }
+
+    /**
+     * Returns a ProgressReporter that runs each report in the calling
+     * thread, which suits reports that are thread-safe on their own,
+     * e.g., writes into a ProgressTable, and so needn't be posted to
+     * the UI thread one message at a time.
+     */
+    static ProgressReporter direct() {
+        return new ProgressReporter() {
+        };
+    }
+
+    /**
+     * Returns a ProgressReporter whose workers add their progress to
+     * the counters of @a sampler rather than reporting it, so their
+     * hot loops neither divide nor allocate.
+     */
+    static ProgressReporter sampled(ProgressSampler sampler) {
+        return new ProgressReporter() {
+            @Override
+            public ProgressCounter getProgressCounter(int taskUniqueId) {
+                return sampler.getCounter(taskUniqueId);
+            }
+        };
+    }
+}
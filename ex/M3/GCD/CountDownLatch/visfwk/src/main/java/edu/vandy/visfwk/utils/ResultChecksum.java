@@ -0,0 +1,98 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.vandy.visfwk.model.TaskTuple;
+
+/**
+ * Checksums of the results computed by the test functions, which are
+ * compared across the functions run on the same inputs to catch an
+ * implementation that's fast because it's wrong.  A checksum mixes
+ * each result with its position and sums the mixed values, so the
+ * results can be checksummed in any order, e.g., by parallel chunks,
+ * while swapped or wrong results still change it.
+ */
+public final class ResultChecksum {
+    /**
+     * Utility class can't be instantiated.
+     */
+    private ResultChecksum() {
+    }
+
+    /**
+     * Returns the checksum of the @a count results in @a results,
+     * which are the results of the inputs starting at index @a first.
+     * The checksums of disjoint ranges of the results are combined by
+     * adding them.
+     */
+    public static long of(int[] results,
+                          int first,
+                          int count) {
+        long checksum = 0;
+        for (int i = 0; i < count; i++)
+            checksum += mix(((long) (first + i) << 32) ^ (results[i] & 0xFFFFFFFFL));
+        return checksum;
+    }
+
+    /**
+     * Returns @a value with its bits thoroughly mixed, using the
+     * finalizer of SplitMix64.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Returns the TaskTuples among @a taskTuples whose checksum
+     * differs from the one most of them computed, skipping those
+     * without a checksum.  It's empty if they all agree.
+     */
+    public static <TestFunc> List<TaskTuple<TestFunc>> findMismatches(List<TaskTuple<TestFunc>> taskTuples) {
+        // Count how many tuples computed each checksum.
+        Map<Long, Integer> votes = new HashMap<>();
+        for (TaskTuple<TestFunc> taskTuple : taskTuples) {
+            Long checksum = taskTuple.getChecksum();
+            if (checksum != null)
+                votes.merge(checksum, 1, Integer::sum);
+        }
+
+        List<TaskTuple<TestFunc>> mismatches = new ArrayList<>();
+        if (votes.size() <= 1)
+            return mismatches;
+
+        // The checksum computed by most of the tuples is taken to be
+        // the right one.
+        Long majority = null;
+        for (Map.Entry<Long, Integer> entry : votes.entrySet())
+            if (majority == null || entry.getValue() > votes.get(majority))
+                majority = entry.getKey();
+
+        for (TaskTuple<TestFunc> taskTuple : taskTuples) {
+            Long checksum = taskTuple.getChecksum();
+            if (checksum != null && !checksum.equals(majority))
+                mismatches.add(taskTuple);
+        }
+        return mismatches;
+    }
+
+    /**
+     * Returns a message naming the TaskTuples among @a taskTuples
+     * whose checksum is wrong, or null if they all agree.
+     */
+    public static <TestFunc> String describeMismatches(List<TaskTuple<TestFunc>> taskTuples) {
+        List<TaskTuple<TestFunc>> mismatches = findMismatches(taskTuples);
+        if (mismatches.isEmpty())
+            return null;
+
+        StringBuilder sb = new StringBuilder("checksum mismatch for");
+        for (TaskTuple<TestFunc> taskTuple : mismatches)
+            sb.append(' ')
+              .append(taskTuple.getTestName());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,193 @@
+package edu.vandy.visfwk.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.vandy.visfwk.model.RunRecord;
+
+/**
+ * An append-only binary file of RunRecords, which accumulates the
+ * results of every run so new runs can be compared against the
+ * earlier ones, e.g., by a RegressionDetector.  The file starts with
+ * a magic number and a version, followed by the records in the order
+ * they were appended.  Existing records are never rewritten, and a
+ * record that was only partly written, e.g., because the process was
+ * killed, is ignored when the file is read.
+ */
+public class ResultsHistory {
+    /**
+     * Magic number ("VFRH") at the start of the file.
+     */
+    private static final int sMAGIC = 0x56465248;
+
+    /**
+     * Version of the record format.
+     */
+    private static final int sVERSION = 2;
+
+    /**
+     * The file holding the records.
+     */
+    private final File mFile;
+
+    /**
+     * Constructor stores the records in @a file, which is created by
+     * the first append() if it doesn't exist.
+     */
+    public ResultsHistory(File file) {
+        mFile = file;
+    }
+
+    /**
+     * Returns the file holding the records.
+     */
+    public File getFile() {
+        return mFile;
+    }
+
+    /**
+     * Append @a records to the end of the file, writing the header
+     * first if the file is new.  A record that was only partly
+     * written by an earlier append is cut off first, so it doesn't
+     * misalign the new ones.
+     */
+    public synchronized void append(List<RunRecord> records) throws IOException {
+        long validLength = mFile.exists()
+            ? read(null)
+            : 0;
+        if (validLength < mFile.length())
+            try (RandomAccessFile file = new RandomAccessFile(mFile, "rw")) {
+                file.setLength(validLength);
+            }
+
+        try (DataOutputStream out =
+             new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mFile,
+                                                                                true)))) {
+            if (validLength == 0) {
+                out.writeInt(sMAGIC);
+                out.writeInt(sVERSION);
+            }
+
+            for (RunRecord record : records) {
+                out.writeLong(record.getTimestampMillis());
+                out.writeUTF(record.getTestName());
+                out.writeUTF(record.getThreadName());
+                out.writeUTF(record.getMode());
+                out.writeUTF(record.getWorkload());
+                out.writeInt(record.getCycle());
+                out.writeLong(record.getIterations());
+                out.writeLong(record.getWallNanos());
+                out.writeLong(record.getCpuNanos());
+            }
+        }
+    }
+
+    /**
+     * Returns all the records in the order they were appended, or an
+     * empty list if the file doesn't exist yet.
+     *
+     * @throws IOException If the file isn't a results history or has
+     * an unknown version, e.g., version 1, whose records don't say
+     * how the tests were run or on what inputs, so they can't be
+     * compared with the new ones.
+     */
+    public synchronized List<RunRecord> readAll() throws IOException {
+        List<RunRecord> records = new ArrayList<>();
+        if (mFile.exists())
+            read(records);
+        return records;
+    }
+
+    /**
+     * Read the records into @a records (unless it's null) and return
+     * the length of the file up to the end of the last complete
+     * record, or 0 if not even the header is complete.
+     */
+    private long read(List<RunRecord> records) throws IOException {
+        long validLength = 0;
+        try (CountingInputStream counter =
+             new CountingInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+             DataInputStream in = new DataInputStream(counter)) {
+            if (in.readInt() != sMAGIC)
+                throw new IOException(mFile + " isn't a results history");
+            int version = in.readInt();
+            if (version != sVERSION)
+                throw new IOException(mFile + " has unknown version " + version);
+            validLength = counter.mCount;
+
+            for (;;) {
+                RunRecord record = new RunRecord(in.readLong(),
+                                                 in.readUTF(),
+                                                 in.readUTF(),
+                                                 in.readUTF(),
+                                                 in.readUTF(),
+                                                 in.readInt(),
+                                                 in.readLong(),
+                                                 in.readLong(),
+                                                 in.readLong());
+                validLength = counter.mCount;
+                if (records != null)
+                    records.add(record);
+            }
+        } catch (EOFException e) {
+            // The end of the file, possibly in the middle of a record
+            // that was only partly written, which is dropped.
+        }
+        return validLength;
+    }
+
+    /**
+     * An InputStream that counts the bytes read through it.
+     */
+    private static class CountingInputStream
+            extends FilterInputStream {
+        /**
+         * Number of bytes read so far.
+         */
+        long mCount;
+
+        /**
+         * Constructor counts the bytes read from @a in.
+         */
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                mCount++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer,
+                        int offset,
+                        int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0)
+                mCount += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+            mCount += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.Locale;
+
+/**
+ * The metrics of a thread pool, which tell whether its tasks have to
+ * wait for a thread, e.g., how long the testers of a cycle take to
+ * start before they reach the entry barrier.  The latencies are
+ * accumulated since the last call to resetLatencies(), so they can be
+ * read per cycle, while the counts are accumulated since the pool was
+ * created.
+ */
+public interface ThreadPoolMetrics {
+    /**
+     * Returns the number of tasks waiting in the queue for a thread.
+     */
+    int getQueueDepth();
+
+    /**
+     * Returns the approximate number of threads running tasks.
+     */
+    int getActiveCount();
+
+    /**
+     * Returns the number of threads in the pool.
+     */
+    int getPoolSize();
+
+    /**
+     * Returns the number of tasks that have started running.
+     */
+    long getStartedTaskCount();
+
+    /**
+     * Returns the number of tasks that were rejected because the
+     * threads and the queue were full or the pool was shut down.
+     */
+    long getRejectedTaskCount();
+
+    /**
+     * Returns the mean time (in nanoseconds) from the submission of a
+     * task until it started running, or 0 if no task has started.
+     */
+    double getMeanStartLatencyNanos();
+
+    /**
+     * Returns the longest time (in nanoseconds) from the submission of
+     * a task until it started running.
+     */
+    long getMaxStartLatencyNanos();
+
+    /**
+     * Returns the mean time (in nanoseconds) a task ran for, or 0 if
+     * no task has finished.
+     */
+    double getMeanRunNanos();
+
+    /**
+     * Start accumulating the latencies anew, e.g., at the start of a
+     * cycle.  Tasks that are running at the same time may be counted
+     * in either period.
+     */
+    void resetLatencies();
+
+    /**
+     * Returns the metrics as a line of text for logging.
+     */
+    default String describe() {
+        return String.format(Locale.US,
+                             "%d threads, %d active, %d queued, %d started, %d rejected, "
+                             + "start latency mean %.3f ms max %.3f ms, run mean %.3f ms",
+                             getPoolSize(),
+                             getActiveCount(),
+                             getQueueDepth(),
+                             getStartedTaskCount(),
+                             getRejectedTaskCount(),
+                             getMeanStartLatencyNanos() / 1e6,
+                             getMaxStartLatencyNanos() / 1e6,
+                             getMeanRunNanos() / 1e6);
+    }
+}
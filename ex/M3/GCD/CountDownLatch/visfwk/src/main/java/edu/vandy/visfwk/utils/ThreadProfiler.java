@@ -0,0 +1,254 @@
+package edu.vandy.visfwk.utils;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import edu.vandy.visfwk.model.TaskProfile;
+
+/**
+ * Measures the resources the current thread uses between start() and
+ * stop().  CPU time and allocated bytes come from the JVM's
+ * ThreadMXBean when it's available, e.g., when the tests run on a
+ * desktop JVM.  Android doesn't provide java.lang.management, so
+ * there the CPU time comes from android.os.Debug and allocations
+ * aren't available.  Context switches are read from
+ * /proc/thread-self/status, which Linux and Android both provide.
+ * Any counter that isn't available is reported as
+ * TaskProfile.sUNAVAILABLE.
+ */
+public class ThreadProfiler {
+    /**
+     * Path of the current thread's status in the proc filesystem.
+     */
+    private static final String sTHREAD_STATUS = "/proc/thread-self/status";
+
+    /**
+     * The JVM's thread counters, or null if they aren't available.
+     */
+    private static final ManagementCounters sMANAGEMENT =
+        ManagementCounters.create();
+
+    /**
+     * The thread being profiled.
+     */
+    private final Thread mThread;
+
+    /**
+     * The counters when the profiler was started.
+     */
+    private final long mCpuNanos;
+    private final long mUserNanos;
+    private final long mAllocatedBytes;
+    private final long mContextSwitches;
+
+    /**
+     * Constructor samples the counters of the current thread.
+     */
+    private ThreadProfiler() {
+        mThread = Thread.currentThread();
+        mCpuNanos = cpuNanos();
+        mUserNanos = userNanos();
+        mAllocatedBytes = allocatedBytes();
+        mContextSwitches = contextSwitches();
+    }
+
+    /**
+     * Start profiling the current thread.
+     */
+    public static ThreadProfiler start() {
+        return new ThreadProfiler();
+    }
+
+    /**
+     * Returns the resources used by the current thread since start()
+     * along with the given @a wallNanos.  It must be called in the
+     * thread that called start().
+     */
+    public TaskProfile stop(long wallNanos) {
+        if (Thread.currentThread() != mThread)
+            throw new IllegalStateException("stop() called in another thread");
+
+        return new TaskProfile(wallNanos,
+                               delta(mCpuNanos, cpuNanos()),
+                               delta(mUserNanos, userNanos()),
+                               delta(mAllocatedBytes, allocatedBytes()),
+                               delta(mContextSwitches, contextSwitches()));
+    }
+
+    /**
+     * Returns the difference between two samples of a counter, which
+     * is only available if both samples are.
+     */
+    private static long delta(long start,
+                              long stop) {
+        return start == TaskProfile.sUNAVAILABLE || stop == TaskProfile.sUNAVAILABLE
+            ? TaskProfile.sUNAVAILABLE
+            : stop - start;
+    }
+
+    /**
+     * Returns the CPU time (in nanoseconds) of the current thread.
+     */
+    private static long cpuNanos() {
+        if (sMANAGEMENT != null)
+            return sMANAGEMENT.cpuNanos();
+
+        try {
+            long nanos = android.os.Debug.threadCpuTimeNanos();
+            return nanos >= 0 ? nanos : TaskProfile.sUNAVAILABLE;
+        } catch (RuntimeException | LinkageError e) {
+            return TaskProfile.sUNAVAILABLE;
+        }
+    }
+
+    /**
+     * Returns the user-mode CPU time (in nanoseconds) of the current
+     * thread.
+     */
+    private static long userNanos() {
+        return sMANAGEMENT != null
+            ? sMANAGEMENT.userNanos()
+            : TaskProfile.sUNAVAILABLE;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread.
+     */
+    private static long allocatedBytes() {
+        return sMANAGEMENT != null
+            ? sMANAGEMENT.allocatedBytes()
+            : TaskProfile.sUNAVAILABLE;
+    }
+
+    /**
+     * Returns the number of context switches of the current thread.
+     */
+    private static long contextSwitches() {
+        try (BufferedReader reader =
+             new BufferedReader(new FileReader(sTHREAD_STATUS))) {
+            long switches = 0;
+            int found = 0;
+            String line;
+            while ((line = reader.readLine()) != null)
+                // Matches both voluntary_ctxt_switches and
+                // nonvoluntary_ctxt_switches.
+                if (line.contains("voluntary_ctxt_switches:")) {
+                    switches += Long.parseLong(line.substring(line.indexOf(':') + 1)
+                                               .trim());
+                    found++;
+                }
+            return found == 2 ? switches : TaskProfile.sUNAVAILABLE;
+        } catch (IOException | RuntimeException e) {
+            return TaskProfile.sUNAVAILABLE;
+        }
+    }
+
+    /**
+     * The counters provided by java.lang.management, which are
+     * accessed reflectively since Android doesn't include that
+     * package.
+     */
+    private static class ManagementCounters {
+        /**
+         * The JVM's ThreadMXBean.
+         */
+        private final Object mBean;
+
+        /**
+         * ThreadMXBean.getCurrentThreadCpuTime().
+         */
+        private final Method mCpuTime;
+
+        /**
+         * ThreadMXBean.getCurrentThreadUserTime().
+         */
+        private final Method mUserTime;
+
+        /**
+         * com.sun.management.ThreadMXBean.getThreadAllocatedBytes(),
+         * or null if the JVM doesn't provide it.
+         */
+        private final Method mAllocatedBytes;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        private ManagementCounters(Object bean,
+                                   Method cpuTime,
+                                   Method userTime,
+                                   Method allocatedBytes) {
+            mBean = bean;
+            mCpuTime = cpuTime;
+            mUserTime = userTime;
+            mAllocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * Returns the counters, or null if java.lang.management isn't
+         * available.
+         */
+        static ManagementCounters create() {
+            try {
+                Object bean = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean")
+                    .invoke(null);
+                Class<?> beanClass =
+                    Class.forName("java.lang.management.ThreadMXBean");
+                if (!(Boolean) beanClass.getMethod("isCurrentThreadCpuTimeSupported")
+                    .invoke(bean))
+                    return null;
+
+                Method allocatedBytes = null;
+                try {
+                    Class<?> sunBeanClass =
+                        Class.forName("com.sun.management.ThreadMXBean");
+                    if (sunBeanClass.isInstance(bean)
+                        && (Boolean) sunBeanClass.getMethod("isThreadAllocatedMemoryEnabled")
+                        .invoke(bean))
+                        allocatedBytes =
+                            sunBeanClass.getMethod("getThreadAllocatedBytes",
+                                                   long.class);
+                } catch (ReflectiveOperationException e) {
+                    // Allocations aren't available on this JVM.
+                }
+
+                return new ManagementCounters(bean,
+                                              beanClass.getMethod("getCurrentThreadCpuTime"),
+                                              beanClass.getMethod("getCurrentThreadUserTime"),
+                                              allocatedBytes);
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                return null;
+            }
+        }
+
+        long cpuNanos() {
+            return invoke(mCpuTime);
+        }
+
+        long userNanos() {
+            return invoke(mUserTime);
+        }
+
+        long allocatedBytes() {
+            return mAllocatedBytes != null
+                ? invoke(mAllocatedBytes, Thread.currentThread().getId())
+                : TaskProfile.sUNAVAILABLE;
+        }
+
+        /**
+         * Invoke the counter @a method on the bean, returning
+         * sUNAVAILABLE if it fails.
+         */
+        private long invoke(Method method,
+                            Object... args) {
+            try {
+                long value = (Long) method.invoke(mBean, args);
+                return value >= 0 ? value : TaskProfile.sUNAVAILABLE;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return TaskProfile.sUNAVAILABLE;
+            }
+        }
+    }
+}
@@ -12,4 +12,13 @@ public interface ProgressBarInterface {
      */
     public void setProgress(int uniqueID,
                             int progress);
+
+    /**
+     * Record the progress for a specific Test's uniqueID from any
+     * thread.  Unlike setProgress() it doesn't need to run on the UI
+     * thread, and the reports are coalesced so the display is
+     * refreshed at most once per frame.
+     */
+    public void postProgress(int uniqueID,
+                             int progress);
 }
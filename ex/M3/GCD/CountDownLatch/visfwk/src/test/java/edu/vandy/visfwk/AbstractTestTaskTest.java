@@ -0,0 +1,193 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.model.abstracts.AbstractTestTask;
+import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
+
+/**
+ * This JUnit test checks the lifecycle, cancellation, and progress
+ * channel of AbstractTestTask, and that two tasks run at the same time
+ * rather than behind each other, using a single-threaded executor in
+ * place of the UI thread.
+ */
+public class AbstractTestTaskTest {
+    /**
+     * Stands in for the UI thread.
+     */
+    private final ExecutorService mUiThread =
+        Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ui"));
+
+    /**
+     * Returns a ModelStateInterface that ignores all calls.
+     */
+    @SuppressWarnings("unchecked")
+    private static ModelStateInterface<Object> makeModel() {
+        return (ModelStateInterface<Object>)
+            Proxy.newProxyInstance(ModelStateInterface.class.getClassLoader(),
+                                   new Class<?>[] {ModelStateInterface.class},
+                                   (proxy, method, args) -> null);
+    }
+
+    /**
+     * A test task whose work is supplied by the test and which
+     * records the callbacks it receives.
+     */
+    private class RecordingTask
+            extends AbstractTestTask<Object> {
+        /**
+         * The work done by doInBackground().
+         */
+        private final Runnable mWork;
+
+        /**
+         * The callbacks received, along with their thread's name.
+         */
+        final List<String> mEvents = new CopyOnWriteArrayList<>();
+
+        RecordingTask(Runnable work) {
+            super(null,
+                  makeModel(),
+                  null);
+            mWork = work;
+            setUiExecutor(mUiThread);
+        }
+
+        @Override
+        protected void onPreExecute() {
+            mEvents.add("pre");
+        }
+
+        @Override
+        protected Void doInBackground(Integer... params) {
+            mEvents.add("background:" + params[0]);
+            publishProgress(() -> mEvents.add("progress@"
+                                              + Thread.currentThread().getName()));
+            mWork.run();
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(Void result) {
+            mEvents.add("post@" + Thread.currentThread().getName());
+            super.onPostExecute(result);
+        }
+
+        @Override
+        protected void onCancelled(Void result) {
+            mEvents.add("cancelled@" + Thread.currentThread().getName());
+            super.onCancelled(result);
+        }
+    }
+
+    /**
+     * Make sure the callbacks run in order and on the right threads.
+     */
+    @Test
+    public void testLifecycle() throws Exception {
+        RecordingTask task = new RecordingTask(() -> { });
+        assertEquals(AbstractTestTask.Status.PENDING, task.getStatus());
+
+        task.execute(3).get(10, TimeUnit.SECONDS);
+
+        assertEquals(AbstractTestTask.Status.FINISHED, task.getStatus());
+        assertEquals("[pre, background:3, progress@ui, post@ui]",
+                     task.mEvents.toString());
+        assertFalse(task.cancel(true));
+
+        // A task can only be executed once.
+        try {
+            task.execute(1);
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Make sure two tasks run at the same time, which would deadlock
+     * if they were queued on a serial executor like AsyncTask's.
+     */
+    @Test
+    public void testConcurrentTasks() throws Exception {
+        CyclicBarrier rendezvous = new CyclicBarrier(2);
+        Runnable work = () -> {
+            try {
+                rendezvous.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+        RecordingTask first = new RecordingTask(work);
+        RecordingTask second = new RecordingTask(work);
+
+        CompletableFuture<Void> firstCompletion = first.execute(1);
+        CompletableFuture<Void> secondCompletion = second.execute(2);
+        CompletableFuture.allOf(firstCompletion,
+                                secondCompletion)
+            .get(20, TimeUnit.SECONDS);
+
+        assertEquals(AbstractTestTask.Status.FINISHED, first.getStatus());
+        assertEquals(AbstractTestTask.Status.FINISHED, second.getStatus());
+    }
+
+    /**
+     * Make sure cancel() interrupts the background thread and
+     * onCancelled() is called instead of onPostExecute().
+     */
+    @Test
+    public void testCancel() throws Exception {
+        CyclicBarrier started = new CyclicBarrier(2);
+        RecordingTask task = new RecordingTask(() -> {
+                try {
+                    started.await();
+                    Thread.sleep(60000);
+                } catch (Exception e) {
+                    // Interrupted by cancel().
+                }
+            });
+
+        long startTime = System.nanoTime();
+        CompletableFuture<Void> completion = task.execute(1);
+        started.await(10, TimeUnit.SECONDS);
+        assertTrue(task.cancel(true));
+        completion.get(10, TimeUnit.SECONDS);
+
+        assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(10));
+        assertTrue(task.isCancelled());
+        assertEquals(AbstractTestTask.Status.CANCELLED, task.getStatus());
+        assertEquals("cancelled@ui",
+                     task.mEvents.get(task.mEvents.size() - 1));
+    }
+
+    /**
+     * Make sure an exception thrown by doInBackground() ends the task
+     * via onCancelled() rather than being lost.
+     */
+    @Test
+    public void testFailure() throws Exception {
+        RecordingTask task = new RecordingTask(() -> {
+                throw new IllegalStateException("test failure");
+            });
+
+        task.execute(1).get(10, TimeUnit.SECONDS);
+
+        assertEquals(AbstractTestTask.Status.CANCELLED, task.getStatus());
+        assertEquals("cancelled@ui",
+                     task.mEvents.get(task.mEvents.size() - 1));
+    }
+}
@@ -0,0 +1,185 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.utils.CancellationToken;
+
+/**
+ * This JUnit test checks that CancellationToken's Poller reads the
+ * token on a stride that adapts to the cost of the loop's steps, so
+ * loops stop within the token's maximum latency.
+ */
+public class CancellationTokenTest {
+    /**
+     * Maximum cancellation latency (in milliseconds) of the tokens.
+     */
+    private static final long sMAX_LATENCY_MILLIS = 20;
+
+    /**
+     * Spin for about @a nanos nanoseconds, which stands in for a
+     * step of a loop.
+     */
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end)
+            continue;
+    }
+
+    /**
+     * Spin @a stepNanos per step for @a millis milliseconds, polling
+     * @a poller after each step.
+     */
+    private static void runSteps(CancellationToken.Poller poller,
+                                 long stepNanos,
+                                 long millis) {
+        long deadline = System.nanoTime()
+            + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < deadline) {
+            spin(stepNanos);
+            assertFalse(poller.poll());
+        }
+    }
+
+    /**
+     * Make sure the stride grows while the steps are cheap and shrinks
+     * at once when they get slower, so the reads stay within half of
+     * the maximum latency.
+     */
+    @Test
+    public void testStrideAdapts() {
+        CancellationToken token =
+            new CancellationToken(sMAX_LATENCY_MILLIS,
+                                  TimeUnit.MILLISECONDS);
+        CancellationToken.Poller poller = token.poller();
+        long target = token.getMaxLatencyNanos() / 2;
+
+        // Steps of 10 microseconds should settle on a stride of
+        // several hundred.
+        long fastStep = TimeUnit.MICROSECONDS.toNanos(10);
+        runSteps(poller, fastStep, 10 * sMAX_LATENCY_MILLIS);
+        int fastStride = poller.getStride();
+        assertTrue(String.valueOf(fastStride),
+                   fastStride >= 100 && fastStride * fastStep <= target);
+
+        // Steps four times slower should shrink the stride so the
+        // reads are still at most half the maximum latency apart.
+        long slowStep = 4 * fastStep;
+        runSteps(poller, slowStep, 10 * sMAX_LATENCY_MILLIS);
+        int slowStride = poller.getStride();
+        assertTrue(String.valueOf(slowStride),
+                   slowStride < fastStride && slowStride * slowStep <= target);
+    }
+
+    /**
+     * Make sure a read that finds the maximum latency was overrun,
+     * e.g., by a step that suddenly got much slower, drops the stride
+     * to a single step before it grows again.
+     */
+    @Test
+    public void testOverrunResetsStride() {
+        CancellationToken token =
+            new CancellationToken(sMAX_LATENCY_MILLIS,
+                                  TimeUnit.MILLISECONDS);
+        CancellationToken.Poller poller = token.poller();
+
+        runSteps(poller,
+                 TimeUnit.MICROSECONDS.toNanos(10),
+                 10 * sMAX_LATENCY_MILLIS);
+        int fastStride = poller.getStride();
+        assertTrue(String.valueOf(fastStride), fastStride > 1);
+
+        // One step that takes twice the maximum latency, after which
+        // the next read should re-measure the steps from scratch.
+        spin(2 * token.getMaxLatencyNanos());
+        int minStride = Integer.MAX_VALUE;
+        for (int i = 0; i <= fastStride; i++) {
+            assertFalse(poller.poll());
+            minStride = Math.min(minStride, poller.getStride());
+        }
+        assertEquals(1, minStride);
+    }
+
+    /**
+     * Make sure a loop in another thread stops within the maximum
+     * latency and the latency is recorded.
+     */
+    @Test
+    public void testLatency() throws Exception {
+        CancellationToken token =
+            new CancellationToken(sMAX_LATENCY_MILLIS,
+                                  TimeUnit.MILLISECONDS);
+        AtomicLong steps = new AtomicLong();
+        Thread thread = new Thread(() -> {
+                CancellationToken.Poller poller = token.poller();
+                long count = 0;
+                while (!poller.poll()) {
+                    spin(1000);
+                    count++;
+                }
+                steps.set(count);
+            });
+        thread.start();
+
+        Thread.sleep(5 * sMAX_LATENCY_MILLIS);
+        token.cancel();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertTrue(steps.get() > 0);
+
+        long latency = token.getMaxObservedLatencyNanos();
+        assertTrue(latency > 0);
+        // Allow for the thread being descheduled on a busy machine.
+        assertTrue(String.valueOf(latency),
+                   latency <= 5 * token.getMaxLatencyNanos());
+    }
+
+    /**
+     * Make sure a child token sees its parent's cancellation and
+     * charges the latency to it, and that cancelling the child leaves
+     * the parent alone.
+     */
+    @Test
+    public void testChild() {
+        CancellationToken parent = new CancellationToken();
+        CancellationToken child = new CancellationToken(parent);
+        assertEquals(parent.getMaxLatencyNanos(), child.getMaxLatencyNanos());
+
+        child.cancel();
+        assertTrue(child.isCancelled());
+        assertFalse(parent.isCancelled());
+
+        CancellationToken other = new CancellationToken(parent);
+        CancellationToken.Poller poller = other.poller();
+        assertFalse(poller.poll());
+        parent.cancel();
+        assertTrue(other.isCancelled());
+        while (!poller.poll())
+            continue;
+        assertTrue(poller.poll());
+        assertEquals(0, other.getMaxObservedLatencyNanos());
+        assertTrue(parent.getMaxObservedLatencyNanos() > 0);
+    }
+
+    /**
+     * Make sure the poller stops a loop whose thread is interrupted.
+     */
+    @Test
+    public void testInterrupt() {
+        CancellationToken.Poller poller = new CancellationToken().poller();
+        Thread.currentThread().interrupt();
+        try {
+            while (!poller.poll())
+                continue;
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
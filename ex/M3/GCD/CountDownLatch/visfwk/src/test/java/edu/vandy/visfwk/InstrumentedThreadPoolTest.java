@@ -0,0 +1,111 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.utils.InstrumentedThreadPool;
+
+/**
+ * This JUnit test checks that InstrumentedThreadPool starts its named
+ * threads up front, bounds its queue, and measures how long tasks
+ * wait to start.
+ */
+public class InstrumentedThreadPoolTest {
+    /**
+     * Make sure the threads exist before any task is submitted and
+     * are named after the pool.
+     */
+    @Test
+    public void testPrestartedNamedThreads() throws Exception {
+        InstrumentedThreadPool pool =
+            new InstrumentedThreadPool("Test", 3, 3, null);
+        try {
+            assertEquals(3, pool.getPoolSize());
+
+            List<String> names = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(3);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 3; i++)
+                pool.execute(() -> {
+                        names.add(Thread.currentThread().getName());
+                        done.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            assertEquals(3, pool.getPoolSize());
+            assertEquals(3, pool.getActiveCount());
+            for (String name : names)
+                assertTrue(name, name.matches("Test-[123]"));
+            release.countDown();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Make sure tasks beyond the threads wait in the bounded queue,
+     * their wait is measured, and those beyond the queue are rejected
+     * and counted.
+     */
+    @Test
+    public void testQueueLatencyAndRejection() throws Exception {
+        InstrumentedThreadPool pool =
+            new InstrumentedThreadPool("Test", 1, 1, null);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            pool.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            // The only thread is busy, so the next task waits in the
+            // queue and the one after is rejected.
+            CountDownLatch queuedDone = new CountDownLatch(1);
+            pool.execute(queuedDone::countDown);
+            assertEquals(1, pool.getQueueDepth());
+            try {
+                pool.execute(() -> { });
+                fail();
+            } catch (RejectedExecutionException e) {
+                // Expected.
+            }
+            assertEquals(1, pool.getRejectedTaskCount());
+
+            Thread.sleep(50);
+            release.countDown();
+            assertTrue(queuedDone.await(10, TimeUnit.SECONDS));
+
+            assertEquals(2, pool.getStartedTaskCount());
+            assertTrue(pool.getMaxStartLatencyNanos()
+                       >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertTrue(pool.getMeanStartLatencyNanos() > 0);
+            assertTrue(pool.describe().startsWith("1 threads, "));
+
+            pool.resetLatencies();
+            assertEquals(0, pool.getMaxStartLatencyNanos());
+            assertEquals(0, pool.getMeanStartLatencyNanos(), 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
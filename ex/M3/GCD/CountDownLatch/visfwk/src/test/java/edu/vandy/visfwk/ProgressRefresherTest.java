@@ -0,0 +1,145 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.model.ProgressTable;
+import edu.vandy.visfwk.utils.ProgressRefresher;
+
+/**
+ * This JUnit test checks that the ProgressRefresher displays the
+ * final progress of every task while coalescing the reports of many
+ * threads into at most one refresh per frame, using a single-threaded
+ * scheduler in place of the UI thread.
+ */
+public class ProgressRefresherTest {
+    /**
+     * Number of tasks, each of which reports from its own thread.
+     */
+    private static final int sTASKS = 8;
+
+    /**
+     * Number of reports per task.
+     */
+    private static final int sREPORTS = 200000;
+
+    /**
+     * Frame interval (in milliseconds) of the refresher.
+     */
+    private static final long sFRAME_MILLIS = 16;
+
+    /**
+     * Make sure the last report of each task is displayed and the
+     * number of refreshes is bounded by the frame rate rather than
+     * the number of reports.
+     */
+    @Test
+    public void testCoalescing() throws InterruptedException {
+        // Stands in for the UI thread.
+        ScheduledExecutorService uiThread =
+            Executors.newSingleThreadScheduledExecutor();
+
+        // The progress displayed for each task, which is only
+        // written on the "UI thread".
+        int[] displayed = new int[sTASKS];
+
+        ProgressRefresher refresher =
+            new ProgressRefresher(new ProgressTable(sTASKS),
+                                  (command, delayMillis) ->
+                                  uiThread.schedule(command,
+                                                    delayMillis,
+                                                    TimeUnit.MILLISECONDS),
+                                  (taskUniqueId, progress) ->
+                                  displayed[taskUniqueId] = progress,
+                                  sFRAME_MILLIS);
+
+        long startTime = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int task = 0; task < sTASKS; task++) {
+            final int taskUniqueId = task;
+            Thread thread = new Thread(() -> {
+                    for (int i = 1; i <= sREPORTS; i++)
+                        refresher.report(taskUniqueId,
+                                         (int) (100L * i / sREPORTS));
+                });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        long elapsedMillis =
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        // Let the pending refresh run.
+        uiThread.shutdown();
+        assertTrue(uiThread.awaitTermination(10, TimeUnit.SECONDS));
+
+        int[] expected = new int[sTASKS];
+        Arrays.fill(expected, 100);
+        assertArrayEquals(expected, displayed);
+
+        System.out.println(String.format("%d reports -> %d refreshes, %d rows rebound in %d msecs",
+                                         refresher.getRequestCount(),
+                                         refresher.getRefreshCount(),
+                                         refresher.getRowsBoundCount(),
+                                         elapsedMillis));
+
+        assertEquals((long) sTASKS * sREPORTS, refresher.getRequestCount());
+        // At most one refresh per frame, plus the first and the last.
+        assertTrue(refresher.getRefreshCount()
+                   <= elapsedMillis / sFRAME_MILLIS + 2);
+        // Each task changes 100 times, so no more rows can change.
+        assertTrue(refresher.getRowsBoundCount() <= sTASKS * 101);
+    }
+
+    /**
+     * Make sure a refresh only rebinds the rows that changed, and
+     * invalidate() makes the next one rebind them all.
+     */
+    @Test
+    public void testDiff() {
+        List<Runnable> scheduled = new ArrayList<>();
+        List<Integer> bound = new ArrayList<>();
+        ProgressRefresher refresher =
+            new ProgressRefresher(new ProgressTable(4),
+                                  (command, delayMillis) -> scheduled.add(command),
+                                  (taskUniqueId, progress) -> bound.add(taskUniqueId),
+                                  sFRAME_MILLIS);
+
+        // The first refresh displays every row.
+        refresher.refresh();
+        assertEquals(4, bound.size());
+
+        // Reports within a frame schedule a single refresh.
+        bound.clear();
+        refresher.report(2, 10);
+        refresher.report(2, 20);
+        refresher.report(3, 20);
+        refresher.report(3, 20);
+        assertEquals(1, scheduled.size());
+        scheduled.get(0).run();
+        assertEquals(2, bound.size());
+        assertEquals(2, (int) bound.get(0));
+        assertEquals(3, (int) bound.get(1));
+
+        // A report after the refresh schedules another one.
+        refresher.report(0, 50);
+        assertEquals(2, scheduled.size());
+
+        // Invalidating rebinds every row.
+        bound.clear();
+        refresher.invalidate();
+        scheduled.get(1).run();
+        assertEquals(4, bound.size());
+    }
+}
@@ -7,21 +7,29 @@ import edu.vandy.visfwk.model.TaskTuple;
 import edu.vandy.visfwk.model.abstracts.AbstractTestTask;
 import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
 import edu.vandy.visfwk.presenter.interfaces.PresenterInterface;
+import edu.vandy.visfwk.utils.ArrivalRecorder;
+import edu.vandy.visfwk.utils.CancellationToken;
+import edu.vandy.visfwk.utils.HeadlessRunner;
+import edu.vandy.visfwk.utils.InstrumentedCyclicBarrier;
+import edu.vandy.visfwk.utils.InstrumentedThreadPool;
 import edu.vandy.visfwk.utils.ProgressReporter;
+import edu.vandy.visfwk.utils.ProgressSampler;
+import edu.vandy.visfwk.utils.ResultChecksum;
 import edu.vandy.visfwk.view.interfaces.ViewInterface;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
-
-import static java.util.stream.Collectors.toList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class tests various GCDInterface implementations using
- * CyclicBarriers on Android.
+ * CyclicBarriers on Android.  By default all the testers start
+ * together, so each one's time depends on how many cores the others
+ * take, but the concurrency can be limited so the testers run in
+ * groups one after the other, e.g., one at a time, like the modes of
+ * HeadlessRunner.
  */
 public class GCDCyclicBarrierTestTask
 	extends AbstractTestTask<GCDInterface>
@@ -33,9 +41,10 @@ public class GCDCyclicBarrierTestTask
         GCDCyclicBarrierTestTask.class.getCanonicalName();
 
     /**
-     * The executor to run this AsyncTask and Runnable(s) on.
+     * The bounded pool of pre-started threads to run the GCDInterface
+     * testers on, which measures how long they take to start.
      */
-    private ExecutorService mExecutor;
+    private InstrumentedThreadPool mExecutor;
 
     /**
      * This list of AndroidGCDCountDownLatchTesters keeps track of the
@@ -49,54 +58,87 @@ public class GCDCyclicBarrierTestTask
     private int mIterations;
 
     /**
-     * This entry barrier ensures all threads start at the same time.
+     * Maximum number of testers that run at the same time, or
+     * HeadlessRunner.sALL_CONCURRENT if they all do.
+     */
+    private final int mConcurrency;
+
+    /**
+     * The entry barriers of the groups of testers, which run one
+     * after the other.  Each ensures all the threads of its group
+     * start at the same time and records when each tester arrives.
+     */
+    private List<InstrumentedCyclicBarrier> mEntryBarriers;
+
+    /**
+     * The exit barriers of the groups of testers.  Each ensures all
+     * the threads of its group finish before continuing with the next
+     * group or cycle (if any) and records when each tester finishes.
+     */
+    private List<InstrumentedCyclicBarrier> mExitBarriers;
+
+    /**
+     * True if the entry barrier action may prefetch the inputs for
+     * the next cycle (if prefetching is enabled), which is set before
+     * each cycle starts.
      */
-    private CyclicBarrier mEntryBarrier;
+    private volatile boolean mPrefetchInputs;
 
     /**
-     * This exit barrier ensures all threads finish before continuing
-     * with the next cycle (if any).
+     * Samples the progress counted by the testers and posts it to the
+     * View layer at a fixed rate.
      */
-    private CyclicBarrier mExitBarrier;
+    private ProgressSampler mProgressSampler;
 
     /**
-     * Constructor initializes the fields.
+     * If non-null each GCDInterface test splits its input range into
+     * chunks that run in parallel in this pool.
+     */
+    private final ForkJoinPool mForkJoinPool;
+
+    /**
+     * Tells the testers to stop when the task is cancelled, which
+     * they check often enough to stop within its maximum latency.
+     */
+    private final CancellationToken mCancellation =
+        new CancellationToken();
+
+    /**
+     * Constructor initializes the fields.  If @a parallelChunks is
+     * true each GCDInterface test splits its input range across the
+     * cores via the common ForkJoinPool instead of running in a single
+     * thread.  At most @a concurrency testers run at the same time,
+     * or all of them if it's HeadlessRunner.sALL_CONCURRENT.
      */
     GCDCyclicBarrierTestTask(ViewInterface<GCDInterface> viewInterface,
                              ModelStateInterface<GCDInterface> modelStateInterface,
                              PresenterInterface presenterInterface,
-                             int iterations) {
+                             int iterations,
+                             boolean parallelChunks,
+                             int concurrency) {
         super(viewInterface,
               modelStateInterface,
               presenterInterface);
 
+        if (concurrency < 0)
+            throw new IllegalArgumentException("negative concurrency "
+                                               + concurrency);
+
         // Set the number of times to run the tests.
         mIterations = iterations;
 
-        // Create a new ThreadFactory object that sets the
-        // "UncaughtExceptionHandler" each time its newThread()
-        // factory method is called.
-        final ThreadFactory threadFactory =
-            runnable -> {
-            Thread thread = new Thread(runnable);
-
-            // Set a handler for any uncaught exception.
-            thread.setUncaughtExceptionHandler((thr, ex) -> {
-                    Log.d(TAG, "GCDCountDownLatchTestTask encountered an exception:"
-                          + ex
-                          + " for thread "
-                          + thread);
-                });
-            return thread;
-        };
+        // Set how many tests run at the same time.
+        mConcurrency = concurrency;
 
-        // Create a new cached thread pool executor.
-        mExecutor = Executors.newCachedThreadPool(threadFactory);
+        // Use the common ForkJoinPool if the tests run in parallel.
+        mForkJoinPool = parallelChunks
+            ? ForkJoinPool.commonPool()
+            : null;
     }
 
     /**
      * Hook method called in the UI thread prior to execution of the
-     * asynctask.
+     * task.
      */
     protected void onPreExecute() {
         // This list of GCDTuples keeps track of the data needed to
@@ -107,39 +149,103 @@ public class GCDCyclicBarrierTestTask
         Log.d(TAG,
               "onPreExecute()");
 
-        // Create an entry barrier that ensures all threads start at
-        // the same time.  We add a "+ 1" for the thread that
-        // initializes the tests.
-        mEntryBarrier =
-            new CyclicBarrier(gcdTaskTuples.size() + 1,
-                              // Barrier action (re)initializes the
-                              // test data.
-                              () -> GCDCyclicBarrierWorker.initializeInputs(mIterations));
-
-        // Create an exit barrier that ensures all threads end at the
-        // same time.  We add a "+ 1" for the thread that waits for
-        // the tests to complete.
-        mExitBarrier =
-            new CyclicBarrier(gcdTaskTuples.size() + 1);
-
-        // Create a list of GCDInterface testers.
-        mGcdTesters = gcdTaskTuples
-            // Covert the GCDInterface tuples into a stream.
-            .stream()
-
-            // Map each GCDInterface tuple into a GCDInterface tester.
-            .map(gcdTaskTuple ->
-                 new GCDCyclicBarrierTesterAndroidAdapter
-                 // All test tasks share the entry and exit barriers.
-                 (mViewInterface,
-                  gcdTaskTuple.getTaskUniqueId(),
-                  mEntryBarrier,
-                  mExitBarrier,
-                  gcdTaskTuple,
-                  this))
-
-            // Collect into a list.
-            .collect(toList());
+        // Sample the progress the testers count and post it to the
+        // View layer, which coalesces it into one refresh per frame.
+        mProgressSampler =
+            new ProgressSampler(gcdTaskTuples.size(),
+                                ProgressSampler.sDEFAULT_PERIOD_MILLIS,
+                                mViewInterface::postProgress);
+        mProgressSampler.start();
+
+        // Create a pool with a pre-started thread per tester, so no
+        // thread is created while the cycles are timed.  Each cycle
+        // submits every tester once, so a tester only waits in the
+        // queue until the previous cycle's thread is returned.
+        int threads = Math.max(1, gcdTaskTuples.size());
+        mExecutor =
+            new InstrumentedThreadPool("GCDTester",
+                                       threads,
+                                       threads,
+                                       // Log any uncaught exception.
+                                       (thread, ex) ->
+                                       Log.d(TAG, "GCDCyclicBarrierTestTask encountered an exception:"
+                                             + ex
+                                             + " for thread "
+                                             + thread));
+
+        // Split the testers into the groups that run at the same
+        // time, which is a single group unless the concurrency is
+        // limited.
+        int groupSize = mConcurrency == HeadlessRunner.sALL_CONCURRENT
+            ? Math.max(1, gcdTaskTuples.size())
+            : mConcurrency;
+        int groups = (gcdTaskTuples.size() + groupSize - 1) / groupSize;
+
+        mEntryBarriers = new ArrayList<>();
+        mExitBarriers = new ArrayList<>();
+        mGcdTesters = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            List<TaskTuple<GCDInterface>> groupTaskTuples =
+                gcdTaskTuples.subList(group * groupSize,
+                                      Math.min((group + 1) * groupSize,
+                                               gcdTaskTuples.size()));
+            String suffix = groups > 1
+                ? "[" + group + "]"
+                : "";
+
+            // Create an entry barrier that ensures all threads of the
+            // group start at the same time.  We add a "+ 1" for the
+            // thread that initializes the tests.
+            InstrumentedCyclicBarrier entryBarrier = group == 0
+                ? new InstrumentedCyclicBarrier("entry" + suffix,
+                                                groupTaskTuples.size() + 1,
+                                                // Barrier action (re)initializes
+                                                // the test data and starts
+                                                // generating the data for the
+                                                // next cycle (if any).  The
+                                                // later groups share it.
+                                                () -> GCDCyclicBarrierWorker
+                                                .initializeInputs(mIterations,
+                                                                  mPrefetchInputs))
+                : new InstrumentedCyclicBarrier("entry" + suffix,
+                                                groupTaskTuples.size() + 1);
+
+            // Create an exit barrier that ensures all threads of the
+            // group end at the same time.  We add a "+ 1" for the
+            // thread that waits for the tests to complete.
+            InstrumentedCyclicBarrier exitBarrier =
+                new InstrumentedCyclicBarrier("exit" + suffix,
+                                              groupTaskTuples.size() + 1);
+
+            mEntryBarriers.add(entryBarrier);
+            mExitBarriers.add(exitBarrier);
+
+            // Create the GCDInterface testers of the group.
+            groupTaskTuples
+                // Covert the GCDInterface tuples into a stream.
+                .stream()
+
+                // Map each GCDInterface tuple into a GCDInterface tester.
+                .map(gcdTaskTuple ->
+                     new GCDCyclicBarrierTesterAndroidAdapter
+                     // The test tasks of a group share its entry and
+                     // exit barriers.
+                     (mViewInterface,
+                      gcdTaskTuple.getTaskUniqueId(),
+                      entryBarrier,
+                      exitBarrier,
+                      gcdTaskTuple,
+                      // The testers count their progress, which is
+                      // sampled rather than published.
+                      ProgressReporter.sampled(mProgressSampler),
+                      mForkJoinPool))
+
+                // Stop each tester when the task is cancelled.
+                .peek(tester -> tester.setCancellation(mCancellation))
+
+                // Add them to the list.
+                .forEach(mGcdTesters::add);
+        }
     }
 
     /**
@@ -151,11 +257,17 @@ public class GCDCyclicBarrierTestTask
         Log.d(TAG,
               "doInBackground()" + cycles[0]);
 
+        // Name this thread's arrivals at the barriers.
+        ArrivalRecorder.setParty("coordinator");
+
         // Iterate for each cycle.
         for (int cycle = 1;
              cycle <= cycles[0];
              cycle++) {
             try {
+                // Only prefetch inputs if there's another cycle.
+                mPrefetchInputs = cycle < cycles[0];
+
                 // Execute each GCDInterface tester in the
                 // ExecutorService.
                 mGcdTesters.forEach(mExecutor::execute);
@@ -177,24 +289,52 @@ public class GCDCyclicBarrierTestTask
                     System.out.println("Starting GCDInterface tests for cycle "
                                        + cycle);
 
-                    // Wait until all the worker threads are ready to
-                    // run.
-                    mEntryBarrier.await();
-                    System.out.println("Waiting for results from cycle "
-                                       + cycle);
-
-                    // Wait until all the worker threads are finished
-                    // running.
-                    mExitBarrier.await();
+                    // Run the groups of testers one after the other.
+                    for (int group = 0; group < mEntryBarriers.size(); group++) {
+                        // Wait until all the worker threads of the
+                        // group are ready to run.
+                        mEntryBarriers.get(group).await();
+                        System.out.println("Waiting for results from cycle "
+                                           + cycle);
+
+                        // Wait until all the worker threads of the
+                        // group are finished running.
+                        mExitBarriers.get(group).await();
+                    }
                     System.out.println("All threads are done for cycle "
                                        + cycle);
+
+                    // Make sure all the GCDInterface implementations computed
+                    // the same results.
+                    checkResults(cycle);
+
+                    // Log when each tester arrived at the barriers,
+                    // which shows how long the faster ones sat idle
+                    // waiting for the straggler.
+                    for (int group = 0; group < mEntryBarriers.size(); group++) {
+                        Log.d(TAG,
+                              "cycle " + cycle + " " + mEntryBarriers.get(group).drainArrivals());
+                        Log.d(TAG,
+                              "cycle " + cycle + " " + mExitBarriers.get(group).drainArrivals());
+                    }
+
+                    // Log how long the testers took to start, which delays
+                    // the entry barrier, and start measuring the next cycle.
+                    Log.d(TAG,
+                          "cycle " + cycle + " pool: " + mExecutor.describe());
+                    mExecutor.resetLatencies();
                 } catch (Exception ex) {
                     System.out.println("cancelling doInBackground() due to exception"
                                        + ex);
 
+                    // Stop the testers before returning, so none is
+                    // left running or parked at a barrier.
+                    stopTesters();
+
                     // Cancel ourselves so the onCancelled() hook
                     // method gets called.
                     cancel(true);
+                    ArrivalRecorder.clearParty();
                     return null;
                 }
             } catch (Exception ex) {
@@ -202,6 +342,7 @@ public class GCDCyclicBarrierTestTask
                       "Exception: " + ex.getMessage());
             }
         }
+        ArrivalRecorder.clearParty();
         return null;
     }
 
@@ -225,6 +366,12 @@ public class GCDCyclicBarrierTestTask
         mViewInterface.getFragmentActivity()
                       .runOnUiThread(command);
 
+        // Shutdown the threads in the pool, which are idle now.
+        mExecutor.shutdown();
+
+        // Stop sampling, which posts the final progress.
+        mProgressSampler.stop();
+
         // Call to the super class.
         super.onPostExecute(v);
     }
@@ -236,13 +383,74 @@ public class GCDCyclicBarrierTestTask
     public void onCancelled(Void v) {
         System.out.println("in onCancelled()");
 
-        // Shutdown all the threads in the polls.
+        // Shutdown all the threads in the pool, interrupting any
+        // tester that didn't stop when it was cancelled.
         mExecutor.shutdownNow();
 
+        // Stop sampling, which posts the final progress.
+        mProgressSampler.stop();
+
         // Call to the super class.
         super.onCancelled(v);
     }
 
+    /**
+     * Tell the testers to stop and wait (at most twice the maximum
+     * cancellation latency) for them to return to the pool, logging
+     * how long they took.
+     */
+    private void stopTesters() {
+        // Clear the interrupt that cancelled this thread, so it can
+        // wait for the testers.
+        Thread.interrupted();
+        mCancellation.cancel();
+
+        try {
+            // Release the testers parked at the barriers, which
+            // they treat as cancellation.  Resetting a barrier only
+            // breaks it for those already waiting, so keep resetting
+            // them until the testers still computing have noticed
+            // the cancellation and returned to the pool.
+            mExecutor.shutdown();
+            long deadline = System.nanoTime()
+                + 2 * mCancellation.getMaxLatencyNanos();
+            boolean stopped;
+            do {
+                mEntryBarriers.forEach(InstrumentedCyclicBarrier::reset);
+                mExitBarriers.forEach(InstrumentedCyclicBarrier::reset);
+                stopped = mExecutor.awaitTermination(1,
+                                                     TimeUnit.MILLISECONDS);
+            } while (!stopped && System.nanoTime() < deadline);
+
+            if (stopped)
+                Log.d(TAG,
+                      "testers stopped within "
+                      + mCancellation.getMaxObservedLatencyNanos() / 1000000.0
+                      + " ms of cancellation");
+            else
+                Log.w(TAG,
+                      "testers didn't stop within "
+                      + 2 * mCancellation.getMaxLatencyNanos() / 1000000.0
+                      + " ms of cancellation");
+        } catch (InterruptedException e) {
+            // Cancelled again, so give up waiting.  onCancelled()
+            // interrupts any testers that are left.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Log the GCDInterface implementations whose results of @a cycle
+     * differ from the others' results.
+     */
+    private void checkResults(int cycle) {
+        String mismatches =
+            ResultChecksum.describeMismatches(mModelStateInterface.getTestTasks());
+        if (mismatches != null)
+            Log.e(TAG,
+                  "cycle " + cycle + ": " + mismatches);
+    }
+
     /**
      * Report progress to the UI thread.
      */
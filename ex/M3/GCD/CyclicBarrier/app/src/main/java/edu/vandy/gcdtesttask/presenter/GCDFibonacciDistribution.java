@@ -0,0 +1,71 @@
+package edu.vandy.gcdtesttask.presenter;
+
+import java.util.SplittableRandom;
+
+import edu.vandy.visfwk.model.interfaces.InputDistribution;
+
+/**
+ * Generates the worst-case inputs of Euclid's algorithm, i.e., pairs
+ * of consecutive Fibonacci numbers, which take the most division
+ * steps of all the pairs of their size (Lame's theorem).  Each pair
+ * (F(k + 1), F(k)) is multiplied by a random factor that keeps it
+ * within an int, which doesn't change the number of steps but makes
+ * the GCDs (the factors) differ, so memoizing or special-casing
+ * Fibonacci numbers doesn't help.
+ */
+public class GCDFibonacciDistribution
+       implements InputDistribution {
+    /**
+     * The Fibonacci numbers F(0) to F(46), which is the largest one
+     * that fits in an int.
+     */
+    private static final int[] sFIBONACCI = new int[47];
+
+    static {
+        sFIBONACCI[1] = 1;
+        for (int k = 2; k < sFIBONACCI.length; k++)
+            sFIBONACCI[k] = sFIBONACCI[k - 1] + sFIBONACCI[k - 2];
+    }
+
+    /**
+     * The smallest index k of the pairs (F(k + 1), F(k)).
+     */
+    private final int mMinIndex;
+
+    /**
+     * Constructor picks pairs (F(k + 1), F(k)) for k between @a
+     * minIndex and 45, so the larger the index the more steps each
+     * pair takes.
+     */
+    public GCDFibonacciDistribution(int minIndex) {
+        if (minIndex < 1 || minIndex > sFIBONACCI.length - 2)
+            throw new IllegalArgumentException();
+        mMinIndex = minIndex;
+    }
+
+    /**
+     * Returns the Fibonacci number F(@a k).
+     */
+    public static int fibonacci(int k) {
+        return sFIBONACCI[k];
+    }
+
+    @Override
+    public int getArity() {
+        return 2;
+    }
+
+    @Override
+    public void next(SplittableRandom random,
+                     int[] tuple) {
+        int k = random.nextInt(mMinIndex, sFIBONACCI.length - 1);
+        int factor = 1 + random.nextInt(Integer.MAX_VALUE / sFIBONACCI[k + 1]);
+        tuple[0] = factor * sFIBONACCI[k + 1];
+        tuple[1] = factor * sFIBONACCI[k];
+    }
+
+    @Override
+    public String toString() {
+        return "Fibonacci(k >= " + mMinIndex + ")";
+    }
+}
@@ -12,4 +12,38 @@ public interface GCDInterface {
      */
     int compute(int a,
                 int b);
+
+    /**
+     * Compute the GCD of each pair @a a[i] and @a b[i] for @a from
+     * <= i < @a to and store it in @a out[i - from], so callers can
+     * process large inputs through a small results buffer.  This
+     * default implementation calls compute() once per pair, whereas
+     * bulk implementations override it to run a whole block through
+     * a single kernel without a dispatch per pair.
+     */
+    default void computeAll(int[] a,
+                            int[] b,
+                            int[] out,
+                            int from,
+                            int to) {
+        for (int i = from; i < to; i++)
+            out[i - from] = compute(a[i],
+                                    b[i]);
+    }
+
+    /**
+     * Compute the GCD of each pair stored interleaved in @a pairs,
+     * i.e., @a pairs[2 * i] and @a pairs[2 * i + 1], for @a from <= i
+     * < @a to and store it in @a out[i - from].  Keeping each pair
+     * adjacent means a block of pairs is read from a single stream of
+     * cache lines rather than two.
+     */
+    default void computeAllPairs(int[] pairs,
+                                 int[] out,
+                                 int from,
+                                 int to) {
+        for (int i = from; i < to; i++)
+            out[i - from] = compute(pairs[2 * i],
+                                    pairs[2 * i + 1]);
+    }
 }
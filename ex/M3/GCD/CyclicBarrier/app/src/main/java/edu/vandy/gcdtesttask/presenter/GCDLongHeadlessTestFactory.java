@@ -0,0 +1,92 @@
+package edu.vandy.gcdtesttask.presenter;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestFactory;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestInterface;
+
+/**
+ * Factory class that benchmarks the GCD implementations that operate
+ * on long values, e.g., Lehmer's algorithm, on random 63-bit operands
+ * that are wide enough for Euclid's division chain to dominate.  The
+ * int operands of GCDTestTaskFactory never reach the Lehmer steps.
+ * The progress rows of the GCD app are tied to GCDInterface, so these
+ * tests have no Android UI and only run headlessly, e.g., via
+ * "HeadlessRunner edu.vandy.gcdtesttask.presenter.GCDLongHeadlessTestFactory"
+ * in CI.
+ */
+public class GCDLongHeadlessTestFactory
+       implements HeadlessTestFactory<LongGCDInterface> {
+    /**
+     * Return a TaskTuple for each long GCD implementation.
+     */
+    @Override
+    public List<TaskTuple<LongGCDInterface>> getTasksToTest() {
+        return HeadlessTestFactory
+            .makeTaskTuples(new GCDTestTaskFactory().getLongFuncsAndNames());
+    }
+
+    /**
+     * Create a HeadlessTestInterface that runs each long GCD
+     * implementation on the same random operands, which are
+     * regenerated each cycle from the "gcd.seed" system property (if
+     * it's set) so the runs can be reproduced.
+     *
+     * @param iterations Number of test iterations to run.
+     * @return A HeadlessTestInterface that runs the tests.
+     */
+    @Override
+    public HeadlessTestInterface<LongGCDInterface> makeHeadlessTest(int iterations) {
+        final Long seed = Long.getLong("gcd.seed");
+
+        return new HeadlessTestInterface<LongGCDInterface>() {
+            /**
+             * The operands of the current cycle, stored interleaved
+             * like the int inputs of the GCDInterface workers.
+             */
+            private volatile long[] mPairs;
+
+            /**
+             * Sum of the GCDs of the most recent run, which keeps the
+             * JIT compiler from discarding the calls.
+             */
+            private volatile long mSink;
+
+            @Override
+            public void beforeCycle(int cycle,
+                                    int cycles) {
+                SplittableRandom random = seed != null
+                    ? new SplittableRandom(seed + cycle)
+                    : new SplittableRandom();
+
+                // Drop the previous cycle's operands before
+                // allocating the new ones.
+                mPairs = null;
+                long[] pairs = new long[2 * iterations];
+                for (int i = 0; i < pairs.length; i++)
+                    pairs[i] = 1 + random.nextLong(Long.MAX_VALUE - 1);
+                mPairs = pairs;
+            }
+
+            @Override
+            public void runTest(TaskTuple<LongGCDInterface> taskTuple) {
+                LongGCDInterface gcdFunction = taskTuple.getTestFunc();
+                long[] pairs = mPairs;
+
+                long sum = 0;
+                for (int i = 0; i < pairs.length; i += 2)
+                    sum += gcdFunction.compute(pairs[i],
+                                               pairs[i + 1]);
+                mSink = sum;
+            }
+
+            @Override
+            public String getWorkload() {
+                return "uniform 63-bit"
+                    + (seed != null ? " seed " + seed : "");
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package edu.vandy.gcdtesttask.presenter;
+
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.utils.ProgressReporter;
+import edu.vandy.visfwk.view.interfaces.ViewInterface;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+
+/**
+ * The class is an Adapter that uses Android's UI to visualize the
+ * tests of various GCDInterface implementations using a Phaser.
+ */
+public class GCDPhaserTesterAndroidAdapter
+       extends GCDPhaserWorker {
+    /**
+     * Interface for interacting with View layer.
+     */
+    private final ViewInterface<GCDInterface> mViewInterface;
+
+    /**
+     * Unique ID of this Tester
+     */
+    private final int mUniqueID;
+
+    /**
+     * Constructor initializes the fields and displays the initial
+     * mProgressStatus bar for this GCDInterface implementation, so it
+     * must be called in the UI thread.  If @a forkJoinPool is non-null
+     * the input range is split into chunks that run in parallel in
+     * that pool.
+     */
+    public GCDPhaserTesterAndroidAdapter(ViewInterface<GCDInterface> viewInterface,
+                                         int uniqueID,
+                                         Phaser phaser,
+                                         TaskTuple<GCDInterface> gcdTuple,
+                                         ProgressReporter progressReporter,
+                                         ForkJoinPool forkJoinPool) {
+        super(phaser,
+              gcdTuple,
+              progressReporter,
+              forkJoinPool);
+        mViewInterface = viewInterface;
+        mUniqueID = uniqueID;
+        mViewInterface.setProgress(mUniqueID,
+                                   0);
+    }
+
+    /**
+     * This factory method returns a Runnable that posts the progress
+     * to the View layer, which is safe to run in the worker's thread.
+     */
+    protected Runnable makeReport(Integer percentageComplete) {
+        return () -> {
+            System.out.println(""
+                               + percentageComplete
+                               + "% complete for "
+                               + mTestName);
+            // Post the progress from the worker's thread, since the
+            // View layer coalesces the reports into one refresh per
+            // frame.
+            mViewInterface.postProgress(mUniqueID,
+                                        percentageComplete);
+        };
+    }
+}
+
@@ -0,0 +1,87 @@
+package edu.vandy.gcdtesttask.presenter;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestFactory;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestInterface;
+
+/**
+ * Factory class that benchmarks the sequential and parallel
+ * reductions of GCDTestTaskFactory.getReductionFuncsAndNames(), which
+ * reduce a whole int array to its GCD, on random multiples of a
+ * common factor, so every element has to be visited.  The reductions
+ * have no progress to report, so they have no Android UI and only run
+ * headlessly, e.g., via
+ * "HeadlessRunner edu.vandy.gcdtesttask.presenter.GCDReductionHeadlessTestFactory"
+ * in CI.
+ */
+public class GCDReductionHeadlessTestFactory
+       implements HeadlessTestFactory<GCDReductionInterface> {
+    /**
+     * The factor all the elements share, which is the GCD every
+     * reduction should return.
+     */
+    private final static int sFACTOR = 6;
+
+    /**
+     * Return a TaskTuple for each reduction.
+     */
+    @Override
+    public List<TaskTuple<GCDReductionInterface>> getTasksToTest() {
+        return HeadlessTestFactory
+            .makeTaskTuples(new GCDTestTaskFactory().getReductionFuncsAndNames());
+    }
+
+    /**
+     * Create a HeadlessTestInterface that runs each reduction on the
+     * same array of @a iterations elements, which is regenerated each
+     * cycle from the "gcd.seed" system property (if it's set) so the
+     * runs can be reproduced.  Each run's GCD is its checksum, so a
+     * reduction that returns the wrong GCD fails the run.
+     *
+     * @param iterations Number of elements to reduce.
+     * @return A HeadlessTestInterface that runs the tests.
+     */
+    @Override
+    public HeadlessTestInterface<GCDReductionInterface> makeHeadlessTest(int iterations) {
+        final Long seed = Long.getLong("gcd.seed");
+
+        return new HeadlessTestInterface<GCDReductionInterface>() {
+            /**
+             * The elements of the current cycle.
+             */
+            private volatile int[] mValues;
+
+            @Override
+            public void beforeCycle(int cycle,
+                                    int cycles) {
+                SplittableRandom random = seed != null
+                    ? new SplittableRandom(seed + cycle)
+                    : new SplittableRandom();
+
+                // Drop the previous cycle's elements before
+                // allocating the new ones.
+                mValues = null;
+                int[] values = new int[iterations];
+                for (int i = 0; i < values.length; i++)
+                    values[i] = sFACTOR
+                        * (1 + random.nextInt(Integer.MAX_VALUE / sFACTOR));
+                mValues = values;
+            }
+
+            @Override
+            public void runTest(TaskTuple<GCDReductionInterface> taskTuple) {
+                taskTuple.setChecksum((long) taskTuple.getTestFunc()
+                                      .compute(mValues));
+            }
+
+            @Override
+            public String getWorkload() {
+                return "multiples of " + sFACTOR
+                    + (seed != null ? " seed " + seed : "");
+            }
+        };
+    }
+}
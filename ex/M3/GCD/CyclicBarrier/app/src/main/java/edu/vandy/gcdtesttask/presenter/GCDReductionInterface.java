@@ -0,0 +1,16 @@
+package edu.vandy.gcdtesttask.presenter;
+
+/**
+ * This functional interface matches the signature of the methods
+ * that reduce a whole array of int values to their GCD, e.g.,
+ * GCDImplementations.gcdOf(), so sequential and parallel reductions
+ * can be registered and compared like the pairwise implementations.
+ */
+@FunctionalInterface
+public interface GCDReductionInterface {
+    /**
+     * Compute and return the GCD of all the elements of @a values,
+     * which is 0 if @a values is empty.
+     */
+    int compute(int[] values);
+}
@@ -1,14 +1,23 @@
 package edu.vandy.gcdtesttask.presenter;
 
+import java.math.BigInteger;
 import java.util.AbstractMap;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.UniformDistribution;
+import edu.vandy.visfwk.model.WorkloadSpec;
 import edu.vandy.visfwk.model.abstracts.AbstractTestTask;
 import edu.vandy.visfwk.model.abstracts.AbstractTestTaskFactory;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestInterface;
+import edu.vandy.visfwk.model.interfaces.InputDistribution;
 import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
 import edu.vandy.visfwk.presenter.PresenterLogic;
+import edu.vandy.visfwk.utils.HeadlessRunner;
+import edu.vandy.visfwk.utils.ProgressReporter;
 import edu.vandy.visfwk.view.interfaces.ViewInterface;
 
 /**
@@ -23,6 +32,78 @@ public class GCDTestTaskFactory
      */
     private final static long sDEFAULT_RUNS = 10000000;
 
+    /**
+     * Set to true to split each GCDInterface implementation's input
+     * range across all the cores via a ForkJoinPool rather than
+     * running it in a single thread.
+     */
+    private final static boolean sPARALLEL_CHUNKS = false;
+
+    /**
+     * Maximum number of tests that run at the same time, e.g., 1 to
+     * time each one without contention from the others, or
+     * HeadlessRunner.sALL_CONCURRENT to start them all together.  It
+     * can be overridden via the "gcd.concurrency" system property.
+     * The Phaser engine always runs them all together.
+     */
+    private final static int sCONCURRENCY = HeadlessRunner.sALL_CONCURRENT;
+
+    /**
+     * Set to true to run the tests with long-lived testers that are
+     * coordinated by a Phaser rather than with CyclicBarriers.
+     */
+    private final static boolean sPHASER_ENGINE = false;
+
+    /**
+     * Set to true to generate the inputs of the next cycle while the
+     * current cycle runs.  This keeps two copies of the inputs in
+     * memory, so it's off unless it's enabled here or via the
+     * "gcd.prefetch" system property.
+     */
+    private final static boolean sPREFETCH_INPUTS = false;
+
+    /**
+     * The distribution of the inputs, which is "uniform", "zipf"
+     * (skewed, see sZIPF_EXPONENT), or "fibonacci" (the worst case of
+     * Euclid's algorithm).  It can be overridden via the
+     * "gcd.workload" system property, e.g., in CI, along with the
+     * seed via "gcd.seed" to reproduce the same inputs.
+     */
+    private final static String sWORKLOAD = "uniform";
+
+    /**
+     * The exponent of the "zipf" workload, whose inputs are picked
+     * from a pool of sZIPF_DISTINCT_PAIRS pairs with a Zipfian
+     * distribution.
+     */
+    private final static double sZIPF_EXPONENT = 1.0;
+
+    /**
+     * Number of distinct pairs the skewed inputs are picked from.
+     */
+    private final static int sZIPF_DISTINCT_PAIRS = 1 << 16;
+
+    /**
+     * Smallest index of the Fibonacci numbers of the "fibonacci"
+     * workload, whose pairs take at least this many steps of
+     * Euclid's algorithm.
+     */
+    private final static int sFIBONACCI_MIN_INDEX = 30;
+
+    /**
+     * Set to true to also test MemoizedBinaryCtz, which caches the
+     * results of BinaryCtz and so only pays off when the inputs
+     * repeat, e.g., with the "zipf" workload.  It can also be enabled
+     * via the "gcd.memoized" system property.
+     */
+    private final static boolean sMEMOIZED = false;
+
+    /**
+     * Number of slots in the table of the memoized GCDInterface
+     * implementation.
+     */
+    private final static int sMEMOIZED_CAPACITY = 1 << 16;
+
     @Override
     public List<SimpleImmutableEntry<String, GCDInterface>> getFuncsAndNames() {
         // Return an ArrayList containing the name and function to
@@ -35,8 +116,77 @@ public class GCDTestTaskFactory
                                                            GCDImplementations::computeGCDRecursiveEuclid));
                 add(new AbstractMap.SimpleImmutableEntry<>("Binary",
                                                            GCDImplementations::computeGCDBinary));
+                add(new AbstractMap.SimpleImmutableEntry<>("BinaryCtz",
+                                                           GCDImplementations::computeGCDBinaryCtz));
                 add(new AbstractMap.SimpleImmutableEntry<>("BigInteger",
                                                            GCDImplementations::computeGCDBigInteger));
+                add(new AbstractMap.SimpleImmutableEntry<>("BulkBinary",
+                                                           new GCDBulkBinary(false)));
+                add(new AbstractMap.SimpleImmutableEntry<>("BulkBinaryInterleaved",
+                                                           new GCDBulkBinary(true)));
+                if (sMEMOIZED || Boolean.getBoolean("gcd.memoized"))
+                    add(new AbstractMap.SimpleImmutableEntry<>("MemoizedBinaryCtz",
+                                                               new GCDMemoized(GCDImplementations::computeGCDBinaryCtz,
+                                                                               sMEMOIZED_CAPACITY)));
+            }
+        };
+    }
+
+    /**
+     * Returns the names and functions of the GCD implementations that
+     * operate on long values, which can be compared on operands wide
+     * enough for Euclid's division chain to dominate, e.g., via
+     * GCDLongHeadlessTestFactory.
+     */
+    public List<SimpleImmutableEntry<String, LongGCDInterface>> getLongFuncsAndNames() {
+        // Return an ArrayList containing the name and function to
+        // test.
+        return new ArrayList<SimpleImmutableEntry<String, LongGCDInterface>>() {
+            {
+                add(new AbstractMap.SimpleImmutableEntry<>("IterativeEuclidLong",
+                                                           GCDImplementations::computeGCDIterativeEuclidLong));
+                add(new AbstractMap.SimpleImmutableEntry<>("BinaryCtzLong",
+                                                           GCDImplementations::computeGCDBinaryCtzLong));
+                add(new AbstractMap.SimpleImmutableEntry<>("LehmerLong",
+                                                           GCDImplementations::computeGCDLehmerLong));
+                add(new AbstractMap.SimpleImmutableEntry<>("LehmerBigInteger",
+                                                           (a, b) -> GCDImplementations
+                                                           .computeGCDLehmer(BigInteger.valueOf(a),
+                                                                             BigInteger.valueOf(b))
+                                                           .longValue()));
+                add(new AbstractMap.SimpleImmutableEntry<>("BigIntegerLong",
+                                                           GCDImplementations::computeGCDBigIntegerLong));
+            }
+        };
+    }
+
+    /**
+     * Returns the names and functions of the implementations that
+     * reduce a whole int array to its GCD, which can be compared
+     * sequentially and in parallel, e.g., via
+     * GCDReductionHeadlessTestFactory.
+     */
+    public List<SimpleImmutableEntry<String, GCDReductionInterface>> getReductionFuncsAndNames() {
+        // Return an ArrayList containing the name and function to
+        // test.
+        return new ArrayList<SimpleImmutableEntry<String, GCDReductionInterface>>() {
+            {
+                add(new AbstractMap.SimpleImmutableEntry<>("SequentialEuclid",
+                                                           values -> GCDImplementations
+                                                           .gcdOfSequential(values,
+                                                                            GCDImplementations::computeGCDIterativeEuclid)));
+                add(new AbstractMap.SimpleImmutableEntry<>("ParallelEuclid",
+                                                           values -> GCDImplementations
+                                                           .gcdOfParallel(values,
+                                                                          GCDImplementations::computeGCDIterativeEuclid)));
+                add(new AbstractMap.SimpleImmutableEntry<>("SequentialBinaryCtz",
+                                                           values -> GCDImplementations
+                                                           .gcdOfSequential(values,
+                                                                            GCDImplementations::computeGCDBinaryCtz)));
+                add(new AbstractMap.SimpleImmutableEntry<>("ParallelBinaryCtz",
+                                                           values -> GCDImplementations
+                                                           .gcdOfParallel(values,
+                                                                          GCDImplementations::computeGCDBinaryCtz)));
             }
         };
     }
@@ -55,10 +205,110 @@ public class GCDTestTaskFactory
                                                        ModelStateInterface<GCDInterface> modelStateInterface,
                                                        PresenterLogic<GCDInterface> presenterLogic,
                                                        int numberOfTests) {
-        return new GCDCyclicBarrierTestTask(viewInterface,
-                modelStateInterface,
-                presenterLogic,
-                numberOfTests);
+        // Pick the distribution of the inputs.
+        GCDCyclicBarrierWorker.setWorkload(makeWorkload(System.getProperty("gcd.workload",
+                                                                           sWORKLOAD),
+                                                        Long.getLong("gcd.seed")));
+        GCDCyclicBarrierWorker.setPrefetchEnabled(sPREFETCH_INPUTS
+                                                  || Boolean.getBoolean("gcd.prefetch"));
+
+        if (sPHASER_ENGINE)
+            return new GCDPhaserTestTask(viewInterface,
+                                         modelStateInterface,
+                                         presenterLogic,
+                                         numberOfTests,
+                                         sPARALLEL_CHUNKS);
+        else
+            return new GCDCyclicBarrierTestTask(viewInterface,
+                    modelStateInterface,
+                    presenterLogic,
+                    numberOfTests,
+                    sPARALLEL_CHUNKS,
+                    Integer.getInteger("gcd.concurrency",
+                                       sCONCURRENCY));
+    }
+
+    /**
+     * Create a HeadlessTestInterface that runs each test with a
+     * GCDCyclicBarrierWorker in the calling thread, so the tests can be
+     * benchmarked on a plain JVM via HeadlessRunner.
+     *
+     * @param iterations Number of test iterations to run.
+     * @return A HeadlessTestInterface that runs the tests.
+     */
+    @Override
+    public HeadlessTestInterface<GCDInterface> makeHeadlessTest(int iterations) {
+        // Pick the distribution of the inputs.
+        GCDCyclicBarrierWorker.setWorkload(makeWorkload(System.getProperty("gcd.workload",
+                                                                           sWORKLOAD),
+                                                        Long.getLong("gcd.seed")));
+        GCDCyclicBarrierWorker.setPrefetchEnabled(sPREFETCH_INPUTS
+                                                  || Boolean.getBoolean("gcd.prefetch"));
+
+        return new HeadlessTestInterface<GCDInterface>() {
+            @Override
+            public void beforeCycle(int cycle,
+                                    int cycles) {
+                // Prefetch the next cycle's inputs (if enabled)
+                // unless this is the last cycle.
+                GCDCyclicBarrierWorker.initializeInputs(iterations,
+                                                        cycle < cycles);
+            }
+
+            @Override
+            public void runTest(TaskTuple<GCDInterface> gcdTuple) {
+                // The runner coordinates the threads, so the worker
+                // doesn't need its own latches or barriers, and the
+                // progress reports are just logged.
+                new GCDCyclicBarrierWorker(null,
+                                           null,
+                                           gcdTuple,
+                                           ProgressReporter.direct(),
+                                           sPARALLEL_CHUNKS
+                                           ? ForkJoinPool.commonPool()
+                                           : null).runTest();
+            }
+
+            @Override
+            public String getWorkload() {
+                return GCDCyclicBarrierWorker.getWorkload().toString();
+            }
+        };
+    }
+
+    /**
+     * Returns the WorkloadSpec of the distribution named @a name,
+     * whose inputs are generated from @a seed, or with a new seed
+     * each cycle if it's null.
+     *
+     * @throws IllegalArgumentException If @a name is unknown.
+     */
+    public static WorkloadSpec makeWorkload(String name,
+                                            Long seed) {
+        InputDistribution distribution;
+        switch (name) {
+        case "uniform":
+            distribution = new UniformDistribution(2);
+            break;
+        case "zipf":
+            distribution = new GCDZipfGenerator(sZIPF_DISTINCT_PAIRS,
+                                                sZIPF_EXPONENT,
+                                                seed != null
+                                                ? seed
+                                                : System.nanoTime());
+            break;
+        case "fibonacci":
+            distribution = new GCDFibonacciDistribution(sFIBONACCI_MIN_INDEX);
+            break;
+        default:
+            throw new IllegalArgumentException("unknown workload " + name);
+        }
+
+        return seed != null
+            ? new WorkloadSpec(distribution,
+                               WorkloadSpec.Layout.INTERLEAVED,
+                               seed)
+            : new WorkloadSpec(distribution);
     }
 
     /**
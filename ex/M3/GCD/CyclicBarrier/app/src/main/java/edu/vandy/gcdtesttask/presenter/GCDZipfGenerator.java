@@ -0,0 +1,34 @@
+package edu.vandy.gcdtesttask.presenter;
+
+import edu.vandy.visfwk.model.ZipfDistribution;
+
+/**
+ * Generates skewed GCD inputs, which model workloads where the same
+ * pairs are requested over and over.  It's a ZipfDistribution of
+ * pairs, i.e., it draws a fixed pool of distinct random pairs up
+ * front and then picks the pair of rank k with a probability
+ * proportional to 1 / k^s for the given exponent s.
+ */
+public class GCDZipfGenerator
+       extends ZipfDistribution {
+    /**
+     * Constructor draws @a distinctPairs random pairs between 0 and
+     * MAX_VALUE from @a seed and initializes the distribution with the
+     * given @a exponent.
+     */
+    public GCDZipfGenerator(int distinctPairs,
+                            double exponent,
+                            long seed) {
+        super(2,
+              distinctPairs,
+              exponent,
+              seed);
+    }
+
+    /**
+     * Returns the number of distinct pairs in the pool.
+     */
+    public int getDistinctPairs() {
+        return getDistinctTuples();
+    }
+}
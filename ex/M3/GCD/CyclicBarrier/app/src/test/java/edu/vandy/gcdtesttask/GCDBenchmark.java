@@ -0,0 +1,497 @@
+package edu.vandy.gcdtesttask;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import edu.vandy.gcdtesttask.presenter.GCDCyclicBarrierWorker;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestInterface;
+import edu.vandy.visfwk.utils.HeadlessRunner;
+
+/**
+ * A headless benchmark runner for GCDInterface implementations that
+ * produces numbers which can be trusted more than the single
+ * System.nanoTime() delta the workers record.  Each implementation
+ * is run for a number of discarded warmup cycles (so the JIT has
+ * compiled it) followed by a number of measured cycles, and the mean
+ * time per GCD is reported along with a 95% confidence interval.
+ * The cycles are run by a HeadlessRunner, which also checks that the
+ * implementations' checksums agree on each cycle, in one of three
+ * modes:
+ *
+ * ISOLATED - one implementation at a time in this JVM.
+ * CONCURRENT - all implementations at the same time, one thread each,
+ *              which is how the app runs them.
+ * FORKED - one implementation at a time, each in a fresh JVM, so no
+ *          implementation's profile or compiled code affects another.
+ *
+ * All implementations use the same seeded inputs, so the checksums
+ * of runs in different JVMs can be compared too.  The results can be
+ * written as CSV or JSON.
+ */
+public class GCDBenchmark {
+    /**
+     * The ways the implementations can be run.
+     */
+    public enum Mode {
+        ISOLATED,
+        CONCURRENT,
+        FORKED
+    }
+
+    /**
+     * Prefix of the line a forked JVM prints its results on.
+     */
+    private static final String sFORK_RESULT = "gcd.benchmark.result";
+
+    /**
+     * Two-sided 95% critical values of Student's t-distribution for 1
+     * to 30 degrees of freedom.
+     */
+    private static final double[] sT_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    /**
+     * Number of GCDs computed per run.
+     */
+    private final int mIterations;
+
+    /**
+     * Number of discarded warmup cycles per implementation.
+     */
+    private final int mWarmupRuns;
+
+    /**
+     * Number of measured cycles per implementation (per fork in
+     * FORKED mode).
+     */
+    private final int mMeasuredRuns;
+
+    /**
+     * Number of JVMs forked per implementation in FORKED mode.
+     */
+    private final int mForks;
+
+    /**
+     * Seed of the random inputs, which is passed to forked JVMs so
+     * every run uses the same inputs.
+     */
+    private final long mSeed;
+
+    /**
+     * The registered implementations to benchmark.
+     */
+    private final List<SimpleImmutableEntry<String, GCDInterface>> mEntries =
+        new ArrayList<>();
+
+    /**
+     * Constructor initializes the configuration from system
+     * properties (e.g., "-Dgcd.iterations=1000000"), falling back on
+     * the given defaults so the benchmark can be tuned from the
+     * command line without recompiling.
+     */
+    public GCDBenchmark(int iterations,
+                        int warmupRuns,
+                        int measuredRuns,
+                        int forks) {
+        mIterations = Integer.getInteger("gcd.iterations", iterations);
+        mWarmupRuns = Integer.getInteger("gcd.warmupRuns", warmupRuns);
+        mMeasuredRuns = Integer.getInteger("gcd.measuredRuns", measuredRuns);
+        mForks = Integer.getInteger("gcd.forks", forks);
+        mSeed = Long.getLong("gcd.seed", 42);
+        if (mIterations <= 0 || mWarmupRuns < 0 || mMeasuredRuns < 2 || mForks < 1)
+            throw new IllegalArgumentException();
+    }
+
+    /**
+     * Register an implementation.  Implementations that are run in
+     * FORKED mode are recreated in the forked JVM by looking up @a
+     * name in the GCDTestTaskFactory, so it must be registered there,
+     * and the names must be unique since they identify the
+     * implementations' results.
+     */
+    public GCDBenchmark add(String name,
+                            GCDInterface gcdFunction) {
+        mEntries.add(new SimpleImmutableEntry<>(name, gcdFunction));
+        return this;
+    }
+
+    /**
+     * Register all the implementations in @a entries.
+     */
+    public GCDBenchmark addAll(List<SimpleImmutableEntry<String, GCDInterface>> entries) {
+        mEntries.addAll(entries);
+        return this;
+    }
+
+    /**
+     * Returns a one-line description of the configuration.
+     */
+    public String getConfiguration() {
+        return "iterations = " + mIterations
+            + ", warmup runs = " + mWarmupRuns
+            + ", measured runs = " + mMeasuredRuns
+            + ", forks = " + mForks
+            + ", seed = " + mSeed;
+    }
+
+    /**
+     * Run all the registered implementations in the given @a mode and
+     * return the results in the order they were registered.
+     */
+    public List<Result> run(Mode mode)
+        throws InterruptedException, IOException {
+        switch (mode) {
+        case ISOLATED:
+            return runIsolated();
+        case CONCURRENT:
+            return runConcurrent();
+        default:
+            return runForked();
+        }
+    }
+
+    /**
+     * Run each implementation by itself in this JVM.
+     */
+    private List<Result> runIsolated() throws InterruptedException {
+        return runInProcess(Mode.ISOLATED,
+                            1);
+    }
+
+    /**
+     * Run all the implementations at the same time, each in its own
+     * thread, which meet at a barrier before each cycle so the runs
+     * overlap as much as possible.
+     */
+    private List<Result> runConcurrent() throws InterruptedException {
+        return runInProcess(Mode.CONCURRENT,
+                            HeadlessRunner.sALL_CONCURRENT);
+    }
+
+    /**
+     * Run all the implementations in this JVM with a HeadlessRunner
+     * that runs at most @a concurrency of them at the same time, and
+     * return their measured cycles as the results of @a mode.  A test
+     * that throws or computes the wrong GCDs fails the run, since the
+     * runner rethrows the failure once all its threads are joined.
+     */
+    private List<Result> runInProcess(Mode mode,
+                                      int concurrency)
+        throws InterruptedException {
+        HeadlessRunner<GCDInterface> runner =
+            new HeadlessRunner<>(makeFactory(),
+                                 mIterations,
+                                 mWarmupRuns + mMeasuredRuns,
+                                 HeadlessRunner.Coordination.BARRIER);
+        runner.setConcurrency(concurrency);
+
+        List<TaskTuple<GCDInterface>> taskTuples = runner.getTaskTuples();
+        double[][] samples = new double[taskTuples.size()][mMeasuredRuns];
+
+        // The results are ordered by cycle and then by TaskTuple, so
+        // skip the warmup cycles.
+        for (HeadlessRunner.Result result : runner.run())
+            if (result.getCycle() > mWarmupRuns)
+                samples[result.getTaskUniqueId()][result.getCycle() - mWarmupRuns - 1] =
+                    (double) result.getProfile().getWallNanos() / mIterations;
+
+        List<Result> results = new ArrayList<>();
+        for (TaskTuple<GCDInterface> taskTuple : taskTuples) {
+            Long checksum = taskTuple.getChecksum();
+            results.add(new Result(taskTuple.getTestName(),
+                                   mode,
+                                   samples[taskTuple.getTaskUniqueId()],
+                                   checksum == null ? 0 : checksum));
+        }
+        return results;
+    }
+
+    /**
+     * Returns a GCDTestTaskFactory whose headless tests run the
+     * registered implementations on inputs generated from mSeed.
+     */
+    private GCDTestTaskFactory makeFactory() {
+        final List<SimpleImmutableEntry<String, GCDInterface>> entries =
+            Collections.unmodifiableList(new ArrayList<>(mEntries));
+
+        return new GCDTestTaskFactory() {
+            @Override
+            public List<SimpleImmutableEntry<String, GCDInterface>> getFuncsAndNames() {
+                return entries;
+            }
+
+            @Override
+            public HeadlessTestInterface<GCDInterface> makeHeadlessTest(int iterations) {
+                HeadlessTestInterface<GCDInterface> headlessTest =
+                    super.makeHeadlessTest(iterations);
+
+                // Always seed the inputs, so the forked JVMs compute
+                // the same GCDs.
+                GCDCyclicBarrierWorker
+                    .setWorkload(makeWorkload(System.getProperty("gcd.workload",
+                                                                 "uniform"),
+                                              mSeed));
+                return headlessTest;
+            }
+        };
+    }
+
+    /**
+     * Run each implementation by itself in @a mForks fresh JVMs and
+     * pool the measured runs of all the forks.
+     */
+    private List<Result> runForked() throws InterruptedException, IOException {
+        String java = System.getProperty("java.home")
+            + File.separator + "bin" + File.separator + "java";
+        List<Result> results = new ArrayList<>();
+
+        for (SimpleImmutableEntry<String, GCDInterface> entry : mEntries) {
+            double[] samples = new double[mForks * mMeasuredRuns];
+            long checksum = 0;
+
+            for (int fork = 0; fork < mForks; fork++) {
+                Process process =
+                    new ProcessBuilder(java,
+                                       "-Dgcd.iterations=" + mIterations,
+                                       "-Dgcd.warmupRuns=" + mWarmupRuns,
+                                       "-Dgcd.measuredRuns=" + mMeasuredRuns,
+                                       "-Dgcd.seed=" + mSeed,
+                                       "-Dgcd.workload="
+                                       + System.getProperty("gcd.workload",
+                                                            "uniform"),
+                                       "-cp",
+                                       System.getProperty("java.class.path"),
+                                       GCDBenchmark.class.getName(),
+                                       entry.getKey())
+                    .redirectErrorStream(true)
+                    .start();
+
+                // Find the result line in the forked JVM's output,
+                // which is "prefix checksum sample1 sample2 ...".
+                String[] fields = null;
+                try (BufferedReader reader =
+                     new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null)
+                        if (line.startsWith(sFORK_RESULT))
+                            fields = line.split(" ");
+                }
+
+                if (process.waitFor() != 0
+                    || fields == null
+                    || fields.length != mMeasuredRuns + 2)
+                    throw new IllegalStateException("fork of "
+                                                    + entry.getKey()
+                                                    + " failed");
+
+                checksum = Long.parseLong(fields[1]);
+                for (int run = 0; run < mMeasuredRuns; run++)
+                    samples[fork * mMeasuredRuns + run] =
+                        Double.parseDouble(fields[run + 2]);
+            }
+            results.add(new Result(entry.getKey(),
+                                   Mode.FORKED,
+                                   samples,
+                                   checksum));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the two-sided 95% critical value of Student's
+     * t-distribution for @a degrees degrees of freedom.
+     */
+    static double t95(int degrees) {
+        return degrees <= sT_95.length
+            ? sT_95[degrees - 1]
+            : 1.960;
+    }
+
+    /**
+     * Write @a results as CSV with a header line.
+     */
+    public static String toCsv(List<Result> results) {
+        StringBuilder sb =
+            new StringBuilder("name,mode,runs,mean_ns,stddev_ns,ci95_ns,min_ns,max_ns,checksum\n");
+        for (Result result : results)
+            sb.append(String.format(Locale.US,
+                                    "%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%d\n",
+                                    result.mName,
+                                    result.mMode,
+                                    result.mSamples.length,
+                                    result.getMean(),
+                                    result.getStdDev(),
+                                    result.getConfidenceInterval(),
+                                    result.getMin(),
+                                    result.getMax(),
+                                    result.mChecksum));
+        return sb.toString();
+    }
+
+    /**
+     * Write @a results as a JSON array of objects.
+     */
+    public static String toJson(List<Result> results) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            if (i > 0)
+                sb.append(",");
+            sb.append(String.format(Locale.US,
+                                    "\n  {\"name\": \"%s\", \"mode\": \"%s\", \"runs\": %d, "
+                                    + "\"meanNs\": %.3f, \"stdDevNs\": %.3f, \"ci95Ns\": %.3f, "
+                                    + "\"minNs\": %.3f, \"maxNs\": %.3f, \"checksum\": %d}",
+                                    result.mName.replace("\\", "\\\\").replace("\"", "\\\""),
+                                    result.mMode,
+                                    result.mSamples.length,
+                                    result.getMean(),
+                                    result.getStdDev(),
+                                    result.getConfidenceInterval(),
+                                    result.getMin(),
+                                    result.getMax(),
+                                    result.mChecksum));
+        }
+        return sb.append("\n]\n").toString();
+    }
+
+    /**
+     * Entry point of a forked JVM, which benchmarks the GCDInterface
+     * implementation registered in the GCDTestTaskFactory under the
+     * name given in @a args[0] and prints the results on one line.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        GCDInterface gcdFunction = null;
+        for (SimpleImmutableEntry<String, GCDInterface> entry :
+                 new GCDTestTaskFactory().getFuncsAndNames())
+            if (entry.getKey().equals(args[0]))
+                gcdFunction = entry.getValue();
+        if (gcdFunction == null) {
+            System.out.println("unknown GCDInterface implementation " + args[0]);
+            System.exit(1);
+        }
+
+        Result result = new GCDBenchmark(1, 0, 2, 1)
+            .add(args[0], gcdFunction)
+            .runIsolated()
+            .get(0);
+
+        StringBuilder sb = new StringBuilder(sFORK_RESULT);
+        sb.append(' ').append(result.mChecksum);
+        for (double sample : result.mSamples)
+            sb.append(' ').append(sample);
+        System.out.println(sb);
+    }
+
+    /**
+     * The results of benchmarking one implementation.
+     */
+    public static class Result {
+        final String mName;
+        final Mode mMode;
+        final double[] mSamples;
+        final long mChecksum;
+
+        Result(String name,
+               Mode mode,
+               double[] samples,
+               long checksum) {
+            mName = name;
+            mMode = mode;
+            mSamples = samples;
+            mChecksum = checksum;
+        }
+
+        /**
+         * Returns the name of the implementation.
+         */
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * Returns the checksum of the implementation's results.
+         */
+        public long getChecksum() {
+            return mChecksum;
+        }
+
+        /**
+         * Returns the measured nanoseconds per GCD of each run.
+         */
+        public double[] getSamples() {
+            return Arrays.copyOf(mSamples, mSamples.length);
+        }
+
+        /**
+         * Returns the mean nanoseconds per GCD.
+         */
+        public double getMean() {
+            double sum = 0;
+            for (double sample : mSamples)
+                sum += sample;
+            return sum / mSamples.length;
+        }
+
+        /**
+         * Returns the sample standard deviation of the nanoseconds per
+         * GCD.
+         */
+        public double getStdDev() {
+            double mean = getMean();
+            double sum = 0;
+            for (double sample : mSamples)
+                sum += (sample - mean) * (sample - mean);
+            return Math.sqrt(sum / (mSamples.length - 1));
+        }
+
+        /**
+         * Returns the half-width of the 95% confidence interval of the
+         * mean, i.e., the true mean is within getMean() +/- this value
+         * with 95% confidence if the runs are independent.
+         */
+        public double getConfidenceInterval() {
+            return t95(mSamples.length - 1)
+                * getStdDev()
+                / Math.sqrt(mSamples.length);
+        }
+
+        /**
+         * Returns the fastest run's nanoseconds per GCD.
+         */
+        public double getMin() {
+            return Arrays.stream(mSamples).min().orElse(0);
+        }
+
+        /**
+         * Returns the slowest run's nanoseconds per GCD.
+         */
+        public double getMax() {
+            return Arrays.stream(mSamples).max().orElse(0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                                 "%-24s %-10s %10.2f ns/GCD +/- %6.2f (95%% CI, %d runs)",
+                                 mName,
+                                 mMode,
+                                 getMean(),
+                                 getConfidenceInterval(),
+                                 mSamples.length);
+        }
+    }
+}
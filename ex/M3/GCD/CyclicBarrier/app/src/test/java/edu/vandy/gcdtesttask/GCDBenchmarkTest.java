@@ -0,0 +1,135 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+
+/**
+ * Runs the GCDBenchmark headlessly for the GCDInterface
+ * implementations registered in the GCDTestTaskFactory in each of
+ * its modes and prints the results as CSV and JSON.
+ */
+public class GCDBenchmarkTest {
+    /**
+     * Number of implementations benchmarked in FORKED mode, each of
+     * which gets its own JVM, so the test doesn't fork one per
+     * registered implementation.
+     */
+    private static final int sFORKED_IMPLEMENTATIONS = 2;
+
+    /**
+     * Create a GCDBenchmark of @a entries with default settings that
+     * can be overridden via system properties.
+     */
+    private static GCDBenchmark makeBenchmark(List<SimpleImmutableEntry<String, GCDInterface>> entries) {
+        return new GCDBenchmark(200000, // iterations
+                                3,      // warmup runs
+                                5,      // measured runs
+                                1)      // forks
+            .addAll(entries);
+    }
+
+    /**
+     * Run the benchmark of @a entries in @a mode, print the results,
+     * and check that every implementation computed the same GCDs.
+     */
+    private static void runBenchmark(GCDBenchmark.Mode mode,
+                                     List<SimpleImmutableEntry<String, GCDInterface>> entries)
+        throws InterruptedException, IOException {
+        GCDBenchmark benchmark = makeBenchmark(entries);
+        System.out.println(mode + ": " + benchmark.getConfiguration());
+
+        List<GCDBenchmark.Result> results = benchmark.run(mode);
+        for (GCDBenchmark.Result result : results) {
+            System.out.println(result);
+
+            assertTrue(result.getMean() > 0);
+            assertTrue(result.getConfidenceInterval() >= 0);
+            assertEquals(result.getName(),
+                         results.get(0).getChecksum(),
+                         result.getChecksum());
+        }
+
+        System.out.print(GCDBenchmark.toCsv(results));
+        System.out.print(GCDBenchmark.toJson(results));
+    }
+
+    /**
+     * Run the benchmark of all the registered implementations in @a
+     * mode.
+     */
+    private static void runBenchmark(GCDBenchmark.Mode mode)
+        throws InterruptedException, IOException {
+        runBenchmark(mode,
+                     new GCDTestTaskFactory().getFuncsAndNames());
+    }
+
+    /**
+     * Benchmark the implementations one at a time.
+     */
+    @Test
+    public void testIsolated() throws InterruptedException, IOException {
+        runBenchmark(GCDBenchmark.Mode.ISOLATED);
+    }
+
+    /**
+     * Benchmark the implementations all at once, as the app does.
+     */
+    @Test
+    public void testConcurrent() throws InterruptedException, IOException {
+        runBenchmark(GCDBenchmark.Mode.CONCURRENT);
+    }
+
+    /**
+     * Benchmark a few of the implementations one at a time in fresh
+     * JVMs.
+     */
+    @Test
+    public void testForked() throws InterruptedException, IOException {
+        runBenchmark(GCDBenchmark.Mode.FORKED,
+                     new GCDTestTaskFactory().getFuncsAndNames()
+                     .subList(0, sFORKED_IMPLEMENTATIONS));
+    }
+
+    /**
+     * Make sure an implementation that throws fails the run rather
+     * than leaving the other implementations' threads at the barrier.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFailure() throws InterruptedException, IOException {
+        List<SimpleImmutableEntry<String, GCDInterface>> entries =
+            new ArrayList<>(new GCDTestTaskFactory().getFuncsAndNames()
+                            .subList(0, 1));
+        entries.add(new SimpleImmutableEntry<>("Broken",
+                                               (a, b) -> {
+                                                   throw new ArithmeticException("broken");
+                                               }));
+        makeBenchmark(entries).run(GCDBenchmark.Mode.CONCURRENT);
+    }
+
+    /**
+     * Make sure the confidence interval uses Student's t-distribution
+     * for small samples and the normal distribution for large ones.
+     */
+    @Test
+    public void testConfidenceInterval() {
+        GCDBenchmark.Result result =
+            new GCDBenchmark.Result("test",
+                                    GCDBenchmark.Mode.ISOLATED,
+                                    new double[] { 9, 10, 11 },
+                                    0);
+        assertEquals(10.0, result.getMean(), 1e-9);
+        assertEquals(1.0, result.getStdDev(), 1e-9);
+        assertEquals(4.303 / Math.sqrt(3), result.getConfidenceInterval(), 1e-9);
+        assertEquals(1.960, GCDBenchmark.t95(1000), 1e-9);
+    }
+}
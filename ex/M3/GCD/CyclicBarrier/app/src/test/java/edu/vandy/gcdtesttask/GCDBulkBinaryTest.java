@@ -0,0 +1,154 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDBulkBinary;
+import edu.vandy.gcdtesttask.presenter.GCDImplementations;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+
+/**
+ * This JUnit test checks the GCDBulkBinary kernels against
+ * BigInteger.gcd() and compares their run time with calling the
+ * scalar GCDImplementations once per pair.
+ */
+public class GCDBulkBinaryTest {
+    /**
+     * Number of random pairs to benchmark.
+     */
+    private static final int sITERATIONS = 2000000;
+
+    /**
+     * Number of timed runs per implementation, the first of which is
+     * discarded as a warmup.
+     */
+    private static final int sRUNS = 4;
+
+    /**
+     * Number of pairs computed per call to computeAll().
+     */
+    private static final int sBLOCK_SIZE = 1024;
+
+    /**
+     * Inputs that exercise zeros, powers of two, equal values, and
+     * the extremes of the non-negative range.
+     */
+    private static final int[] sEDGE_CASES = {
+        0, 1, 2, 3, 4, 6, 7, 64, 96, 1 << 30, (1 << 30) + 1,
+        Integer.MAX_VALUE - 1, Integer.MAX_VALUE
+    };
+
+    /**
+     * Make sure both kernels agree with BigInteger.gcd() on every
+     * combination of edge cases and on random inputs, including
+     * ranges that don't start at zero and have an odd length.
+     */
+    @Test
+    public void testBulkBinaryMatchesBigInteger() {
+        int n = sEDGE_CASES.length;
+        int[] a = new int[n * n];
+        int[] b = new int[n * n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                a[i * n + j] = sEDGE_CASES[i];
+                b[i * n + j] = sEDGE_CASES[j];
+            }
+        checkKernels(a, b, 0, a.length);
+        checkKernels(a, b, 1, a.length);
+
+        Random random = new Random(42);
+        int[] c = random.ints(100001, 0, Integer.MAX_VALUE).toArray();
+        int[] d = random.ints(100001, 0, Integer.MAX_VALUE).toArray();
+        checkKernels(c, d, 0, c.length);
+        checkKernels(c, d, 3, c.length - 5);
+    }
+
+    /**
+     * Run both kernels over [@a from, @a to), using both the parallel
+     * arrays and the same pairs interleaved in a single array, and
+     * compare each result with BigInteger.gcd().
+     */
+    private static void checkKernels(int[] a,
+                                     int[] b,
+                                     int from,
+                                     int to) {
+        int[] scalar = new int[to - from];
+        int[] interleaved = new int[to - from];
+        GCDBulkBinary.computeAllScalar(a, b, scalar, from, to);
+        GCDBulkBinary.computeAllInterleaved(a, b, interleaved, from, to);
+
+        int[] pairs = new int[2 * a.length];
+        for (int i = 0; i < a.length; i++) {
+            pairs[2 * i] = a[i];
+            pairs[2 * i + 1] = b[i];
+        }
+        int[] pairsScalar = new int[to - from];
+        int[] pairsInterleaved = new int[to - from];
+        GCDBulkBinary.computeAllPairsScalar(pairs, pairsScalar, from, to);
+        GCDBulkBinary.computeAllPairsInterleaved(pairs, pairsInterleaved, from, to);
+
+        for (int i = from; i < to; i++) {
+            int expected =
+                GCDImplementations.computeGCDBigInteger(a[i], b[i]);
+            String pair = "gcd(" + a[i] + ", " + b[i] + ")";
+            assertEquals(pair, expected, scalar[i - from]);
+            assertEquals(pair, expected, interleaved[i - from]);
+            assertEquals(pair, expected, pairsScalar[i - from]);
+            assertEquals(pair, expected, pairsInterleaved[i - from]);
+        }
+    }
+
+    /**
+     * Time each implementation over the same random inputs and print
+     * the best run, which is the least disturbed by other activity.
+     */
+    @Test
+    public void testBulkBinaryBenchmark() {
+        Random random = new Random();
+        int[] a = random.ints(sITERATIONS, 0, Integer.MAX_VALUE).toArray();
+        int[] b = random.ints(sITERATIONS, 0, Integer.MAX_VALUE).toArray();
+
+        List<SimpleImmutableEntry<String, GCDInterface>> gcdFunctions =
+            Arrays.asList(new SimpleImmutableEntry<>("IterativeEuclid",
+                                                     GCDImplementations::computeGCDIterativeEuclid),
+                          new SimpleImmutableEntry<>("Binary",
+                                                     GCDImplementations::computeGCDBinary),
+                          new SimpleImmutableEntry<>("BinaryCtz",
+                                                     GCDImplementations::computeGCDBinaryCtz),
+                          new SimpleImmutableEntry<>("BulkBinary",
+                                                     new GCDBulkBinary(false)),
+                          new SimpleImmutableEntry<>("BulkBinaryInterleaved",
+                                                     new GCDBulkBinary(true)));
+
+        int[] results = new int[sBLOCK_SIZE];
+
+        for (SimpleImmutableEntry<String, GCDInterface> entry : gcdFunctions) {
+            GCDInterface gcdFunction = entry.getValue();
+            long best = Long.MAX_VALUE;
+            long checksum = 0;
+
+            for (int run = 0; run < sRUNS; run++) {
+                long startTime = System.nanoTime();
+                for (int from = 0; from < sITERATIONS; from += sBLOCK_SIZE) {
+                    int to = Math.min(from + sBLOCK_SIZE, sITERATIONS);
+                    gcdFunction.computeAll(a, b, results, from, to);
+                    checksum += results[0];
+                }
+                long elapsed = System.nanoTime() - startTime;
+                if (run > 0)
+                    best = Math.min(best, elapsed);
+            }
+
+            System.out.println(String.format("%-24s %8.2f ns/pair (checksum %d)",
+                                             entry.getKey(),
+                                             (double) best / sITERATIONS,
+                                             checksum));
+        }
+    }
+}
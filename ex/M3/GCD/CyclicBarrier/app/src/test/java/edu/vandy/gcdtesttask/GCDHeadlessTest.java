@@ -0,0 +1,173 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDLongHeadlessTestFactory;
+import edu.vandy.gcdtesttask.presenter.GCDReductionHeadlessTestFactory;
+import edu.vandy.gcdtesttask.presenter.GCDReductionInterface;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+import edu.vandy.gcdtesttask.presenter.LongGCDInterface;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.utils.ContentionReport;
+import edu.vandy.visfwk.utils.HeadlessRunner;
+import edu.vandy.visfwk.utils.HeadlessRunner.Coordination;
+import edu.vandy.visfwk.utils.ResultsHistory;
+
+/**
+ * This JUnit test benchmarks the GCDTestTaskFactory's tests via
+ * HeadlessRunner, the way CI does, and checks that every test is
+ * timed in every cycle, both when the tests run at the same time and
+ * when they run one at a time.
+ */
+public class GCDHeadlessTest {
+    /**
+     * Number of GCDs each implementation computes per cycle.
+     */
+    private static final int sITERATIONS = 100000;
+
+    /**
+     * Number of cycles to run.
+     */
+    private static final int sCYCLES = 2;
+
+    /**
+     * Make sure every test is timed in every cycle with both kinds of
+     * coordination.
+     */
+    @Test
+    public void testRunner() throws Exception {
+        for (Coordination coordination : Coordination.values()) {
+            HeadlessRunner<GCDInterface> runner =
+                new HeadlessRunner<>(new GCDTestTaskFactory(),
+                                     sITERATIONS,
+                                     sCYCLES,
+                                     coordination);
+            List<HeadlessRunner.Result> results = runner.run();
+
+            assertEquals(sCYCLES * runner.getTaskTuples().size(),
+                         results.size());
+            for (HeadlessRunner.Result result : results)
+                assertTrue(result.getProfile().getWallNanos() > 0);
+
+            System.out.println(coordination
+                               + "\n"
+                               + HeadlessRunner.toCsv(results));
+        }
+    }
+
+    /**
+     * Make sure the long GCD implementations, including Lehmer's, can
+     * be benchmarked on wide operands.
+     */
+    @Test
+    public void testLongRunner() throws Exception {
+        HeadlessRunner<LongGCDInterface> runner =
+            new HeadlessRunner<>(new GCDLongHeadlessTestFactory(),
+                                 sITERATIONS,
+                                 sCYCLES,
+                                 Coordination.BARRIER);
+        List<HeadlessRunner.Result> results = runner.run();
+
+        assertEquals(sCYCLES * runner.getTaskTuples().size(),
+                     results.size());
+        assertTrue(HeadlessRunner.toCsv(results).contains("LehmerBigInteger"));
+        for (HeadlessRunner.Result result : results)
+            assertTrue(result.getProfile().getWallNanos() > 0);
+
+        System.out.println(HeadlessRunner.toCsv(results));
+    }
+
+    /**
+     * Make sure the sequential and parallel reductions can be
+     * benchmarked and all return the GCD of the array.
+     */
+    @Test
+    public void testReductionRunner() throws Exception {
+        HeadlessRunner<GCDReductionInterface> runner =
+            new HeadlessRunner<>(new GCDReductionHeadlessTestFactory(),
+                                 sITERATIONS,
+                                 sCYCLES,
+                                 Coordination.BARRIER);
+        List<HeadlessRunner.Result> results = runner.run();
+
+        assertEquals(sCYCLES * runner.getTaskTuples().size(),
+                     results.size());
+        for (TaskTuple<GCDReductionInterface> taskTuple : runner.getTaskTuples())
+            assertEquals(Long.valueOf(6), taskTuple.getChecksum());
+        for (HeadlessRunner.Result result : results)
+            assertTrue(result.getProfile().getWallNanos() > 0);
+
+        System.out.println(HeadlessRunner.toCsv(results));
+    }
+
+    /**
+     * Make sure the CI entry point writes the results as JSON and
+     * appends them to the history.
+     */
+    @Test
+    public void testMain() throws Exception {
+        File output = File.createTempFile("headless", ".json");
+        File history = File.createTempFile("headless", ".history");
+        try {
+            System.setProperty("headless.iterations", String.valueOf(sITERATIONS));
+            System.setProperty("headless.format", "json");
+            System.setProperty("headless.output", output.getPath());
+            System.setProperty("headless.history", history.getPath());
+            System.setProperty("headless.failOnRegression", "false");
+
+            HeadlessRunner.main(new String[] {GCDTestTaskFactory.class.getName()});
+
+            String json = new String(Files.readAllBytes(output.toPath()),
+                                     StandardCharsets.UTF_8);
+            assertTrue(json.startsWith("["));
+            assertTrue(json.contains("\"name\": \"BinaryCtz\""));
+
+            // One record per test of the single cycle.
+            assertEquals(new GCDTestTaskFactory().getTasksToTest().size(),
+                         new ResultsHistory(history).readAll().size());
+        } finally {
+            System.clearProperty("headless.iterations");
+            System.clearProperty("headless.format");
+            System.clearProperty("headless.output");
+            System.clearProperty("headless.history");
+            System.clearProperty("headless.failOnRegression");
+            output.delete();
+            history.delete();
+        }
+    }
+
+    /**
+     * Make sure the tests can be timed one at a time and all at once
+     * and compared to find their slowdown under contention.
+     */
+    @Test
+    public void testContention() throws Exception {
+        HeadlessRunner<GCDInterface> runner =
+            new HeadlessRunner<>(new GCDTestTaskFactory(),
+                                 sITERATIONS,
+                                 sCYCLES,
+                                 Coordination.BARRIER);
+        runner.setConcurrency(1);
+        List<HeadlessRunner.Result> isolated = runner.run();
+        runner.setConcurrency(HeadlessRunner.sALL_CONCURRENT);
+        List<HeadlessRunner.Result> contended = runner.run();
+
+        List<ContentionReport.Entry> entries =
+            new ContentionReport().compare(runner.toRunRecords(isolated),
+                                           runner.toRunRecords(contended));
+        assertEquals(runner.getTaskTuples().size(), entries.size());
+        for (ContentionReport.Entry entry : entries)
+            assertTrue(entry.getWallSlowdown() > 0);
+
+        System.out.print(ContentionReport.format(entries));
+    }
+}
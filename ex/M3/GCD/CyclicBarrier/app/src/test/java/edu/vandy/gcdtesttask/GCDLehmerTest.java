@@ -0,0 +1,213 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDImplementations;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+import edu.vandy.gcdtesttask.presenter.LongGCDInterface;
+
+/**
+ * This JUnit test checks the long and multi-precision GCD
+ * implementations against BigInteger.gcd() and compares their run
+ * times on wide operands.
+ */
+public class GCDLehmerTest {
+    /**
+     * Number of random long pairs to check and benchmark.
+     */
+    private static final int sITERATIONS = 200000;
+
+    /**
+     * Number of timed runs per implementation, the first of which is
+     * discarded as a warmup.
+     */
+    private static final int sRUNS = 4;
+
+    /**
+     * Sizes (in bits) of the multi-precision operands.
+     */
+    private static final int[] sBIT_LENGTHS = { 128, 512, 2048, 8192 };
+
+    /**
+     * Inputs that exercise zeros, powers of two, and the extremes of
+     * the long range.
+     */
+    private static final long[] sEDGE_CASES = {
+        0, 1, 2, 3, 6, 1L << 31, (1L << 31) + 1, 1L << 62,
+        Long.MAX_VALUE - 1, Long.MAX_VALUE, Long.MIN_VALUE,
+        Integer.MAX_VALUE, 1836311903L * 2971215073L
+    };
+
+    /**
+     * Returns the pair of consecutive Fibonacci numbers closest to
+     * Long.MAX_VALUE, which is the worst case for Euclid's algorithm.
+     */
+    private static long[] fibonacciPair() {
+        long a = 1, b = 1;
+        while (b <= Long.MAX_VALUE - a) {
+            long t = a + b;
+            a = b;
+            b = t;
+        }
+        return new long[] { b, a };
+    }
+
+    /**
+     * Make sure all the long implementations match BigInteger.gcd().
+     */
+    @Test
+    public void testLongImplementations() {
+        Random random = new Random(42);
+        long[] fibonacci = fibonacciPair();
+
+        for (SimpleImmutableEntry<String, LongGCDInterface> entry :
+                 new GCDTestTaskFactory().getLongFuncsAndNames()) {
+            LongGCDInterface gcdFunction = entry.getValue();
+
+            for (long a : sEDGE_CASES)
+                for (long b : sEDGE_CASES) {
+                    checkLong(entry.getKey(), gcdFunction, a, b);
+                    checkLong(entry.getKey(), gcdFunction, -a, b);
+                }
+            checkLong(entry.getKey(), gcdFunction, fibonacci[0], fibonacci[1]);
+
+            for (int i = 0; i < sITERATIONS; i++) {
+                // Multiply by a common factor so the GCDs aren't
+                // almost always 1.
+                long factor = 1 + random.nextInt(1 << 20);
+                long a = (random.nextLong() >>> 1) / factor * factor;
+                long b = (random.nextLong() >>> random.nextInt(40)) / factor * factor;
+                checkLong(entry.getKey(), gcdFunction, a, b);
+            }
+        }
+    }
+
+    /**
+     * Check @a gcdFunction against BigInteger.gcd() for @a a and @a b.
+     */
+    private static void checkLong(String name,
+                                  LongGCDInterface gcdFunction,
+                                  long a,
+                                  long b) {
+        assertEquals(name + "(" + a + ", " + b + ")",
+                     BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).longValue(),
+                     gcdFunction.compute(a, b));
+    }
+
+    /**
+     * Make sure the multi-precision implementation matches
+     * BigInteger.gcd() on operands with a large common factor.
+     */
+    @Test
+    public void testMultiPrecision() {
+        Random random = new Random(42);
+
+        for (int bits : sBIT_LENGTHS)
+            for (int i = 0; i < 100; i++) {
+                BigInteger factor = new BigInteger(bits / 4, random);
+                BigInteger a = new BigInteger(bits, random).multiply(factor);
+                BigInteger b = new BigInteger(bits - random.nextInt(bits / 2),
+                                              random).multiply(factor);
+                if (random.nextBoolean())
+                    a = a.negate();
+
+                assertEquals(a.gcd(b), GCDImplementations.computeGCDLehmer(a, b));
+                assertEquals(a.gcd(b), GCDImplementations.computeGCDLehmer(b, a));
+            }
+
+        assertEquals(BigInteger.ZERO,
+                     GCDImplementations.computeGCDLehmer(BigInteger.ZERO,
+                                                         BigInteger.ZERO));
+        BigInteger big = BigInteger.ONE.shiftLeft(1000).add(BigInteger.ONE);
+        assertEquals(big,
+                     GCDImplementations.computeGCDLehmer(big, BigInteger.ZERO));
+    }
+
+    /**
+     * Time the long implementations on random 63-bit operands and on
+     * Fibonacci worst-case operands, and time Lehmer against
+     * BigInteger.gcd() on multi-precision operands.
+     */
+    @Test
+    public void testWideOperandBenchmark() {
+        Random random = new Random();
+        long[] a = new long[sITERATIONS];
+        long[] b = new long[sITERATIONS];
+        for (int i = 0; i < sITERATIONS; i++) {
+            a[i] = random.nextLong() >>> 1;
+            b[i] = random.nextLong() >>> 1;
+        }
+        long[] fibonacci = fibonacciPair();
+
+        for (SimpleImmutableEntry<String, LongGCDInterface> entry :
+                 new GCDTestTaskFactory().getLongFuncsAndNames()) {
+            LongGCDInterface gcdFunction = entry.getValue();
+            long randomBest = Long.MAX_VALUE;
+            long fibonacciBest = Long.MAX_VALUE;
+            long checksum = 0;
+
+            for (int run = 0; run < sRUNS; run++) {
+                long startTime = System.nanoTime();
+                for (int i = 0; i < sITERATIONS; i++)
+                    checksum += gcdFunction.compute(a[i], b[i]);
+                long randomTime = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int i = 0; i < sITERATIONS; i++)
+                    checksum += gcdFunction.compute(fibonacci[0],
+                                                    fibonacci[1] + (i & 1));
+                long fibonacciTime = System.nanoTime() - startTime;
+
+                if (run > 0) {
+                    randomBest = Math.min(randomBest, randomTime);
+                    fibonacciBest = Math.min(fibonacciBest, fibonacciTime);
+                }
+            }
+
+            System.out.println(String.format("%-20s random %8.1f ns/pair  fibonacci %8.1f ns/pair (checksum %d)",
+                                             entry.getKey(),
+                                             (double) randomBest / sITERATIONS,
+                                             (double) fibonacciBest / sITERATIONS,
+                                             checksum));
+        }
+
+        for (int bits : sBIT_LENGTHS) {
+            BigInteger[] x = new BigInteger[100];
+            BigInteger[] y = new BigInteger[100];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = new BigInteger(bits, random);
+                y[i] = new BigInteger(bits, random);
+            }
+
+            long lehmerBest = Long.MAX_VALUE;
+            long bigIntegerBest = Long.MAX_VALUE;
+            for (int run = 0; run < sRUNS; run++) {
+                long startTime = System.nanoTime();
+                for (int i = 0; i < x.length; i++)
+                    GCDImplementations.computeGCDLehmer(x[i], y[i]);
+                long lehmerTime = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int i = 0; i < x.length; i++)
+                    x[i].gcd(y[i]);
+                long bigIntegerTime = System.nanoTime() - startTime;
+
+                if (run > 0) {
+                    lehmerBest = Math.min(lehmerBest, lehmerTime);
+                    bigIntegerBest = Math.min(bigIntegerBest, bigIntegerTime);
+                }
+            }
+
+            System.out.println(String.format("%5d bits: Lehmer %10.1f us/pair  BigInteger.gcd %10.1f us/pair",
+                                             bits,
+                                             lehmerBest / 1000.0 / x.length,
+                                             bigIntegerBest / 1000.0 / x.length));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDCyclicBarrierWorker;
+import edu.vandy.gcdtesttask.presenter.GCDInterface;
+import edu.vandy.gcdtesttask.presenter.GCDPhaserWorker;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.utils.CancellationToken;
+import edu.vandy.visfwk.utils.ProgressReporter;
+
+/**
+ * This JUnit test runs many short cycles with the GCDPhaserWorker,
+ * adding and removing workers while the cycles run, cancels them
+ * mid-cycle, and compares the cost of a cycle with that of
+ * resubmitting a GCDCyclicBarrierWorker per GCD implementation each
+ * cycle.
+ */
+public class GCDPhaserTest {
+    /**
+     * Number of GCDs each worker computes per cycle, which is small
+     * so the coordination dominates.
+     */
+    private static final int sITERATIONS = 1000;
+
+    /**
+     * Number of cycles to run.
+     */
+    private static final int sCYCLES = 500;
+
+    /**
+     * Number of GCDs each worker computes in the cycle that's
+     * cancelled, which takes far longer than the test waits.
+     */
+    private static final int sCANCELLED_ITERATIONS = 20000000;
+
+    /**
+     * A ProgressReporter that discards the reports.
+     */
+    private static final ProgressReporter sNO_PROGRESS =
+        new ProgressReporter() {
+            @Override
+            public void updateProgress(Runnable runnable) {
+            }
+        };
+
+    /**
+     * Make sure workers added or removed while the cycles run take
+     * part in exactly the cycles they should.
+     */
+    @Test
+    public void testDynamicRegistration() throws InterruptedException {
+        List<TaskTuple<GCDInterface>> gcdTuples =
+            new GCDTestTaskFactory().getTasksToTest();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Phaser phaser = new Phaser(1);
+
+        List<GCDPhaserWorker> workers = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            workers.add(new GCDPhaserWorker(phaser,
+                                            gcdTuples.get(i),
+                                            sNO_PROGRESS,
+                                            null));
+        workers.forEach(executor::execute);
+
+        GCDPhaserWorker addedBetweenCycles = null;
+        GCDPhaserWorker addedDuringCycle = null;
+        int cycles = 200;
+
+        for (int cycle = 1; cycle <= cycles; cycle++) {
+            GCDCyclicBarrierWorker.initializeInputs(sITERATIONS);
+
+            // Add a worker before cycle 51 starts.
+            if (cycle == 51) {
+                addedBetweenCycles = new GCDPhaserWorker(phaser,
+                                                         gcdTuples.get(3),
+                                                         sNO_PROGRESS,
+                                                         null);
+                executor.execute(addedBetweenCycles);
+            }
+
+            phaser.arriveAndAwaitAdvance();
+
+            // Add a worker while cycle 151 is running, which should
+            // start with cycle 152.
+            if (cycle == 151) {
+                addedDuringCycle = new GCDPhaserWorker(phaser,
+                                                       gcdTuples.get(4),
+                                                       sNO_PROGRESS,
+                                                       null);
+                executor.execute(addedDuringCycle);
+            }
+
+            phaser.arriveAndAwaitAdvance();
+
+            // Remove a worker after cycle 100.
+            if (cycle == 100)
+                workers.get(0).stop();
+        }
+
+        phaser.forceTermination();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, workers.get(0).getCompletedCycles());
+        assertEquals(cycles, workers.get(1).getCompletedCycles());
+        assertEquals(cycles, workers.get(2).getCompletedCycles());
+        assertEquals(cycles - 50, addedBetweenCycles.getCompletedCycles());
+        assertEquals(cycles - 151, addedDuringCycle.getCompletedCycles());
+    }
+
+    /**
+     * Make sure cancelled workers stop computing, deregister so the
+     * coordinator isn't left waiting for them, and return their
+     * threads.
+     */
+    @Test
+    public void testCancellation() throws InterruptedException {
+        List<TaskTuple<GCDInterface>> gcdTuples =
+            new GCDTestTaskFactory().getTasksToTest();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Phaser phaser = new Phaser(1);
+        CancellationToken cancellation = new CancellationToken();
+
+        List<GCDPhaserWorker> workers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            GCDPhaserWorker worker = new GCDPhaserWorker(phaser,
+                                                         gcdTuples.get(i),
+                                                         sNO_PROGRESS,
+                                                         null);
+            worker.setCancellation(cancellation);
+            workers.add(worker);
+        }
+        workers.forEach(executor::execute);
+
+        // Start a cycle that runs far longer than the test waits.
+        GCDCyclicBarrierWorker.initializeInputs(sCANCELLED_ITERATIONS);
+        phaser.arriveAndAwaitAdvance();
+        Thread.sleep(10);
+        cancellation.cancel();
+
+        // The workers deregister rather than arriving, so the exit
+        // phase ends without them.
+        phaser.arriveAndAwaitAdvance();
+        assertEquals(1, phaser.getRegisteredParties());
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (GCDPhaserWorker worker : workers)
+            assertEquals(0, worker.getCompletedCycles());
+    }
+
+    /**
+     * Compare the time per cycle of the Phaser engine with that of
+     * resubmitting the workers and recreating the latches each cycle.
+     */
+    @Test
+    public void testCycleOverhead()
+        throws BrokenBarrierException, InterruptedException {
+        List<TaskTuple<GCDInterface>> gcdTuples =
+            new GCDTestTaskFactory().getTasksToTest();
+        GCDCyclicBarrierWorker.initializeInputs(sITERATIONS);
+
+        // Run each engine twice and keep the second run, so both are
+        // compiled by the JIT.
+        long phaser = 0, resubmit = 0;
+        for (int run = 0; run < 2; run++) {
+            phaser = runPhaser(gcdTuples);
+            resubmit = runResubmit(gcdTuples);
+        }
+
+        System.out.println(String.format("%-24s %10.1f usecs/cycle",
+                                         "Phaser",
+                                         phaser / 1e3 / sCYCLES));
+        System.out.println(String.format("%-24s %10.1f usecs/cycle",
+                                         "resubmit + CyclicBarrier",
+                                         resubmit / 1e3 / sCYCLES));
+    }
+
+    /**
+     * Run sCYCLES cycles with long-lived GCDPhaserWorkers and return
+     * the elapsed nanoseconds.
+     */
+    private static long runPhaser(List<TaskTuple<GCDInterface>> gcdTuples)
+        throws InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Phaser phaser = new Phaser(1);
+        for (TaskTuple<GCDInterface> gcdTuple : gcdTuples)
+            executor.execute(new GCDPhaserWorker(phaser,
+                                                 gcdTuple,
+                                                 sNO_PROGRESS,
+                                                 null));
+
+        long startTime = System.nanoTime();
+        for (int cycle = 0; cycle < sCYCLES; cycle++) {
+            phaser.arriveAndAwaitAdvance();
+            phaser.arriveAndAwaitAdvance();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        phaser.forceTermination();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return elapsed;
+    }
+
+    /**
+     * Run sCYCLES cycles the way GCDCyclicBarrierTestTask does and
+     * return the elapsed nanoseconds.
+     */
+    private static long runResubmit(List<TaskTuple<GCDInterface>> gcdTuples)
+        throws BrokenBarrierException, InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CyclicBarrier entryBarrier = new CyclicBarrier(gcdTuples.size() + 1);
+        CyclicBarrier exitBarrier = new CyclicBarrier(gcdTuples.size() + 1);
+
+        long startTime = System.nanoTime();
+        for (int cycle = 0; cycle < sCYCLES; cycle++) {
+            for (TaskTuple<GCDInterface> gcdTuple : gcdTuples)
+                executor.execute(new GCDCyclicBarrierWorker(entryBarrier,
+                                                            exitBarrier,
+                                                            gcdTuple,
+                                                            sNO_PROGRESS));
+            entryBarrier.await();
+            exitBarrier.await();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return elapsed;
+    }
+}
@@ -0,0 +1,132 @@
+package edu.vandy.gcdtesttask;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.vandy.gcdtesttask.presenter.GCDImplementations;
+import edu.vandy.gcdtesttask.presenter.GCDReductionInterface;
+import edu.vandy.gcdtesttask.presenter.GCDTestTaskFactory;
+
+/**
+ * This JUnit test checks the array reductions against a fold with
+ * BigInteger.gcd() and compares the run times of the sequential and
+ * parallel reductions.
+ */
+public class GCDReductionTest {
+    /**
+     * Number of elements in the benchmarked arrays, which is large
+     * enough to be split across many fork-join tasks.
+     */
+    private static final int sELEMENTS = 4 * 1024 * 1024;
+
+    /**
+     * Number of timed runs per implementation, the first of which is
+     * discarded as a warmup.
+     */
+    private static final int sRUNS = 4;
+
+    /**
+     * Returns @a length random non-negative values that are all
+     * multiples of @a factor, so the reduction doesn't stop early.
+     */
+    private static int[] multiplesOf(int factor,
+                                     int length,
+                                     Random random) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++)
+            values[i] = random.nextInt(Integer.MAX_VALUE / factor) * factor;
+        return values;
+    }
+
+    /**
+     * Returns the GCD of @a values computed with BigInteger.gcd().
+     */
+    private static int expectedGcd(int[] values) {
+        BigInteger result = BigInteger.ZERO;
+        for (int value : values)
+            result = result.gcd(BigInteger.valueOf(value));
+        return result.intValue();
+    }
+
+    /**
+     * Make sure all the registered reductions and gcdOf() match
+     * BigInteger.gcd() on small, large, and early-exit inputs.
+     */
+    @Test
+    public void testReductions() {
+        Random random = new Random(42);
+        int[][] inputs = {
+            {},
+            {0},
+            {0, 0, 12},
+            {-12, 18, 30},
+            {Integer.MAX_VALUE},
+            multiplesOf(7 * 64, 1000, random),
+            multiplesOf(3 * 5 * 11, 300000, random),
+            // Coprime values, which stop each leaf early.
+            random.ints(300000, 0, Integer.MAX_VALUE).toArray()
+        };
+
+        for (int[] values : inputs) {
+            int expected = expectedGcd(values);
+            assertEquals(expected, GCDImplementations.gcdOf(values));
+
+            for (SimpleImmutableEntry<String, GCDReductionInterface> entry :
+                     new GCDTestTaskFactory().getReductionFuncsAndNames())
+                // Euclid's algorithm only handles non-negative inputs.
+                if (!entry.getKey().contains("Euclid") || values != inputs[3])
+                    assertEquals(entry.getKey(),
+                                 expected,
+                                 entry.getValue().compute(values));
+        }
+
+        // Check the long overloads, including a value wider than an
+        // int.
+        long factor = 3L << 33;
+        long[] longValues = new long[200000];
+        for (int i = 0; i < longValues.length; i++)
+            longValues[i] = (1 + random.nextInt(1 << 20)) * factor;
+        longValues[0] = factor * 5;
+        longValues[1] = factor * 7;
+        assertEquals(factor, GCDImplementations.gcdOf(longValues));
+        assertEquals(factor,
+                     GCDImplementations.gcdOf(longValues,
+                                              GCDImplementations::computeGCDIterativeEuclidLong));
+        assertEquals(0L, GCDImplementations.gcdOf(new long[0]));
+    }
+
+    /**
+     * Time each registered reduction on a large array whose elements
+     * share a common factor, so every element has to be visited.
+     */
+    @Test
+    public void testReductionBenchmark() {
+        int[] values = multiplesOf(6, sELEMENTS, new Random());
+        int expected = expectedGcd(values);
+
+        for (SimpleImmutableEntry<String, GCDReductionInterface> entry :
+                 new GCDTestTaskFactory().getReductionFuncsAndNames()) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < sRUNS; run++) {
+                long startTime = System.nanoTime();
+                int result = entry.getValue().compute(values);
+                long elapsed = System.nanoTime() - startTime;
+                assertEquals(entry.getKey(), expected, result);
+
+                if (run > 0)
+                    best = Math.min(best, elapsed);
+            }
+
+            System.out.println(String.format("%-20s %8.2f msecs (%.1f ns/element, %d cores)",
+                                             entry.getKey(),
+                                             best / 1e6,
+                                             (double) best / sELEMENTS,
+                                             Runtime.getRuntime().availableProcessors()));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package edu.vandy.visfwk.model;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable profile of one run of a task, which records the
+ * thread resources it consumed in addition to its wall-clock time.
+ * A counter the platform can't provide is reported as sUNAVAILABLE.
+ */
+public class TaskProfile {
+    /**
+     * Value of a counter that isn't available on this platform.
+     */
+    public static final long sUNAVAILABLE = -1;
+
+    /**
+     * Wall-clock time (in nanoseconds) of the run.
+     */
+    private final long mWallNanos;
+
+    /**
+     * CPU time (in nanoseconds) used by the threads of the run.
+     */
+    private final long mCpuNanos;
+
+    /**
+     * User-mode CPU time (in nanoseconds) used by the threads of the
+     * run.
+     */
+    private final long mUserNanos;
+
+    /**
+     * Number of bytes allocated by the threads of the run.
+     */
+    private final long mAllocatedBytes;
+
+    /**
+     * Number of (voluntary and involuntary) context switches of the
+     * threads of the run.
+     */
+    private final long mContextSwitches;
+
+    /**
+     * Constructor initializes the fields.
+     */
+    public TaskProfile(long wallNanos,
+                       long cpuNanos,
+                       long userNanos,
+                       long allocatedBytes,
+                       long contextSwitches) {
+        mWallNanos = wallNanos;
+        mCpuNanos = cpuNanos;
+        mUserNanos = userNanos;
+        mAllocatedBytes = allocatedBytes;
+        mContextSwitches = contextSwitches;
+    }
+
+    /**
+     * Returns the wall-clock time (in nanoseconds) of the run.
+     */
+    public long getWallNanos() {
+        return mWallNanos;
+    }
+
+    /**
+     * Returns the CPU time (in nanoseconds) of the run, or
+     * sUNAVAILABLE.
+     */
+    public long getCpuNanos() {
+        return mCpuNanos;
+    }
+
+    /**
+     * Returns the user-mode CPU time (in nanoseconds) of the run, or
+     * sUNAVAILABLE.
+     */
+    public long getUserNanos() {
+        return mUserNanos;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the run, or
+     * sUNAVAILABLE.
+     */
+    public long getAllocatedBytes() {
+        return mAllocatedBytes;
+    }
+
+    /**
+     * Returns the number of context switches of the run, or
+     * sUNAVAILABLE.
+     */
+    public long getContextSwitches() {
+        return mContextSwitches;
+    }
+
+    /**
+     * Returns a profile that adds the thread resources of @a other,
+     * e.g., those used by helper threads, to this profile while
+     * keeping this profile's wall-clock time.
+     */
+    public TaskProfile plus(TaskProfile other) {
+        return new TaskProfile(mWallNanos,
+                               add(mCpuNanos, other.mCpuNanos),
+                               add(mUserNanos, other.mUserNanos),
+                               add(mAllocatedBytes, other.mAllocatedBytes),
+                               add(mContextSwitches, other.mContextSwitches));
+    }
+
+    /**
+     * Returns the sum of two counters, which is only available if
+     * both are.
+     */
+    private static long add(long a,
+                            long b) {
+        return a == sUNAVAILABLE || b == sUNAVAILABLE
+            ? sUNAVAILABLE
+            : a + b;
+    }
+
+    /**
+     * Returns the header line of the CSV written by toCsv().
+     */
+    public static String getCsvHeader() {
+        return "name,wall_ns,cpu_ns,user_ns,allocated_bytes,context_switches";
+    }
+
+    /**
+     * Returns this profile as a CSV line for the task named @a name.
+     */
+    public String toCsv(String name) {
+        return String.format(Locale.US,
+                             "%s,%d,%d,%d,%d,%d",
+                             name,
+                             mWallNanos,
+                             mCpuNanos,
+                             mUserNanos,
+                             mAllocatedBytes,
+                             mContextSwitches);
+    }
+
+    /**
+     * Returns the profiles of the most recent runs of @a taskTuples
+     * as CSV, skipping the tasks that haven't completed a run, so
+     * they can be saved and compared across builds.
+     */
+    public static String toCsv(List<? extends TaskTuple<?>> taskTuples) {
+        StringBuilder sb = new StringBuilder(getCsvHeader()).append('\n');
+        for (TaskTuple<?> taskTuple : taskTuples) {
+            TaskProfile profile = taskTuple.getProfile();
+            if (profile != null)
+                sb.append(profile.toCsv(taskTuple.getTestName()))
+                  .append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                             "wall %.3f ms, cpu %.3f ms, user %.3f ms, %d bytes allocated, %d context switches",
+                             mWallNanos / 1e6,
+                             mCpuNanos / 1e6,
+                             mUserNanos / 1e6,
+                             mAllocatedBytes,
+                             mContextSwitches);
+    }
+}
@@ -0,0 +1,68 @@
+package edu.vandy.visfwk.model;
+
+import java.util.SplittableRandom;
+
+import edu.vandy.visfwk.model.interfaces.InputDistribution;
+
+/**
+ * An InputDistribution whose tuples consist of independent ints drawn
+ * uniformly from a range.
+ */
+public class UniformDistribution
+       implements InputDistribution {
+    /**
+     * Number of ints in each tuple.
+     */
+    private final int mArity;
+
+    /**
+     * The smallest value (inclusive).
+     */
+    private final int mOrigin;
+
+    /**
+     * The largest value (exclusive).
+     */
+    private final int mBound;
+
+    /**
+     * Constructor draws tuples of @a arity ints between 0 and
+     * MAX_VALUE.
+     */
+    public UniformDistribution(int arity) {
+        this(arity,
+             0,
+             Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor draws tuples of @a arity ints between @a origin
+     * (inclusive) and @a bound (exclusive).
+     */
+    public UniformDistribution(int arity,
+                               int origin,
+                               int bound) {
+        if (arity <= 0 || origin >= bound)
+            throw new IllegalArgumentException();
+        mArity = arity;
+        mOrigin = origin;
+        mBound = bound;
+    }
+
+    @Override
+    public int getArity() {
+        return mArity;
+    }
+
+    @Override
+    public void next(SplittableRandom random,
+                     int[] tuple) {
+        for (int j = 0; j < mArity; j++)
+            tuple[j] = random.nextInt(mOrigin, mBound);
+    }
+
+    @Override
+    public String toString() {
+        return "Uniform(" + mOrigin + ".." + mBound + ")";
+    }
+}
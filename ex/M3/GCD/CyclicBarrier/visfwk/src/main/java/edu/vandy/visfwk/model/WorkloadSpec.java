@@ -0,0 +1,191 @@
+package edu.vandy.visfwk.model;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import edu.vandy.visfwk.model.interfaces.InputDistribution;
+
+/**
+ * Specifies the inputs of a benchmark: the InputDistribution the
+ * tuples are drawn from, how they're laid out in memory, and
+ * optionally the seed that makes them reproducible.  The number of
+ * tuples is given when they're generated, since it's usually picked
+ * at run time.
+ */
+public class WorkloadSpec {
+    /**
+     * How the tuples are laid out in the generated array.
+     */
+    public enum Layout {
+        /**
+         * The ints of each tuple are adjacent, i.e., an array of
+         * tuples: a0 b0 a1 b1 ...
+         */
+        INTERLEAVED,
+
+        /**
+         * The ints at each position of the tuples are adjacent, i.e.,
+         * a tuple of arrays: a0 a1 ... b0 b1 ...
+         */
+        SPLIT
+    }
+
+    /**
+     * Number of tuples generated by each parallel chunk.
+     */
+    private static final int sCHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The distribution the tuples are drawn from.
+     */
+    private final InputDistribution mDistribution;
+
+    /**
+     * How the tuples are laid out.
+     */
+    private final Layout mLayout;
+
+    /**
+     * The seed of the tuples, which is only used if mSeeded is true.
+     */
+    private final long mSeed;
+
+    /**
+     * True if the tuples are generated from mSeed, so every call to
+     * generate() returns the same tuples, and false if each call uses
+     * a new seed.
+     */
+    private final boolean mSeeded;
+
+    /**
+     * Constructor generates interleaved tuples from @a distribution
+     * with a new seed each time.
+     */
+    public WorkloadSpec(InputDistribution distribution) {
+        this(distribution,
+             Layout.INTERLEAVED,
+             0,
+             false);
+    }
+
+    /**
+     * Constructor generates tuples from @a distribution laid out as
+     * @a layout, always with the given @a seed.
+     */
+    public WorkloadSpec(InputDistribution distribution,
+                        Layout layout,
+                        long seed) {
+        this(distribution,
+             layout,
+             seed,
+             true);
+    }
+
+    /**
+     * Constructor initializes the fields.
+     */
+    private WorkloadSpec(InputDistribution distribution,
+                         Layout layout,
+                         long seed,
+                         boolean seeded) {
+        mDistribution = distribution;
+        mLayout = layout;
+        mSeed = seed;
+        mSeeded = seeded;
+    }
+
+    /**
+     * Returns the distribution the tuples are drawn from.
+     */
+    public InputDistribution getDistribution() {
+        return mDistribution;
+    }
+
+    /**
+     * Returns how the tuples are laid out.
+     */
+    public Layout getLayout() {
+        return mLayout;
+    }
+
+    /**
+     * Returns the number of ints in each tuple.
+     */
+    public int getArity() {
+        return mDistribution.getArity();
+    }
+
+    /**
+     * Returns the index in an array of @a count tuples generated by
+     * this spec of the int at @a position of the tuple at @a index.
+     */
+    public int indexOf(int index,
+                       int position,
+                       int count) {
+        return mLayout == Layout.INTERLEAVED
+            ? index * getArity() + position
+            : position * count + index;
+    }
+
+    /**
+     * Returns an array of @a count tuples drawn from the
+     * distribution.  The array is split into chunks that are filled
+     * in parallel, each by its own SplittableRandom split off a common
+     * root, so the chunks are independent and, if the spec is seeded,
+     * the same on every call.
+     */
+    public int[] generate(int count) {
+        return generate(count,
+                        null);
+    }
+
+    /**
+     * Returns an array of @a count tuples drawn from the distribution
+     * like generate(int), but fills @a values rather than allocating
+     * a new array if it's non-null and holds exactly @a count tuples.
+     * This avoids a second copy of a large workload being live while
+     * it's regenerated.
+     */
+    public int[] generate(int count,
+                          int[] values) {
+        final int arity = getArity();
+        int length = Math.multiplyExact(arity, count);
+        if (values == null || values.length != length)
+            values = new int[length];
+        final int[] tuples = values;
+        int chunks = (count + sCHUNK_SIZE - 1) / sCHUNK_SIZE;
+
+        // Split the generators up front since a SplittableRandom
+        // isn't thread-safe.
+        SplittableRandom root = mSeeded
+            ? new SplittableRandom(mSeed)
+            : new SplittableRandom();
+        final SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++)
+            randoms[chunk] = root.split();
+
+        IntStream.range(0, chunks)
+            .parallel()
+            .forEach(chunk -> {
+                    SplittableRandom random = randoms[chunk];
+                    int[] tuple = new int[arity];
+                    int from = chunk * sCHUNK_SIZE;
+                    int to = Math.min(from + sCHUNK_SIZE, count);
+
+                    for (int i = from; i < to; i++) {
+                        mDistribution.next(random, tuple);
+                        for (int j = 0; j < arity; j++)
+                            tuples[indexOf(i, j, count)] = tuple[j];
+                    }
+                });
+        return tuples;
+    }
+
+    @Override
+    public String toString() {
+        return mDistribution
+            + " " + mLayout.name().toLowerCase(Locale.US)
+            + (mSeeded ? " seed " + mSeed : "");
+    }
+}
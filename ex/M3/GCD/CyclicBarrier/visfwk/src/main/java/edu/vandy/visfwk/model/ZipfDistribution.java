@@ -0,0 +1,115 @@
+package edu.vandy.visfwk.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import edu.vandy.visfwk.model.interfaces.InputDistribution;
+
+/**
+ * An InputDistribution that models skewed workloads, where the same
+ * tuples are requested over and over.  It draws a fixed pool of
+ * distinct random tuples up front and then picks tuples from the pool
+ * with a Zipfian distribution, i.e., the tuple of rank k is picked
+ * with a probability proportional to 1 / k^s for the given exponent
+ * s.  An exponent of 0 is uniform over the pool, and larger exponents
+ * concentrate the picks on fewer tuples.
+ */
+public class ZipfDistribution
+       implements InputDistribution {
+    /**
+     * Number of ints in each tuple.
+     */
+    private final int mArity;
+
+    /**
+     * The pool of distinct tuples, stored interleaved.
+     */
+    protected final int[] mPool;
+
+    /**
+     * Cumulative probability of picking a tuple of rank <= k.
+     */
+    private final double[] mCdf;
+
+    /**
+     * The exponent of the distribution.
+     */
+    private final double mExponent;
+
+    /**
+     * Constructor draws @a distinctTuples random tuples of @a arity
+     * ints between 0 and MAX_VALUE from @a seed and initializes the
+     * distribution with the given @a exponent.
+     */
+    public ZipfDistribution(int arity,
+                            int distinctTuples,
+                            double exponent,
+                            long seed) {
+        if (arity <= 0 || distinctTuples <= 0 || exponent < 0)
+            throw new IllegalArgumentException();
+        mArity = arity;
+        mExponent = exponent;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        mPool = random.ints((long) arity * distinctTuples, 0, Integer.MAX_VALUE)
+            .toArray();
+
+        // Compute the normalized cumulative distribution.
+        mCdf = new double[distinctTuples];
+        double sum = 0;
+        for (int k = 0; k < distinctTuples; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            mCdf[k] = sum;
+        }
+        for (int k = 0; k < distinctTuples; k++)
+            mCdf[k] /= sum;
+    }
+
+    @Override
+    public int getArity() {
+        return mArity;
+    }
+
+    /**
+     * Returns the number of distinct tuples in the pool.
+     */
+    public int getDistinctTuples() {
+        return mCdf.length;
+    }
+
+    /**
+     * Returns the exponent of the distribution.
+     */
+    public double getExponent() {
+        return mExponent;
+    }
+
+    /**
+     * Returns the rank (starting at 0) of the next tuple to pick.
+     */
+    public int nextRank(SplittableRandom random) {
+        int rank = Arrays.binarySearch(mCdf, random.nextDouble());
+
+        // A miss returns -(insertion point) - 1, and the insertion
+        // point is the first rank whose cumulative probability
+        // exceeds the draw.
+        if (rank < 0)
+            rank = -rank - 1;
+        return Math.min(rank, mCdf.length - 1);
+    }
+
+    @Override
+    public void next(SplittableRandom random,
+                     int[] tuple) {
+        System.arraycopy(mPool,
+                         mArity * nextRank(random),
+                         tuple,
+                         0,
+                         mArity);
+    }
+
+    @Override
+    public String toString() {
+        return "Zipf(" + mCdf.length + " tuples, s = " + mExponent + ")";
+    }
+}
@@ -1,26 +1,95 @@
 package edu.vandy.visfwk.model.abstracts;
 
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.app.FragmentActivity;
 import android.util.Log;
 
-import edu.vandy.visfwk.R;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import edu.vandy.visfwk.model.ProgramState;
 import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
 import edu.vandy.visfwk.presenter.interfaces.PresenterInterface;
 import edu.vandy.visfwk.view.interfaces.ViewInterface;
 
 /**
- * Abstract base class for all test tasks.
+ * Abstract base class for all test tasks.  It keeps the hook methods
+ * of the AsyncTask it used to extend (onPreExecute(),
+ * doInBackground(), onProgressUpdate(), onPostExecute(), and
+ * onCancelled()), but runs doInBackground() on a configurable
+ * ExecutorService via a CompletableFuture rather than on AsyncTask's
+ * process-wide serial executor, so several test tasks can run at the
+ * same time.  The callbacks run on a configurable UI executor, which
+ * defaults to the Activity's UI thread, or to the main thread's
+ * Looper while there's no Activity.
  */
 @SuppressWarnings("WeakerAccess")
-public abstract class AbstractTestTask<TestFunc>
-       extends AsyncTask<Integer, Runnable, Void> {
+public abstract class AbstractTestTask<TestFunc> {
     /**
      * TAG used for logging.
      */
     private final static String TAG =
             AbstractTestTask.class.getCanonicalName();
 
+    /**
+     * The lifecycle of a test task, which only moves forward.
+     */
+    public enum Status {
+        /**
+         * The task hasn't been executed yet.
+         */
+        PENDING,
+
+        /**
+         * The task is executing.
+         */
+        RUNNING,
+
+        /**
+         * The task ran to completion and onPostExecute() was called.
+         */
+        FINISHED,
+
+        /**
+         * The task was cancelled (or failed) and onCancelled() was
+         * called.
+         */
+        CANCELLED
+    }
+
+    /**
+     * Number of background threads created so far, which is used to
+     * name them.
+     */
+    private static final AtomicInteger sTHREAD_COUNT = new AtomicInteger();
+
+    /**
+     * The default executor that runs doInBackground(), which grows
+     * with the number of test tasks running at the same time rather
+     * than queueing them behind each other.  Its threads are daemons
+     * so they don't keep the process alive.
+     */
+    private static final ExecutorService sDEFAULT_EXECUTOR =
+        Executors.newCachedThreadPool(makeThreadFactory());
+
+    /**
+     * Holds the Handler that posts to the main thread, which is only
+     * created when it's first needed, since there's no main Looper on
+     * a plain JVM.
+     */
+    private static class MainThread {
+        /**
+         * Posts the callbacks to the main thread's Looper.
+         */
+        static final Handler sHANDLER = new Handler(Looper.getMainLooper());
+    }
+
     /**
      * Interface for interacting with View Layer.
      */
@@ -39,7 +108,41 @@ public abstract class AbstractTestTask<TestFunc>
     /**
      * boolean flag to signal that processing should be cancelled.
      */
-    protected boolean mFlaggedToCancel = false;
+    protected volatile boolean mFlaggedToCancel = false;
+
+    /**
+     * The executor that runs doInBackground().
+     */
+    private ExecutorService mBackgroundExecutor = sDEFAULT_EXECUTOR;
+
+    /**
+     * The executor that runs the progress and completion callbacks,
+     * or null to use the Activity's UI thread.
+     */
+    private Executor mUiExecutor;
+
+    /**
+     * The current lifecycle status.
+     */
+    private final AtomicReference<Status> mStatus =
+        new AtomicReference<>(Status.PENDING);
+
+    /**
+     * True once cancel() has been called.
+     */
+    private volatile boolean mCancelled;
+
+    /**
+     * The thread running doInBackground(), or null if it isn't
+     * running, which cancel() interrupts.
+     */
+    private volatile Thread mBackgroundThread;
+
+    /**
+     * Completes after the completion callback has run.
+     */
+    private final CompletableFuture<Void> mCompletion =
+        new CompletableFuture<>();
 
     /**
      * Default Constructor that fills in key info.
@@ -57,53 +160,234 @@ public abstract class AbstractTestTask<TestFunc>
     }
 
     /**
-     * <p>Runs on the UI thread after {@link #doInBackground}. The
-     * specified result is the value returned by {@link #doInBackground}.</p>
-     * <p>
-     * <p>This method won't be invoked if the task was cancelled.</p>
+     * Returns a ThreadFactory that creates named daemon threads.
+     */
+    private static ThreadFactory makeThreadFactory() {
+        return runnable -> {
+            Thread thread =
+                new Thread(runnable,
+                           "TestTask-" + sTHREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Set the @a executor that runs doInBackground(), e.g., to bound
+     * the number of test tasks that run at the same time.  It must be
+     * called before execute().
+     */
+    public void setExecutor(ExecutorService executor) {
+        checkPending();
+        mBackgroundExecutor = executor;
+    }
+
+    /**
+     * Set the @a executor that runs the progress and completion
+     * callbacks, e.g., to run the tasks without an Activity.  It must
+     * be called before execute().
+     */
+    public void setUiExecutor(Executor executor) {
+        checkPending();
+        mUiExecutor = executor;
+    }
+
+    /**
+     * Throw IllegalStateException unless the task is still PENDING.
+     */
+    private void checkPending() {
+        if (mStatus.get() != Status.PENDING)
+            throw new IllegalStateException("task already executed");
+    }
+
+    /**
+     * Run the task with the given @a params.  onPreExecute() runs in
+     * the calling thread, doInBackground() runs on the background
+     * executor, and then onPostExecute() or onCancelled() runs on the
+     * UI executor.  A task can only be executed once.
      *
-     * @param result The result of the operation computed by {@link #doInBackground}.
-     * @see #onPreExecute
-     * @see #doInBackground
-     * @see #onCancelled(Object)
+     * @return A future that completes after the completion callback
+     * has run.
      */
-    @Override
-    protected void onPostExecute(Void result) {
-        Log.d(TAG,
-                "onPostExecute(...)");
-        mModelStateInterface.setState(ProgramState.FINISHED);
+    public final CompletableFuture<Void> execute(Integer... params) {
+        if (!mStatus.compareAndSet(Status.PENDING, Status.RUNNING))
+            throw new IllegalStateException("task already executed");
+
+        onPreExecute();
+
+        CompletableFuture
+            .supplyAsync(() -> {
+                    // Clear any interrupt left over from a task
+                    // previously run by this pooled thread.
+                    Thread.interrupted();
+                    mBackgroundThread = Thread.currentThread();
+                    try {
+                        // Don't start the work if the task was
+                        // cancelled while it was queued.
+                        return mCancelled
+                            ? null
+                            : doInBackground(params);
+                    } finally {
+                        mBackgroundThread = null;
+
+                        // Don't leak a cancellation interrupt into
+                        // the pooled thread's next task.
+                        Thread.interrupted();
+                    }
+                },
+                mBackgroundExecutor)
+            .whenComplete((result, failure) ->
+                          runOnUiExecutor(() -> finish(result,
+                                                       failure)));
+        return mCompletion;
+    }
+
+    /**
+     * Call the completion callback that matches the outcome of
+     * doInBackground(), i.e., its @a result or its @a failure.  It
+     * runs on the UI executor.
+     */
+    private void finish(Void result,
+                        Throwable failure) {
+        try {
+            if (failure != null) {
+                Log.e(TAG,
+                      "doInBackground() failed",
+                      failure);
+                mStatus.set(Status.CANCELLED);
+                onCancelled(result);
+            } else if (mCancelled) {
+                mStatus.set(Status.CANCELLED);
+                onCancelled(result);
+            } else {
+                mStatus.set(Status.FINISHED);
+                onPostExecute(result);
+            }
+            mCompletion.complete(null);
+        } catch (RuntimeException e) {
+            mCompletion.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Run @a command on the UI executor, or on the Activity's UI
+     * thread if none was set.  If there's no Activity, e.g., because
+     * it's being recreated, @a command is posted to the main thread's
+     * Looper, since the callbacks touch the View layer and must never
+     * run in the calling (background) thread.
+     */
+    private void runOnUiExecutor(Runnable command) {
+        if (mUiExecutor != null) {
+            mUiExecutor.execute(command);
+            return;
+        }
+
+        FragmentActivity activity = mViewInterface != null
+            ? mViewInterface.getFragmentActivity()
+            : null;
+        if (activity != null)
+            activity.runOnUiThread(command);
+        else
+            MainThread.sHANDLER.post(command);
+    }
+
+    /**
+     * Cancel the task.  If @a mayInterruptIfRunning is true the
+     * thread running doInBackground() is interrupted, otherwise
+     * doInBackground() should poll isCancelled().  Returns false if
+     * the task had already completed.
+     */
+    public final boolean cancel(boolean mayInterruptIfRunning) {
+        Status status = mStatus.get();
+        if (status == Status.FINISHED || status == Status.CANCELLED)
+            return false;
+
+        mCancelled = true;
+        Thread thread = mBackgroundThread;
+        if (mayInterruptIfRunning && thread != null)
+            thread.interrupt();
+        return true;
+    }
+
+    /**
+     * Returns true if cancel() has been called.
+     */
+    public final boolean isCancelled() {
+        return mCancelled;
+    }
+
+    /**
+     * Returns the current lifecycle status.
+     */
+    public final Status getStatus() {
+        return mStatus.get();
+    }
+
+    /**
+     * Runs in the calling (normally the UI) thread before
+     * doInBackground().
+     */
+    protected void onPreExecute() {
+    }
+
+    /**
+     * Runs on the background executor to perform the task's work with
+     * the @a params passed to execute().
+     */
+    protected abstract Void doInBackground(Integer... params);
+
+    /**
+     * Publish @a runnable from doInBackground() so it runs on the UI
+     * executor via onProgressUpdate().  Each report is a single
+     * Runnable, so publishing it doesn't allocate an array.
+     */
+    protected final void publishProgress(Runnable runnable) {
+        if (!mCancelled)
+            runOnUiExecutor(() -> onProgressUpdate(runnable));
     }
 
     /**
-     * Runs on the UI thread after {@link #publishProgress} is invoked.
-     * The specified values are the values passed to {@link #publishProgress}.
+     * Runs on the UI executor after {@link #publishProgress} is
+     * invoked.
      *
-     * @param values The values indicating progress.
+     * @param runnable The report passed to {@link #publishProgress}.
      * @see #publishProgress
      * @see #doInBackground
      */
-    @Override
-    protected void onProgressUpdate(Runnable... values) {
+    protected void onProgressUpdate(Runnable runnable) {
         Log.d(TAG,
                 "onProgressUpdate(...)");
-        for (Runnable runnable : values)
-            mViewInterface.getFragmentActivity()
-                          .runOnUiThread(runnable);
+        runnable.run();
     }
 
     /**
-     * <p>Runs on the UI thread after {@link #cancel(boolean)} is invoked and
-     * {@link #doInBackground(Object[])} has finished.</p>
+     * <p>Runs on the UI executor after {@link #doInBackground}. The
+     * specified result is the value returned by {@link #doInBackground}.</p>
      * <p>
-     * <p>The default implementation simply invokes {@link #onCancelled()} and
-     * ignores the result. If you write your own implementation, do not call
-     * <code>super.onCancelled(result)</code>.</p>
+     * <p>This method won't be invoked if the task was cancelled.</p>
+     *
+     * @param result The result of the operation computed by {@link #doInBackground}.
+     * @see #onPreExecute
+     * @see #doInBackground
+     * @see #onCancelled(Void)
+     */
+    protected void onPostExecute(Void result) {
+        Log.d(TAG,
+                "onPostExecute(...)");
+        mModelStateInterface.setState(ProgramState.FINISHED);
+    }
+
+    /**
+     * <p>Runs on the UI executor after {@link #cancel(boolean)} is
+     * invoked and {@link #doInBackground(Integer...)} has finished,
+     * or after {@link #doInBackground(Integer...)} has thrown an
+     * exception.</p>
      *
-     * @param result The result, if any, computed in {@link #doInBackground(Object[])}, can be null
+     * @param result The result, if any, computed in {@link #doInBackground(Integer...)}, can be null
      * @see #cancel(boolean)
      * @see #isCancelled()
      */
-    @Override
     protected void onCancelled(Void result) {
         Log.d(TAG,
                 "onCancelled(...)");
@@ -0,0 +1,60 @@
+package edu.vandy.visfwk.model.interfaces;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.vandy.visfwk.model.TaskTuple;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Creates the tests that HeadlessRunner runs on a plain JVM, e.g., in
+ * CI.  AbstractTestTaskFactory implements it for the tests that also
+ * run on Android, and benchmarks without an Android UI implement it
+ * directly.
+ */
+public interface HeadlessTestFactory<TestFunc> {
+    /**
+     * Return the list of TaskTuples to test.
+     */
+    List<TaskTuple<TestFunc>> getTasksToTest();
+
+    /**
+     * A factory method that returns a HeadlessTestInterface that runs
+     * the tests without Android.
+     *
+     * @param iterations Number of test iterations to run.
+     * @return A HeadlessTestInterface to perform the tests.
+     */
+    HeadlessTestInterface<TestFunc> makeHeadlessTest(int iterations);
+
+    /**
+     * Returns a TaskTuple for each of the functions (the values) and
+     * names (the keys) in @a funcsAndNames, whose unique ids are
+     * their indices.
+     */
+    static <TestFunc> List<TaskTuple<TestFunc>> makeTaskTuples(List<SimpleImmutableEntry<String, TestFunc>> funcsAndNames) {
+        // Automatically generates a unique id.
+        AtomicInteger uniqueId = new AtomicInteger(0);
+
+        // Return a List of TaskTuples containing the test tasks to run.
+        return funcsAndNames
+            // Convert the EntrySet into a stream.
+            .stream()
+
+            // Create a new TaskTuple for each element in the
+            // EntrySet.
+            .map(entry
+                 -> new TaskTuple<>(entry.getValue(),
+                                    entry.getKey(),
+                                    uniqueId.getAndIncrement()))
+
+            // Limit the number of TaskTuples to the number of
+            // functions.
+            .limit(funcsAndNames.size())
+
+            // Convert the stream to a list.
+            .collect(toList());
+    }
+}
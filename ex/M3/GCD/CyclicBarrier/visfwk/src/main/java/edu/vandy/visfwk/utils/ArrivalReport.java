@@ -0,0 +1,132 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The arrivals of the parties at a synchronizer in one cycle.  Each
+ * party's wait is the time from its arrival until the last party
+ * arrived, i.e., the time it sat idle because of the others, which is
+ * the same whether the synchronizer made it block (a barrier) or not
+ * (counting down a latch).  The last party to arrive is the
+ * straggler, and the spread from the first to the last arrival shows
+ * how unevenly the parties' work was balanced.
+ */
+public class ArrivalReport {
+    /**
+     * Name of the synchronizer.
+     */
+    private final String mName;
+
+    /**
+     * The arrivals in the order they happened.
+     */
+    private final List<ArrivalRecorder.Arrival> mArrivals;
+
+    /**
+     * The wait (in nanoseconds) of each party, sorted.
+     */
+    private final long[] mSortedWaits;
+
+    /**
+     * Constructor orders the @a arrivals at the synchronizer named @a
+     * name.
+     */
+    ArrivalReport(String name,
+                  List<ArrivalRecorder.Arrival> arrivals) {
+        mName = name;
+        List<ArrivalRecorder.Arrival> ordered = new ArrayList<>(arrivals);
+        ordered.sort((a, b) -> Long.compare(a.getNanos(), b.getNanos()));
+        mArrivals = Collections.unmodifiableList(ordered);
+
+        mSortedWaits = new long[ordered.size()];
+        for (int i = 0; i < mSortedWaits.length; i++)
+            mSortedWaits[i] = getWaitNanos(i);
+        Arrays.sort(mSortedWaits);
+    }
+
+    /**
+     * Returns the name of the synchronizer.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Returns the arrivals in the order they happened.
+     */
+    public List<ArrivalRecorder.Arrival> getArrivals() {
+        return mArrivals;
+    }
+
+    /**
+     * Returns the wait (in nanoseconds) of the party that arrived @a
+     * index'th.
+     */
+    private long getWaitNanos(int index) {
+        return mArrivals.get(mArrivals.size() - 1).getNanos()
+            - mArrivals.get(index).getNanos();
+    }
+
+    /**
+     * Returns the wait (in nanoseconds) of @a party, or -1 if it
+     * didn't arrive.
+     */
+    public long getWaitNanos(String party) {
+        for (int i = 0; i < mArrivals.size(); i++)
+            if (mArrivals.get(i).getParty().equals(party))
+                return getWaitNanos(i);
+        return -1;
+    }
+
+    /**
+     * Returns the name of the last party to arrive, or null if none
+     * did.
+     */
+    public String getStraggler() {
+        return mArrivals.isEmpty()
+            ? null
+            : mArrivals.get(mArrivals.size() - 1).getParty();
+    }
+
+    /**
+     * Returns the time (in nanoseconds) from the first arrival to the
+     * last.
+     */
+    public long getSpreadNanos() {
+        return mArrivals.isEmpty()
+            ? 0
+            : getWaitNanos(0);
+    }
+
+    /**
+     * Returns the wait (in nanoseconds) that a @a fraction (from 0 to
+     * 1) of the parties didn't exceed, e.g., 0.5 for the median.
+     */
+    public long getWaitPercentileNanos(double fraction) {
+        if (mSortedWaits.length == 0)
+            return 0;
+        int index = (int) Math.ceil(fraction * mSortedWaits.length) - 1;
+        return mSortedWaits[Math.max(0, Math.min(index,
+                                                 mSortedWaits.length - 1))];
+    }
+
+    /**
+     * Returns the report as a line of text for logging.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                             "%s: %d parties, spread %.3f ms, wait p50 %.3f ms p90 %.3f ms max %.3f ms, straggler %s",
+                             mName,
+                             mArrivals.size(),
+                             getSpreadNanos() / 1e6,
+                             getWaitPercentileNanos(0.5) / 1e6,
+                             getWaitPercentileNanos(0.9) / 1e6,
+                             getWaitPercentileNanos(1.0) / 1e6,
+                             getStraggler());
+    }
+}
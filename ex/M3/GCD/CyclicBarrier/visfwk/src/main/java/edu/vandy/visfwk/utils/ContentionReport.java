@@ -0,0 +1,256 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import edu.vandy.visfwk.model.RunRecord;
+
+/**
+ * Compares the runs of each test made in isolation, i.e., one test at
+ * a time, against its runs made while other tests ran at the same
+ * time, to tell how much each test is slowed down by contention and
+ * by what.  If a test takes more CPU time when contended it's
+ * competing for something shared by the cores, such as the caches or
+ * memory bandwidth, whereas if only its wall-clock time grows it's
+ * merely waiting for a core.  The median of each test's runs is used,
+ * so a warm-up cycle doesn't skew the comparison.
+ */
+public class ContentionReport {
+    /**
+     * Default factor by which a time must grow to count as a
+     * slowdown, which allows for the noise of a single machine.
+     */
+    public static final double sDEFAULT_THRESHOLD = 1.1;
+
+    /**
+     * What slows a test down when it runs alongside others.
+     */
+    public enum Bottleneck {
+        /**
+         * The test isn't slowed down noticeably.
+         */
+        NONE,
+
+        /**
+         * The test does the same work but waits for a core, i.e.,
+         * there are more threads than cores.
+         */
+        CORES,
+
+        /**
+         * The test needs more CPU time for the same work, i.e., it's
+         * bound by the caches or memory bandwidth shared by the cores.
+         */
+        MEMORY
+    }
+
+    /**
+     * The slowdown of one test.
+     */
+    public static class Entry {
+        /**
+         * Name of the test.
+         */
+        private final String mTestName;
+
+        /**
+         * Median wall-clock time (in nanoseconds) of the isolated runs.
+         */
+        private final long mIsolatedWallNanos;
+
+        /**
+         * Median wall-clock time (in nanoseconds) of the contended runs.
+         */
+        private final long mContendedWallNanos;
+
+        /**
+         * Median CPU time (in nanoseconds) of the isolated runs.
+         */
+        private final long mIsolatedCpuNanos;
+
+        /**
+         * Median CPU time (in nanoseconds) of the contended runs.
+         */
+        private final long mContendedCpuNanos;
+
+        /**
+         * What slows the test down.
+         */
+        private final Bottleneck mBottleneck;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        Entry(String testName,
+              long isolatedWallNanos,
+              long contendedWallNanos,
+              long isolatedCpuNanos,
+              long contendedCpuNanos,
+              Bottleneck bottleneck) {
+            mTestName = testName;
+            mIsolatedWallNanos = isolatedWallNanos;
+            mContendedWallNanos = contendedWallNanos;
+            mIsolatedCpuNanos = isolatedCpuNanos;
+            mContendedCpuNanos = contendedCpuNanos;
+            mBottleneck = bottleneck;
+        }
+
+        /**
+         * Returns the name of the test.
+         */
+        public String getTestName() {
+            return mTestName;
+        }
+
+        /**
+         * Returns the factor by which the wall-clock time grows when
+         * the test is contended, e.g., 2.0 if it takes twice as long.
+         */
+        public double getWallSlowdown() {
+            return ratio(mContendedWallNanos, mIsolatedWallNanos);
+        }
+
+        /**
+         * Returns the factor by which the CPU time grows when the test
+         * is contended.
+         */
+        public double getCpuSlowdown() {
+            return ratio(mContendedCpuNanos, mIsolatedCpuNanos);
+        }
+
+        /**
+         * Returns what slows the test down.
+         */
+        public Bottleneck getBottleneck() {
+            return mBottleneck;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                                 "%s: %.2fx wall (%.3f -> %.3f ms), %.2fx cpu, bottleneck %s",
+                                 mTestName,
+                                 getWallSlowdown(),
+                                 mIsolatedWallNanos / 1e6,
+                                 mContendedWallNanos / 1e6,
+                                 getCpuSlowdown(),
+                                 mBottleneck.name().toLowerCase(Locale.US));
+        }
+    }
+
+    /**
+     * Factor by which a time must grow to count as a slowdown.
+     */
+    private final double mThreshold;
+
+    /**
+     * Constructor uses the default threshold.
+     */
+    public ContentionReport() {
+        this(sDEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor counts a time that grows by more than a factor of @a
+     * threshold as a slowdown.
+     */
+    public ContentionReport(double threshold) {
+        mThreshold = threshold;
+    }
+
+    /**
+     * Returns the slowdown of each test that has runs in both @a
+     * isolated and @a contended, in the order the tests first appear
+     * in @a contended.
+     */
+    public List<Entry> compare(List<RunRecord> isolated,
+                               List<RunRecord> contended) {
+        Map<String, List<RunRecord>> isolatedByName = groupByName(isolated);
+        Map<String, List<RunRecord>> contendedByName = groupByName(contended);
+
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, List<RunRecord>> entry : contendedByName.entrySet()) {
+            List<RunRecord> alone = isolatedByName.get(entry.getKey());
+            if (alone == null)
+                continue;
+
+            long isolatedWall = median(alone, false);
+            long contendedWall = median(entry.getValue(), false);
+            long isolatedCpu = median(alone, true);
+            long contendedCpu = median(entry.getValue(), true);
+
+            // More CPU time for the same work means the cores got in
+            // each other's way, whereas more wall-clock time alone
+            // means the test was waiting to be scheduled.
+            Bottleneck bottleneck;
+            if (ratio(contendedCpu, isolatedCpu) > mThreshold)
+                bottleneck = Bottleneck.MEMORY;
+            else if (ratio(contendedWall, isolatedWall) > mThreshold)
+                bottleneck = Bottleneck.CORES;
+            else
+                bottleneck = Bottleneck.NONE;
+
+            entries.add(new Entry(entry.getKey(),
+                                  isolatedWall,
+                                  contendedWall,
+                                  isolatedCpu,
+                                  contendedCpu,
+                                  bottleneck));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns @a entries as text with one line per test.
+     */
+    public static String format(List<Entry> entries) {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries)
+            sb.append(entry)
+              .append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Returns @a numerator / @a denominator, or 1 if @a denominator
+     * isn't positive, e.g., if the CPU time couldn't be measured.
+     */
+    private static double ratio(long numerator,
+                                long denominator) {
+        return denominator > 0
+            ? (double) numerator / denominator
+            : 1.0;
+    }
+
+    /**
+     * Returns the median CPU time of @a records if @a cpu is true or
+     * their median wall-clock time otherwise.
+     */
+    private static long median(List<RunRecord> records,
+                               boolean cpu) {
+        long[] nanos = new long[records.size()];
+        for (int i = 0; i < nanos.length; i++)
+            nanos[i] = cpu
+                ? records.get(i).getCpuNanos()
+                : records.get(i).getWallNanos();
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2];
+    }
+
+    /**
+     * Returns @a records grouped by test name, keeping the order in
+     * which the names first appear.
+     */
+    private static Map<String, List<RunRecord>> groupByName(List<RunRecord> records) {
+        Map<String, List<RunRecord>> groups = new LinkedHashMap<>();
+        for (RunRecord record : records)
+            groups.computeIfAbsent(record.getTestName(),
+                                   key -> new ArrayList<>())
+                .add(record);
+        return groups;
+    }
+}
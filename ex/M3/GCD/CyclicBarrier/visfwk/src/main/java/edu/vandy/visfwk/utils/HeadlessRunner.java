@@ -0,0 +1,860 @@
+package edu.vandy.visfwk.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.vandy.visfwk.model.RunRecord;
+import edu.vandy.visfwk.model.TaskProfile;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestFactory;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestInterface;
+
+/**
+ * Runs the tests of any HeadlessTestFactory, e.g., an
+ * AbstractTestTaskFactory that supports makeHeadlessTest(), on a
+ * plain JVM, without an Activity or a UI thread, so they can be
+ * benchmarked in CI.  Like the Android test tasks it runs every
+ * TaskTuple in its own thread, starts them together, and waits for
+ * all of them to finish each cycle, using either a CyclicBarrier or
+ * a pair of CountDownLatches per cycle.
+ * The concurrency can be limited so the TaskTuples run in groups one
+ * after the other, e.g., one at a time to time each test without
+ * contention from the others, and the threads can be created by a
+ * TestThreadFactory, e.g., to pin them to CPUs.
+ * After each cycle the checksums of the tests' results (if any) are
+ * compared, so a test that computed wrong results fails the run.
+ * The barriers and latches record when each test arrives, so each
+ * result also says how long the test sat idle waiting for the others
+ * of its group to start and to finish, and whether it was the
+ * straggler the others waited for.
+ * The profile of each TaskTuple in each cycle is returned and can be
+ * written as CSV or JSON, or appended to a ResultsHistory and checked
+ * for regressions against earlier runs of the same mode and workload.
+ */
+public class HeadlessRunner<TestFunc> {
+    /**
+     * How the threads of the TaskTuples are started and joined on
+     * each cycle.
+     */
+    public enum Coordination {
+        /**
+         * A pair of entry/exit CyclicBarriers reused on every cycle
+         * by threads that live for the whole run.
+         */
+        BARRIER,
+
+        /**
+         * A new pair of entry/exit CountDownLatches and new threads
+         * on each cycle, since a latch can't be reset.
+         */
+        LATCH
+    }
+
+    /**
+     * Creates the threads the TaskTuples run in, e.g., to give them a
+     * priority or pin them to CPUs.
+     */
+    @FunctionalInterface
+    public interface TestThreadFactory {
+        /**
+         * Returns a new unstarted thread named @a name that runs @a
+         * runnable.  The @a slot is the thread's position (from 0) in
+         * the group of threads that run at the same time, so threads
+         * with different slots may run at the same time while those
+         * with the same slot never do.
+         */
+        Thread newThread(Runnable runnable,
+                         String name,
+                         int slot);
+    }
+
+    /**
+     * Concurrency that runs all the TaskTuples at the same time.
+     */
+    public static final int sALL_CONCURRENT = 0;
+
+    /**
+     * The profile of one TaskTuple in one cycle.
+     */
+    public static class Result {
+        /**
+         * The cycle (numbered from 1) of the run.
+         */
+        private final int mCycle;
+
+        /**
+         * The name of the test.
+         */
+        private final String mTestName;
+
+        /**
+         * The unique id of the TaskTuple.
+         */
+        private final int mTaskUniqueId;
+
+        /**
+         * The name of the thread that ran the test.
+         */
+        private final String mThreadName;
+
+        /**
+         * How the tests were run, e.g., "barrier/all".
+         */
+        private final String mMode;
+
+        /**
+         * Description of the inputs of the run.
+         */
+        private final String mWorkload;
+
+        /**
+         * The resources used by the run.
+         */
+        private final TaskProfile mProfile;
+
+        /**
+         * Time (in nanoseconds) from the test's arrival at the entry
+         * barrier until the last party of its group arrived, or -1 if
+         * it's unknown.
+         */
+        private long mEntryWaitNanos = -1;
+
+        /**
+         * Time (in nanoseconds) from the test's arrival at the exit
+         * barrier until the last party of its group arrived, i.e.,
+         * how long it sat idle waiting for slower tests, or -1 if it's
+         * unknown.
+         */
+        private long mExitWaitNanos = -1;
+
+        /**
+         * True if the test was the last of its group to arrive at the
+         * exit barrier.
+         */
+        private boolean mStraggler;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        Result(int cycle,
+               String testName,
+               int taskUniqueId,
+               String threadName,
+               String mode,
+               String workload,
+               TaskProfile profile) {
+            mCycle = cycle;
+            mTestName = testName;
+            mTaskUniqueId = taskUniqueId;
+            mThreadName = threadName;
+            mMode = mode;
+            mWorkload = workload;
+            mProfile = profile;
+        }
+
+        /**
+         * Returns the cycle (numbered from 1) of the run.
+         */
+        public int getCycle() {
+            return mCycle;
+        }
+
+        /**
+         * Returns the name of the test.
+         */
+        public String getTestName() {
+            return mTestName;
+        }
+
+        /**
+         * Returns the unique id of the TaskTuple.
+         */
+        public int getTaskUniqueId() {
+            return mTaskUniqueId;
+        }
+
+        /**
+         * Returns the name of the thread that ran the test.
+         */
+        public String getThreadName() {
+            return mThreadName;
+        }
+
+        /**
+         * Returns how the tests were run, e.g., "barrier/all" for all
+         * of them at the same time or "latch/1" for one at a time.
+         */
+        public String getMode() {
+            return mMode;
+        }
+
+        /**
+         * Returns the description of the inputs of the run, or empty
+         * if the tests don't describe them.
+         */
+        public String getWorkload() {
+            return mWorkload;
+        }
+
+        /**
+         * Returns the resources used by the run.
+         */
+        public TaskProfile getProfile() {
+            return mProfile;
+        }
+
+        /**
+         * Returns the time (in nanoseconds) the test waited for the
+         * others of its group to arrive at the entry barrier, or -1
+         * if it's unknown.
+         */
+        public long getEntryWaitNanos() {
+            return mEntryWaitNanos;
+        }
+
+        /**
+         * Returns the time (in nanoseconds) the test waited for the
+         * others of its group to arrive at the exit barrier, or -1 if
+         * it's unknown.
+         */
+        public long getExitWaitNanos() {
+            return mExitWaitNanos;
+        }
+
+        /**
+         * Returns true if the test was the last of its group to
+         * arrive at the exit barrier.
+         */
+        public boolean isStraggler() {
+            return mStraggler;
+        }
+    }
+
+    /**
+     * The TaskTuples to run.
+     */
+    private final List<TaskTuple<TestFunc>> mTaskTuples;
+
+    /**
+     * Prepares the cycles and runs the tests.
+     */
+    private final HeadlessTestInterface<TestFunc> mHeadlessTest;
+
+    /**
+     * Number of iterations of each test.
+     */
+    private final int mIterations;
+
+    /**
+     * Number of cycles to run.
+     */
+    private final int mCycles;
+
+    /**
+     * How the threads are started and joined on each cycle.
+     */
+    private final Coordination mCoordination;
+
+    /**
+     * Maximum number of TaskTuples that run at the same time, or
+     * sALL_CONCURRENT if they all do.
+     */
+    private int mConcurrency = sALL_CONCURRENT;
+
+    /**
+     * Creates the threads of the TaskTuples.
+     */
+    private TestThreadFactory mThreadFactory =
+        (runnable, name, slot) -> new Thread(runnable, name);
+
+    /**
+     * True once the cycles are done, which tells the threads parked at
+     * the entry barriers to exit.
+     */
+    private volatile boolean mStopped;
+
+    /**
+     * The results of the completed runs.
+     */
+    private final List<Result> mResults =
+        Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * The first exception thrown by a test, or null if none has.
+     */
+    private final AtomicReference<Throwable> mFailure =
+        new AtomicReference<>();
+
+    /**
+     * Constructor runs the tests of @a factory with @a iterations
+     * iterations for @a cycles cycles, coordinating the threads as
+     * given by @a coordination.
+     *
+     * @throws UnsupportedOperationException If @a factory doesn't
+     * support headless runs.
+     */
+    public HeadlessRunner(HeadlessTestFactory<TestFunc> factory,
+                          int iterations,
+                          int cycles,
+                          Coordination coordination) {
+        mHeadlessTest = factory.makeHeadlessTest(iterations);
+        mTaskTuples = factory.getTasksToTest();
+        mIterations = iterations;
+        mCycles = cycles;
+        mCoordination = coordination;
+    }
+
+    /**
+     * Returns the TaskTuples that are run.
+     */
+    public List<TaskTuple<TestFunc>> getTaskTuples() {
+        return mTaskTuples;
+    }
+
+    /**
+     * Limit the number of TaskTuples that run at the same time to @a
+     * concurrency, so each cycle runs them in groups of that size one
+     * after the other, e.g., 1 runs them one at a time.  The default
+     * is sALL_CONCURRENT, which runs them all at the same time.
+     */
+    public void setConcurrency(int concurrency) {
+        if (concurrency < 0)
+            throw new IllegalArgumentException("negative concurrency "
+                                               + concurrency);
+        mConcurrency = concurrency;
+    }
+
+    /**
+     * Create the threads of the TaskTuples with @a threadFactory.
+     */
+    public void setThreadFactory(TestThreadFactory threadFactory) {
+        mThreadFactory = threadFactory;
+    }
+
+    /**
+     * Returns how the tests are run, i.e., the coordination and the
+     * concurrency, e.g., "barrier/all" or "latch/1".
+     */
+    public String getMode() {
+        return mCoordination.name().toLowerCase(Locale.US)
+            + '/'
+            + (mConcurrency == sALL_CONCURRENT
+               ? "all"
+               : String.valueOf(mConcurrency));
+    }
+
+    /**
+     * Returns the TaskTuples split into the groups that run at the
+     * same time, in order.
+     */
+    private List<List<TaskTuple<TestFunc>>> makeGroups() {
+        int size = mConcurrency == sALL_CONCURRENT
+            ? Math.max(1, mTaskTuples.size())
+            : mConcurrency;
+
+        List<List<TaskTuple<TestFunc>>> groups = new ArrayList<>();
+        for (int from = 0; from < mTaskTuples.size(); from += size)
+            groups.add(mTaskTuples.subList(from,
+                                           Math.min(from + size,
+                                                    mTaskTuples.size())));
+        return groups;
+    }
+
+    /**
+     * Run all the cycles and return the results ordered by cycle and
+     * then by the order of the TaskTuples.
+     *
+     * @throws IllegalStateException If a test threw an exception,
+     * which is its cause.
+     */
+    public List<Result> run() throws InterruptedException {
+        mResults.clear();
+        mFailure.set(null);
+
+        // Name this thread's arrivals at the barriers.
+        ArrivalRecorder.setParty("coordinator");
+        try {
+            if (mCoordination == Coordination.BARRIER)
+                runWithBarriers();
+            else
+                runWithLatches();
+        } finally {
+            ArrivalRecorder.clearParty();
+        }
+
+        if (mFailure.get() != null)
+            throw new IllegalStateException("headless test failed",
+                                            mFailure.get());
+
+        // The threads of a cycle finish in any order, so sort the
+        // results to make the output stable.
+        List<Result> results = new ArrayList<>(mResults);
+        results.sort((a, b) -> a.mCycle != b.mCycle
+                     ? Integer.compare(a.mCycle, b.mCycle)
+                     : Integer.compare(a.mTaskUniqueId, b.mTaskUniqueId));
+        return results;
+    }
+
+    /**
+     * Run the cycles with a thread per TaskTuple that lives for the
+     * whole run and a pair of CyclicBarriers per group, which the
+     * calling thread also takes part in so it can prepare each cycle
+     * while the tests are parked at the entry barriers and start the
+     * groups one after the other.  A test that fails still arrives at
+     * its exit barrier, and once the cycles are done the calling
+     * thread passes each entry barrier once more with mStopped set, so
+     * the tests exit.
+     */
+    private void runWithBarriers() throws InterruptedException {
+        List<List<TaskTuple<TestFunc>>> groups = makeGroups();
+        List<InstrumentedCyclicBarrier> entryBarriers = new ArrayList<>();
+        List<InstrumentedCyclicBarrier> exitBarriers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        mStopped = false;
+
+        for (List<TaskTuple<TestFunc>> group : groups) {
+            InstrumentedCyclicBarrier entryBarrier =
+                new InstrumentedCyclicBarrier("entry", group.size() + 1);
+            InstrumentedCyclicBarrier exitBarrier =
+                new InstrumentedCyclicBarrier("exit", group.size() + 1);
+            entryBarriers.add(entryBarrier);
+            exitBarriers.add(exitBarrier);
+
+            for (int slot = 0; slot < group.size(); slot++) {
+                TaskTuple<TestFunc> taskTuple = group.get(slot);
+                threads.add(startThread(taskTuple,
+                                        slot,
+                                        () -> {
+                                            for (int cycle = 1; ; cycle++) {
+                                                entryBarrier.await();
+                                                if (mStopped)
+                                                    break;
+                                                runOne(taskTuple, cycle);
+                                                exitBarrier.await();
+                                            }
+                                        }));
+            }
+        }
+
+        try {
+            for (int cycle = 1;
+                 cycle <= mCycles && mFailure.get() == null;
+                 cycle++) {
+                try {
+                    mHeadlessTest.beforeCycle(cycle, mCycles);
+                } catch (RuntimeException e) {
+                    mFailure.compareAndSet(null, e);
+                    break;
+                }
+
+                // Run the groups one after the other.  Each barrier's
+                // arrivals are drained as soon as it trips, before
+                // any test can arrive at it for the next cycle.
+                for (int group = 0; group < groups.size(); group++) {
+                    entryBarriers.get(group).await();
+                    ArrivalReport entry = entryBarriers.get(group).drainArrivals();
+                    exitBarriers.get(group).await();
+                    recordArrivals(cycle,
+                                   entry,
+                                   exitBarriers.get(group).drainArrivals());
+                }
+                validateCycle();
+            }
+
+            // Release the tests parked at the entry barriers.
+            mStopped = true;
+            for (InstrumentedCyclicBarrier entryBarrier : entryBarriers)
+                entryBarrier.await();
+        } catch (BrokenBarrierException e) {
+            // Break all the barriers to release the tests.
+            mFailure.compareAndSet(null, e);
+            entryBarriers.forEach(CyclicBarrier::reset);
+            exitBarriers.forEach(CyclicBarrier::reset);
+        } finally {
+            join(threads);
+        }
+    }
+
+    /**
+     * Run the cycles with new threads and a new pair of
+     * CountDownLatches for each group on each cycle, since a latch
+     * can't be reused once it has counted down.  As with the
+     * barriers, a failure to prepare a cycle is recorded rather than
+     * thrown, so run() reports it like a test's failure.
+     */
+    private void runWithLatches() throws InterruptedException {
+        List<List<TaskTuple<TestFunc>>> groups = makeGroups();
+
+        for (int cycle = 1;
+             cycle <= mCycles && mFailure.get() == null;
+             cycle++) {
+            try {
+                mHeadlessTest.beforeCycle(cycle, mCycles);
+            } catch (RuntimeException e) {
+                mFailure.compareAndSet(null, e);
+                break;
+            }
+            final int thisCycle = cycle;
+
+            // Run the groups one after the other.
+            for (List<TaskTuple<TestFunc>> group : groups) {
+                InstrumentedCountDownLatch entryLatch =
+                    new InstrumentedCountDownLatch("entry", 1);
+                InstrumentedCountDownLatch exitLatch =
+                    new InstrumentedCountDownLatch("exit", group.size());
+
+                List<Thread> threads = new ArrayList<>();
+                for (int slot = 0; slot < group.size(); slot++) {
+                    TaskTuple<TestFunc> taskTuple = group.get(slot);
+                    threads.add(startThread(taskTuple,
+                                            slot,
+                                            () -> {
+                                                entryLatch.await();
+                                                runOne(taskTuple, thisCycle);
+                                                exitLatch.countDown();
+                                            }));
+                }
+
+                // Start the tests of the group together and wait for
+                // them to finish.
+                entryLatch.countDown();
+                exitLatch.await();
+                join(threads);
+                recordArrivals(thisCycle,
+                               entryLatch.drainArrivals(),
+                               exitLatch.drainArrivals());
+            }
+            validateCycle();
+        }
+    }
+
+    /**
+     * Make sure all the tests that computed a checksum of their
+     * results in this cycle agree, and record a failure otherwise.
+     */
+    private void validateCycle() {
+        String mismatches = ResultChecksum.describeMismatches(mTaskTuples);
+        if (mismatches != null)
+            mFailure.compareAndSet(null,
+                                   new IllegalStateException(mismatches));
+    }
+
+    /**
+     * Attach the waits of the tests at the @a entry and @a exit
+     * barriers of a group in @a cycle to their results.  The tests
+     * arrive under their names, so only the results of the group's
+     * tests are found in the reports.
+     */
+    private void recordArrivals(int cycle,
+                                ArrivalReport entry,
+                                ArrivalReport exit) {
+        String straggler = exit.getStraggler();
+        synchronized (mResults) {
+            for (Result result : mResults) {
+                long exitWaitNanos = exit.getWaitNanos(result.mTestName);
+                if (result.mCycle != cycle || exitWaitNanos < 0)
+                    continue;
+                result.mEntryWaitNanos = entry.getWaitNanos(result.mTestName);
+                result.mExitWaitNanos = exitWaitNanos;
+                result.mStraggler = result.mTestName.equals(straggler);
+            }
+        }
+    }
+
+    /**
+     * The body of a test thread, which waits on the coordination
+     * objects.
+     */
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run() throws InterruptedException, BrokenBarrierException;
+    }
+
+    /**
+     * Start a thread named after @a taskTuple that runs @a body in
+     * the given @a slot of its group.
+     */
+    private Thread startThread(TaskTuple<TestFunc> taskTuple,
+                               int slot,
+                               ThreadBody body) {
+        Thread thread = mThreadFactory.newThread(() -> {
+                // Name the thread's arrivals after its test.
+                ArrivalRecorder.setParty(taskTuple.getTestName());
+                try {
+                    body.run();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    // The run was abandoned, which the thread that
+                    // abandoned it reports.
+                }
+            },
+            "Headless-" + taskTuple.getTestName(),
+            slot);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Run the test of @a taskTuple once in the calling thread and
+     * record its profile for @a cycle, or record its failure so the
+     * run stops after this cycle.
+     */
+    private void runOne(TaskTuple<TestFunc> taskTuple,
+                        int cycle) {
+        TaskProfile previous = taskTuple.getProfile();
+        taskTuple.setChecksum(null);
+        ThreadProfiler profiler = ThreadProfiler.start();
+        long startNanos = System.nanoTime();
+
+        try {
+            mHeadlessTest.runTest(taskTuple);
+        } catch (Throwable t) {
+            mFailure.compareAndSet(null, t);
+            return;
+        }
+
+        TaskProfile measured =
+            profiler.stop(System.nanoTime() - startNanos);
+
+        // Prefer a profile stored by the test itself, which can
+        // include the resources of its helper threads.
+        TaskProfile stored = taskTuple.getProfile();
+        TaskProfile profile = stored != null && stored != previous
+            ? stored
+            : measured;
+        taskTuple.setProfile(profile);
+
+        mResults.add(new Result(cycle,
+                                taskTuple.getTestName(),
+                                taskTuple.getTaskUniqueId(),
+                                Thread.currentThread().getName(),
+                                getMode(),
+                                mHeadlessTest.getWorkload(),
+                                profile));
+    }
+
+    /**
+     * Wait for all @a threads to exit.
+     */
+    private static void join(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads)
+            thread.join();
+    }
+
+    /**
+     * Returns @a results as RunRecords timestamped now, e.g., to
+     * append them to a ResultsHistory.  Each record keeps the mode
+     * and workload of its run, so records of runs with different
+     * concurrency or inputs aren't compared with each other.
+     */
+    public List<RunRecord> toRunRecords(List<Result> results) {
+        long now = System.currentTimeMillis();
+        List<RunRecord> records = new ArrayList<>();
+        for (Result result : results)
+            records.add(new RunRecord(now,
+                                      result.mTestName,
+                                      result.mThreadName,
+                                      result.mMode,
+                                      result.mWorkload,
+                                      result.mCycle,
+                                      mIterations,
+                                      result.mProfile.getWallNanos(),
+                                      result.mProfile.getCpuNanos()));
+        return records;
+    }
+
+    /**
+     * Returns @a results as CSV with a header line, one line per
+     * TaskTuple per cycle, including the waits at the barriers.
+     */
+    public static String toCsv(List<Result> results) {
+        StringBuilder sb = new StringBuilder("cycle,")
+            .append(TaskProfile.getCsvHeader())
+            .append(",entry_wait_ns,exit_wait_ns,straggler\n");
+        for (Result result : results)
+            sb.append(result.mCycle)
+              .append(',')
+              .append(result.mProfile.toCsv(result.mTestName))
+              .append(',')
+              .append(result.mEntryWaitNanos)
+              .append(',')
+              .append(result.mExitWaitNanos)
+              .append(',')
+              .append(result.mStraggler)
+              .append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Returns @a results as a JSON array with one object per
+     * TaskTuple per cycle.
+     */
+    public static String toJson(List<Result> results) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            TaskProfile profile = result.mProfile;
+            sb.append(i == 0 ? "\n" : ",\n")
+              .append(String.format(Locale.US,
+                                    "  {\"cycle\": %d, \"name\": \"%s\", \"id\": %d, "
+                                    + "\"wall_ns\": %d, \"cpu_ns\": %d, \"user_ns\": %d, "
+                                    + "\"allocated_bytes\": %d, \"context_switches\": %d, "
+                                    + "\"entry_wait_ns\": %d, \"exit_wait_ns\": %d, \"straggler\": %b}",
+                                    result.mCycle,
+                                    escapeJson(result.mTestName),
+                                    result.mTaskUniqueId,
+                                    profile.getWallNanos(),
+                                    profile.getCpuNanos(),
+                                    profile.getUserNanos(),
+                                    profile.getAllocatedBytes(),
+                                    profile.getContextSwitches(),
+                                    result.mEntryWaitNanos,
+                                    result.mExitWaitNanos,
+                                    result.mStraggler));
+        }
+        return sb.append("\n]\n").toString();
+    }
+
+    /**
+     * Returns @a string with the characters JSON requires to be
+     * escaped escaped.
+     */
+    private static String escapeJson(String string) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : string.toCharArray()) {
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < ' ')
+                sb.append(String.format(Locale.US, "\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Entry point for CI.  The first argument is the class name of an
+     * HeadlessTestFactory with a no-arg constructor, and the run
+     * is configured by these system properties:
+     *
+     * headless.iterations   Number of iterations (default 1000000).
+     * headless.cycles       Number of cycles (default 1).
+     * headless.coordination "barrier" (default) or "latch".
+     * headless.concurrency  Maximum number of tests run at the same
+     *                       time, or "all" (default).
+     * headless.contention   If "true", first run the tests one at a
+     *                       time and report on stderr how much each
+     *                       test is slowed down by running alongside
+     *                       the others (default "false").
+     * headless.format       "csv" (default) or "json".
+     * headless.output       File to write the results to (default
+     *                       stdout, which the tests may also log to).
+     * headless.history      ResultsHistory file the results are
+     *                       compared against and then appended to
+     *                       (default none).
+     * headless.failOnRegression  If "true" (default), exit with
+     *                       status 1 if the results are significantly
+     *                       slower than the history.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("usage: HeadlessRunner <factory class name>");
+            System.exit(2);
+        }
+
+        @SuppressWarnings("unchecked")
+        HeadlessTestFactory<Object> factory =
+            (HeadlessTestFactory<Object>) Class.forName(args[0])
+            .getDeclaredConstructor()
+            .newInstance();
+
+        HeadlessRunner<Object> runner =
+            new HeadlessRunner<>(factory,
+                                 Integer.getInteger("headless.iterations", 1000000),
+                                 Integer.getInteger("headless.cycles", 1),
+                                 Coordination.valueOf(System
+                                                      .getProperty("headless.coordination",
+                                                                   "barrier")
+                                                      .toUpperCase(Locale.US)));
+
+        // Time the tests one at a time first if requested, reusing
+        // the runner so both runs time the same TaskTuples.
+        List<Result> isolated = null;
+        if (Boolean.getBoolean("headless.contention")) {
+            runner.setConcurrency(1);
+            isolated = runner.run();
+        }
+
+        String concurrency = System.getProperty("headless.concurrency", "all");
+        runner.setConcurrency("all".equalsIgnoreCase(concurrency)
+                              ? sALL_CONCURRENT
+                              : Integer.parseInt(concurrency));
+        List<Result> results = runner.run();
+
+        if (isolated != null)
+            System.err.print("Contention:\n"
+                             + ContentionReport.format(new ContentionReport()
+                                                       .compare(runner.toRunRecords(isolated),
+                                                                runner.toRunRecords(results))));
+
+        String output = "json".equalsIgnoreCase(System.getProperty("headless.format"))
+            ? toJson(results)
+            : toCsv(results);
+
+        String path = System.getProperty("headless.output");
+        if (path == null) {
+            PrintStream out = System.out;
+            out.print(output);
+            out.flush();
+        } else
+            write(path, output);
+
+        String historyPath = System.getProperty("headless.history");
+        if (historyPath != null
+            && checkHistory(new ResultsHistory(new File(historyPath)),
+                            runner.toRunRecords(results))
+            && Boolean.parseBoolean(System.getProperty("headless.failOnRegression",
+                                                       "true")))
+            System.exit(1);
+    }
+
+    /**
+     * Compare @a records against the earlier runs in @a history,
+     * report any regressions on stderr, and then append @a records to
+     * @a history.  Returns true if there were regressions.
+     */
+    private static boolean checkHistory(ResultsHistory history,
+                                        List<RunRecord> records) throws IOException {
+        List<RegressionDetector.Regression> regressions =
+            new RegressionDetector().detect(history.readAll(),
+                                            records);
+        for (RegressionDetector.Regression regression : regressions)
+            System.err.println("Regression: " + regression);
+
+        history.append(records);
+        return !regressions.isEmpty();
+    }
+
+    /**
+     * Write @a contents to the file at @a path as UTF-8.
+     */
+    private static void write(String path,
+                              String contents) throws IOException {
+        try (Writer writer =
+             new OutputStreamWriter(new FileOutputStream(path),
+                                    StandardCharsets.UTF_8)) {
+            writer.write(contents);
+        }
+    }
+}
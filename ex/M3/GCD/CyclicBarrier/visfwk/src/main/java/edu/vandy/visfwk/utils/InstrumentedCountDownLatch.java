@@ -0,0 +1,85 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A CountDownLatch that records when each party arrives, i.e.,
+ * awaits or counts down, so the time the parties spend waiting for
+ * each other can be reported per cycle via drainArrivals().  Unlike a
+ * plain CountDownLatch it can be reset for the next cycle, so workers
+ * that hold on to it needn't be recreated.  It can be passed wherever
+ * a CountDownLatch is expected, since all of its methods delegate to
+ * the latch of the current cycle.
+ */
+public class InstrumentedCountDownLatch
+       extends CountDownLatch {
+    /**
+     * Records the arrivals.
+     */
+    private final ArrivalRecorder mRecorder;
+
+    /**
+     * The latch of the current cycle.
+     */
+    private volatile CountDownLatch mLatch;
+
+    /**
+     * Constructor creates a latch named @a name that opens after @a
+     * count calls to countDown().
+     */
+    public InstrumentedCountDownLatch(String name,
+                                      int count) {
+        // The superclass's count is unused.
+        super(0);
+        mRecorder = new ArrivalRecorder(name);
+        mLatch = new CountDownLatch(count);
+    }
+
+    /**
+     * Close the latch again so it opens after @a count calls to
+     * countDown().  This must only be called between cycles, i.e., when
+     * no thread is waiting on the latch.
+     */
+    public void reset(int count) {
+        mLatch = new CountDownLatch(count);
+    }
+
+    @Override
+    public void await() throws InterruptedException {
+        mRecorder.arrive();
+        mLatch.await();
+    }
+
+    @Override
+    public boolean await(long timeout,
+                         TimeUnit unit) throws InterruptedException {
+        mRecorder.arrive();
+        return mLatch.await(timeout,
+                            unit);
+    }
+
+    @Override
+    public void countDown() {
+        mRecorder.arrive();
+        mLatch.countDown();
+    }
+
+    @Override
+    public long getCount() {
+        return mLatch.getCount();
+    }
+
+    @Override
+    public String toString() {
+        return mLatch.toString();
+    }
+
+    /**
+     * Returns a report of the arrivals since the last call, which
+     * should be made between cycles.
+     */
+    public ArrivalReport drainArrivals() {
+        return mRecorder.drain();
+    }
+}
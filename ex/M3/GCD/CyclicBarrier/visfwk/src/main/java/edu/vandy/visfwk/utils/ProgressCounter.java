@@ -0,0 +1,68 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the iterations a task has completed out of its total.  A
+ * worker (or each of the fork-join threads working on its chunks)
+ * just adds to the count, which is striped across cells so the
+ * threads don't contend, and a ProgressSampler converts the count to
+ * a percentage at a fixed rate, so reporting progress costs the hot
+ * loop neither a division nor an allocation.
+ */
+public class ProgressCounter {
+    /**
+     * Number of iterations completed so far.
+     */
+    private final LongAdder mCount = new LongAdder();
+
+    /**
+     * Total number of iterations of the current run, or 0 if no run
+     * has started.
+     */
+    private volatile long mTotal;
+
+    /**
+     * Start counting a new run of @a total iterations.  It must be
+     * called before the run's threads start adding to the count.
+     */
+    public void reset(long total) {
+        mCount.reset();
+        mTotal = total;
+    }
+
+    /**
+     * Record that @a count more iterations have completed.  It can be
+     * called from any thread.
+     */
+    public void add(long count) {
+        mCount.add(count);
+    }
+
+    /**
+     * Returns the number of iterations completed so far.
+     */
+    public long getCount() {
+        return mCount.sum();
+    }
+
+    /**
+     * Returns the total number of iterations of the current run.
+     */
+    public long getTotal() {
+        return mTotal;
+    }
+
+    /**
+     * Returns the percentage (0 to 100) of the current run that has
+     * completed, which is 0 if no run has started or the run has no
+     * iterations.
+     */
+    public int getPercent() {
+        long total = mTotal;
+        if (total <= 0)
+            return 0;
+        return (int) Math.min(100,
+                              mCount.sum() * 100 / total);
+    }
+}
@@ -0,0 +1,158 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts the ProgressCounters of a fixed number of tasks, indexed
+ * by the tasks' unique ids, into percentages at a fixed rate in a
+ * background thread, and reports each task whose percentage changed
+ * since the previous sample.  The workers only bump their counters,
+ * so the number of reports is bounded by the sampling rate rather
+ * than by the number of iterations.
+ */
+public class ProgressSampler {
+    /**
+     * Default time (in milliseconds) between two samples, which
+     * matches the frame time of the ProgressRefresher the percentages
+     * are usually reported to.
+     */
+    public static final long sDEFAULT_PERIOD_MILLIS =
+        ProgressRefresher.sDEFAULT_FRAME_MILLIS;
+
+    /**
+     * Receives the percentages that changed.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * The task with @a taskUniqueId is now @a percent complete.
+         * It's called in the sampler's thread.
+         */
+        void onProgress(int taskUniqueId,
+                        int percent);
+    }
+
+    /**
+     * The counters of the tasks.
+     */
+    private final ProgressCounter[] mCounters;
+
+    /**
+     * The percentage last reported for each task, which is only
+     * accessed by the thread taking the samples.
+     */
+    private final int[] mReported;
+
+    /**
+     * Time (in milliseconds) between two samples.
+     */
+    private final long mPeriodMillis;
+
+    /**
+     * Receives the percentages that changed.
+     */
+    private final Listener mListener;
+
+    /**
+     * The thread that takes the samples, or null if the sampler isn't
+     * running.
+     */
+    private ScheduledExecutorService mExecutor;
+
+    /**
+     * Number of samples taken.
+     */
+    private volatile long mSamples;
+
+    /**
+     * Constructor creates counters for @a size tasks, which are
+     * sampled every @a periodMillis once the sampler is started, and
+     * reports the percentages that changed to @a listener.
+     */
+    public ProgressSampler(int size,
+                           long periodMillis,
+                           Listener listener) {
+        mCounters = new ProgressCounter[size];
+        for (int i = 0; i < size; i++)
+            mCounters[i] = new ProgressCounter();
+        mReported = new int[size];
+        Arrays.fill(mReported, -1);
+        mPeriodMillis = periodMillis;
+        mListener = listener;
+    }
+
+    /**
+     * Returns the counter of the task with @a taskUniqueId, or null
+     * if the task was added after the sampler was created.
+     */
+    public ProgressCounter getCounter(int taskUniqueId) {
+        return taskUniqueId >= 0 && taskUniqueId < mCounters.length
+            ? mCounters[taskUniqueId]
+            : null;
+    }
+
+    /**
+     * Start sampling the counters in a background daemon thread.
+     */
+    public synchronized void start() {
+        if (mExecutor != null)
+            return;
+
+        mExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ProgressSampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        mExecutor.scheduleAtFixedRate(this::sample,
+                                      mPeriodMillis,
+                                      mPeriodMillis,
+                                      TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sampling and take a final sample, so the last percentages
+     * (e.g., 100) are reported even if they changed after the
+     * previous sample.
+     */
+    public synchronized void stop() {
+        if (mExecutor == null)
+            return;
+
+        mExecutor.shutdownNow();
+        try {
+            // Make sure a sample in progress has finished, so the
+            // final one doesn't run at the same time.
+            mExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mExecutor = null;
+        sample();
+    }
+
+    /**
+     * Convert each counter to a percentage and report the ones that
+     * changed.  It's called periodically by the sampler's thread, but
+     * can also be called directly while the sampler isn't running.
+     */
+    public void sample() {
+        for (int i = 0; i < mCounters.length; i++) {
+            int percent = mCounters[i].getPercent();
+            if (percent != mReported[i]) {
+                mReported[i] = percent;
+                mListener.onProgress(i, percent);
+            }
+        }
+        mSamples++;
+    }
+
+    /**
+     * Returns the number of samples taken.
+     */
+    public long getSampleCount() {
+        return mSamples;
+    }
+}
@@ -0,0 +1,325 @@
+package edu.vandy.visfwk.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import edu.vandy.visfwk.model.RunRecord;
+
+/**
+ * Compares the latest runs of each test against a rolling baseline of
+ * its earlier runs, e.g., those read from a ResultsHistory, and flags
+ * the tests that got significantly slower.  Runs are only compared
+ * with runs of the same test, mode, workload, and number of
+ * iterations, using their wall-clock time per iteration, since e.g.
+ * a test run alone is faster than the same test run alongside
+ * others.  A test is flagged if its latest mean is both a minimum
+ * fraction slower than the baseline mean and slower by more than a
+ * threshold of Welch's t statistic, so neither a tiny but consistent
+ * slowdown nor a large but noisy one is reported.
+ */
+public class RegressionDetector {
+    /**
+     * Default number of earlier runs in the rolling baseline.
+     */
+    public static final int sDEFAULT_BASELINE_RUNS = 20;
+
+    /**
+     * Default fraction by which the latest mean must exceed the
+     * baseline mean.
+     */
+    public static final double sDEFAULT_MIN_SLOWDOWN = 0.05;
+
+    /**
+     * Default threshold of the t statistic, which corresponds to a
+     * one-sided significance well below 1% for all but the smallest
+     * baselines.
+     */
+    public static final double sDEFAULT_T_THRESHOLD = 3.0;
+
+    /**
+     * Minimum number of earlier runs needed before a test is
+     * compared, since the spread of fewer can't be estimated.
+     */
+    public static final int sMIN_BASELINE_RUNS = 3;
+
+    /**
+     * A test whose latest runs are significantly slower than its
+     * baseline.
+     */
+    public static class Regression {
+        /**
+         * Name of the test.
+         */
+        private final String mTestName;
+
+        /**
+         * How the compared runs were run.
+         */
+        private final String mMode;
+
+        /**
+         * Description of the inputs of the compared runs.
+         */
+        private final String mWorkload;
+
+        /**
+         * Number of iterations of the compared runs.
+         */
+        private final long mIterations;
+
+        /**
+         * Mean time (in nanoseconds) per iteration of the baseline.
+         */
+        private final double mBaselineMean;
+
+        /**
+         * Mean time (in nanoseconds) per iteration of the latest runs.
+         */
+        private final double mLatestMean;
+
+        /**
+         * Welch's t statistic of the difference.
+         */
+        private final double mT;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        Regression(String testName,
+                   String mode,
+                   String workload,
+                   long iterations,
+                   double baselineMean,
+                   double latestMean,
+                   double t) {
+            mTestName = testName;
+            mMode = mode;
+            mWorkload = workload;
+            mIterations = iterations;
+            mBaselineMean = baselineMean;
+            mLatestMean = latestMean;
+            mT = t;
+        }
+
+        /**
+         * Returns the name of the test.
+         */
+        public String getTestName() {
+            return mTestName;
+        }
+
+        /**
+         * Returns how the compared runs were run.
+         */
+        public String getMode() {
+            return mMode;
+        }
+
+        /**
+         * Returns the description of the inputs of the compared runs.
+         */
+        public String getWorkload() {
+            return mWorkload;
+        }
+
+        /**
+         * Returns the number of iterations of the compared runs.
+         */
+        public long getIterations() {
+            return mIterations;
+        }
+
+        /**
+         * Returns the mean time (in nanoseconds) per iteration of the
+         * baseline.
+         */
+        public double getBaselineMean() {
+            return mBaselineMean;
+        }
+
+        /**
+         * Returns the mean time (in nanoseconds) per iteration of the
+         * latest runs.
+         */
+        public double getLatestMean() {
+            return mLatestMean;
+        }
+
+        /**
+         * Returns the fraction by which the latest runs are slower,
+         * e.g., 0.25 for 25% slower.
+         */
+        public double getSlowdown() {
+            return mLatestMean / mBaselineMean - 1;
+        }
+
+        /**
+         * Returns Welch's t statistic of the difference.
+         */
+        public double getT() {
+            return mT;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                                 "%s (%s, %s, %d iterations): %.2f ns/iteration vs. baseline %.2f (%+.1f%%, t = %.1f)",
+                                 mTestName,
+                                 mMode,
+                                 mWorkload,
+                                 mIterations,
+                                 mLatestMean,
+                                 mBaselineMean,
+                                 100 * getSlowdown(),
+                                 mT);
+        }
+    }
+
+    /**
+     * Number of earlier runs in the rolling baseline.
+     */
+    private final int mBaselineRuns;
+
+    /**
+     * Fraction by which the latest mean must exceed the baseline mean.
+     */
+    private final double mMinSlowdown;
+
+    /**
+     * Threshold of the t statistic.
+     */
+    private final double mTThreshold;
+
+    /**
+     * Constructor uses the default settings.
+     */
+    public RegressionDetector() {
+        this(sDEFAULT_BASELINE_RUNS,
+             sDEFAULT_MIN_SLOWDOWN,
+             sDEFAULT_T_THRESHOLD);
+    }
+
+    /**
+     * Constructor compares against the last @a baselineRuns earlier
+     * runs of each test and flags it if it's more than @a minSlowdown
+     * slower with a t statistic above @a tThreshold.
+     */
+    public RegressionDetector(int baselineRuns,
+                              double minSlowdown,
+                              double tThreshold) {
+        mBaselineRuns = Math.max(sMIN_BASELINE_RUNS, baselineRuns);
+        mMinSlowdown = minSlowdown;
+        mTThreshold = tThreshold;
+    }
+
+    /**
+     * Returns the tests among @a latest whose runs are significantly
+     * slower than their earlier runs in @a history, which is ordered
+     * from oldest to newest and mustn't include @a latest.
+     */
+    public List<Regression> detect(List<RunRecord> history,
+                                   List<RunRecord> latest) {
+        // Group the latest runs by test, mode, workload, and number
+        // of iterations.
+        Map<String, List<RunRecord>> latestByKey = groupByKey(latest);
+        Map<String, List<RunRecord>> historyByKey = groupByKey(history);
+
+        List<Regression> regressions = new ArrayList<>();
+        for (Map.Entry<String, List<RunRecord>> entry : latestByKey.entrySet()) {
+            List<RunRecord> earlier = historyByKey.get(entry.getKey());
+            if (earlier == null || earlier.size() < sMIN_BASELINE_RUNS)
+                continue;
+
+            // The baseline is the most recent earlier runs.
+            List<RunRecord> baseline =
+                earlier.subList(Math.max(0, earlier.size() - mBaselineRuns),
+                                earlier.size());
+
+            Regression regression = compare(baseline, entry.getValue());
+            if (regression != null)
+                regressions.add(regression);
+        }
+        return regressions;
+    }
+
+    /**
+     * Returns a Regression if the @a latest runs are significantly
+     * slower than the @a baseline runs, or null otherwise.
+     */
+    private Regression compare(List<RunRecord> baseline,
+                               List<RunRecord> latest) {
+        double[] baselineStats = meanAndVariance(baseline);
+        double[] latestStats = meanAndVariance(latest);
+        double baselineMean = baselineStats[0];
+        double latestMean = latestStats[0];
+
+        if (latestMean <= baselineMean * (1 + mMinSlowdown))
+            return null;
+
+        // A single latest run has no spread of its own, so assume it
+        // varies as much as the baseline does.
+        double latestVariance = latest.size() > 1
+            ? latestStats[1]
+            : baselineStats[1];
+        double standardError =
+            Math.sqrt(baselineStats[1] / baseline.size()
+                      + latestVariance / latest.size());
+
+        // Runs without any spread differ significantly by any amount.
+        double t = standardError > 0
+            ? (latestMean - baselineMean) / standardError
+            : Double.POSITIVE_INFINITY;
+        if (t <= mTThreshold)
+            return null;
+
+        RunRecord first = latest.get(0);
+        return new Regression(first.getTestName(),
+                              first.getMode(),
+                              first.getWorkload(),
+                              first.getIterations(),
+                              baselineMean,
+                              latestMean,
+                              t);
+    }
+
+    /**
+     * Returns the mean and sample variance of the time per iteration
+     * of @a records.
+     */
+    private static double[] meanAndVariance(List<RunRecord> records) {
+        double sum = 0;
+        for (RunRecord record : records)
+            sum += record.getNanosPerIteration();
+        double mean = sum / records.size();
+
+        double squares = 0;
+        for (RunRecord record : records) {
+            double delta = record.getNanosPerIteration() - mean;
+            squares += delta * delta;
+        }
+        double variance = records.size() > 1
+            ? squares / (records.size() - 1)
+            : 0;
+        return new double[] {mean, variance};
+    }
+
+    /**
+     * Returns @a records grouped by test name, mode, workload, and
+     * number of iterations, keeping their order within each group
+     * and the order in which the groups first appear.
+     */
+    private static Map<String, List<RunRecord>> groupByKey(List<RunRecord> records) {
+        Map<String, List<RunRecord>> groups = new LinkedHashMap<>();
+        for (RunRecord record : records)
+            groups.computeIfAbsent(record.getTestName()
+                                   + '\0' + record.getMode()
+                                   + '\0' + record.getWorkload()
+                                   + '\0' + record.getIterations(),
+                                   key -> new ArrayList<>())
+                .add(record);
+        return groups;
+    }
+}
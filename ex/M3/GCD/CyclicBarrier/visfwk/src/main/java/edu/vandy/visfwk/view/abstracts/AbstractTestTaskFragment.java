@@ -25,6 +25,7 @@ import java.util.List;
 
 import edu.vandy.visfwk.R;
 import edu.vandy.visfwk.model.Model;
+import edu.vandy.visfwk.model.ProgressTable;
 import edu.vandy.visfwk.model.TaskTuple;
 import edu.vandy.visfwk.model.abstracts.AbstractTestTask;
 import edu.vandy.visfwk.model.abstracts.AbstractTestTaskFactory;
@@ -32,6 +33,7 @@ import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
 import edu.vandy.visfwk.presenter.PresenterLogic;
 import edu.vandy.visfwk.presenter.interfaces.PresenterInterface;
 import edu.vandy.visfwk.utils.Chronometer;
+import edu.vandy.visfwk.utils.ProgressRefresher;
 import edu.vandy.visfwk.utils.UiUtils;
 import edu.vandy.visfwk.view.adapters.ListAdapter;
 import edu.vandy.visfwk.view.interfaces.ViewInterface;
@@ -68,6 +70,14 @@ public abstract class AbstractTestTaskFragment<TestFunc>
      */
     public ListAdapter<TestFunc> mListAdapter;
 
+    /**
+     * Displays the progress posted by the workers at most once per
+     * frame, rebinding only the rows that changed.  It's recreated
+     * along with the ListView and read by the workers' threads, so
+     * it's volatile.
+     */
+    protected volatile ProgressRefresher mProgressRefresher;
+
     /**
      * Stores the count entered by the user.
      */
@@ -175,6 +185,54 @@ public abstract class AbstractTestTaskFragment<TestFunc>
      */
     public void setProgress(int uniqueID,
                             int progress) {
+        storeProgress(uniqueID,
+                      progress);
+
+        // This update bypasses the refresher, so keep its table in
+        // sync and make its next refresh rebind every row rather
+        // than trust what it last displayed.
+        ProgressRefresher refresher = mProgressRefresher;
+        if (refresher != null
+            && uniqueID < refresher.getTable().size()) {
+            refresher.getTable().set(uniqueID,
+                                     progress);
+            refresher.invalidate();
+        }
+
+        mListAdapter.notifyDataSetChanged();
+    }
+
+    /**
+     * Record the progress of a Test Task from any thread.  The
+     * progress is written into a lock-free ProgressTable and the
+     * ProgressRefresher displays the rows that changed at most once
+     * per frame, rather than posting a message and redrawing the
+     * whole list for each report.
+     */
+    @Override
+    public void postProgress(int uniqueID,
+                             int progress) {
+        ProgressRefresher refresher = mProgressRefresher;
+        if (refresher != null
+            && uniqueID < refresher.getTable().size())
+            refresher.report(uniqueID,
+                             progress);
+        else {
+            // Tasks added after the table was created (or before the
+            // ListView exists) are displayed the old way.
+            FragmentActivity activity = getActivity();
+            if (activity != null)
+                activity.runOnUiThread(() -> setProgress(uniqueID,
+                                                         progress));
+        }
+    }
+
+    /**
+     * Store the progress of a Test Task along with the time of the
+     * update.  It must be called on the UI thread.
+     */
+    private void storeProgress(int uniqueID,
+                               int progress) {
         // Store Timestamp of most recent progress update.
         mRetainedState.mTasks.get(uniqueID)
                               .setTimeCompletedString(mChronometerRef.get(0)
@@ -184,8 +242,25 @@ public abstract class AbstractTestTaskFragment<TestFunc>
 
         mRetainedState.mTasks.get(uniqueID)
                              .setProgressStatus(progress);
+    }
 
-        mListAdapter.notifyDataSetChanged();
+    /**
+     * Display the progress of a Test Task that changed by rebinding
+     * only its row, if it's visible, rather than notifying the
+     * adapter that the whole data set changed.  It's called on the
+     * UI thread by the ProgressRefresher.
+     */
+    private void bindProgress(int uniqueID,
+                              int progress) {
+        storeProgress(uniqueID,
+                      progress);
+
+        // The position of each task is its unique id.
+        int child = uniqueID - mListView.getFirstVisiblePosition();
+        if (child >= 0 && child < mListView.getChildCount())
+            mListAdapter.getView(uniqueID,
+                                 mListView.getChildAt(child),
+                                 mListView);
     }
 
     /**
@@ -285,6 +360,15 @@ public abstract class AbstractTestTaskFragment<TestFunc>
         // Set ListView to use Adapter
         mListView.setAdapter(mListAdapter);
 
+        // Create the refresher that displays the progress posted by
+        // the workers, which posts its refreshes to the ListView so
+        // they run on the UI thread at most once per frame.
+        mProgressRefresher =
+            new ProgressRefresher(mRetainedState.mProgressTable,
+                                  mListView::postDelayed,
+                                  this::bindProgress,
+                                  ProgressRefresher.sDEFAULT_FRAME_MILLIS);
+
         return layout;
     }
 
@@ -300,6 +384,12 @@ public abstract class AbstractTestTaskFragment<TestFunc>
          */
         List<TaskTuple<TestFunc>> mTasks;
 
+        /**
+         * The progress posted by the workers for each task, which
+         * outlives the views that display it.
+         */
+        ProgressTable mProgressTable;
+
         /**
          * Access point to the state of the Model.
          */
@@ -408,6 +498,9 @@ public abstract class AbstractTestTaskFragment<TestFunc>
             // Assign these tasks to the Model layer.
             mModelStateInterface.setTaskTuples(mTasks);
 
+            // Create the table the workers post their progress into.
+            mProgressTable = new ProgressTable(mTasks.size());
+
             // Create the view state that's stored across runtime
             // configuration changes.
             mViews = new ViewState();
@@ -0,0 +1,389 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.model.RunRecord;
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.abstracts.AbstractTestTask;
+import edu.vandy.visfwk.model.abstracts.AbstractTestTaskFactory;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestInterface;
+import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
+import edu.vandy.visfwk.presenter.PresenterLogic;
+import edu.vandy.visfwk.utils.ContentionReport;
+import edu.vandy.visfwk.utils.HeadlessRunner;
+import edu.vandy.visfwk.utils.HeadlessRunner.Coordination;
+import edu.vandy.visfwk.view.interfaces.ViewInterface;
+
+/**
+ * This JUnit test checks that HeadlessRunner runs every TaskTuple of
+ * a factory once per cycle, with all of them running at the same time
+ * and each cycle prepared before its tests start, using both kinds of
+ * coordination.  It also checks that a limited concurrency runs the
+ * tests in groups, and that ContentionReport tells the bottlenecks
+ * apart.
+ */
+public class HeadlessRunnerTest {
+    /**
+     * Number of cycles to run.
+     */
+    private static final int sCYCLES = 3;
+
+    /**
+     * A factory of three tests that rendezvous on a CyclicBarrier,
+     * which only completes if they all run at the same time, and that
+     * check the cycle they run in was prepared.
+     */
+    private static class RendezvousFactory
+            extends AbstractTestTaskFactory<Runnable> {
+        /**
+         * The tests wait here for each other.
+         */
+        final CyclicBarrier mRendezvous = new CyclicBarrier(3);
+
+        /**
+         * The most recent cycle prepared by beforeCycle().
+         */
+        final AtomicInteger mPreparedCycle = new AtomicInteger();
+
+        /**
+         * The cycles seen by the tests.
+         */
+        final List<Integer> mSeenCycles = new ArrayList<>();
+
+        @Override
+        protected List<SimpleImmutableEntry<String, Runnable>> getFuncsAndNames() {
+            List<SimpleImmutableEntry<String, Runnable>> funcs = new ArrayList<>();
+            for (String name : new String[] {"a", "b", "c"})
+                funcs.add(new SimpleImmutableEntry<>(name, this::rendezvous));
+            return funcs;
+        }
+
+        /**
+         * Wait for the other tests and note the prepared cycle.
+         */
+        private void rendezvous() {
+            try {
+                mRendezvous.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            synchronized (mSeenCycles) {
+                mSeenCycles.add(mPreparedCycle.get());
+            }
+        }
+
+        @Override
+        public HeadlessTestInterface<Runnable> makeHeadlessTest(int iterations) {
+            return new HeadlessTestInterface<Runnable>() {
+                @Override
+                public void beforeCycle(int cycle,
+                                        int cycles) {
+                    mPreparedCycle.set(cycle);
+                }
+
+                @Override
+                public void runTest(TaskTuple<Runnable> taskTuple) {
+                    taskTuple.getTestFunc().run();
+                }
+            };
+        }
+
+        @Override
+        public AbstractTestTask<Runnable> makeTestTask(ViewInterface<Runnable> viewInterface,
+                                                       ModelStateInterface<Runnable> modelStateInterface,
+                                                       PresenterLogic<Runnable> presenterLogic,
+                                                       int numberOfTests) {
+            return null;
+        }
+
+        @Override
+        public long setDefaultRuns() {
+            return 1;
+        }
+    }
+
+    /**
+     * Make sure the tests run together once per cycle with both kinds
+     * of coordination.
+     */
+    @Test
+    public void testRunsEveryTupleEveryCycle() throws Exception {
+        for (Coordination coordination : Coordination.values()) {
+            RendezvousFactory factory = new RendezvousFactory();
+            List<HeadlessRunner.Result> results =
+                new HeadlessRunner<>(factory, 1, sCYCLES, coordination).run();
+
+            assertEquals(3 * sCYCLES, results.size());
+            for (int i = 0; i < results.size(); i++) {
+                HeadlessRunner.Result result = results.get(i);
+                assertEquals(i / 3 + 1, result.getCycle());
+                assertEquals(i % 3, result.getTaskUniqueId());
+                assertTrue(result.getProfile().getWallNanos() > 0);
+            }
+
+            // Each test ran in the cycle that was prepared for it.
+            List<Integer> expected = new ArrayList<>();
+            for (int cycle = 1; cycle <= sCYCLES; cycle++)
+                for (int i = 0; i < 3; i++)
+                    expected.add(cycle);
+            assertEquals(expected, factory.mSeenCycles);
+
+            // One header line plus a line per result.
+            String csv = HeadlessRunner.toCsv(results);
+            assertEquals(1 + results.size(), csv.split("\n").length);
+            assertTrue(csv.startsWith("cycle,name,wall_ns,"));
+            assertTrue(HeadlessRunner.toJson(results)
+                       .contains("{\"cycle\": 1, \"name\": \"a\", \"id\": 0,"));
+        }
+    }
+
+    /**
+     * Make sure a failing test ends the run with its exception rather
+     * than hanging the other tests.
+     */
+    @Test
+    public void testFailure() throws Exception {
+        IllegalStateException failure = new IllegalStateException("test failure");
+        for (Coordination coordination : Coordination.values()) {
+            AbstractTestTaskFactory<Runnable> factory = new RendezvousFactory() {
+                @Override
+                public HeadlessTestInterface<Runnable> makeHeadlessTest(int iterations) {
+                    return taskTuple -> {
+                        if (taskTuple.getTaskUniqueId() == 1)
+                            throw failure;
+                    };
+                }
+            };
+
+            try {
+                new HeadlessRunner<>(factory, 1, sCYCLES, coordination).run();
+                fail();
+            } catch (IllegalStateException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Make sure a failure to prepare a cycle ends the run with its
+     * exception, whichever way the cycles are coordinated.
+     */
+    @Test
+    public void testBeforeCycleFailure() throws Exception {
+        IllegalStateException failure = new IllegalStateException("setup failure");
+        for (Coordination coordination : Coordination.values()) {
+            AbstractTestTaskFactory<Runnable> factory = new RendezvousFactory() {
+                @Override
+                public HeadlessTestInterface<Runnable> makeHeadlessTest(int iterations) {
+                    return new HeadlessTestInterface<Runnable>() {
+                        @Override
+                        public void beforeCycle(int cycle,
+                                                int cycles) {
+                            if (cycle == 2)
+                                throw failure;
+                        }
+
+                        @Override
+                        public void runTest(TaskTuple<Runnable> taskTuple) {
+                        }
+                    };
+                }
+            };
+
+            try {
+                new HeadlessRunner<>(factory, 1, sCYCLES, coordination).run();
+                fail();
+            } catch (IllegalStateException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Make sure each result records how long its test waited for the
+     * others at the barriers, and that the slowest test is reported
+     * as the straggler, with both kinds of coordination.
+     */
+    @Test
+    public void testArrivals() throws Exception {
+        for (Coordination coordination : Coordination.values()) {
+            AbstractTestTaskFactory<Runnable> factory = new RendezvousFactory() {
+                @Override
+                public HeadlessTestInterface<Runnable> makeHeadlessTest(int iterations) {
+                    return taskTuple -> {
+                        if (taskTuple.getTaskUniqueId() == 2)
+                            Thread.sleep(100);
+                    };
+                }
+            };
+
+            List<HeadlessRunner.Result> results =
+                new HeadlessRunner<>(factory, 1, sCYCLES, coordination).run();
+
+            assertEquals(3 * sCYCLES, results.size());
+            for (HeadlessRunner.Result result : results) {
+                boolean slow = result.getTaskUniqueId() == 2;
+                assertEquals(slow, result.isStraggler());
+                assertTrue(result.getEntryWaitNanos() >= 0);
+                // The fast tests sat idle while the slow one ran.
+                if (slow)
+                    assertEquals(0, result.getExitWaitNanos());
+                else
+                    assertTrue(result.getExitWaitNanos()
+                               >= TimeUnit.MILLISECONDS.toNanos(50));
+            }
+
+            assertTrue(HeadlessRunner.toCsv(results)
+                       .startsWith("cycle,name,wall_ns,cpu_ns,user_ns,allocated_bytes,"
+                                   + "context_switches,entry_wait_ns,exit_wait_ns,straggler\n"));
+            assertTrue(HeadlessRunner.toJson(results)
+                       .contains("\"straggler\": true}"));
+        }
+    }
+
+    /**
+     * A factory of three tests that note the most tests running at
+     * the same time, sleeping long enough to overlap with the others
+     * that may run.
+     */
+    private static class OverlapFactory
+            extends RendezvousFactory {
+        /**
+         * Number of tests running now.
+         */
+        final AtomicInteger mRunning = new AtomicInteger();
+
+        /**
+         * Most tests that ran at the same time.
+         */
+        final AtomicInteger mMaxRunning = new AtomicInteger();
+
+        @Override
+        public HeadlessTestInterface<Runnable> makeHeadlessTest(int iterations) {
+            return taskTuple -> {
+                int running = mRunning.incrementAndGet();
+                mMaxRunning.accumulateAndGet(running, Math::max);
+                Thread.sleep(100);
+                mRunning.decrementAndGet();
+            };
+        }
+    }
+
+    /**
+     * Make sure a limited concurrency runs the tests in groups of at
+     * most that size, and that the thread factory is given the slot
+     * of each thread in its group.
+     */
+    @Test
+    public void testConcurrency() throws Exception {
+        for (Coordination coordination : Coordination.values())
+            for (int concurrency : new int[] {1, 2, HeadlessRunner.sALL_CONCURRENT}) {
+                OverlapFactory factory = new OverlapFactory();
+                List<String> threads = new CopyOnWriteArrayList<>();
+                HeadlessRunner<Runnable> runner =
+                    new HeadlessRunner<>(factory, 1, 2, coordination);
+                runner.setConcurrency(concurrency);
+                runner.setThreadFactory((runnable, name, slot) -> {
+                        threads.add(name + "@" + slot);
+                        return new Thread(runnable, name);
+                    });
+
+                List<HeadlessRunner.Result> results = runner.run();
+                assertEquals(6, results.size());
+                assertEquals(concurrency == HeadlessRunner.sALL_CONCURRENT
+                             ? 3
+                             : concurrency,
+                             factory.mMaxRunning.get());
+
+                // Latches need new threads on every cycle.
+                List<String> expected = new ArrayList<>();
+                List<String> slots = concurrency == 1
+                    ? Arrays.asList("a@0", "b@0", "c@0")
+                    : concurrency == 2
+                    ? Arrays.asList("a@0", "b@1", "c@0")
+                    : Arrays.asList("a@0", "b@1", "c@2");
+                for (int cycle = 0;
+                     cycle < (coordination == Coordination.LATCH ? 2 : 1);
+                     cycle++)
+                    for (String slot : slots)
+                        expected.add("Headless-" + slot);
+                assertEquals(expected, threads);
+
+                // The records say how the tests were run, so they're
+                // only compared with runs made the same way.
+                String mode = coordination.name().toLowerCase(Locale.US)
+                    + (concurrency == HeadlessRunner.sALL_CONCURRENT
+                       ? "/all"
+                       : "/" + concurrency);
+                for (RunRecord record : runner.toRunRecords(results))
+                    assertEquals(mode, record.getMode());
+            }
+    }
+
+    /**
+     * Returns a RunRecord of @a testName with the given times.
+     */
+    private static RunRecord record(String testName,
+                                    long wallNanos,
+                                    long cpuNanos) {
+        return new RunRecord(0,
+                             testName,
+                             "main",
+                             "barrier/all",
+                             "",
+                             1,
+                             1000,
+                             wallNanos,
+                             cpuNanos);
+    }
+
+    /**
+     * Make sure ContentionReport uses the median run and tells a test
+     * that needs more CPU time from one that only waits for a core.
+     */
+    @Test
+    public void testContentionReport() {
+        List<RunRecord> isolated = Arrays.asList(record("memory", 100, 100),
+                                                 record("cores", 100, 100),
+                                                 record("none", 100, 100),
+                                                 record("none", 500, 100),
+                                                 record("none", 100, 100));
+        List<RunRecord> contended = Arrays.asList(record("memory", 300, 280),
+                                                  record("cores", 200, 101),
+                                                  record("none", 900, 100),
+                                                  record("none", 104, 100),
+                                                  record("none", 102, 100),
+                                                  record("absent", 100, 100));
+
+        List<ContentionReport.Entry> entries =
+            new ContentionReport().compare(isolated, contended);
+        assertEquals(3, entries.size());
+        assertEquals("memory", entries.get(0).getTestName());
+        assertEquals(ContentionReport.Bottleneck.MEMORY,
+                     entries.get(0).getBottleneck());
+        assertEquals(3.0, entries.get(0).getWallSlowdown(), 1e-9);
+        assertEquals(ContentionReport.Bottleneck.CORES,
+                     entries.get(1).getBottleneck());
+        assertEquals(2.0, entries.get(1).getWallSlowdown(), 1e-9);
+        assertEquals(ContentionReport.Bottleneck.NONE,
+                     entries.get(2).getBottleneck());
+        assertEquals(1.04, entries.get(2).getWallSlowdown(), 1e-9);
+        assertTrue(ContentionReport.format(entries)
+                   .startsWith("memory: 3.00x wall"));
+    }
+}
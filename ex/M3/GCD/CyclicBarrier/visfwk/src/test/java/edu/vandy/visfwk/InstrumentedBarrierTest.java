@@ -0,0 +1,134 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.utils.ArrivalRecorder;
+import edu.vandy.visfwk.utils.ArrivalReport;
+import edu.vandy.visfwk.utils.InstrumentedCountDownLatch;
+import edu.vandy.visfwk.utils.InstrumentedCyclicBarrier;
+
+/**
+ * This JUnit test checks that InstrumentedCyclicBarrier and
+ * InstrumentedCountDownLatch record which party arrived when in each
+ * cycle, and that ArrivalReport identifies the straggler.
+ */
+public class InstrumentedBarrierTest {
+    /**
+     * How long (in milliseconds) the slow party takes.
+     */
+    private static final long sSLOW_MILLIS = 50;
+
+    /**
+     * Start a thread for the party named @a party that sleeps @a
+     * millis and then runs @a arrival.
+     */
+    private static Thread startParty(String party,
+                                     long millis,
+                                     ThrowingRunnable arrival) {
+        Thread thread = new Thread(() -> {
+                ArrivalRecorder.setParty(party);
+                try {
+                    Thread.sleep(millis);
+                    arrival.run();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    ArrivalRecorder.clearParty();
+                }
+            });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * A Runnable that may throw.
+     */
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    /**
+     * Make sure each cycle of the barrier gets its own report naming
+     * the slow party as the straggler and charging the others its
+     * delay.
+     */
+    @Test
+    public void testCyclicBarrier() throws Exception {
+        InstrumentedCyclicBarrier barrier =
+            new InstrumentedCyclicBarrier("exit", 3);
+
+        for (int cycle = 0; cycle < 2; cycle++) {
+            List<Thread> threads = new ArrayList<>();
+            threads.add(startParty("fast1", 0, barrier::await));
+            threads.add(startParty("fast2", 0, barrier::await));
+            threads.add(startParty("slow", sSLOW_MILLIS, barrier::await));
+            for (Thread thread : threads)
+                thread.join();
+
+            ArrivalReport report = barrier.drainArrivals();
+            assertEquals("exit", report.getName());
+            assertEquals(3, report.getArrivals().size());
+            assertEquals("slow", report.getStraggler());
+            assertEquals(0, report.getWaitNanos("slow"));
+            assertEquals(-1, report.getWaitNanos("missing"));
+            assertTrue(report.getWaitNanos("fast1")
+                       >= TimeUnit.MILLISECONDS.toNanos(sSLOW_MILLIS / 2));
+            assertEquals(report.getSpreadNanos(),
+                         report.getWaitPercentileNanos(1.0));
+            assertTrue(report.toString(),
+                       report.toString().startsWith("exit: 3 parties"));
+        }
+    }
+
+    /**
+     * Make sure the latch records both awaits and countdowns and can
+     * be reset for the next cycle.
+     */
+    @Test
+    public void testCountDownLatch() throws Exception {
+        InstrumentedCountDownLatch latch =
+            new InstrumentedCountDownLatch("exit", 2);
+
+        for (int cycle = 0; cycle < 2; cycle++) {
+            latch.reset(2);
+            assertEquals(2, latch.getCount());
+
+            Thread waiter = startParty("waiter", 0, latch::await);
+            Thread fast = startParty("fast", 0, latch::countDown);
+            Thread slow = startParty("slow", sSLOW_MILLIS, latch::countDown);
+            waiter.join();
+            fast.join();
+            slow.join();
+            assertEquals(0, latch.getCount());
+
+            ArrivalReport report = latch.drainArrivals();
+            assertEquals(3, report.getArrivals().size());
+            assertEquals("slow", report.getStraggler());
+            assertTrue(report.getWaitNanos("waiter")
+                       >= TimeUnit.MILLISECONDS.toNanos(sSLOW_MILLIS / 2));
+        }
+    }
+
+    /**
+     * Make sure an empty report and an unnamed party are handled.
+     */
+    @Test
+    public void testDefaults() {
+        ArrivalRecorder recorder = new ArrivalRecorder("entry");
+        ArrivalReport empty = recorder.drain();
+        assertEquals(null, empty.getStraggler());
+        assertEquals(0, empty.getSpreadNanos());
+        assertEquals(0, empty.getWaitPercentileNanos(0.5));
+
+        recorder.arrive();
+        assertEquals(Thread.currentThread().getName(),
+                     recorder.drain().getStraggler());
+    }
+}
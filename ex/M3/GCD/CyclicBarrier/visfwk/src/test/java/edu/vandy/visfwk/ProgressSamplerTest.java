@@ -0,0 +1,108 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.utils.ProgressCounter;
+import edu.vandy.visfwk.utils.ProgressReporter;
+import edu.vandy.visfwk.utils.ProgressSampler;
+
+/**
+ * This JUnit test checks that ProgressCounters sum the progress added
+ * by several threads and that a ProgressSampler only reports the
+ * percentages that changed, including the final ones when it stops.
+ */
+public class ProgressSamplerTest {
+    /**
+     * Make sure the percentage is computed from the count and that a
+     * counter without a run reports 0 rather than dividing by zero.
+     */
+    @Test
+    public void testCounter() {
+        ProgressCounter counter = new ProgressCounter();
+        assertEquals(0, counter.getPercent());
+
+        counter.reset(0);
+        assertEquals(0, counter.getPercent());
+
+        counter.reset(7);
+        counter.add(3);
+        assertEquals(42, counter.getPercent());
+        counter.add(4);
+        assertEquals(100, counter.getPercent());
+
+        counter.reset(7);
+        assertEquals(0, counter.getCount());
+    }
+
+    /**
+     * Make sure only changed percentages are reported.
+     */
+    @Test
+    public void testReportsChanges() {
+        List<String> reports = new ArrayList<>();
+        ProgressSampler sampler =
+            new ProgressSampler(2,
+                                ProgressSampler.sDEFAULT_PERIOD_MILLIS,
+                                (id, percent) -> reports.add(id + ":" + percent));
+        sampler.getCounter(0).reset(100);
+        sampler.getCounter(1).reset(100);
+
+        // The first sample reports every task.
+        sampler.sample();
+        assertEquals("[0:0, 1:0]", reports.toString());
+
+        sampler.getCounter(1).add(50);
+        sampler.sample();
+        sampler.sample();
+        assertEquals("[0:0, 1:0, 1:50]", reports.toString());
+
+        // Tasks added after the sampler was created aren't sampled.
+        assertNull(sampler.getCounter(2));
+        assertSame(sampler.getCounter(1),
+                   ProgressReporter.sampled(sampler).getProgressCounter(1));
+        assertNull(ProgressReporter.direct().getProgressCounter(1));
+    }
+
+    /**
+     * Make sure the counts of several threads are summed and the
+     * final percentages are reported when the sampler stops.
+     */
+    @Test
+    public void testConcurrentCountsAndStop() throws Exception {
+        Map<Integer, Integer> latest = new ConcurrentHashMap<>();
+        ProgressSampler sampler =
+            new ProgressSampler(1,
+                                1,
+                                latest::put);
+        ProgressCounter counter = sampler.getCounter(0);
+        int threads = 4;
+        int adds = 100000;
+        counter.reset((long) threads * adds);
+        sampler.start();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                    for (int j = 0; j < adds; j++)
+                        counter.add(1);
+                });
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers)
+            worker.join();
+
+        sampler.stop();
+        assertEquals((long) threads * adds, counter.getCount());
+        assertEquals(Integer.valueOf(100), latest.get(0));
+    }
+}
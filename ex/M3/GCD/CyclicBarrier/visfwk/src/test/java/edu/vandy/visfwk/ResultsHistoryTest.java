@@ -0,0 +1,183 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.model.RunRecord;
+import edu.vandy.visfwk.utils.RegressionDetector;
+import edu.vandy.visfwk.utils.ResultsHistory;
+
+/**
+ * This JUnit test checks that a ResultsHistory reads back what was
+ * appended to it, survives a partly written record, and that the
+ * RegressionDetector flags real slowdowns but not noise.
+ */
+public class ResultsHistoryTest {
+    /**
+     * Number of iterations of the records.
+     */
+    private static final long sITERATIONS = 1000;
+
+    /**
+     * Returns a record of @a testName taking @a nanosPerIteration
+     * with all the tests running at the same time on uniform inputs.
+     */
+    private static RunRecord makeRecord(String testName,
+                                        double nanosPerIteration) {
+        return makeRecord(testName,
+                          "barrier/all",
+                          "uniform",
+                          nanosPerIteration);
+    }
+
+    /**
+     * Returns a record of @a testName taking @a nanosPerIteration
+     * when run in @a mode on @a workload.
+     */
+    private static RunRecord makeRecord(String testName,
+                                        String mode,
+                                        String workload,
+                                        double nanosPerIteration) {
+        return new RunRecord(System.currentTimeMillis(),
+                             testName,
+                             "thread",
+                             mode,
+                             workload,
+                             1,
+                             sITERATIONS,
+                             (long) (nanosPerIteration * sITERATIONS),
+                             -1);
+    }
+
+    /**
+     * Returns @a count records of @a testName whose time per
+     * iteration is normally distributed around @a mean with a
+     * standard deviation of @a deviation.
+     */
+    private static List<RunRecord> makeRecords(String testName,
+                                               int count,
+                                               double mean,
+                                               double deviation,
+                                               Random random) {
+        List<RunRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            records.add(makeRecord(testName,
+                                   mean + deviation * random.nextGaussian()));
+        return records;
+    }
+
+    /**
+     * Make sure appended records are read back in order, even after
+     * a partly written record was cut off.
+     */
+    @Test
+    public void testAppendAndRead() throws Exception {
+        File file = File.createTempFile("history", ".bin");
+        try {
+            ResultsHistory history = new ResultsHistory(file);
+            assertEquals(Collections.emptyList(), history.readAll());
+
+            history.append(Arrays.asList(makeRecord("a", 1),
+                                         makeRecord("b", 2)));
+            history.append(Collections.singletonList(makeRecord("c",
+                                                                "latch/1",
+                                                                "zipf",
+                                                                3)));
+
+            List<RunRecord> records = history.readAll();
+            assertEquals(3, records.size());
+            assertEquals("a", records.get(0).getTestName());
+            assertEquals("c", records.get(2).getTestName());
+            assertEquals("barrier/all", records.get(0).getMode());
+            assertEquals("latch/1", records.get(2).getMode());
+            assertEquals("zipf", records.get(2).getWorkload());
+            assertEquals(3 * sITERATIONS, records.get(2).getWallNanos());
+            assertEquals(3.0, records.get(2).getNanosPerIteration(), 1e-9);
+
+            // Simulate a crash in the middle of writing a record.
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(raf.length() - 5);
+            }
+            assertEquals(2, history.readAll().size());
+
+            // The next append replaces the partial record.
+            history.append(Collections.singletonList(makeRecord("d", 4)));
+            records = history.readAll();
+            assertEquals(3, records.size());
+            assertEquals("d", records.get(2).getTestName());
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Make sure a real slowdown is flagged while noise, tiny
+     * slowdowns, tests without enough history, and runs in another
+     * mode or on other inputs than the history aren't.
+     */
+    @Test
+    public void testRegressionDetector() {
+        Random random = new Random(42);
+        List<RunRecord> history = new ArrayList<>();
+        history.addAll(makeRecords("steady", 20, 100, 1, random));
+        history.addAll(makeRecords("noisy", 20, 100, 30, random));
+        history.addAll(makeRecords("tiny", 20, 100, 0.1, random));
+        history.addAll(makeRecords("new", 2, 100, 1, random));
+
+        List<RunRecord> latest = new ArrayList<>();
+        latest.addAll(makeRecords("steady", 3, 120, 1, random));
+        latest.addAll(makeRecords("noisy", 3, 120, 30, random));
+        latest.addAll(makeRecords("tiny", 3, 102, 0.1, random));
+        latest.addAll(makeRecords("new", 3, 200, 1, random));
+
+        List<RegressionDetector.Regression> regressions =
+            new RegressionDetector().detect(history, latest);
+
+        assertEquals(1, regressions.size());
+        RegressionDetector.Regression regression = regressions.get(0);
+        assertEquals("steady", regression.getTestName());
+        assertEquals(0.2, regression.getSlowdown(), 0.05);
+        assertTrue(regression.getT() > RegressionDetector.sDEFAULT_T_THRESHOLD);
+
+        // A single latest run is compared using the baseline's spread.
+        assertEquals(1,
+                     new RegressionDetector()
+                     .detect(history,
+                             Collections.singletonList(makeRecord("steady", 120)))
+                     .size());
+        assertEquals(0,
+                     new RegressionDetector()
+                     .detect(history,
+                             Collections.singletonList(makeRecord("steady", 100.5)))
+                     .size());
+
+        // Running alone or on other inputs isn't compared with the
+        // runs made alongside the others on uniform inputs.
+        assertEquals(0,
+                     new RegressionDetector()
+                     .detect(history,
+                             Collections.singletonList(makeRecord("steady",
+                                                                  "barrier/1",
+                                                                  "uniform",
+                                                                  120)))
+                     .size());
+        assertEquals(0,
+                     new RegressionDetector()
+                     .detect(history,
+                             Collections.singletonList(makeRecord("steady",
+                                                                  "barrier/all",
+                                                                  "zipf",
+                                                                  120)))
+                     .size());
+    }
+}
@@ -0,0 +1,209 @@
+package edu.vandy.visfwk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.Test;
+
+import edu.vandy.visfwk.model.TaskTuple;
+import edu.vandy.visfwk.model.UniformDistribution;
+import edu.vandy.visfwk.model.WorkloadSpec;
+import edu.vandy.visfwk.model.ZipfDistribution;
+import edu.vandy.visfwk.model.abstracts.AbstractTestTask;
+import edu.vandy.visfwk.model.abstracts.AbstractTestTaskFactory;
+import edu.vandy.visfwk.model.interfaces.HeadlessTestInterface;
+import edu.vandy.visfwk.model.interfaces.ModelStateInterface;
+import edu.vandy.visfwk.presenter.PresenterLogic;
+import edu.vandy.visfwk.utils.HeadlessRunner;
+import edu.vandy.visfwk.utils.HeadlessRunner.Coordination;
+import edu.vandy.visfwk.utils.ResultChecksum;
+import edu.vandy.visfwk.view.interfaces.ViewInterface;
+
+/**
+ * This JUnit test checks that WorkloadSpec generates reproducible
+ * inputs in both layouts, into a given array if it fits, that
+ * ZipfDistribution only picks tuples from its pool, and that result
+ * checksums catch a test that computes different results than the
+ * others, including in HeadlessRunner.
+ */
+public class WorkloadSpecTest {
+    /**
+     * Number of tuples to generate, which spans several chunks.
+     */
+    private static final int sCOUNT = 200000;
+
+    /**
+     * Make sure a seeded spec generates the same tuples every time,
+     * laid out as requested, and an unseeded one doesn't.
+     */
+    @Test
+    public void testLayouts() {
+        UniformDistribution distribution = new UniformDistribution(3, 10, 20);
+        WorkloadSpec interleaved =
+            new WorkloadSpec(distribution, WorkloadSpec.Layout.INTERLEAVED, 42);
+        WorkloadSpec split =
+            new WorkloadSpec(distribution, WorkloadSpec.Layout.SPLIT, 42);
+
+        int[] a = interleaved.generate(sCOUNT);
+        int[] b = split.generate(sCOUNT);
+        assertEquals(3 * sCOUNT, a.length);
+        assertArrayEquals(a, interleaved.generate(sCOUNT));
+
+        // An array of the right size is refilled rather than
+        // replaced, and any other is ignored.
+        int[] reused = new int[3 * sCOUNT];
+        assertSame(reused, interleaved.generate(sCOUNT, reused));
+        assertArrayEquals(a, reused);
+        assertArrayEquals(a, interleaved.generate(sCOUNT, new int[3]));
+
+        // The same seed yields the same tuples in either layout.
+        for (int i = 0; i < sCOUNT; i++)
+            for (int j = 0; j < 3; j++) {
+                int value = a[interleaved.indexOf(i, j, sCOUNT)];
+                assertEquals(value, b[split.indexOf(i, j, sCOUNT)]);
+                assertTrue(value >= 10 && value < 20);
+            }
+
+        WorkloadSpec unseeded = new WorkloadSpec(new UniformDistribution(2));
+        assertFalse(Arrays.equals(unseeded.generate(sCOUNT),
+                                  unseeded.generate(sCOUNT)));
+    }
+
+    /**
+     * Make sure a ZipfDistribution only picks tuples from its pool
+     * and favors the low ranks.
+     */
+    @Test
+    public void testZipf() {
+        ZipfDistribution distribution = new ZipfDistribution(2, 100, 1.0, 7);
+        int[] pairs =
+            new WorkloadSpec(distribution, WorkloadSpec.Layout.INTERLEAVED, 1)
+            .generate(sCOUNT);
+
+        Set<Long> distinct = new HashSet<>();
+        for (int i = 0; i < sCOUNT; i++)
+            distinct.add(((long) pairs[2 * i] << 32) | (pairs[2 * i + 1] & 0xFFFFFFFFL));
+        assertTrue(distinct.size() <= 100);
+
+        // With an exponent of 1 the top rank is picked about 19% of
+        // the time out of 100 ranks, far more than the 1% a uniform
+        // pick would.
+        int[] counts = new int[100];
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < sCOUNT; i++)
+            counts[distribution.nextRank(random)]++;
+        assertTrue(counts[0] > sCOUNT / 10);
+        assertTrue(counts[0] > counts[99] * 10);
+    }
+
+    /**
+     * Make sure checksums don't depend on how the results are split
+     * into blocks but do depend on where each result is.
+     */
+    @Test
+    public void testChecksum() {
+        int[] results = new int[1000];
+        for (int i = 0; i < results.length; i++)
+            results[i] = i * 31;
+
+        long whole = ResultChecksum.of(results, 0, results.length);
+        long halves = ResultChecksum.of(results, 0, 500)
+            + ResultChecksum.of(Arrays.copyOfRange(results, 500, 1000), 500, 500);
+        assertEquals(whole, halves);
+
+        // Swapping two results changes the checksum.
+        int tmp = results[1];
+        results[1] = results[2];
+        results[2] = tmp;
+        assertTrue(whole != ResultChecksum.of(results, 0, results.length));
+    }
+
+    /**
+     * Make sure the tuple whose checksum differs from the majority is
+     * reported and tuples without a checksum are skipped.
+     */
+    @Test
+    public void testMismatches() {
+        List<TaskTuple<Object>> taskTuples = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            taskTuples.add(new TaskTuple<>(null, "t" + i, i));
+        taskTuples.get(0).setChecksum(5L);
+        taskTuples.get(1).setChecksum(5L);
+        taskTuples.get(2).setChecksum(6L);
+        assertEquals("checksum mismatch for t2",
+                     ResultChecksum.describeMismatches(taskTuples));
+
+        taskTuples.get(2).setChecksum(5L);
+        assertNull(ResultChecksum.describeMismatches(taskTuples));
+    }
+
+    /**
+     * A factory of tests that "compute" a function of each input and
+     * checksum the results, one of which is wrong.
+     */
+    private static class ChecksumFactory
+            extends AbstractTestTaskFactory<IntUnaryOperator> {
+        @Override
+        protected List<SimpleImmutableEntry<String, IntUnaryOperator>> getFuncsAndNames() {
+            List<SimpleImmutableEntry<String, IntUnaryOperator>> funcs = new ArrayList<>();
+            funcs.add(new SimpleImmutableEntry<>("double", x -> 2 * x));
+            funcs.add(new SimpleImmutableEntry<>("shift", x -> x << 1));
+            funcs.add(new SimpleImmutableEntry<>("wrong", x -> x == 7 ? 0 : 2 * x));
+            return funcs;
+        }
+
+        @Override
+        public HeadlessTestInterface<IntUnaryOperator> makeHeadlessTest(int iterations) {
+            return taskTuple -> {
+                int[] results = new int[iterations];
+                for (int i = 0; i < iterations; i++)
+                    results[i] = taskTuple.getTestFunc().applyAsInt(i);
+                taskTuple.setChecksum(ResultChecksum.of(results, 0, iterations));
+            };
+        }
+
+        @Override
+        public AbstractTestTask<IntUnaryOperator> makeTestTask(ViewInterface<IntUnaryOperator> viewInterface,
+                                                               ModelStateInterface<IntUnaryOperator> modelStateInterface,
+                                                               PresenterLogic<IntUnaryOperator> presenterLogic,
+                                                               int numberOfTests) {
+            return null;
+        }
+
+        @Override
+        public long setDefaultRuns() {
+            return 1;
+        }
+    }
+
+    /**
+     * Make sure HeadlessRunner fails a run whose tests disagree, with
+     * both kinds of coordination.
+     */
+    @Test
+    public void testRunnerValidatesChecksums() throws Exception {
+        for (Coordination coordination : Coordination.values()) {
+            try {
+                new HeadlessRunner<>(new ChecksumFactory(), 100, 2, coordination).run();
+                fail();
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(),
+                           String.valueOf(e.getCause()).contains("checksum mismatch for wrong"));
+            }
+        }
+    }
+}